@@ -0,0 +1,683 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import nz.co.gregs.dbvolution.datatypes.DBDate;
+import nz.co.gregs.dbvolution.datatypes.DBInteger;
+import nz.co.gregs.dbvolution.datatypes.DBIntegerEnum;
+import nz.co.gregs.dbvolution.datatypes.DBNumber;
+import nz.co.gregs.dbvolution.datatypes.DBString;
+import nz.co.gregs.dbvolution.datatypes.InternalQueryableDatatypeProxy;
+import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+
+/**
+ * The results of a query stored as one array of values per column.
+ *
+ * <p>
+ * Intended for analytics and other processing of large numbers of values,
+ * DBColumnarResults reads the values directly into arrays without creating a
+ * DBRow or DBQueryRow for each row of the results:
+ * <ul>
+ * <li>DBInteger columns are stored as a long[],</li>
+ * <li>DBNumber columns are stored as a double[],</li>
+ * <li>DBDate columns are stored as a long[] of milliseconds since the
+ * epoch,</li>
+ * <li>DBString columns are stored as a dictionary of the distinct strings and
+ * an int[] of the position of each value in the dictionary, and</li>
+ * <li>all other columns are stored as an Object[].</li>
+ * </ul>
+ *
+ * <p>
+ * Database NULLs are recorded separately from the values so that the arrays
+ * can be used directly.
+ *
+ * <p>
+ * The columns are retrieved using the fields of the DBRows added to the query,
+ * or the keys of the expression columns. Only selected fields and expression
+ * columns are retrieved.
+ *
+ * <p>
+ * Created by {@link DBQuery#getColumnarResults() } and
+ * {@link DBReport#getColumnarResults(nz.co.gregs.dbvolution.databases.DBDatabase, nz.co.gregs.dbvolution.DBReport, nz.co.gregs.dbvolution.DBRow...) }.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class DBColumnarResults {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final Map<QueryableDatatype<?>, Values> fieldColumns = new IdentityHashMap<>();
+	private final Map<Object, Values> expressionColumns = new LinkedHashMap<>();
+	private int size = 0;
+	private int capacity = INITIAL_CAPACITY;
+
+	/**
+	 * Creates an empty set of columns.
+	 *
+	 * <p>
+	 * Used internally, see {@link DBQuery#getColumnarResults() }.
+	 */
+	public DBColumnarResults() {
+	}
+
+	/**
+	 * Adds a column for the field of a DBRow used in the query.
+	 *
+	 * <p>
+	 * Used internally.
+	 *
+	 * @param field the field of the DBRow used in the query
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the new column
+	 */
+	public Values addFieldColumn(QueryableDatatype<?> field) {
+		final Values column = createValuesFor(field);
+		fieldColumns.put(field, column);
+		return column;
+	}
+
+	/**
+	 * Adds a column for the expression column of the query.
+	 *
+	 * <p>
+	 * Used internally.
+	 *
+	 * @param key the key of the expression column
+	 * @param expression the expression column
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the new column
+	 */
+	public Values addExpressionColumn(Object key, QueryableDatatype<?> expression) {
+		final Values column = createValuesFor(expression);
+		expressionColumns.put(key, column);
+		return column;
+	}
+
+	private Values createValuesFor(QueryableDatatype<?> qdt) {
+		final Values column;
+		if (qdt instanceof DBInteger || qdt instanceof DBIntegerEnum) {
+			column = new LongValues(capacity);
+		} else if (qdt instanceof DBNumber) {
+			column = new DoubleValues(capacity);
+		} else if (qdt instanceof DBDate) {
+			column = new DateValues(capacity);
+		} else if (qdt instanceof DBString) {
+			column = new StringValues(capacity);
+		} else {
+			column = new ObjectValues(capacity);
+		}
+		column.size = size;
+		return column;
+	}
+
+	/**
+	 * Adds a new row to all the columns and returns the index of the new row.
+	 *
+	 * <p>
+	 * Used internally, each column must then be filled using
+	 * {@link Values#set(int, nz.co.gregs.dbvolution.datatypes.QueryableDatatype) }.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the index of the new row
+	 */
+	public int addRow() {
+		if (size == capacity) {
+			capacity = Math.max(INITIAL_CAPACITY, capacity * 2);
+			for (Values column : getAllColumns()) {
+				column.resize(capacity);
+			}
+		}
+		for (Values column : getAllColumns()) {
+			column.size = size + 1;
+		}
+		return size++;
+	}
+
+	/**
+	 * Reduces the memory used by the columns to the minimum required for the
+	 * current rows.
+	 */
+	public void trimToSize() {
+		if (capacity > size) {
+			capacity = size;
+			for (Values column : getAllColumns()) {
+				column.resize(capacity);
+			}
+		}
+	}
+
+	private Iterable<Values> getAllColumns() {
+		final List<Values> all = new ArrayList<>(fieldColumns.values());
+		all.addAll(expressionColumns.values());
+		return all;
+	}
+
+	/**
+	 * The number of rows in the results.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the number of rows
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the column for the field or expression column.
+	 *
+	 * @param fieldOrKey a field of a DBRow used in the query, or the key of an
+	 * expression column, or a field of the DBReport
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the values of the column
+	 */
+	public Values getValues(Object fieldOrKey) {
+		Values column = fieldColumns.get(fieldOrKey);
+		if (column == null) {
+			column = expressionColumns.get(fieldOrKey);
+		}
+		if (column == null) {
+			throw new IllegalArgumentException("Unknown Column: " + fieldOrKey + " is not a selected field or expression column of the query.");
+		}
+		return column;
+	}
+
+	/**
+	 * Returns the column for the DBInteger field or expression column.
+	 *
+	 * @param fieldOrKey a field of a DBRow used in the query, or the key of an
+	 * expression column, or a field of the DBReport
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the values of the column
+	 */
+	public LongValues getLongValues(Object fieldOrKey) {
+		return getValues(fieldOrKey, LongValues.class);
+	}
+
+	/**
+	 * Returns the column for the DBNumber field or expression column.
+	 *
+	 * @param fieldOrKey a field of a DBRow used in the query, or the key of an
+	 * expression column, or a field of the DBReport
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the values of the column
+	 */
+	public DoubleValues getDoubleValues(Object fieldOrKey) {
+		return getValues(fieldOrKey, DoubleValues.class);
+	}
+
+	/**
+	 * Returns the column for the DBDate field or expression column.
+	 *
+	 * @param fieldOrKey a field of a DBRow used in the query, or the key of an
+	 * expression column, or a field of the DBReport
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the values of the column
+	 */
+	public DateValues getDateValues(Object fieldOrKey) {
+		return getValues(fieldOrKey, DateValues.class);
+	}
+
+	/**
+	 * Returns the column for the DBString field or expression column.
+	 *
+	 * @param fieldOrKey a field of a DBRow used in the query, or the key of an
+	 * expression column, or a field of the DBReport
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the values of the column
+	 */
+	public StringValues getStringValues(Object fieldOrKey) {
+		return getValues(fieldOrKey, StringValues.class);
+	}
+
+	/**
+	 * Returns the column for a field or expression column that is not stored as
+	 * a primitive or string column.
+	 *
+	 * @param fieldOrKey a field of a DBRow used in the query, or the key of an
+	 * expression column, or a field of the DBReport
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the values of the column
+	 */
+	public ObjectValues getObjectValues(Object fieldOrKey) {
+		return getValues(fieldOrKey, ObjectValues.class);
+	}
+
+	private <V extends Values> V getValues(Object fieldOrKey, Class<V> requiredClass) {
+		final Values column = getValues(fieldOrKey);
+		if (!requiredClass.isInstance(column)) {
+			throw new IllegalArgumentException("Incorrect Column Type: " + fieldOrKey + " is stored as " + column.getClass().getSimpleName() + " not " + requiredClass.getSimpleName() + ".");
+		}
+		return requiredClass.cast(column);
+	}
+
+	/**
+	 * The values of a single column.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 */
+	public static abstract class Values {
+
+		private int size = 0;
+
+		Values() {
+		}
+
+		/**
+		 * Sets the value of the row to the value of the QDT.
+		 *
+		 * <p>
+		 * Used internally, the QDT is not retained and may be reused.
+		 *
+		 * @param index the index of the row
+		 * @param qdt a QDT set from the database
+		 */
+		public void set(int index, QueryableDatatype<?> qdt) {
+			if (qdt.isNull()) {
+				setNull(index);
+			} else {
+				final Object value = new InternalQueryableDatatypeProxy(qdt).getLiteralValue();
+				if (value == null) {
+					setNull(index);
+				} else {
+					setValue(index, value);
+				}
+			}
+		}
+
+		abstract void setNull(int index);
+
+		abstract void setValue(int index, Object value);
+
+		abstract void resize(int capacity);
+
+		/**
+		 * The number of values in the column.
+		 *
+		 * @return the number of rows in the results
+		 */
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * Indicates whether the value of the row is a database NULL.
+		 *
+		 * @param index the index of the row
+		 * @return TRUE if the value is NULL, otherwise FALSE
+		 */
+		public abstract boolean isNull(int index);
+
+		/**
+		 * Returns the value of the row as an object.
+		 *
+		 * @param index the index of the row
+		 * @return the value, or NULL if the value is a database NULL
+		 */
+		public abstract Object getValue(int index);
+
+		void checkIndex(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+			}
+		}
+	}
+
+	/**
+	 * Values stored as primitive longs with a separate record of the NULLs.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 */
+	public static class LongValues extends Values {
+
+		long[] values;
+		final BitSet nulls = new BitSet();
+
+		LongValues(int capacity) {
+			values = new long[capacity];
+		}
+
+		@Override
+		void setNull(int index) {
+			nulls.set(index);
+		}
+
+		@Override
+		void setValue(int index, Object value) {
+			values[index] = ((Number) value).longValue();
+		}
+
+		@Override
+		void resize(int capacity) {
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		/**
+		 * Returns the values of the column.
+		 *
+		 * <p>
+		 * The array is shared with this object and NULL values are stored as 0,
+		 * use {@link #getNulls() } to find them.
+		 *
+		 * @return the values of the column
+		 */
+		public long[] getValues() {
+			if (values.length != size()) {
+				values = Arrays.copyOf(values, size());
+			}
+			return values;
+		}
+
+		/**
+		 * Returns the NULLs of the column, the bit for each NULL value is set.
+		 *
+		 * @return a copy of the NULLs
+		 */
+		public BitSet getNulls() {
+			return (BitSet) nulls.clone();
+		}
+
+		@Override
+		public boolean isNull(int index) {
+			checkIndex(index);
+			return nulls.get(index);
+		}
+
+		/**
+		 * Returns the value of the row.
+		 *
+		 * @param index the index of the row
+		 * @return the value, or 0 if the value is NULL
+		 */
+		public long get(int index) {
+			checkIndex(index);
+			return values[index];
+		}
+
+		@Override
+		public Object getValue(int index) {
+			return isNull(index) ? null : values[index];
+		}
+	}
+
+	/**
+	 * Date values stored as primitive longs of the milliseconds since the epoch
+	 * with a separate record of the NULLs.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 */
+	public static class DateValues extends LongValues {
+
+		DateValues(int capacity) {
+			super(capacity);
+		}
+
+		@Override
+		void setValue(int index, Object value) {
+			values[index] = ((Date) value).getTime();
+		}
+
+		@Override
+		public Object getValue(int index) {
+			return isNull(index) ? null : new Date(values[index]);
+		}
+	}
+
+	/**
+	 * Values stored as primitive doubles with a separate record of the NULLs.
+	 *
+	 * <p>
+	 * Very large or very precise numbers may be rounded.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 */
+	public static class DoubleValues extends Values {
+
+		private double[] values;
+		private final BitSet nulls = new BitSet();
+
+		DoubleValues(int capacity) {
+			values = new double[capacity];
+		}
+
+		@Override
+		void setNull(int index) {
+			nulls.set(index);
+		}
+
+		@Override
+		void setValue(int index, Object value) {
+			values[index] = ((Number) value).doubleValue();
+		}
+
+		@Override
+		void resize(int capacity) {
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		/**
+		 * Returns the values of the column.
+		 *
+		 * <p>
+		 * The array is shared with this object and NULL values are stored as 0,
+		 * use {@link #getNulls() } to find them.
+		 *
+		 * @return the values of the column
+		 */
+		public double[] getValues() {
+			if (values.length != size()) {
+				values = Arrays.copyOf(values, size());
+			}
+			return values;
+		}
+
+		/**
+		 * Returns the NULLs of the column, the bit for each NULL value is set.
+		 *
+		 * @return a copy of the NULLs
+		 */
+		public BitSet getNulls() {
+			return (BitSet) nulls.clone();
+		}
+
+		@Override
+		public boolean isNull(int index) {
+			checkIndex(index);
+			return nulls.get(index);
+		}
+
+		/**
+		 * Returns the value of the row.
+		 *
+		 * @param index the index of the row
+		 * @return the value, or 0 if the value is NULL
+		 */
+		public double get(int index) {
+			checkIndex(index);
+			return values[index];
+		}
+
+		@Override
+		public Object getValue(int index) {
+			return isNull(index) ? null : values[index];
+		}
+	}
+
+	/**
+	 * String values stored as a dictionary of the distinct values and the
+	 * position of each value in the dictionary.
+	 *
+	 * <p>
+	 * NULL values are stored as -1.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 */
+	public static class StringValues extends Values {
+
+		private static final int NULL_CODE = -1;
+
+		private int[] codes;
+		private String[] dictionary = new String[16];
+		private final Map<String, Integer> dictionaryCodes = new HashMap<>();
+
+		StringValues(int capacity) {
+			codes = new int[capacity];
+		}
+
+		@Override
+		void resize(int capacity) {
+			codes = Arrays.copyOf(codes, capacity);
+		}
+
+		@Override
+		void setNull(int index) {
+			codes[index] = NULL_CODE;
+		}
+
+		@Override
+		void setValue(int index, Object value) {
+			final String str = value.toString();
+			Integer code = dictionaryCodes.get(str);
+			if (code == null) {
+				code = dictionaryCodes.size();
+				if (code == dictionary.length) {
+					dictionary = Arrays.copyOf(dictionary, code * 2);
+				}
+				dictionary[code] = str;
+				dictionaryCodes.put(str, code);
+			}
+			codes[index] = code;
+		}
+
+		/**
+		 * Returns the position in the dictionary of the value of each row.
+		 *
+		 * <p>
+		 * The array is shared with this object and NULL values are stored as -1.
+		 *
+		 * @return the dictionary position of each value
+		 */
+		public int[] getCodes() {
+			if (codes.length != size()) {
+				codes = Arrays.copyOf(codes, size());
+			}
+			return codes;
+		}
+
+		/**
+		 * Returns the distinct values of the column.
+		 *
+		 * @return a copy of the dictionary of the column
+		 */
+		public String[] getDictionary() {
+			return Arrays.copyOf(dictionary, dictionaryCodes.size());
+		}
+
+		@Override
+		public boolean isNull(int index) {
+			checkIndex(index);
+			return codes[index] == NULL_CODE;
+		}
+
+		/**
+		 * Returns the value of the row.
+		 *
+		 * @param index the index of the row
+		 * @return the value, or NULL if the value is a database NULL
+		 */
+		public String get(int index) {
+			return isNull(index) ? null : dictionary[codes[index]];
+		}
+
+		@Override
+		public Object getValue(int index) {
+			return get(index);
+		}
+	}
+
+	/**
+	 * The values of a column that is not stored as primitives or strings.
+	 *
+	 * <p>
+	 * The values are the literal values retrieved from the database, so a DBEnum
+	 * column will contain the database values rather than the enum values.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 */
+	public static class ObjectValues extends Values {
+
+		private Object[] values;
+
+		ObjectValues(int capacity) {
+			values = new Object[capacity];
+		}
+
+		@Override
+		void setNull(int index) {
+			values[index] = null;
+		}
+
+		@Override
+		void setValue(int index, Object value) {
+			values[index] = value;
+		}
+
+		@Override
+		void resize(int capacity) {
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		@Override
+		public boolean isNull(int index) {
+			return getValue(index) == null;
+		}
+
+		@Override
+		public Object getValue(int index) {
+			checkIndex(index);
+			return values[index];
+		}
+	}
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import nz.co.gregs.dbvolution.datatypes.DBInteger;
+import nz.co.gregs.dbvolution.datatypes.DBNumber;
+import nz.co.gregs.dbvolution.datatypes.InternalQueryableDatatypeProxy;
+import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+import nz.co.gregs.dbvolution.internal.properties.PropertyWrapper;
+import nz.co.gregs.dbvolution.internal.properties.PropertyWrapperDefinition;
+
+/**
+ * A list of DBRows that stores the values of the rows rather than the rows
+ * themselves.
+ *
+ * <p>
+ * Each column is stored as an array of values: DBInteger columns as a
+ * long[], DBNumber columns as a double[], and all other columns as an
+ * Object[] of the values retrieved from the database. This uses a fraction of
+ * the memory required by the equivalent DBRows and their QueryableDatatypes,
+ * so far more rows can be kept in caches.
+ *
+ * <p>
+ * The DBRow is only created when it is requested with {@link #get(int) }, and
+ * a new instance is created every time. Use
+ * {@link #getValue(int, nz.co.gregs.dbvolution.datatypes.QueryableDatatype) },
+ * {@link #getLong(int, nz.co.gregs.dbvolution.datatypes.DBInteger) }, and
+ * {@link #getDouble(int, nz.co.gregs.dbvolution.datatypes.DBNumber) } to read
+ * individual values without creating the rows.
+ *
+ * <p>
+ * DBNumber values are stored as doubles, so very large or very precise
+ * numbers may be rounded.
+ *
+ * <p>
+ * Created by {@link DBQuery#getCompactInstancesOf(nz.co.gregs.dbvolution.DBRow)
+ * }.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ * @param <E> the DBRow class stored in the list
+ */
+public class DBCompactRowList<E extends DBRow> extends AbstractList<E> {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final E exemplar;
+	private final DBRow queryTable;
+	private final PropertyWrapperDefinition[] properties;
+	private final Column[] columns;
+	private int size = 0;
+	private int capacity = INITIAL_CAPACITY;
+
+	/**
+	 * Creates an empty list for rows like the exemplar.
+	 *
+	 * <p>
+	 * Only the fields selected by the query table will be stored.
+	 *
+	 * @param exemplar an example of the rows to be stored, the fields of the
+	 * exemplar identify the columns of the list
+	 * @param queryTable the instance of the exemplar's class used in the query
+	 */
+	public DBCompactRowList(E exemplar, DBRow queryTable) {
+		this.exemplar = exemplar;
+		this.queryTable = queryTable;
+		Set<PropertyWrapperDefinition> selectedProperties = new HashSet<>();
+		for (PropertyWrapper selected : queryTable.getSelectedProperties()) {
+			selectedProperties.add(selected.getPropertyWrapperDefinition());
+		}
+		final List<PropertyWrapper> props = exemplar.getColumnPropertyWrappers();
+		properties = new PropertyWrapperDefinition[props.size()];
+		columns = new Column[props.size()];
+		for (int i = 0; i < props.size(); i++) {
+			final PropertyWrapper prop = props.get(i);
+			properties[i] = prop.getPropertyWrapperDefinition();
+			if (selectedProperties.contains(properties[i])) {
+				final Class<?> qdtClass = prop.getQueryableDatatype().getClass();
+				if (qdtClass.equals(DBInteger.class)) {
+					columns[i] = new LongColumn(capacity);
+				} else if (qdtClass.equals(DBNumber.class)) {
+					columns[i] = new DoubleColumn(capacity);
+				} else {
+					columns[i] = new ObjectColumn(capacity);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the values of the row to the end of the list.
+	 *
+	 * <p>
+	 * Used internally, the row itself is not retained and may be reused.
+	 *
+	 * @param row a row of the same class as the exemplar
+	 */
+	public void addValuesOf(DBRow row) {
+		if (size == capacity) {
+			capacity = Math.max(INITIAL_CAPACITY, capacity * 2);
+			for (Column column : columns) {
+				if (column != null) {
+					column.resize(capacity);
+				}
+			}
+		}
+		final List<PropertyWrapper> props = row.getColumnPropertyWrappers();
+		for (int i = 0; i < columns.length; i++) {
+			if (columns[i] != null) {
+				columns[i].set(size, props.get(i).getQueryableDatatype());
+			}
+		}
+		size++;
+		modCount++;
+	}
+
+	/**
+	 * Reduces the memory used by the list to the minimum required for the
+	 * current rows.
+	 */
+	public void trimToSize() {
+		if (capacity > size) {
+			capacity = size;
+			for (Column column : columns) {
+				if (column != null) {
+					column.resize(capacity);
+				}
+			}
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Creates a new DBRow with the values of the row at the index.
+	 *
+	 * <p>
+	 * The row is a defined row, as though it had been retrieved directly from
+	 * the database, and a new instance is created every time this method is
+	 * called.
+	 *
+	 * @param index the index of the row
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return a new DBRow with the values of the row at the index
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		checkIndex(index);
+		E row = (E) DBRow.getDBRow(exemplar.getClass());
+		final List<PropertyWrapper> props = row.getColumnPropertyWrappers();
+		for (int i = 0; i < columns.length; i++) {
+			if (columns[i] != null) {
+				final PropertyWrapper prop = props.get(i);
+				final QueryableDatatype<?> qdt = prop.getQueryableDatatype();
+				new InternalQueryableDatatypeProxy(qdt).setLiteralValueFromDatabase(columns[i].get(index));
+				if (!qdt.isNull()) {
+					row.setEmptyRow(false);
+				}
+				// ensure field set when using type adaptors
+				prop.setQueryableDatatype(qdt);
+			}
+		}
+		row.setReturnFieldsBasedOn(queryTable);
+		row.setDefined();
+		return row;
+	}
+
+	/**
+	 * Returns the value of the field in the row at the index without creating
+	 * the DBRow.
+	 *
+	 * <p>
+	 * The value is the literal value retrieved from the database, so a DBEnum
+	 * field will return the database value rather than the enum.
+	 *
+	 * @param index the index of the row
+	 * @param field a field of the exemplar used to create this list
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the value of the field, or NULL if the value is a database NULL
+	 */
+	public Object getValue(int index, QueryableDatatype<?> field) {
+		checkIndex(index);
+		return getColumn(field).get(index);
+	}
+
+	/**
+	 * Returns the value of the DBInteger field in the row at the index without
+	 * creating the DBRow.
+	 *
+	 * @param index the index of the row
+	 * @param field a field of the exemplar used to create this list
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the value of the field, or NULL if the value is a database NULL
+	 */
+	public Long getLong(int index, DBInteger field) {
+		checkIndex(index);
+		final Column column = getColumn(field);
+		if (column instanceof LongColumn) {
+			final LongColumn longs = (LongColumn) column;
+			return longs.nulls.get(index) ? null : longs.values[index];
+		}
+		final Object value = column.get(index);
+		return value == null ? null : ((Number) value).longValue();
+	}
+
+	/**
+	 * Returns the value of the DBNumber field in the row at the index without
+	 * creating the DBRow.
+	 *
+	 * @param index the index of the row
+	 * @param field a field of the exemplar used to create this list
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the value of the field, or NULL if the value is a database NULL
+	 */
+	public Double getDouble(int index, DBNumber field) {
+		checkIndex(index);
+		final Column column = getColumn(field);
+		if (column instanceof DoubleColumn) {
+			final DoubleColumn doubles = (DoubleColumn) column;
+			return doubles.nulls.get(index) ? null : doubles.values[index];
+		}
+		final Object value = column.get(index);
+		return value == null ? null : ((Number) value).doubleValue();
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	private Column getColumn(QueryableDatatype<?> field) {
+		final PropertyWrapper prop = exemplar.getPropertyWrapperOf(field);
+		if (prop != null) {
+			final PropertyWrapperDefinition definition = prop.getPropertyWrapperDefinition();
+			for (int i = 0; i < properties.length; i++) {
+				if (properties[i].equals(definition)) {
+					if (columns[i] == null) {
+						throw new IllegalArgumentException("Field Not Selected: " + prop.javaName() + " was not selected by the query.");
+					}
+					return columns[i];
+				}
+			}
+		}
+		throw new IllegalArgumentException("Unknown Field: the field must be a field of the exemplar used to create this list.");
+	}
+
+	private static abstract class Column {
+
+		abstract void set(int index, QueryableDatatype<?> qdt);
+
+		abstract Object get(int index);
+
+		abstract void resize(int capacity);
+	}
+
+	private static class LongColumn extends Column {
+
+		private long[] values;
+		private final BitSet nulls = new BitSet();
+
+		LongColumn(int capacity) {
+			values = new long[capacity];
+		}
+
+		@Override
+		void set(int index, QueryableDatatype<?> qdt) {
+			final Long value = ((DBInteger) qdt).getValue();
+			if (qdt.isNull() || value == null) {
+				nulls.set(index);
+			} else {
+				values[index] = value;
+			}
+		}
+
+		@Override
+		Object get(int index) {
+			return nulls.get(index) ? null : values[index];
+		}
+
+		@Override
+		void resize(int capacity) {
+			values = Arrays.copyOf(values, capacity);
+		}
+	}
+
+	private static class DoubleColumn extends Column {
+
+		private double[] values;
+		private final BitSet nulls = new BitSet();
+
+		DoubleColumn(int capacity) {
+			values = new double[capacity];
+		}
+
+		@Override
+		void set(int index, QueryableDatatype<?> qdt) {
+			final Number value = ((DBNumber) qdt).getValue();
+			if (qdt.isNull() || value == null) {
+				nulls.set(index);
+			} else {
+				values[index] = value.doubleValue();
+			}
+		}
+
+		@Override
+		Object get(int index) {
+			return nulls.get(index) ? null : values[index];
+		}
+
+		@Override
+		void resize(int capacity) {
+			values = Arrays.copyOf(values, capacity);
+		}
+	}
+
+	private static class ObjectColumn extends Column {
+
+		private Object[] values;
+
+		ObjectColumn(int capacity) {
+			values = new Object[capacity];
+		}
+
+		@Override
+		void set(int index, QueryableDatatype<?> qdt) {
+			values[index] = qdt.isNull() ? null : new InternalQueryableDatatypeProxy(qdt).getLiteralValue();
+		}
+
+		@Override
+		Object get(int index) {
+			return values[index];
+		}
+
+		@Override
+		void resize(int capacity) {
+			values = Arrays.copyOf(values, capacity);
+		}
+	}
+}
@@ -17,6 +17,7 @@ package nz.co.gregs.dbvolution;
 
 import nz.co.gregs.dbvolution.columns.QueryColumn;
 import nz.co.gregs.dbvolution.internal.query.*;
+import nz.co.gregs.dbvolution.internal.database.ClusterMemberLease;
 import nz.co.gregs.dbvolution.databases.DBDatabase;
 import edu.uci.ics.jung.algorithms.layout.*;
 import edu.uci.ics.jung.graph.Graph;
@@ -102,16 +103,20 @@ public class DBQuery implements Serializable {
 	}
 
 	/**
-	 * Use of this method is not recommended as it subverts database clustering.
+	 * Chooses the database to query directly.
 	 *
-	 * @return a ready database from the cluster, or this DBQuery's database if
-	 * not using a cluster.
+	 * <p>
+	 * Clusters lease one of their ready databases so that the query is included
+	 * in the load of the database used. Always close the lease.
+	 *
+	 * @return the lease of a ready database from the cluster, or NULL if not
+	 * using a cluster.
 	 */
-	private DBDatabase getReadyDatabase() {
+	private ClusterMemberLease leaseReadyDatabase() {
 		if (database instanceof DBDatabaseCluster) {
-			return ((DBDatabaseCluster) database).getReadyDatabase();
+			return ((DBDatabaseCluster) database).leaseReadyDatabase();
 		} else {
-			return database;
+			return null;
 		}
 	}
 
@@ -397,6 +402,124 @@ public class DBQuery implements Serializable {
 		}
 	}
 
+	/**
+	 * Executes the query and returns an iterator that reads the results from the
+	 * database one row at a time.
+	 *
+	 * <p>
+	 * Unlike {@link #getAllRows() } the results are not stored, so very large
+	 * results can be processed using a constant amount of memory. Autofilled
+	 * fields are not set and rows with the same primary key are returned as
+	 * separate instances.
+	 *
+	 * <p>
+	 * The iterator holds a database connection until it is exhausted or closed,
+	 * so use it with try-with-resources.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return an iterator over the DBQueryRows of this query
+	 * @throws SQLException database exceptions
+	 * @throws AccidentalCartesianJoinException the query would create a
+	 * cartesian join and they are not allowed
+	 * @throws AccidentalBlankQueryException the query would return the whole
+	 * table and blank queries are not allowed
+	 */
+	public DBQueryRowIterator getRowIterator() throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		return getRowIterator(DBQueryRowIterator.DEFAULT_FETCH_SIZE);
+	}
+
+	/**
+	 * Executes the query and returns an iterator that reads the results from the
+	 * database {@code fetchSize} rows at a time.
+	 *
+	 * <p>
+	 * See {@link #getRowIterator() }.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param fetchSize the number of rows the JDBC driver should retrieve at a
+	 * time
+	 * @return an iterator over the DBQueryRows of this query
+	 * @throws SQLException database exceptions
+	 * @throws AccidentalCartesianJoinException the query would create a
+	 * cartesian join and they are not allowed
+	 * @throws AccidentalBlankQueryException the query would return the whole
+	 * table and blank queries are not allowed
+	 */
+	public DBQueryRowIterator getRowIterator(int fetchSize) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		final ClusterMemberLease lease = leaseReadyDatabase();
+		if (lease == null) {
+			return details.getRowIterator(database, fetchSize);
+		}
+		try {
+			final DBQueryRowIterator iterator = details.getRowIterator(lease.getDatabase(), fetchSize);
+			iterator.releaseOnClose(lease);
+			return iterator;
+		} catch (SQLException | RuntimeException ex) {
+			lease.close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Executes the query and returns the instances of the exemplar in a compact
+	 * list that stores only their values.
+	 *
+	 * <p>
+	 * Equivalent to {@link #getAllInstancesOf(nz.co.gregs.dbvolution.DBRow) }
+	 * but the rows are not created until they are requested from the list, so
+	 * large results can be held in far less memory. The results are not stored
+	 * in this DBQuery and empty rows created by outer joins are not included.
+	 *
+	 * <p>
+	 * See {@link DBCompactRowList}.
+	 *
+	 * @param <R> the DBRow class required
+	 * @param exemplar an instance of the required DBRow class, its fields
+	 * identify the columns of the list
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the values of all the instances of the exemplar found by the query
+	 * @throws SQLException database exceptions
+	 * @throws AccidentalCartesianJoinException the query would create a
+	 * cartesian join and they are not allowed
+	 * @throws AccidentalBlankQueryException the query would return the whole
+	 * table and blank queries are not allowed
+	 */
+	public <R extends DBRow> DBCompactRowList<R> getCompactInstancesOf(R exemplar) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		return details.getCompactInstancesOf(database, exemplar);
+	}
+
+	/**
+	 * Executes the query and returns the values of the selected fields and
+	 * expression columns as arrays.
+	 *
+	 * <p>
+	 * Intended for analytics and other processing of large results, no DBRows
+	 * or DBQueryRows are created and the results are not stored in this
+	 * DBQuery. Retrieve each column using the field of a DBRow added to this
+	 * query, or the key of an expression column.
+	 *
+	 * <p>
+	 * See {@link DBColumnarResults}.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the values of the query as columns
+	 * @throws SQLException database exceptions
+	 * @throws AccidentalCartesianJoinException the query would create a
+	 * cartesian join and they are not allowed
+	 * @throws AccidentalBlankQueryException the query would return the whole
+	 * table and blank queries are not allowed
+	 */
+	public DBColumnarResults getColumnarResults() throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		return details.getColumnarResults(database);
+	}
+
 	/**
 	 * Sets all the expression columns using data from the current ResultSet row.
 	 *
@@ -665,7 +788,7 @@ public class DBQuery implements Serializable {
 					final List<QueryableDatatype<?>> primaryKeys = rowPart.getPrimaryKeys();
 					for (QueryableDatatype<?> primaryKey : primaryKeys) {
 						if (primaryKey != null) {
-							String rowPartStr = primaryKey.toSQLString(getReadyDatabase().getDefinition());
+							String rowPartStr = primaryKey.toSQLString(database.getDefinition());
 							ps.print(" " + rowPart.getPrimaryKeyColumnNames() + ": " + rowPartStr);
 						}
 					}
@@ -1083,6 +1206,72 @@ public class DBQuery implements Serializable {
 		return this;
 	}
 
+	/**
+	 * Sets whether this DBQuery will send the values of its conditions as
+	 * PreparedStatement parameters.
+	 *
+	 * <p>
+	 * The default is to include the values as literals in the SQL.
+	 *
+	 * <p>
+	 * Parameterised queries allow the database to reuse the query plan when the
+	 * same query is run repeatedly with different values, and avoid quoting the
+	 * values within the SQL.
+	 *
+	 * <p>
+	 * Only the conditions are parameterised. The SQL returned by
+	 * {@link #getSQLForQuery() } always contains the literal values.
+	 *
+	 * @param useParameterisedQuery TRUE to use PreparedStatement parameters
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return this DBQuery instance
+	 */
+	public DBQuery setUseParameterisedQuery(boolean useParameterisedQuery) {
+		this.details.getOptions().setUseParameterisedQuery(useParameterisedQuery);
+		blankResults();
+		return this;
+	}
+
+	/**
+	 * Sets whether this DBQuery will return read-only rows.
+	 *
+	 * <p>
+	 * Read-only rows are created without the previous values, operators, and
+	 * change tracking that are only needed to update the rows later. This
+	 * reduces the work done for every value retrieved and is ideal for reports
+	 * and displays that never write back to the database.
+	 *
+	 * <p>
+	 * Attempting to update or save a read-only row will throw an
+	 * {@link AccidentalUpdateOfReadOnlyRowException}. The values of a read-only
+	 * row are not used as conditions so the row should not be used as an
+	 * example for another query.
+	 *
+	 * @param readOnly TRUE to return read-only rows, FALSE to return the default
+	 * updatable rows.
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return this DBQuery instance
+	 */
+	public DBQuery setReadOnly(boolean readOnly) {
+		this.details.getOptions().setReadOnly(readOnly);
+		blankResults();
+		return this;
+	}
+
+	/**
+	 * Indicates whether this DBQuery will return read-only rows.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if the rows returned will be read-only, otherwise FALSE.
+	 */
+	public boolean isReadOnly() {
+		return this.details.getOptions().isReadOnly();
+	}
+
 	/**
 	 * Creates a list of all DBRow subclasses that reference the DBRows within
 	 * this query with foreign keys.
@@ -1533,6 +1722,162 @@ public class DBQuery implements Serializable {
 		return details.getCurrentPage();
 	}
 
+	/**
+	 * Retrieves the page of DBQueryRows that follows the page identified by the
+	 * token, using keyset paging.
+	 *
+	 * <p>
+	 * Use {@link #setRowLimit(int) } to set the page size, then call this method
+	 * with NULL to get the first page, and with the
+	 * {@link DBQueryPage#getNextPageToken() next page token} of each page to get
+	 * the page after it.
+	 *
+	 * <p>
+	 * Rather than skipping the rows of all the earlier pages, keyset paging adds
+	 * a condition that only allows rows that sort after the last row of the
+	 * previous page. Retrieving a late page is as fast as retrieving the first
+	 * page and rows inserted or deleted on earlier pages do not cause rows to be
+	 * skipped or repeated.
+	 *
+	 * <p>
+	 * The pages are sorted by the query's sort order followed by the primary
+	 * keys of the query's tables. The sort order must only use the integer,
+	 * number, string, and date columns of the query's tables. NULLs are sorted
+	 * after all other values.
+	 *
+	 * @param previousPage the token of the previous page, or NULL for the first
+	 * page
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the DBQueryRows of the page and the token for the next page
+	 * @throws java.sql.SQLException java.sql.SQLException
+	 * @throws nz.co.gregs.dbvolution.exceptions.AccidentalBlankQueryException
+	 * @throws UnsupportedOperationException the query has no row limit or can
+	 * not be paged using keys
+	 * @throws IllegalArgumentException the token was created for a query with a
+	 * different sort order
+	 */
+	public synchronized DBQueryPage<DBQueryRow> getPageAfter(DBQueryPageToken previousPage) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		final QueryOptions options = details.getOptions();
+		final int rowLimit = options.getRowLimit();
+		if (rowLimit < 1) {
+			throw new UnsupportedOperationException("Keyset Paging Not Supported: use setRowLimit(int) to set the size of the page.");
+		}
+		final SortProvider[] originalSortOrder = details.getSortOrder();
+		final int originalPageIndex = options.getPageIndex();
+		final KeysetPagination keyset = new KeysetPagination(details.getAllQueryTables(), details.getOptionalQueryTables(), originalSortOrder);
+		final BooleanExpression afterPreviousPage = previousPage == null ? null : keyset.getConditionForRowsAfter(previousPage);
+		final List<DBQueryRow> rows;
+		try {
+			details.setSortOrder(keyset.getSortOrder());
+			if (afterPreviousPage != null) {
+				details.getConditions().add(afterPreviousPage);
+			}
+			options.setPageIndex(0);
+			blankResults();
+			rows = new ArrayList<>(getAllRows());
+		} finally {
+			if (afterPreviousPage != null) {
+				details.getConditions().remove(afterPreviousPage);
+			}
+			if (originalSortOrder == null) {
+				details.clearSortOrder();
+			} else {
+				details.setSortOrder(originalSortOrder);
+			}
+			options.setPageIndex(originalPageIndex);
+			blankResults();
+		}
+		final DBQueryPageToken nextPage = rows.size() < rowLimit ? null : keyset.getTokenForRow(rows.get(rows.size() - 1));
+		return new DBQueryPage<>(rows, nextPage);
+	}
+
+	/**
+	 * Retrieves the DBQueryRows for the page supplied and the total number of
+	 * rows in all the pages.
+	 *
+	 * <p>
+	 * Paged screens usually need both the page and the total number of rows,
+	 * which normally requires calling {@link #count() } and
+	 * {@link #getPage(java.lang.Integer) } separately. This method retrieves
+	 * both with a single query by adding COUNT(*) OVER () to the selected
+	 * columns.
+	 *
+	 * <p>
+	 * Databases that do not
+	 * {@link DBDefinition#supportsWindowingFunctionsInTheSelectClause() support window functions},
+	 * full outer joins that are emulated, and pages after the last row fall back
+	 * to a separate count query.
+	 *
+	 * <p>
+	 * Use {@link #setRowLimit(int) } to set the page size. This method is
+	 * zero-based so the first page is getPageWithTotalCount(0).
+	 *
+	 * @param pageNumber pageNumber
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the DBQueryRows of the page and the total number of rows
+	 * @throws java.sql.SQLException java.sql.SQLException
+	 * @throws nz.co.gregs.dbvolution.exceptions.AccidentalBlankQueryException
+	 */
+	public synchronized DBQueryPage<DBQueryRow> getPageWithTotalCount(Integer pageNumber) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		final ClusterMemberLease lease = leaseReadyDatabase();
+		if (lease == null) {
+			return getPageWithTotalCount(database, pageNumber);
+		}
+		try {
+			// the rows and the count must come from the same database
+			final DBQueryPage<DBQueryRow> page = getPageWithTotalCount(lease.getDatabase(), pageNumber);
+			lease.succeeded();
+			return page;
+		} finally {
+			lease.close();
+		}
+	}
+
+	private DBQueryPage<DBQueryRow> getPageWithTotalCount(DBDatabase db, Integer pageNumber) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		final DBDefinition defn = db.getDefinition();
+		final boolean countWithRows = defn.supportsWindowingFunctionsInTheSelectClause()
+				&& (defn.supportsFullOuterJoinNatively() || !details.getRequiredQueryTables().isEmpty());
+		final String countKey = TotalRowCountExpression.EXPRESSION_COLUMN_KEY;
+		final String originalSelectClause = details.getSelectSQLClause();
+		final List<DBQueryRow> rows;
+		Long totalCount = null;
+		try {
+			if (countWithRows) {
+				details.getExpressionColumns().put(countKey, new TotalRowCountExpression().asExpressionColumn());
+			}
+			blankResults();
+			details.setQueryType(QueryType.ROWSFORPAGE);
+			details.setResultsPageIndex(pageNumber);
+			db.executeDBQuery(details);
+			rows = new ArrayList<>(details.getCurrentPage());
+			if (countWithRows) {
+				for (DBQueryRow row : rows) {
+					final QueryableDatatype<?> count = row.getExpressionColumns().remove(countKey);
+					if (totalCount == null && count instanceof DBInteger) {
+						totalCount = ((DBInteger) count).getValue();
+					}
+				}
+			}
+			if (totalCount == null) {
+				blankResults();
+				details.setQueryType(QueryType.COUNT);
+				db.executeDBQuery(details);
+				totalCount = details.getCount();
+			}
+		} finally {
+			if (countWithRows) {
+				details.getExpressionColumns().remove(countKey);
+				details.setSelectSQLClause(originalSelectClause);
+			}
+			blankResults();
+		}
+		final int rowLimit = details.getOptions().getRowLimit();
+		final boolean hasNextPage = rowLimit > 0 && ((long) pageNumber + 1) * rowLimit < totalCount;
+		return new DBQueryPage<>(rows, hasNextPage, totalCount);
+	}
+
 	/**
 	 * Use this method to add complex conditions to the DBQuery.
 	 *
@@ -1805,7 +2150,7 @@ public class DBQuery implements Serializable {
 	 * @return this DBQuery instance
 	 */
 	public DBQuery addOptionalIfNonspecific(DBRow exampleWithOrWithoutCriteria) {
-		if (exampleWithOrWithoutCriteria.willCreateBlankQuery(getReadyDatabase().getDefinition())) {
+		if (exampleWithOrWithoutCriteria.willCreateBlankQuery(database.getDefinition())) {
 			addOptional(exampleWithOrWithoutCriteria);
 		} else {
 			add(exampleWithOrWithoutCriteria);
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of results and the information required to retrieve the next page.
+ *
+ * <p>
+ * Returned by
+ * {@link DBQuery#getPageAfter(nz.co.gregs.dbvolution.DBQueryPageToken) },
+ * {@link DBTable#getPageAfter(nz.co.gregs.dbvolution.DBQueryPageToken) },
+ * {@link DBQuery#getPageWithTotalCount(java.lang.Integer) }, and
+ * {@link DBTable#getPageWithTotalCount(java.lang.Integer) }.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ * @param <R> the type of the rows in the page
+ */
+public class DBQueryPage<R> {
+
+	private final List<R> rows;
+	private final DBQueryPageToken nextPageToken;
+	private final boolean hasNextPage;
+	private final Long totalCount;
+
+	/**
+	 * Creates a page containing the rows.
+	 *
+	 * @param rows the rows of the page
+	 * @param nextPageToken the token for the next page, or NULL if this is the
+	 * last page
+	 */
+	public DBQueryPage(List<R> rows, DBQueryPageToken nextPageToken) {
+		this(rows, nextPageToken, nextPageToken != null, null);
+	}
+
+	/**
+	 * Creates a numbered page containing the rows and the total number of rows
+	 * the query would return without paging.
+	 *
+	 * @param rows the rows of the page
+	 * @param hasNextPage TRUE if there are rows after this page
+	 * @param totalCount the number of rows in all the pages
+	 */
+	public DBQueryPage(List<R> rows, boolean hasNextPage, long totalCount) {
+		this(rows, null, hasNextPage, totalCount);
+	}
+
+	private DBQueryPage(List<R> rows, DBQueryPageToken nextPageToken, boolean hasNextPage, Long totalCount) {
+		this.rows = Collections.unmodifiableList(new ArrayList<>(rows));
+		this.nextPageToken = nextPageToken;
+		this.hasNextPage = hasNextPage;
+		this.totalCount = totalCount;
+	}
+
+	/**
+	 * The rows of the page in the order returned by the query.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the rows of the page
+	 */
+	public List<R> getRows() {
+		return rows;
+	}
+
+	/**
+	 * Indicates whether there may be more rows after this page.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if there are rows after this page, otherwise FALSE
+	 */
+	public boolean hasNextPage() {
+		return hasNextPage;
+	}
+
+	/**
+	 * The token used to retrieve the next page.
+	 *
+	 * <p>
+	 * The token is NULL when the page was not filled, as there are no more rows
+	 * to retrieve, and for numbered pages.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the token for the next page, or NULL
+	 */
+	public DBQueryPageToken getNextPageToken() {
+		return nextPageToken;
+	}
+
+	/**
+	 * Indicates whether the total number of rows was retrieved with this page.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if {@link #getTotalCount() } is available, otherwise FALSE
+	 */
+	public boolean hasTotalCount() {
+		return totalCount != null;
+	}
+
+	/**
+	 * The number of rows the query would return without paging.
+	 *
+	 * <p>
+	 * Only available for pages retrieved with
+	 * {@link DBQuery#getPageWithTotalCount(java.lang.Integer) } and
+	 * {@link DBTable#getPageWithTotalCount(java.lang.Integer) }.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the total number of rows, or NULL if the count was not retrieved
+	 */
+	public Long getTotalCount() {
+		return totalCount;
+	}
+}
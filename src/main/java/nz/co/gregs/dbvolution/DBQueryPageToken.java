@@ -0,0 +1,285 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+import org.apache.commons.codec.binary.Base64;
+
+/**
+ * Identifies the position reached by keyset paging so that the next page can
+ * be retrieved.
+ *
+ * <p>
+ * The token records the sort order values of the last row of a page. The next
+ * page is retrieved by asking for the rows that sort after those values, so
+ * the database does not need to read and skip all the earlier pages.
+ *
+ * <p>
+ * Tokens can be converted to and from an opaque string with
+ * {@link #toString() } and {@link #fromString(java.lang.String) } for use in
+ * URLs and web forms. The string only contains the sort values, no Java
+ * objects are deserialized when reading a token.
+ *
+ * <p>
+ * See {@link DBQuery#getPageAfter(nz.co.gregs.dbvolution.DBQueryPageToken) }.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class DBQueryPageToken implements Serializable {
+
+	private static final long serialVersionUID = 1l;
+
+	private static final int VERSION = 2;
+	private static final byte LONG = 'L';
+	private static final byte INTEGER = 'I';
+	private static final byte DOUBLE = 'D';
+	private static final byte DECIMAL = 'M';
+	private static final byte BIG_INTEGER = 'G';
+	private static final byte STRING = 'S';
+	private static final byte DATE = 'T';
+	private static final byte BOOLEAN = 'B';
+	private static final byte NULL = 'N';
+
+	private final String[] keys;
+	private final Object[] values;
+
+	/**
+	 * Creates a token for the sort values supplied.
+	 *
+	 * <p>
+	 * Used internally, see
+	 * {@link DBQuery#getPageAfter(nz.co.gregs.dbvolution.DBQueryPageToken) }.
+	 *
+	 * @param keys the names of the sort columns
+	 * @param values the values of the sort columns of the last row of the page,
+	 * NULL values are permitted
+	 */
+	public DBQueryPageToken(String[] keys, Object[] values) {
+		if (keys.length != values.length) {
+			throw new IllegalArgumentException("Incorrect Page Token: there must be a value for every key.");
+		}
+		for (int i = 0; i < values.length; i++) {
+			if (!isSupportedValue(values[i])) {
+				throw new UnsupportedOperationException("Keyset Paging Not Supported: " + keys[i] + " has a value of " + values[i].getClass().getSimpleName() + " which can not be used in a page token.");
+			}
+		}
+		this.keys = Arrays.copyOf(keys, keys.length);
+		this.values = Arrays.copyOf(values, values.length);
+	}
+
+	/**
+	 * The names of the sort columns used to create this token.
+	 *
+	 * @return the names of the sort columns
+	 */
+	public String[] getKeys() {
+		return Arrays.copyOf(keys, keys.length);
+	}
+
+	/**
+	 * The values of the sort columns of the last row of the page.
+	 *
+	 * @return the values of the sort columns
+	 */
+	public Object[] getValues() {
+		return Arrays.copyOf(values, values.length);
+	}
+
+	/**
+	 * Recreates the token from the string produced by {@link #toString() }.
+	 *
+	 * @param token a string produced by {@link #toString() }
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the token
+	 * @throws IllegalArgumentException the string is not a valid token
+	 */
+	public static DBQueryPageToken fromString(String token) {
+		if (token == null || token.isEmpty()) {
+			throw new IllegalArgumentException("Incorrect Page Token: the token is empty.");
+		}
+		try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(Base64.decodeBase64(token)))) {
+			if (input.readInt() != VERSION) {
+				throw new IllegalArgumentException("Incorrect Page Token: the token was created by a different version of DBvolution.");
+			}
+			final int count = input.readInt();
+			if (count < 0 || count > 1024) {
+				throw new IllegalArgumentException("Incorrect Page Token: the token is not valid.");
+			}
+			String[] keys = new String[count];
+			Object[] values = new Object[count];
+			for (int i = 0; i < count; i++) {
+				keys[i] = input.readUTF();
+				values[i] = readValue(input);
+			}
+			return new DBQueryPageToken(keys, values);
+		} catch (IOException ex) {
+			throw new IllegalArgumentException("Incorrect Page Token: the token is not valid.", ex);
+		}
+	}
+
+	private static Object readValue(DataInputStream input) throws IOException {
+		final byte type = input.readByte();
+		switch (type) {
+			case LONG:
+				return input.readLong();
+			case INTEGER:
+				return input.readInt();
+			case DOUBLE:
+				return input.readDouble();
+			case DECIMAL:
+				return new BigDecimal(input.readUTF());
+			case BIG_INTEGER:
+				return new BigInteger(input.readUTF());
+			case STRING:
+				return readString(input);
+			case DATE:
+				final long time = input.readLong();
+				final int nanos = input.readInt();
+				if (nanos < 0) {
+					return new Date(time);
+				} else if (nanos > 999999999) {
+					throw new IllegalArgumentException("Incorrect Page Token: the token is not valid.");
+				}
+				final Timestamp timestamp = new Timestamp(time);
+				timestamp.setNanos(nanos);
+				return timestamp;
+			case BOOLEAN:
+				return input.readBoolean();
+			case NULL:
+				return null;
+			default:
+				throw new IllegalArgumentException("Incorrect Page Token: the token is not valid.");
+		}
+	}
+
+	private static String readString(DataInputStream input) throws IOException {
+		final int length = input.readInt();
+		if (length < 0 || length > input.available()) {
+			throw new IllegalArgumentException("Incorrect Page Token: the token is not valid.");
+		}
+		byte[] bytes = new byte[length];
+		input.readFully(bytes);
+		return new String(bytes, "UTF-8");
+	}
+
+	/**
+	 * Returns the token as an opaque string.
+	 *
+	 * <p>
+	 * Use {@link #fromString(java.lang.String) } to recreate the token.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return a URL safe string representing the token
+	 */
+	@Override
+	public String toString() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream output = new DataOutputStream(bytes)) {
+			output.writeInt(VERSION);
+			output.writeInt(keys.length);
+			for (int i = 0; i < keys.length; i++) {
+				output.writeUTF(keys[i]);
+				writeValue(output, values[i]);
+			}
+		} catch (IOException ex) {
+			// ByteArrayOutputStream does not throw IOExceptions
+			throw new IllegalStateException(ex);
+		}
+		return Base64.encodeBase64URLSafeString(bytes.toByteArray());
+	}
+
+	private static boolean isSupportedValue(Object value) {
+		return value == null
+				|| value instanceof Long
+				|| value instanceof Integer
+				|| value instanceof Double
+				|| value instanceof Float
+				|| value instanceof BigDecimal
+				|| value instanceof BigInteger
+				|| value instanceof String
+				|| value instanceof Date
+				|| value instanceof Boolean;
+	}
+
+	private static void writeValue(DataOutputStream output, Object value) throws IOException {
+		if (value == null) {
+			output.writeByte(NULL);
+		} else if (value instanceof Long) {
+			output.writeByte(LONG);
+			output.writeLong((Long) value);
+		} else if (value instanceof Integer) {
+			output.writeByte(INTEGER);
+			output.writeInt((Integer) value);
+		} else if (value instanceof Double || value instanceof Float) {
+			output.writeByte(DOUBLE);
+			output.writeDouble(((Number) value).doubleValue());
+		} else if (value instanceof BigDecimal) {
+			output.writeByte(DECIMAL);
+			output.writeUTF(value.toString());
+		} else if (value instanceof BigInteger) {
+			output.writeByte(BIG_INTEGER);
+			output.writeUTF(value.toString());
+		} else if (value instanceof String) {
+			output.writeByte(STRING);
+			final byte[] bytes = ((String) value).getBytes("UTF-8");
+			output.writeInt(bytes.length);
+			output.write(bytes);
+		} else if (value instanceof Date) {
+			output.writeByte(DATE);
+			output.writeLong(((Date) value).getTime());
+			// keep the sub-millisecond part so rows in the same millisecond are not repeated or skipped
+			output.writeInt(value instanceof Timestamp ? ((Timestamp) value).getNanos() : -1);
+		} else if (value instanceof Boolean) {
+			output.writeByte(BOOLEAN);
+			output.writeBoolean((Boolean) value);
+		} else {
+			throw new UnsupportedOperationException("Keyset Paging Not Supported: values of " + value.getClass().getSimpleName() + " can not be used in a page token.");
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(keys) + Arrays.hashCode(values);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof DBQueryPageToken)) {
+			return false;
+		}
+		final DBQueryPageToken other = (DBQueryPageToken) obj;
+		return Arrays.equals(keys, other.keys) && Arrays.equals(values, other.values);
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import nz.co.gregs.dbvolution.databases.DBStatement;
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+import nz.co.gregs.dbvolution.exceptions.DBRuntimeException;
+import nz.co.gregs.dbvolution.internal.database.ClusterMemberLease;
+import nz.co.gregs.dbvolution.internal.query.QueryDetails;
+
+/**
+ * Iterates through the results of a query one row at a time without storing
+ * them.
+ *
+ * <p>
+ * Each DBQueryRow is created from the open ResultSet as it is requested, so
+ * memory use does not grow with the size of the results. The connection used
+ * by the query, and the cluster member if the query is run on a cluster, is
+ * released once the last row has been read or {@link #close() } is called, so
+ * always close the iterator, preferably with try-with-resources, if it might
+ * not be exhausted.
+ *
+ * <p>
+ * Because the results are not retained, autofilled fields are not set and
+ * rows with the same primary key are returned as separate instances.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class DBQueryRowIterator implements Iterator<DBQueryRow>, AutoCloseable {
+
+	/**
+	 * The number of rows retrieved from the database at a time unless otherwise
+	 * specified.
+	 */
+	public static final int DEFAULT_FETCH_SIZE = 1000;
+
+	private final QueryDetails details;
+	private final DBDefinition defn;
+	private final DBStatement statement;
+	private final ResultSet resultSet;
+	private final boolean restoreAutoCommit;
+	private boolean hasNextRow = false;
+	private boolean nextRowChecked = false;
+	private boolean closed = false;
+	private boolean failed = false;
+	private ClusterMemberLease lease = null;
+
+	/**
+	 * Creates an iterator over the ResultSet.
+	 *
+	 * <p>
+	 * Use {@link DBQuery#getRowIterator() } rather than this constructor.
+	 *
+	 * @param details the query that produced the ResultSet
+	 * @param defn the definition of the database that produced the ResultSet
+	 * @param statement the statement that produced the ResultSet, it will be
+	 * closed with the iterator
+	 * @param resultSet the results of the query
+	 * @param restoreAutoCommit TRUE if auto-commit was turned off to stream the
+	 * results and should be turned on again when the iterator is closed
+	 */
+	public DBQueryRowIterator(QueryDetails details, DBDefinition defn, DBStatement statement, ResultSet resultSet, boolean restoreAutoCommit) {
+		this.details = details;
+		this.defn = defn;
+		this.statement = statement;
+		this.resultSet = resultSet;
+		this.restoreAutoCommit = restoreAutoCommit;
+	}
+
+	/**
+	 * Keeps the lease of the cluster member running the query until the
+	 * iterator is closed.
+	 *
+	 * <p>
+	 * Use {@link DBQuery#getRowIterator() } rather than this method.
+	 *
+	 * @param lease the lease of the database that produced the ResultSet
+	 */
+	public synchronized void releaseOnClose(ClusterMemberLease lease) {
+		lease.responded();
+		if (closed) {
+			lease.close();
+		} else {
+			this.lease = lease;
+		}
+	}
+
+	@Override
+	public synchronized boolean hasNext() {
+		if (closed) {
+			return false;
+		}
+		if (!nextRowChecked) {
+			try {
+				hasNextRow = resultSet.next();
+				nextRowChecked = true;
+			} catch (SQLException ex) {
+				failed = true;
+				closeQuietly();
+				throw new DBRuntimeException("Unable To Retrieve Next Row", ex);
+			}
+			if (!hasNextRow) {
+				closeQuietly();
+			}
+		}
+		return hasNextRow;
+	}
+
+	@Override
+	public synchronized DBQueryRow next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		nextRowChecked = false;
+		try {
+			return details.getQueryRowFromResultSet(defn, resultSet, false);
+		} catch (SQLException ex) {
+			failed = true;
+			closeQuietly();
+			throw new DBRuntimeException("Unable To Retrieve Next Row", ex);
+		}
+	}
+
+	/**
+	 * Not supported, rows must be deleted using the database.
+	 */
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("DBQueryRowIterator does not support remove().");
+	}
+
+	/**
+	 * Releases the ResultSet, the connection, and any cluster member used by the
+	 * query.
+	 *
+	 * <p>
+	 * Closing the iterator more than once has no effect.
+	 *
+	 * @throws SQLException database errors
+	 */
+	@Override
+	public synchronized void close() throws SQLException {
+		if (!closed) {
+			closed = true;
+			hasNextRow = false;
+			try {
+				resultSet.close();
+			} finally {
+				try {
+					if (restoreAutoCommit) {
+						statement.getConnection().setAutoCommit(true);
+					}
+				} finally {
+					try {
+						statement.close();
+					} finally {
+						releaseLease();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Indicates whether the iterator has been closed, either explicitly or by
+	 * reaching the end of the results.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if the connection used by the query has been released.
+	 */
+	public synchronized boolean isClosed() {
+		return closed;
+	}
+
+	private void releaseLease() {
+		if (lease != null) {
+			if (!failed) {
+				lease.succeeded();
+			}
+			lease.close();
+			lease = null;
+		}
+	}
+
+	private void closeQuietly() {
+		try {
+			close();
+		} catch (SQLException ex) {
+			throw new DBRuntimeException("Unable To Close Query", ex);
+		}
+	}
+}
@@ -93,6 +93,7 @@ public class DBReport extends RowDefinition {
 
 	private SortProvider[] sortColumns = new SortProvider[]{};
 	private boolean blankQueryAllowed = false;
+	private boolean readOnly = false;
 
 	/**
 	 * Gets all the report rows of the supplied DBReport using only conditions
@@ -157,6 +158,35 @@ public class DBReport extends RowDefinition {
 		return this.blankQueryAllowed;
 	}
 
+	/**
+	 * Sets whether this DBReport will be retrieved using read-only rows.
+	 *
+	 * <p>
+	 * Read-only rows are created without the change tracking required to update
+	 * them, which reduces the work done for every value retrieved. The rows
+	 * within the report can not be updated or saved.
+	 *
+	 * <p>
+	 * See {@link DBQuery#setReadOnly(boolean) }.
+	 *
+	 * @param readOnly TRUE to retrieve read-only rows
+	 */
+	public void setReadOnly(boolean readOnly) {
+		this.readOnly = readOnly;
+	}
+
+	/**
+	 * Reports whether this DBReport will be retrieved using read-only rows.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if the report rows are read-only, otherwise FALSE
+	 */
+	public boolean getReadOnly() {
+		return this.readOnly;
+	}
+
 	/**
 	 * Gets all the report rows of the supplied DBReport using conditions in the
 	 * DBreport and the supplied examples.
@@ -291,6 +321,34 @@ public class DBReport extends RowDefinition {
 		return reportRows;
 	}
 
+	/**
+	 * Gets the values of the supplied DBReport as arrays, limited by the supplied
+	 * example rows.
+	 *
+	 * <p>
+	 * Intended for analytics and other processing of large reports, the values
+	 * are read directly into arrays and no DBReport instances are created.
+	 * Retrieve each column using the field of the example report.
+	 *
+	 * <p>
+	 * See {@link DBColumnarResults}.
+	 *
+	 * @param <A> DBReport type
+	 * @param database database
+	 * @param exampleReport exampleReport
+	 * @param rows example rows that provide extra criteria
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the values of the report as columns
+	 * @throws java.sql.SQLException Database exceptions may be thrown
+	 * @throws nz.co.gregs.dbvolution.exceptions.AccidentalBlankQueryException
+	 */
+	public static <A extends DBReport> DBColumnarResults getColumnarResults(DBDatabase database, A exampleReport, DBRow... rows) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		DBQuery query = getDBQuery(database, exampleReport, rows);
+		query.setBlankQueryAllowed(exampleReport.getBlankQueryAllowed());
+		return query.getColumnarResults();
+	}
+
 	private static <A extends DBReport> List<A> getReportsFromQueryResults(List<DBQueryRow> allRows, A exampleReport) {
 		List<A> reportRows = new ArrayList<A>();
 		for (DBQueryRow row : allRows) {
@@ -465,6 +523,7 @@ public class DBReport extends RowDefinition {
 		exampleReport.addTablesAndExpressions(query, exampleReport);
 		query.addExtraExamples(rows);
 		query.setSortOrder(exampleReport.getSortColumns());
+		query.setReadOnly(exampleReport.getReadOnly());
 		return query;
 	}
 
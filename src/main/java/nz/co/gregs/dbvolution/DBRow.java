@@ -3,7 +3,6 @@ package nz.co.gregs.dbvolution;
 import nz.co.gregs.dbvolution.databases.DBDatabase;
 import java.io.Serializable;
 import java.lang.reflect.Array;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -123,6 +122,7 @@ abstract public class DBRow extends RowDefinition implements Serializable {
 	private static final long serialVersionUID = 1L;
 
 	private boolean isDefined = false;
+	private boolean isReadOnly = false;
 	private final List<PropertyWrapperDefinition> ignoredForeignKeys = Collections.synchronizedList(new ArrayList<PropertyWrapperDefinition>());
 	private transient Boolean hasBlobs;
 	private transient final List<PropertyWrapper> fkFields = new ArrayList<>();
@@ -145,15 +145,9 @@ abstract public class DBRow extends RowDefinition implements Serializable {
 	 */
 	public static <T extends DBRow> T getDBRow(Class<T> requiredDBRowClass) throws UnableToInstantiateDBRowSubclassException {
 		try {
-			Constructor<T> constructor = requiredDBRowClass.getConstructor();
-			constructor.setAccessible(true);
-			return constructor.newInstance();
-		} catch (NoSuchMethodException | SecurityException | InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
-			try {
-				return requiredDBRowClass.newInstance();
-			} catch (InstantiationException | IllegalAccessException ex1) {
-				throw new UnableToInstantiateDBRowSubclassException(requiredDBRowClass, ex);
-			}
+			return requiredDBRowClass.cast(getClassWrapper(requiredDBRowClass).newInstance());
+		} catch (ReflectiveOperationException | SecurityException ex) {
+			throw new UnableToInstantiateDBRowSubclassException(requiredDBRowClass, ex);
 		}
 	}
 
@@ -202,6 +196,9 @@ abstract public class DBRow extends RowDefinition implements Serializable {
 		} else {
 			newRow.setUndefined();
 		}
+		if (originalRow.isReadOnly()) {
+			newRow.setReadOnly();
+		}
 		for (PropertyWrapperDefinition defn : originalRow.getIgnoredForeignKeys()) {
 			newRow.getIgnoredForeignKeys().add(defn);
 		}
@@ -391,6 +388,34 @@ abstract public class DBRow extends RowDefinition implements Serializable {
 		isDefined = true;
 	}
 
+	/**
+	 * Indicates whether this row was retrieved by a read-only query.
+	 *
+	 * <p>
+	 * Read-only rows do not track changes to their values and can not be updated
+	 * or saved.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if this row can not be updated, otherwise FALSE.
+	 */
+	public boolean isReadOnly() {
+		return isReadOnly;
+	}
+
+	/**
+	 * indicates the DBRow was retrieved by a read-only query.
+	 *
+	 * <p>
+	 * Used internally, probably not the method you want.
+	 * </p>
+	 *
+	 */
+	public void setReadOnly() {
+		isReadOnly = true;
+	}
+
 	/**
 	 * Returns true if any of the non-LargeObject fields has been changed.
 	 *
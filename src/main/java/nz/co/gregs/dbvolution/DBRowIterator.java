@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+
+/**
+ * Iterates through the instances of a DBRow class returned by a query one row
+ * at a time without storing them.
+ *
+ * <p>
+ * A thin wrapper around {@link DBQueryRowIterator}, see that class for the
+ * details. Always close the iterator if it might not be exhausted.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ * @param <R> the DBRow class returned
+ */
+public class DBRowIterator<R extends DBRow> implements Iterator<R>, AutoCloseable {
+
+	private final DBQueryRowIterator rows;
+	private final R exemplar;
+
+	/**
+	 * Creates an iterator that returns the instances of the exemplar from each
+	 * DBQueryRow.
+	 *
+	 * @param rows the query results
+	 * @param exemplar an instance of the DBRow class to return
+	 */
+	public DBRowIterator(DBQueryRowIterator rows, R exemplar) {
+		this.rows = rows;
+		this.exemplar = exemplar;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return rows.hasNext();
+	}
+
+	@Override
+	public R next() {
+		return rows.next().get(exemplar);
+	}
+
+	/**
+	 * Not supported, rows must be deleted using the database.
+	 */
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("DBRowIterator does not support remove().");
+	}
+
+	/**
+	 * Releases the ResultSet and the connection used by the query.
+	 *
+	 * @throws SQLException database errors
+	 */
+	@Override
+	public void close() throws SQLException {
+		rows.close();
+	}
+}
@@ -148,6 +148,53 @@ public class DBTable<E extends DBRow> {
 		}
 	}
 
+	/**
+	 * Retrieves the appropriate rows of the table one at a time without storing
+	 * them.
+	 *
+	 * <p>
+	 * Use this instead of {@link #getAllRows() } to process tables that are too
+	 * large to hold in memory. The iterator holds a database connection until it
+	 * is exhausted or closed, so use it with try-with-resources.
+	 *
+	 * <p>
+	 * Throws AccidentalBlankQueryException if you haven't specifically allowed
+	 * blank queries with setBlankQueryAllowed(boolean)
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return an iterator over the appropriate rows of the table
+	 * @throws SQLException database exceptions
+	 * @throws nz.co.gregs.dbvolution.exceptions.AccidentalBlankQueryException
+	 * @see DBQuery#getRowIterator()
+	 */
+	public DBRowIterator<E> getRowIterator() throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		return getRowIterator(DBQueryRowIterator.DEFAULT_FETCH_SIZE);
+	}
+
+	/**
+	 * Retrieves the appropriate rows of the table {@code fetchSize} rows at a
+	 * time without storing them.
+	 *
+	 * <p>
+	 * See {@link #getRowIterator() }.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param fetchSize the number of rows the JDBC driver should retrieve at a
+	 * time
+	 * @return an iterator over the appropriate rows of the table
+	 * @throws SQLException database exceptions
+	 * @throws nz.co.gregs.dbvolution.exceptions.AccidentalBlankQueryException
+	 */
+	public DBRowIterator<E> getRowIterator(int fetchSize) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		query.refreshQuery();
+		applyConfigs();
+		return new DBRowIterator<>(query.getRowIterator(fetchSize), exemplar);
+	}
+
 	/**
 	 * Synonym for {@link #getAllRows()}
 	 *
@@ -385,6 +432,67 @@ public class DBTable<E extends DBRow> {
 		return getRowsForPage(pageNumber);
 	}
 
+	/**
+	 * Retrieves the page of DBRows that follows the page identified by the
+	 * token, using keyset paging.
+	 *
+	 * <p>
+	 * Use {@link #setRowLimit(int) } to set the page size, then call this method
+	 * with NULL to get the first page, and with the
+	 * {@link DBQueryPage#getNextPageToken() next page token} of each page to get
+	 * the page after it.
+	 *
+	 * <p>
+	 * See {@link DBQuery#getPageAfter(nz.co.gregs.dbvolution.DBQueryPageToken) }
+	 * for details.
+	 *
+	 * @param previousPage the token of the previous page, or NULL for the first
+	 * page
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the DBRows of the page and the token for the next page
+	 * @throws java.sql.SQLException java.sql.SQLException
+	 */
+	public DBQueryPage<E> getPageAfter(DBQueryPageToken previousPage) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		query.refreshQuery();
+		applyConfigs();
+		DBQueryPage<DBQueryRow> page = query.getPageAfter(previousPage);
+		List<E> rows = new ArrayList<>();
+		for (DBQueryRow row : page.getRows()) {
+			rows.add(row.get(exemplar));
+		}
+		return new DBQueryPage<>(rows, page.getNextPageToken());
+	}
+
+	/**
+	 * Retrieves the DBRows for the page supplied and the total number of rows in
+	 * all the pages.
+	 *
+	 * <p>
+	 * Use {@link #setRowLimit(int) } to set the page size. This method is
+	 * zero-based so the first page is getPageWithTotalCount(0).
+	 *
+	 * <p>
+	 * See {@link DBQuery#getPageWithTotalCount(java.lang.Integer) } for details.
+	 *
+	 * @param pageNumber pageNumber
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the DBRows of the page and the total number of rows
+	 * @throws java.sql.SQLException java.sql.SQLException
+	 * @throws nz.co.gregs.dbvolution.exceptions.AccidentalBlankQueryException
+	 */
+	public DBQueryPage<E> getPageWithTotalCount(Integer pageNumber) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		query.refreshQuery();
+		applyConfigs();
+		DBQueryPage<DBQueryRow> page = query.getPageWithTotalCount(pageNumber);
+		List<E> rows = new ArrayList<>();
+		for (DBQueryRow row : page.getRows()) {
+			rows.add(row.get(exemplar));
+		}
+		return new DBQueryPage<>(rows, page.hasNextPage(), page.getTotalCount());
+	}
+
 	/**
 	 * Retrieves the row (or rows in a bad database) that has the specified
 	 * primary key.
@@ -617,10 +725,7 @@ public class DBTable<E extends DBRow> {
 	 * @throws java.sql.SQLException java.sql.SQLException
 	 */
 	public DBActionList insert(Collection<E> newRows) throws SQLException {
-		DBActionList changes = new DBActionList();
-		for (E row : newRows) {
-			changes.addAll(insert(row));
-		}
+		DBActionList changes = database.insert(newRows);
 		query.refreshQuery();
 		return changes;
 	}
@@ -635,16 +740,7 @@ public class DBTable<E extends DBRow> {
 	 * @throws java.sql.SQLException java.sql.SQLException
 	 */
 	public DBActionList insertOrUpdate(E row) throws SQLException {
-		DBActionList changes = new DBActionList();
-		try {
-			changes.addAll(insert(row));
-		} catch (SQLException exc1) {
-			try {
-				changes.addAll(update(row));
-			} catch (SQLException exc2) {
-				throw exc1;
-			}
-		}
+		DBActionList changes = DBInsertOrUpdate.save(database, row);
 		query.refreshQuery();
 		return changes;
 	}
@@ -673,18 +769,7 @@ public class DBTable<E extends DBRow> {
 	 * @throws java.sql.SQLException java.sql.SQLException
 	 */
 	public DBActionList insertOrUpdate(Collection<E> newRows) throws SQLException {
-		DBActionList changes = new DBActionList();
-		for (E row : newRows) {
-			try {
-				changes.addAll(insert(row));
-			} catch (SQLException exc1) {
-				try {
-					changes.addAll(update(row));
-				} catch (SQLException exc2) {
-					throw exc1;
-				}
-			}
-		}
+		DBActionList changes = DBInsertOrUpdate.save(database, newRows);
 		query.refreshQuery();
 		return changes;
 	}
@@ -696,11 +781,7 @@ public class DBTable<E extends DBRow> {
 	}
 
 	protected DBActionList updateAnyway(List<E> rows) throws SQLException {
-		DBActionList actions = new DBActionList();
-		for (E row : rows) {
-			actions.addAll(updateAnyway(row));
-		}
-		return actions;
+		return DBBulkUpdate.updateAnyway(database, rows);
 	}
 
 	@SafeVarargs
@@ -873,13 +954,7 @@ public class DBTable<E extends DBRow> {
 	 * @throws java.sql.SQLException java.sql.SQLException
 	 */
 	public DBActionList update(Collection<E> oldRows) throws SQLException {
-		DBActionList changes = new DBActionList();
-		for (E row : oldRows) {
-			if (row.hasChangedSimpleTypes()) {
-				changes.addAll(DBUpdate.update(database, row));
-				row.setSimpleTypesToUnchanged();
-			}
-		}
+		DBActionList changes = DBBulkUpdate.update(database, oldRows);
 		query.refreshQuery();
 		return changes;
 	}
@@ -1141,11 +1216,62 @@ public class DBTable<E extends DBRow> {
 		this.query.setBlankQueryAllowed(options.isBlankQueryAllowed());
 	}
 
+	/**
+	 * Sets whether this DBTable will send the values of its conditions as
+	 * PreparedStatement parameters.
+	 *
+	 * <p>
+	 * The default is to include the values as literals in the SQL.
+	 *
+	 * <p>
+	 * Parameterised queries allow the database to reuse the query plan when the
+	 * same query is run repeatedly with different values.
+	 *
+	 * @param useParameterisedQuery TRUE to use PreparedStatement parameters
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return this DBTable instance
+	 */
+	public DBTable<E> setUseParameterisedQuery(boolean useParameterisedQuery) {
+		this.options.setUseParameterisedQuery(useParameterisedQuery);
+		return this;
+	}
+
+	private void applyParameterisedQuery() {
+		this.query.setUseParameterisedQuery(options.isUseParameterisedQuery());
+	}
+
+	/**
+	 * Sets whether this DBTable will return read-only rows.
+	 *
+	 * <p>
+	 * Read-only rows are created without the change tracking required to update
+	 * them and can not be updated or saved.
+	 *
+	 * <p>
+	 * See {@link DBQuery#setReadOnly(boolean) }.
+	 *
+	 * @param readOnly TRUE to return read-only rows
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return this DBTable instance
+	 */
+	public DBTable<E> setReadOnly(boolean readOnly) {
+		this.options.setReadOnly(readOnly);
+		return this;
+	}
+
+	private void applyReadOnly() {
+		this.query.setReadOnly(options.isReadOnly());
+	}
+
 	private void applyConfigs() {
 		applyBlankQueryAllowed();
 		applyRowLimit();
 		applySortOrder();
 		applyMatchAny();
+		applyParameterisedQuery();
+		applyReadOnly();
 	}
 
 	/**
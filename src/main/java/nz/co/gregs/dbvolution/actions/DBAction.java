@@ -119,7 +119,7 @@ public abstract class DBAction implements Serializable{
 		String separator = "(";
 		for (QueryableDatatype<?> pk : primaryKeys) {
 			PropertyWrapper wrapper = row.getPropertyWrapperOf(pk);
-			String pkValue = (pk.hasChanged() ? pk.getPreviousSQLValue(definition) : pk.toSQLString(definition));
+			String pkValue = getPrimaryKeySQLValue(definition, pk);
 			sqlString.append(separator)
 					.append(definition.formatColumnName(wrapper.columnName()))
 					.append(definition.getEqualsComparator())
@@ -129,6 +129,18 @@ public abstract class DBAction implements Serializable{
 		return sqlString.append(")").toString();
 	}
 
+	/**
+	 * Returns the SQL value that identifies the row in the database, which is
+	 * the previous value if the primary key has been changed.
+	 *
+	 * @param definition the definition of the target database
+	 * @param pk a primary key of the row
+	 * @return the SQL of the primary key value stored in the database
+	 */
+	static String getPrimaryKeySQLValue(DBDefinition definition, QueryableDatatype<?> pk) {
+		return pk.hasChanged() ? pk.getPreviousSQLValue(definition) : pk.toSQLString(definition);
+	}
+
 	/**
 	 * Returns a list of the SQL statements that this DBAction will produce for
 	 * the specified database.
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.actions;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import nz.co.gregs.dbvolution.DBRow;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.databases.DBStatement;
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+
+/**
+ * Deletes many rows by primary key using one DELETE statement for each chunk
+ * of rows.
+ *
+ * <p>
+ * The primary keys of consecutive rows of the same table are collected and
+ * deleted using "DELETE ... WHERE pk IN (...)", so the rows are deleted in the
+ * order supplied. Rows are identified by the primary key values stored in the
+ * database, as in {@link DBDeleteByPrimaryKey}. Composite primary keys are
+ * compared using
+ * {@link DBDefinition#doRowValueInTransform(java.util.List, java.util.List) },
+ * and the chunks are sized using
+ * {@link DBDefinition#getMaximumValuesPerInList() }.
+ *
+ * <p>
+ * Each chunk's rows are retrieved before they are deleted so that the
+ * {@link DBDeleteByPrimaryKey} actions returned can be reverted.
+ *
+ * <p>
+ * Rows that are not defined, or do not have a complete primary key, are
+ * deleted individually as described in
+ * {@link DBDelete#getDeletes(nz.co.gregs.dbvolution.databases.DBDatabase, java.util.Collection) },
+ * after the bulk deletes of the rows before them.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class DBBulkDelete extends DBAction {
+
+	private static final long serialVersionUID = 1l;
+
+	private final List<DBRow> rows = new ArrayList<>();
+	private transient DBActionList executedActions = null;
+
+	private DBBulkDelete(Collection<? extends DBRow> rowsToDelete) {
+		super(rowsToDelete.iterator().next());
+		this.rows.addAll(rowsToDelete);
+	}
+
+	/**
+	 * Deletes the rows from the database using as few statements as possible.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param database the target database
+	 * @param rows the rows to be deleted
+	 * @return a DBActionList of the deletes executed.
+	 * @throws SQLException database exceptions
+	 */
+	public static DBActionList delete(DBDatabase database, Collection<? extends DBRow> rows) throws SQLException {
+		DBActionList actions = new DBActionList();
+		List<DBRow> bulkRows = new ArrayList<>();
+		for (DBRow row : rows) {
+			if (canBeDeletedInBulk(row)) {
+				bulkRows.add(row);
+			} else {
+				// delete the preceding rows first to keep the caller's order
+				actions.addAll(deleteInBulk(database, bulkRows));
+				actions.addAll(DBDelete.getDeletes(database, row).execute(database));
+			}
+		}
+		actions.addAll(deleteInBulk(database, bulkRows));
+		return actions;
+	}
+
+	private static DBActionList deleteInBulk(DBDatabase database, List<DBRow> bulkRows) throws SQLException {
+		if (bulkRows.isEmpty()) {
+			return new DBActionList();
+		}
+		final DBActionList actions = database.executeDBAction(new DBBulkDelete(bulkRows));
+		bulkRows.clear();
+		return actions;
+	}
+
+	/**
+	 * Deletes the rows from the database using as few statements as possible.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param database the target database
+	 * @param rows the rows to be deleted
+	 * @return a DBActionList of the deletes executed.
+	 * @throws SQLException database exceptions
+	 */
+	public static DBActionList delete(DBDatabase database, DBRow... rows) throws SQLException {
+		return delete(database, Arrays.asList(rows));
+	}
+
+	@Override
+	protected DBRow getRow() {
+		return DBRow.copyDBRow(rows.get(0));
+	}
+
+	@Override
+	public List<String> getSQLStatements(DBDatabase db) {
+		DBDefinition defn = db.getDefinition();
+		List<String> sqlStatements = new ArrayList<>();
+		for (List<DBRow> chunk : getChunks(defn)) {
+			sqlStatements.add(getDeleteSQL(defn, chunk));
+		}
+		return sqlStatements;
+	}
+
+	@Override
+	public DBActionList execute(DBDatabase db) throws SQLException {
+		DBDefinition defn = db.getDefinition();
+		DBActionList actions = new DBActionList();
+		try (DBStatement statement = db.getDBStatement()) {
+			for (List<DBRow> chunk : getChunks(defn)) {
+				final String condition = getPrimaryKeyCondition(defn, chunk);
+				final DBRow example = DBRow.getDBRow(chunk.get(0).getClass());
+				List<DBRow> deletedRows = db.getDBTable(example).setRawSQL(defn.beginAndLine() + condition).getAllRows();
+				statement.execute(getDeleteSQL(defn, chunk));
+				for (DBRow deletedRow : deletedRows) {
+					actions.add(new DBDeleteByPrimaryKey(deletedRow, DBRow.copyDBRow(deletedRow)));
+				}
+			}
+		}
+		executedActions = actions;
+		return actions;
+	}
+
+	/**
+	 * Returns the reverts of the DBDeleteByPrimaryKey action of each row.
+	 *
+	 * <p>
+	 * Once executed the reverts re-insert the rows retrieved just before they
+	 * were deleted, otherwise they re-insert the rows supplied.
+	 *
+	 * @return the actions required to re-insert the deleted rows
+	 */
+	@Override
+	protected DBActionList getRevertDBActionList() {
+		DBActionList deletes = executedActions;
+		if (deletes == null) {
+			deletes = new DBActionList();
+			for (DBRow row : rows) {
+				deletes.add(new DBDeleteByPrimaryKey(row, DBRow.copyDBRow(row)));
+			}
+		}
+		return deletes.getRevertActionList();
+	}
+
+	private static boolean canBeDeletedInBulk(DBRow row) {
+		if (!row.getDefined()) {
+			return false;
+		}
+		final List<QueryableDatatype<?>> primaryKeys = row.getPrimaryKeys();
+		if (primaryKeys == null || primaryKeys.isEmpty()) {
+			return false;
+		}
+		for (QueryableDatatype<?> pk : primaryKeys) {
+			if (!pk.hasBeenSet() || pk.isNull()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Splits the rows into chunks of consecutive rows from the same table, each
+	 * small enough for one DELETE statement.
+	 */
+	private List<List<DBRow>> getChunks(DBDefinition defn) {
+		List<List<DBRow>> chunks = new ArrayList<>();
+		List<DBRow> chunk = null;
+		String chunkTable = null;
+		int chunkSize = 0;
+		for (DBRow row : rows) {
+			final String table = row.getClass().getName() + " " + defn.formatTableName(row);
+			if (chunk == null || !table.equals(chunkTable) || chunk.size() >= chunkSize) {
+				chunk = new ArrayList<>();
+				chunks.add(chunk);
+				chunkTable = table;
+				chunkSize = Math.max(1, defn.getMaximumValuesPerInList() / row.getPrimaryKeys().size());
+			}
+			chunk.add(row);
+		}
+		return chunks;
+	}
+
+	private static String getPrimaryKeyCondition(DBDefinition defn, List<DBRow> chunk) {
+		final DBRow table = chunk.get(0);
+		List<String> columns = new ArrayList<>();
+		for (QueryableDatatype<?> pk : table.getPrimaryKeys()) {
+			columns.add(defn.formatColumnName(table.getPropertyWrapperOf(pk).columnName()));
+		}
+		List<List<String>> values = new ArrayList<>();
+		for (DBRow row : chunk) {
+			List<String> pkValues = new ArrayList<>();
+			for (QueryableDatatype<?> pk : row.getPrimaryKeys()) {
+				pkValues.add(getPrimaryKeySQLValue(defn, pk));
+			}
+			values.add(pkValues);
+		}
+		return defn.doRowValueInTransform(columns, values);
+	}
+
+	private static String getDeleteSQL(DBDefinition defn, List<DBRow> chunk) {
+		return defn.beginDeleteLine()
+				+ defn.formatTableName(chunk.get(0))
+				+ defn.beginWhereClause()
+				+ getPrimaryKeyCondition(defn, chunk)
+				+ defn.endDeleteLine();
+	}
+}
@@ -33,6 +33,7 @@ package nz.co.gregs.dbvolution.actions;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import nz.co.gregs.dbvolution.DBRow;
 import nz.co.gregs.dbvolution.databases.DBDatabase;
@@ -43,13 +44,29 @@ import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
 import nz.co.gregs.dbvolution.internal.properties.PropertyWrapper;
 
 /**
+ * Inserts many rows using as few round trips to the database as possible.
+ *
+ * <p>
+ * Consecutive rows for the same table, with the same columns set, are combined
+ * into multi-row INSERT statements when the database
+ * {@link DBDefinition#supportsBulkInserts() supports bulk inserts} and the
+ * statements are sent to the database in batches of
+ * {@link DBDatabase#getBatchSize() } when
+ * {@link DBDatabase#batchSQLStatementsWhenPossible() batching is allowed}.
+ *
+ * <p>
+ * Rows that need the database to generate their primary key, or that have
+ * large objects to store, are inserted individually using {@link DBInsert}.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
  *
  * @author gregorygraham
  */
 public class DBBulkInsert extends DBAction {
 
 	public static final long serialVersionUID = 1l;
-	
+
 	List<DBRow> rows = new ArrayList<>();
 
 	public <R extends DBRow> DBBulkInsert(R row) {
@@ -65,13 +82,9 @@ public class DBBulkInsert extends DBAction {
 	}
 
 	public DBActionList save(DBDatabase database) throws SQLException {
-		DBActionList changes = new DBActionList();
-		if (database.getDefinition().supportsBulkInserts()) {
-			return database.executeDBAction(this);
-		} else {
-			for (DBRow row : rows) {
-				changes.addAll(database.getDBTable(row).insert(row));
-			}
+		final DBActionList changes = database.executeDBAction(this);
+		for (DBRow row : rows) {
+			row.setSimpleTypesToUnchanged();
 		}
 		return changes;
 	}
@@ -89,63 +102,59 @@ public class DBBulkInsert extends DBAction {
 	@Override
 	public ArrayList<String> getSQLStatements(DBDatabase db) {
 		ArrayList<String> sqlStatements = new ArrayList<String>();
-		List<DBRow> accumulated = new ArrayList<>();
+		final DBDefinition defn = db.getDefinition();
+		final int maximumRows = getMaximumRowsPerInsert(defn);
+		InsertGroup group = null;
 		for (DBRow currentRow : rows) {
-			QueryableDatatype<?>[] pks = currentRow.getPrimaryKeysAsArray();
-			boolean pksAreSet = true;
-			for (QueryableDatatype<?> pk : pks) {
-				pksAreSet = pksAreSet && pk.hasBeenSet();
-			}
-			if (pksAreSet) {
-				accumulated.add(currentRow);
-			} else {
-				sqlStatements.addAll(generateSQLForAccumulatedRows(db, accumulated));
-				accumulated.clear();
+			DBInsert.InsertFields fields = canBeBulkInserted(currentRow) ? processAllFieldsForInsert(db, currentRow) : null;
+			if (fields == null) {
+				if (group != null) {
+					sqlStatements.addAll(group.getSQLStatements(defn));
+					group = null;
+				}
 				sqlStatements.addAll(new DBInsert(currentRow).getSQLStatements(db));
+			} else {
+				if (group == null || !group.accepts(defn, currentRow, fields, maximumRows)) {
+					if (group != null) {
+						sqlStatements.addAll(group.getSQLStatements(defn));
+					}
+					group = new InsertGroup(defn, currentRow, fields);
+				}
+				group.add(currentRow, fields);
 			}
 		}
-		sqlStatements.addAll(generateSQLForAccumulatedRows(db, accumulated));
+		if (group != null) {
+			sqlStatements.addAll(group.getSQLStatements(defn));
+		}
 		return sqlStatements;
 	}
 
-	private DBInsert.InsertFields processAllFieldsForInsert(DBDatabase database, DBRow row, boolean isFirstRow) {
+	/**
+	 * Generates the column list and the values of the set columns of the row.
+	 *
+	 * <p>
+	 * The values are not wrapped in the VALUES clause so that they can be
+	 * combined with the values of other rows.
+	 *
+	 * @param database the target database
+	 * @param row the row to be inserted
+	 * @return the column list and values, or NULL if the row has no columns to
+	 * insert
+	 */
+	private DBInsert.InsertFields processAllFieldsForInsert(DBDatabase database, DBRow row) {
 		DBInsert.InsertFields fields = new DBInsert.InsertFields();
-		StringBuilder allColumns = fields.getAllColumns();
-		StringBuilder allValues = fields.getAllValues();
 		StringBuilder allChangedColumns = fields.getAllChangedColumns();
 		StringBuilder allSetValues = fields.getAllSetValues();
 		DBDefinition defn = database.getDefinition();
 		List<PropertyWrapper> props = row.getColumnPropertyWrappers();
-		String allColumnSeparator = "";
 		String columnSeparator = "";
-		String valuesSeparator = isFirstRow ? defn.beginValueClause() : defn.beginValueSeparatorClause();
-		String allValuesSeparator = isFirstRow ? defn.beginValueClause() : defn.beginValueSeparatorClause();
+		String valuesSeparator = "";
 		for (PropertyWrapper prop : props) {
 			if (prop.isColumn() && !prop.hasColumnExpression()) {
 				final QueryableDatatype<?> qdt = prop.getQueryableDatatype();
 				if (qdt != null) {
 					// BLOBS are not inserted normally so don't include them
 					if (!(qdt instanceof DBLargeObject)) {
-						//support for inserting empty rows in a table with an autoincrementing pk
-						if (!prop.isAutoIncrement() || qdt.hasBeenSet()) {
-							allColumns
-									.append(allColumnSeparator)
-									.append(" ")
-									.append(defn.formatColumnName(prop.columnName()));
-							allColumnSeparator = defn.getValuesClauseColumnSeparator();
-							// add the value
-							allValues.append(allValuesSeparator);
-							if (!qdt.hasBeenSet() && qdt.hasDefaultInsertValue()) {
-								allValues.append(
-										qdt.getDefaultInsertValueSQLString(database.getDefinition())
-								);
-							} else {
-								allValues.append(
-										qdt.toSQLString(database.getDefinition())
-								);
-							}
-							allValuesSeparator = defn.getValuesClauseValueSeparator();
-						}
 						if (qdt.hasBeenSet() || qdt.hasDefaultInsertValue()) {
 							// nice normal columns
 							// Add the column
@@ -171,70 +180,156 @@ public class DBBulkInsert extends DBAction {
 				}
 			}
 		}
-		allValues.append(defn.endValueClause());
-		allSetValues.append(defn.endValueClause());
+		if (allChangedColumns.length() == 0) {
+			return null;
+		}
 		return fields;
 	}
 
 	@Override
 	public DBActionList execute(DBDatabase db) throws SQLException {
 		DBActionList actions = new DBActionList();
-		boolean allRowsCanBeBulkInserted = true;
-		for (DBRow current : rows) {
-			allRowsCanBeBulkInserted = allRowsCanBeBulkInserted && canBeBulkInserted(current);
-		}
-		if (allRowsCanBeBulkInserted) {
-			try (DBStatement statement = db.getDBStatement()) {
-				for (String sql : getSQLStatements(db)) {
-					statement.execute(sql);
-				}
-			}
+		final DBDefinition defn = db.getDefinition();
+		final int maximumRows = getMaximumRowsPerInsert(defn);
+		try (DBStatement statement = db.getDBStatement()) {
+			StatementBatch batch = new StatementBatch(db, statement, actions);
+			InsertGroup group = null;
 			for (DBRow current : rows) {
-				actions.add(new DBInsert(current));
+				DBInsert.InsertFields fields = canBeBulkInserted(current) ? processAllFieldsForInsert(db, current) : null;
+				if (fields == null) {
+					if (group != null) {
+						batch.add(group.getSQLStatements(defn), group.getRows(), group.getInserts());
+						group = null;
+					}
+					// DBInsert uses its own statement so the batch must be finished first
+					batch.execute();
+					actions.addAll(new DBInsert(current).execute(db));
+				} else {
+					if (group == null || !group.accepts(defn, current, fields, maximumRows)) {
+						if (group != null) {
+							batch.add(group.getSQLStatements(defn), group.getRows(), group.getInserts());
+						}
+						group = new InsertGroup(defn, current, fields);
+					}
+					group.add(current, fields);
+				}
 			}
-		} else {
-			for (DBRow current : rows) {
-				actions.addAll(new DBInsert(current).execute(db));
+			if (group != null) {
+				batch.add(group.getSQLStatements(defn), group.getRows(), group.getInserts());
 			}
+			batch.execute();
 		}
 		return actions;
 	}
 
-	/* In this method we need to generate the SQL and execute it */
-	private ArrayList<String> generateSQLForAccumulatedRows(DBDatabase database, List<DBRow> accumulated) {
-		ArrayList<String> strs = new ArrayList<>();
-		StringBuilder inserts = new StringBuilder();
-		if (accumulated.size() > 0) {
-			//generate and execute the SQL
-			DBRow table = accumulated.get(0);
-			DBDefinition defn = database.getDefinition();
-			DBInsert.InsertFields fields = processAllFieldsForInsert(database, table, true);
+	@Override
+	public boolean requiresRunOnIndividualDatabaseBeforeCluster() {
+		return true;
+	}
+
+	@Override
+	public boolean runOnDatabaseDuringCluster(DBDatabase initialDatabase, DBDatabase next) {
+		return initialDatabase != next;
+	}
+
+	public void addAll(DBRow[] listOfRowsToInsert) {
+		rows.addAll(Arrays.asList(listOfRowsToInsert));
+	}
+
+	public void addAll(Collection<? extends DBRow> listOfRowsToInsert) {
+		rows.addAll(listOfRowsToInsert);
+	}
+
+	private static int getMaximumRowsPerInsert(DBDefinition defn) {
+		if (defn.supportsBulkInserts()) {
+			return Math.max(1, defn.getMaximumRowsPerBulkInsert());
+		}
+		return 1;
+	}
+
+	/**
+	 * Rows can be inserted in bulk when their primary keys are already known and
+	 * they have no large objects to insert.
+	 *
+	 * @param row the row to be inserted
+	 * @return TRUE if the row can be included in a multi-row INSERT
+	 */
+	private boolean canBeBulkInserted(DBRow row) {
+		for (QueryableDatatype<?> pk : row.getPrimaryKeysAsArray()) {
+			if (!pk.hasBeenSet()) {
+				return false;
+			}
+		}
+		for (QueryableDatatype<?> largeObject : row.getLargeObjects()) {
+			if (largeObject.hasBeenSet()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Consecutive rows for the same table with the same columns set, which can be
+	 * inserted with a single multi-row INSERT statement.
+	 */
+	private static class InsertGroup {
+
+		private final DBRow table;
+		private final String tableName;
+		private final String columns;
+		private final List<DBRow> groupRows = new ArrayList<>();
+		private final List<String> values = new ArrayList<>();
+
+		InsertGroup(DBDefinition defn, DBRow table, DBInsert.InsertFields fields) {
+			this.table = table;
+			this.tableName = defn.formatTableName(table);
+			this.columns = fields.getAllChangedColumns().toString();
+		}
+
+		boolean accepts(DBDefinition defn, DBRow row, DBInsert.InsertFields fields, int maximumRows) {
+			return groupRows.size() < maximumRows
+					&& table.getClass().equals(row.getClass())
+					&& tableName.equals(defn.formatTableName(row))
+					&& columns.equals(fields.getAllChangedColumns().toString());
+		}
+
+		void add(DBRow row, DBInsert.InsertFields fields) {
+			groupRows.add(row);
+			values.add(fields.getAllSetValues().toString());
+		}
+
+		List<DBRow> getRows() {
+			return groupRows;
+		}
+
+		List<DBInsert> getInserts() {
+			List<DBInsert> inserts = new ArrayList<>();
+			for (DBRow row : groupRows) {
+				inserts.add(new DBInsert(row));
+			}
+			return inserts;
+		}
 
+		ArrayList<String> getSQLStatements(DBDefinition defn) {
+			ArrayList<String> strs = new ArrayList<>();
+			StringBuilder inserts = new StringBuilder();
 			strs.addAll(defn.getInsertPreparation(table));
 			inserts.append(defn.beginInsertLine())
-					.append(defn.formatTableName(table))
+					.append(tableName)
 					.append(defn.beginInsertColumnList())
-					.append(fields.getAllColumns())
+					.append(columns)
 					.append(defn.endInsertColumnList());
 			boolean isFirstRow = true;
-			for (DBRow currentRow : rows) {
-				fields = processAllFieldsForInsert(database, currentRow, isFirstRow);
-				inserts.append(fields.getAllValues().toString());
+			for (String value : values) {
+				inserts.append(isFirstRow ? defn.beginValueClause() : defn.beginValueSeparatorClause())
+						.append(value)
+						.append(defn.endValueClause());
 				isFirstRow = false;
 			}
 			inserts.append(defn.endInsertLine());
 			strs.add(inserts.toString());
 			strs.addAll(defn.getInsertCleanUp(table));
+			return strs;
 		}
-		return strs;
-	}
-
-	public void addAll(DBRow[] listOfRowsToInsert) {
-		rows.addAll(Arrays.asList(listOfRowsToInsert));
 	}
-
-	private boolean canBeBulkInserted(DBRow row) {
-		return row.getDefined();
-	}
-
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.actions;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import nz.co.gregs.dbvolution.DBRow;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.databases.DBStatement;
+import nz.co.gregs.dbvolution.exceptions.AccidentalUpdateOfReadOnlyRowException;
+import nz.co.gregs.dbvolution.internal.query.ParameterisedQuery;
+import nz.co.gregs.dbvolution.internal.query.QueryParameters;
+
+/**
+ * Updates many rows using a JDBC batch for each shape of UPDATE statement.
+ *
+ * <p>
+ * The UPDATE statements of the rows are generated with their values as
+ * PreparedStatement parameters, so rows that change the same columns produce
+ * the same SQL and are executed together as one batch of a single
+ * PreparedStatement. The update count of each row is available from
+ * {@link DBUpdate#getUpdateCount() } on the actions returned.
+ *
+ * <p>
+ * Updates of large objects are executed individually. A shape that fails as a
+ * batch is retried individually when the connection is in auto-commit mode,
+ * otherwise the batch's exception is thrown so the transaction can be rolled
+ * back.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class DBBulkUpdate extends DBAction {
+
+	private static final long serialVersionUID = 1l;
+
+	private final List<DBRow> rows = new ArrayList<>();
+	private final DBActionList updates;
+
+	private DBBulkUpdate(Collection<? extends DBRow> rowsToUpdate, DBActionList updates) {
+		super(rowsToUpdate.iterator().next());
+		this.rows.addAll(rowsToUpdate);
+		this.updates = updates;
+	}
+
+	/**
+	 * Updates the changed columns of the rows using batched UPDATE statements.
+	 *
+	 * <p>
+	 * The rows are marked as unchanged afterwards.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param database the target database
+	 * @param rows the rows to be updated
+	 * @return a DBActionList of the updates executed.
+	 * @throws SQLException database exceptions
+	 */
+	public static DBActionList update(DBDatabase database, Collection<? extends DBRow> rows) throws SQLException {
+		List<DBRow> changedRows = new ArrayList<>();
+		for (DBRow row : rows) {
+			if (row.isReadOnly()) {
+				throw new AccidentalUpdateOfReadOnlyRowException(row);
+			}
+			if (row.hasChangedSimpleTypes() || DBUpdate.hasChangedLargeObjects(row)) {
+				changedRows.add(row);
+			}
+		}
+		final DBActionList updates = DBUpdate.getUpdates(changedRows.toArray(new DBRow[]{}));
+		return execute(database, changedRows, updates);
+	}
+
+	/**
+	 * Updates all the columns of the rows, whether they have changed or not,
+	 * using batched UPDATE statements.
+	 *
+	 * <p>
+	 * The rows are marked as unchanged afterwards.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param database the target database
+	 * @param rows the rows to be updated
+	 * @return a DBActionList of the updates executed.
+	 * @throws SQLException database exceptions
+	 */
+	public static DBActionList updateAnyway(DBDatabase database, Collection<? extends DBRow> rows) throws SQLException {
+		final DBActionList updates = DBUpdateForcedOnSimpleTypesUsingPrimaryKey.getUpdateAnyways(rows.toArray(new DBRow[]{}));
+		return execute(database, rows, updates);
+	}
+
+	private static DBActionList execute(DBDatabase database, Collection<? extends DBRow> rows, DBActionList updates) throws SQLException {
+		if (updates.isEmpty()) {
+			return new DBActionList();
+		}
+		final DBActionList executed = database.executeDBAction(new DBBulkUpdate(rows, updates));
+		for (DBRow row : rows) {
+			row.setSimpleTypesToUnchanged();
+		}
+		return executed;
+	}
+
+	@Override
+	protected DBRow getRow() {
+		return DBRow.copyDBRow(rows.get(0));
+	}
+
+	@Override
+	public List<String> getSQLStatements(DBDatabase db) {
+		List<String> sqlStatements = new ArrayList<>();
+		for (DBAction update : updates) {
+			sqlStatements.addAll(update.getSQLStatements(db));
+		}
+		return sqlStatements;
+	}
+
+	@Override
+	public DBActionList execute(DBDatabase db) throws SQLException {
+		DBActionList actions = new DBActionList();
+		Map<String, List<DBUpdate>> batchedUpdates = new LinkedHashMap<>();
+		Map<String, List<ParameterisedQuery>> batchedQueries = new LinkedHashMap<>();
+		List<DBAction> individualUpdates = new ArrayList<>();
+		for (DBAction update : updates) {
+			List<ParameterisedQuery> queries = update instanceof DBUpdateSimpleTypes
+					? getParameterisedSQLStatements(db, update)
+					: new ArrayList<ParameterisedQuery>();
+			if (queries.size() == 1) {
+				final ParameterisedQuery query = queries.get(0);
+				List<DBUpdate> shape = batchedUpdates.get(query.getSQL());
+				if (shape == null) {
+					shape = new ArrayList<>();
+					batchedUpdates.put(query.getSQL(), shape);
+					batchedQueries.put(query.getSQL(), new ArrayList<ParameterisedQuery>());
+				}
+				shape.add((DBUpdate) update);
+				batchedQueries.get(query.getSQL()).add(query);
+			} else {
+				individualUpdates.add(update);
+			}
+		}
+		try (DBStatement statement = db.getDBStatement()) {
+			for (Map.Entry<String, List<DBUpdate>> entry : batchedUpdates.entrySet()) {
+				final List<DBUpdate> shape = entry.getValue();
+				int[] updateCounts;
+				try {
+					updateCounts = statement.executeBatch(batchedQueries.get(entry.getKey()));
+				} catch (SQLException batchException) {
+					// inside a transaction the failed batch has to be rolled back by the caller
+					if (!isAutoCommit(statement, batchException)) {
+						throw batchException;
+					}
+					// UPDATEs by primary key can be safely repeated so use the normal path
+					try {
+						for (DBUpdate update : shape) {
+							actions.addAll(update.execute(db));
+						}
+					} catch (SQLException individualException) {
+						individualException.addSuppressed(batchException);
+						throw individualException;
+					}
+					continue;
+				}
+				for (int i = 0; i < shape.size(); i++) {
+					final DBUpdate update = shape.get(i);
+					update.setUpdateCount(updateCounts[i]);
+					actions.add(update);
+				}
+			}
+		}
+		for (DBAction update : individualUpdates) {
+			actions.addAll(update.execute(db));
+		}
+		return actions;
+	}
+
+	private static boolean isAutoCommit(DBStatement statement, SQLException batchException) throws SQLException {
+		try {
+			return statement.getConnection().getAutoCommit();
+		} catch (SQLException ex) {
+			ex.addSuppressed(batchException);
+			throw ex;
+		}
+	}
+
+	@Override
+	protected DBActionList getRevertDBActionList() {
+		DBActionList reverts = new DBActionList();
+		for (DBAction update : updates) {
+			reverts.addAll(update.getRevertDBActionList());
+		}
+		return reverts;
+	}
+
+	private static List<ParameterisedQuery> getParameterisedSQLStatements(DBDatabase db, DBAction update) {
+		final QueryParameters parameters = new QueryParameters();
+		final List<String> sqlStatements;
+		parameters.activate();
+		try {
+			parameters.startCollecting();
+			sqlStatements = update.getSQLStatements(db);
+		} finally {
+			parameters.deactivate();
+		}
+		List<ParameterisedQuery> queries = new ArrayList<>();
+		for (String sql : sqlStatements) {
+			queries.add(parameters.resolve(sql));
+		}
+		return queries;
+	}
+}
@@ -64,6 +64,9 @@ public abstract class DBDelete extends DBAction {
 	 * Deletes the specified row or example from the database and returns the
 	 * actions performed.
 	 *
+	 * <p>
+	 * Rows with primary keys are deleted in chunks using {@link DBBulkDelete}.
+	 *
 	 * @param database the target database
 	 * @param rows the row to be deleted
 	 * <p style="color: #F90;">Support DBvolution at
@@ -72,8 +75,7 @@ public abstract class DBDelete extends DBAction {
 	 * @throws SQLException database exceptions
 	 */
 	public static DBActionList delete(DBDatabase database, DBRow... rows) throws SQLException {
-		DBActionList delete = getDeletes(database, rows);
-		return delete.execute(database);
+		return DBBulkDelete.delete(database, rows);
 	}
 
 	/**
@@ -100,6 +102,9 @@ public abstract class DBDelete extends DBAction {
 	 * Deletes the specified row or example from the database and returns the
 	 * actions performed.
 	 *
+	 * <p>
+	 * Rows with primary keys are deleted in chunks using {@link DBBulkDelete}.
+	 *
 	 * @param database the target database
 	 * @param rows the row to be deleted
 	 * <p style="color: #F90;">Support DBvolution at
@@ -108,8 +113,7 @@ public abstract class DBDelete extends DBAction {
 	 * @throws SQLException database exceptions
 	 */
 	public static DBActionList delete(DBDatabase database, Collection<? extends DBRow> rows) throws SQLException {
-		DBActionList delete = getDeletes(database, rows);
-		return delete.execute(database);
+		return DBBulkDelete.delete(database, rows);
 	}
 
 	/**
@@ -54,6 +54,22 @@ public class DBDeleteByPrimaryKey extends DBDelete {
 		super(row);
 	}
 
+	/**
+	 * Creates a DBDeleteByPrimaryKey action for a row that has already been
+	 * deleted.
+	 *
+	 * <p>
+	 * Used by {@link DBBulkDelete} so that each deleted row can be reverted.
+	 *
+	 * @param <R> the table affected
+	 * @param row the row deleted
+	 * @param savedRow a copy of the row as it was before it was deleted
+	 */
+	<R extends DBRow> DBDeleteByPrimaryKey(R row, DBRow savedRow) {
+		super(row);
+		savedRows.add(savedRow);
+	}
+
 	private <R extends DBRow> DBDeleteByPrimaryKey(DBDatabase db, R row) throws SQLException {
 		super(row);
 		DBRow example = DBRow.getPrimaryKeyExample(row);
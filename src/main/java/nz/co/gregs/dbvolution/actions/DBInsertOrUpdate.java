@@ -0,0 +1,392 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.actions;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import nz.co.gregs.dbvolution.DBRow;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.databases.DBStatement;
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+import nz.co.gregs.dbvolution.datatypes.DBLargeObject;
+import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+import nz.co.gregs.dbvolution.exceptions.AccidentalUpdateOfReadOnlyRowException;
+import nz.co.gregs.dbvolution.internal.properties.PropertyWrapper;
+
+/**
+ * Inserts rows, or updates the existing rows with the same primary key, using
+ * the database's native upsert statement.
+ *
+ * <p>
+ * Only used when {@link DBDefinition#supportsUpsert() } is TRUE. The
+ * statements are batched in the same way as {@link DBBulkInsert}.
+ *
+ * <p>
+ * Rows without a complete primary key, or with large objects to store, are
+ * inserted individually and updated if the insert fails.
+ *
+ * <p>
+ * The DBActionList returned contains a {@link DBInsert} or an update for each
+ * row, and can be reverted like any other inserts and updates.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class DBInsertOrUpdate extends DBAction {
+
+	private static final long serialVersionUID = 1l;
+
+	private final List<DBRow> rows = new ArrayList<>();
+	private transient DBActionList executedActions = null;
+
+	/**
+	 * Creates a DBInsertOrUpdate action for the row.
+	 *
+	 * @param <R> the table affected
+	 * @param row the row to insert or update
+	 */
+	public <R extends DBRow> DBInsertOrUpdate(R row) {
+		super(row);
+		rows.add(row);
+	}
+
+	private DBInsertOrUpdate(Collection<? extends DBRow> rowsToSave) {
+		super(rowsToSave.iterator().next());
+		rows.addAll(rowsToSave);
+	}
+
+	/**
+	 * Inserts the rows, or updates them if they already exist, using the
+	 * database's native upsert statement.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param database the target database
+	 * @param rows the rows to insert or update
+	 * @return a DBActionList of the actions performed on the database.
+	 * @throws SQLException Database actions can throw SQLException
+	 */
+	public static DBActionList save(DBDatabase database, Collection<? extends DBRow> rows) throws SQLException {
+		if (rows.isEmpty()) {
+			return new DBActionList();
+		}
+		for (DBRow row : rows) {
+			if (row.isReadOnly()) {
+				throw new AccidentalUpdateOfReadOnlyRowException(row);
+			}
+		}
+		final DBActionList changes = database.executeDBAction(new DBInsertOrUpdate(rows));
+		for (DBRow row : rows) {
+			row.setSimpleTypesToUnchanged();
+		}
+		return changes;
+	}
+
+	/**
+	 * Inserts the rows, or updates them if they already exist, using the
+	 * database's native upsert statement.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param database the target database
+	 * @param rows the rows to insert or update
+	 * @return a DBActionList of the actions performed on the database.
+	 * @throws SQLException Database actions can throw SQLException
+	 */
+	public static DBActionList save(DBDatabase database, DBRow... rows) throws SQLException {
+		return save(database, Arrays.asList(rows));
+	}
+
+	@Override
+	protected DBRow getRow() {
+		return DBRow.copyDBRow(rows.get(0));
+	}
+
+	@Override
+	public List<String> getSQLStatements(DBDatabase db) {
+		List<String> sqlStatements = new ArrayList<>();
+		final DBDefinition defn = db.getDefinition();
+		for (DBRow row : rows) {
+			if (canBeUpserted(defn, row)) {
+				sqlStatements.addAll(getSQLStatements(defn, row));
+			} else {
+				sqlStatements.addAll(new DBInsert(row).getSQLStatements(db));
+			}
+		}
+		return sqlStatements;
+	}
+
+	@Override
+	public DBActionList execute(DBDatabase db) throws SQLException {
+		DBActionList actions = new DBActionList();
+		final DBDefinition defn = db.getDefinition();
+		try (DBStatement statement = db.getDBStatement()) {
+			StatementBatch batch = new StatementBatch(db, statement, actions);
+			final int chunkSize = db.getBatchSize();
+			int index = 0;
+			while (index < rows.size()) {
+				// the lookup and the fallback need the earlier rows to be stored first
+				batch.execute();
+				if (!canBeUpserted(defn, rows.get(index))) {
+					actions.addAll(insertOrUpdateIndividually(db, rows.get(index)));
+					index++;
+				} else {
+					List<DBRow> chunk = new ArrayList<>();
+					while (index < rows.size() && chunk.size() < chunkSize && canBeUpserted(defn, rows.get(index))) {
+						chunk.add(rows.get(index));
+						index++;
+					}
+					// find out which rows will be updated before their upserts are sent
+					final Set<DBRow> rowsToUpdate = findRowsToUpdate(db, statement, chunk);
+					for (DBRow row : chunk) {
+						final DBAction upsertAction = rowsToUpdate.contains(row) ? new DBUpdateSimpleTypes(row) : new DBInsert(row);
+						batch.add(getSQLStatements(defn, row), Arrays.asList(row), Arrays.asList(upsertAction));
+					}
+				}
+			}
+			batch.execute();
+		}
+		executedActions = actions;
+		return actions;
+	}
+
+	/**
+	 * Returns the reverts of the inserts and updates performed by
+	 * {@link #execute(nz.co.gregs.dbvolution.databases.DBDatabase) }.
+	 *
+	 * <p>
+	 * The DBActionList returned by execute contains those inserts and updates
+	 * and should usually be reverted instead.
+	 *
+	 * @return the actions required to revert the inserts and updates
+	 */
+	@Override
+	protected DBActionList getRevertDBActionList() {
+		if (executedActions == null) {
+			throw new UnsupportedOperationException("DBInsertOrUpdate can not be reverted before it is executed as it is unknown whether the row will be inserted or updated.");
+		}
+		return executedActions.getRevertActionList();
+	}
+
+	@Override
+	public boolean requiresRunOnIndividualDatabaseBeforeCluster() {
+		return true;
+	}
+
+	@Override
+	public boolean runOnDatabaseDuringCluster(DBDatabase initialDatabase, DBDatabase next) {
+		return initialDatabase != next;
+	}
+
+	private DBActionList insertOrUpdateIndividually(DBDatabase db, DBRow row) throws SQLException {
+		DBActionList actions = new DBActionList();
+		try {
+			actions.addAll(new DBInsert(row).execute(db));
+		} catch (SQLException exc1) {
+			try {
+				for (DBAction update : DBUpdate.getUpdates(row)) {
+					actions.addAll(update.execute(db));
+				}
+			} catch (SQLException exc2) {
+				throw exc1;
+			}
+		}
+		return actions;
+	}
+
+	/**
+	 * Finds which of the rows will update an existing row rather than insert a
+	 * new one.
+	 *
+	 * <p>
+	 * Uses one query per table for the whole chunk rather than one per row.
+	 * Rows repeating a primary key earlier in the chunk will update the row
+	 * inserted by the earlier upsert.
+	 *
+	 * @param db the target database
+	 * @param statement the statement to use for the queries
+	 * @param chunk the rows to be upserted, all with complete primary keys
+	 * @return the rows that will be updated
+	 * @throws SQLException database errors
+	 */
+	private Set<DBRow> findRowsToUpdate(DBDatabase db, DBStatement statement, List<DBRow> chunk) throws SQLException {
+		final DBDefinition defn = db.getDefinition();
+		Map<String, List<DBRow>> rowsByTable = new LinkedHashMap<>();
+		for (DBRow row : chunk) {
+			final String table = defn.formatTableName(row);
+			List<DBRow> tableRows = rowsByTable.get(table);
+			if (tableRows == null) {
+				tableRows = new ArrayList<>();
+				rowsByTable.put(table, tableRows);
+			}
+			tableRows.add(row);
+		}
+		Set<DBRow> rowsToUpdate = Collections.newSetFromMap(new IdentityHashMap<DBRow, Boolean>());
+		for (Map.Entry<String, List<DBRow>> entry : rowsByTable.entrySet()) {
+			final List<DBRow> tableRows = entry.getValue();
+			final List<QueryableDatatype<?>> examplePKs = tableRows.get(0).getPrimaryKeys();
+			Set<String> existingKeys = new HashSet<>();
+			try (ResultSet resultSet = statement.executeQuery(getExistingKeysSQL(defn, entry.getKey(), tableRows))) {
+				List<QueryableDatatype<?>> keyValues = new ArrayList<>(examplePKs.size());
+				while (resultSet.next()) {
+					keyValues.clear();
+					for (int i = 0; i < examplePKs.size(); i++) {
+						final QueryableDatatype<?> pk = examplePKs.get(i).copy();
+						pk.setFromResultSetReadOnly(defn, resultSet, tableRows.get(0).getPropertyWrapperOf(examplePKs.get(i)).columnName(), i + 1);
+						keyValues.add(pk);
+					}
+					existingKeys.add(getKey(defn, keyValues));
+				}
+			}
+			for (DBRow row : tableRows) {
+				// add() is FALSE when an earlier row in the chunk has the same key
+				if (!existingKeys.add(getKey(defn, row.getPrimaryKeys()))) {
+					rowsToUpdate.add(row);
+				}
+			}
+		}
+		return rowsToUpdate;
+	}
+
+	private static String getExistingKeysSQL(DBDefinition defn, String table, List<DBRow> tableRows) {
+		final DBRow example = tableRows.get(0);
+		StringBuilder columns = new StringBuilder();
+		String separator = defn.getStartingSelectSubClauseSeparator();
+		for (QueryableDatatype<?> pk : example.getPrimaryKeys()) {
+			columns.append(separator).append(defn.formatColumnName(example.getPropertyWrapperOf(pk).columnName()));
+			separator = defn.getSubsequentSelectSubClauseSeparator();
+		}
+		StringBuilder condition = new StringBuilder();
+		if (example.getPrimaryKeys().size() == 1) {
+			condition.append(columns).append(" IN (");
+			separator = "";
+			for (DBRow row : tableRows) {
+				condition.append(separator).append(row.getPrimaryKeys().get(0).toSQLString(defn));
+				separator = ", ";
+			}
+			condition.append(")");
+		} else {
+			String orSeparator = "";
+			for (DBRow row : tableRows) {
+				condition.append(orSeparator).append("(");
+				separator = "";
+				for (QueryableDatatype<?> pk : row.getPrimaryKeys()) {
+					condition.append(separator)
+							.append(defn.formatColumnName(row.getPropertyWrapperOf(pk).columnName()))
+							.append(defn.getEqualsComparator())
+							.append(pk.toSQLString(defn));
+					separator = defn.beginAndLine();
+				}
+				condition.append(")");
+				orSeparator = defn.beginOrLine();
+			}
+		}
+		return defn.beginSelectStatement()
+				+ columns
+				+ defn.beginFromClause()
+				+ table
+				+ defn.beginWhereClause()
+				+ condition
+				+ defn.endSQLStatement();
+	}
+
+	private static String getKey(DBDefinition defn, List<QueryableDatatype<?>> primaryKeys) {
+		StringBuilder key = new StringBuilder();
+		for (QueryableDatatype<?> pk : primaryKeys) {
+			key.append(pk.toSQLString(defn)).append('\u0000');
+		}
+		return key.toString();
+	}
+
+	private List<String> getSQLStatements(DBDefinition defn, DBRow row) {
+		Map<String, String> primaryKeys = new LinkedHashMap<>();
+		Map<String, String> insertValues = new LinkedHashMap<>();
+		Map<String, String> updateValues = new LinkedHashMap<>();
+		for (PropertyWrapper prop : row.getColumnPropertyWrappers()) {
+			if (prop.isColumn() && !prop.hasColumnExpression()) {
+				final QueryableDatatype<?> qdt = prop.getQueryableDatatype();
+				// BLOBS are not inserted normally so don't include them
+				if (qdt != null && !(qdt instanceof DBLargeObject)) {
+					final String column = defn.formatColumnName(prop.columnName());
+					if (prop.isPrimaryKey()) {
+						final String value = qdt.toSQLString(defn);
+						primaryKeys.put(column, value);
+						insertValues.put(column, value);
+					} else if (qdt.hasBeenSet()) {
+						final String value = qdt.toSQLString(defn);
+						insertValues.put(column, value);
+						updateValues.put(column, value);
+					} else {
+						if (qdt.hasDefaultInsertValue()) {
+							insertValues.put(column, qdt.getDefaultInsertValueSQLString(defn));
+						}
+						if (qdt.hasDefaultUpdateValue()) {
+							updateValues.put(column, qdt.getDefaultUpdateValueSQLString(defn));
+						}
+					}
+				}
+			}
+		}
+		List<String> sqlStatements = new ArrayList<>();
+		sqlStatements.addAll(defn.getInsertPreparation(row));
+		sqlStatements.add(defn.getUpsertSQL(row, primaryKeys, insertValues, updateValues));
+		sqlStatements.addAll(defn.getInsertCleanUp(row));
+		return sqlStatements;
+	}
+
+	/**
+	 * Rows can be upserted when the database supports upserts, their primary
+	 * keys are known, and they have no large objects to store.
+	 *
+	 * @param defn the definition of the target database
+	 * @param row the row to be inserted or updated
+	 * @return TRUE if the row can use the native upsert statement
+	 */
+	private boolean canBeUpserted(DBDefinition defn, DBRow row) {
+		if (!defn.supportsUpsert()) {
+			return false;
+		}
+		final QueryableDatatype<?>[] pks = row.getPrimaryKeysAsArray();
+		if (pks.length == 0) {
+			return false;
+		}
+		for (QueryableDatatype<?> pk : pks) {
+			if (!pk.hasBeenSet()) {
+				return false;
+			}
+		}
+		for (QueryableDatatype<?> largeObject : row.getLargeObjects()) {
+			if (largeObject.hasBeenSet()) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
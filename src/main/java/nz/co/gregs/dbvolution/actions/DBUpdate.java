@@ -16,10 +16,12 @@
 package nz.co.gregs.dbvolution.actions;
 
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
 import nz.co.gregs.dbvolution.databases.DBDatabase;
 import nz.co.gregs.dbvolution.DBRow;
 import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+import nz.co.gregs.dbvolution.exceptions.AccidentalUpdateOfReadOnlyRowException;
 import nz.co.gregs.dbvolution.exceptions.AccidentalUpdateOfUndefinedRowException;
 
 /**
@@ -34,6 +36,8 @@ public abstract class DBUpdate extends DBAction {
 
 	private final static long serialVersionUID = 1l;
 
+	private int updateCount = Statement.SUCCESS_NO_INFO;
+
 	/**
 	 * Creates a DBUpdate action for the row supplied.
 	 *
@@ -44,6 +48,27 @@ public abstract class DBUpdate extends DBAction {
 		super(row);
 	}
 
+	/**
+	 * Returns the number of rows changed on the database by this update.
+	 *
+	 * <p>
+	 * The count is only known for updates executed in a batch by
+	 * {@link DBBulkUpdate}, otherwise, or if the database does not report it,
+	 * {@link Statement#SUCCESS_NO_INFO} is returned.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the number of rows updated or {@link Statement#SUCCESS_NO_INFO}
+	 */
+	public int getUpdateCount() {
+		return updateCount;
+	}
+
+	void setUpdateCount(int updateCount) {
+		this.updateCount = updateCount;
+	}
+
 	/**
 	 * Executes required update actions for the row and returns a
 	 * {@link DBActionList} of those actions.
@@ -103,6 +128,9 @@ public abstract class DBUpdate extends DBAction {
 	public static DBActionList getUpdates(DBRow... rows) throws SQLException {
 		DBActionList updates = new DBActionList();
 		for (DBRow row : rows) {
+			if (row.isReadOnly()) {
+				throw new AccidentalUpdateOfReadOnlyRowException(row);
+			}
 			if (row.getDefined()) {
 				if (row.hasChangedSimpleTypes()) {
 					final List<QueryableDatatype<?>> primaryKeys = row.getPrimaryKeys();
@@ -122,7 +150,7 @@ public abstract class DBUpdate extends DBAction {
 		return updates;
 	}
 
-	private static boolean hasChangedLargeObjects(DBRow row) {
+	static boolean hasChangedLargeObjects(DBRow row) {
 		if (row.hasLargeObjects()) {
 			for (QueryableDatatype<?> qdt : row.getLargeObjects()) {
 				if (qdt.hasChanged()) {
@@ -24,6 +24,7 @@ import nz.co.gregs.dbvolution.databases.DBStatement;
 import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
 import nz.co.gregs.dbvolution.datatypes.DBLargeObject;
 import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+import nz.co.gregs.dbvolution.exceptions.AccidentalUpdateOfReadOnlyRowException;
 import nz.co.gregs.dbvolution.expressions.BooleanExpression;
 import nz.co.gregs.dbvolution.internal.properties.PropertyWrapper;
 
@@ -96,6 +97,9 @@ public class DBUpdateForcedOnSimpleTypesUsingPrimaryKey extends DBUpdateSimpleTy
 	public static DBActionList getUpdateAnyways(DBRow... rows) throws SQLException {
 		DBActionList updates = new DBActionList();
 		for (DBRow row : rows) {
+			if (row.isReadOnly()) {
+				throw new AccidentalUpdateOfReadOnlyRowException(row);
+			}
 			final List<QueryableDatatype<?>> primaryKeys = row.getPrimaryKeys();
 			if (primaryKeys == null || primaryKeys.isEmpty()) {
 			} else {
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.actions;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import nz.co.gregs.dbvolution.DBRow;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.databases.DBStatement;
+
+/**
+ * Sends the SQL of several actions to the database, batching them when the
+ * database allows it.
+ *
+ * <p>
+ * Statements are batched when {@link DBDatabase#batchSQLStatementsWhenPossible()
+ * } is TRUE and the batch is executed every {@link DBDatabase#getBatchSize() }
+ * statements. Rows are only marked as defined, and their actions only added to
+ * the DBActionList, once their statements have been executed.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+class StatementBatch {
+
+	private final DBStatement statement;
+	private final DBActionList actions;
+	private final boolean batching;
+	private final int batchSize;
+	private final List<DBRow> batchedRows = new ArrayList<>();
+	private final List<DBAction> batchedActions = new ArrayList<>();
+	private int batchedStatements = 0;
+
+	StatementBatch(DBDatabase db, DBStatement statement, DBActionList actions) {
+		this.statement = statement;
+		this.actions = actions;
+		this.batching = db.batchSQLStatementsWhenPossible();
+		this.batchSize = db.getBatchSize();
+	}
+
+	/**
+	 * Adds the statements to the batch, or executes them immediately if the
+	 * database does not allow batching.
+	 *
+	 * @param sqlStatements the SQL to execute
+	 * @param rows the rows stored by the SQL
+	 * @param completedActions the actions to add to the DBActionList once the
+	 * SQL has been executed
+	 * @throws SQLException database errors
+	 */
+	void add(List<String> sqlStatements, List<DBRow> rows, List<? extends DBAction> completedActions) throws SQLException {
+		if (batching) {
+			for (String sql : sqlStatements) {
+				statement.addBatch(sql);
+				batchedStatements++;
+			}
+			batchedRows.addAll(rows);
+			batchedActions.addAll(completedActions);
+			if (batchedStatements >= batchSize) {
+				execute();
+			}
+		} else {
+			for (String sql : sqlStatements) {
+				statement.execute(sql);
+			}
+			markAsCompleted(rows, completedActions);
+		}
+	}
+
+	/**
+	 * Executes any statements waiting in the batch.
+	 *
+	 * <p>
+	 * Call this before using another statement so that the actions happen in the
+	 * expected order.
+	 *
+	 * @throws SQLException database errors
+	 */
+	void execute() throws SQLException {
+		if (batchedStatements > 0) {
+			statement.executeBatch();
+			batchedStatements = 0;
+			markAsCompleted(batchedRows, batchedActions);
+			batchedRows.clear();
+			batchedActions.clear();
+		}
+	}
+
+	private void markAsCompleted(List<DBRow> rows, List<? extends DBAction> completedActions) {
+		for (DBRow row : rows) {
+			row.setDefined();
+		}
+		for (DBAction action : completedActions) {
+			actions.add(action);
+		}
+	}
+}
@@ -15,11 +15,15 @@
  */
 package nz.co.gregs.dbvolution.databases;
 
+import nz.co.gregs.dbvolution.actions.DBBulkDelete;
 import nz.co.gregs.dbvolution.actions.DBBulkInsert;
+import nz.co.gregs.dbvolution.actions.DBBulkUpdate;
+import nz.co.gregs.dbvolution.actions.DBInsertOrUpdate;
 import nz.co.gregs.dbvolution.exceptions.UnableToDropDatabaseException;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.PrintStream;
 import java.io.Serializable;
+import java.lang.management.ManagementFactory;
 import java.math.BigInteger;
 import java.security.SecureRandom;
 import java.sql.*;
@@ -27,8 +31,13 @@ import java.util.*;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 import javax.sql.DataSource;
 import nz.co.gregs.dbvolution.DBMigration;
 import nz.co.gregs.dbvolution.DBQuery;
@@ -48,6 +57,8 @@ import nz.co.gregs.dbvolution.datatypes.DBLargeObject;
 import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
 import nz.co.gregs.dbvolution.exceptions.*;
 import nz.co.gregs.dbvolution.transactions.*;
+import nz.co.gregs.dbvolution.internal.database.ConnectionPool;
+import nz.co.gregs.dbvolution.internal.database.PreparedStatementCache;
 import nz.co.gregs.dbvolution.internal.properties.PropertyWrapper;
 import nz.co.gregs.dbvolution.reflection.DataModel;
 import nz.co.gregs.dbvolution.utility.RegularProcess;
@@ -83,6 +94,10 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 
 	private static final long serialVersionUID = 1l;
 	static final Log LOG = LogFactory.getLog(DBDatabase.class);
+	/**
+	 * The default number of statements sent to the database in each batch.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
 
 	private String driverName = "";
 	private boolean printSQLBeforeExecuting = false;
@@ -90,14 +105,22 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	DBTransactionStatement transactionStatement;
 	private DBDefinition definition = null;
 	private boolean batchIfPossible = true;
+	private int batchSize = DEFAULT_BATCH_SIZE;
 	private boolean preventAccidentalDroppingOfTables = true;
 	private boolean preventAccidentalDroppingDatabase = true;
 	private final Object getStatementSynchronizeObject = new Object();
 	private final Object getConnectionSynchronizeObject = new Object();
+	private final Object getConnectionPoolSynchronizeObject = new Object();
 	Connection transactionConnection;
-	private static final transient Map<String, List<Connection>> BUSY_CONNECTIONS = new HashMap<>();
-	private static final transient HashMap<String, List<Connection>> FREE_CONNECTIONS = new HashMap<>();
-	private Boolean needToAddDatabaseSpecificFeatures = true;
+	private int transactionIsolationBeforeTransaction = Connection.TRANSACTION_NONE;
+	private transient volatile ConnectionPool connectionPool;
+	private transient Map<Connection, PreparedStatementCache> preparedStatementCaches;
+	private transient PreparedStatementCache.Statistics preparedStatementCacheStatistics;
+	private final AtomicLong connectionRetries = new AtomicLong(0);
+	private final AtomicLong connectionsDiscarded = new AtomicLong(0);
+	private final AtomicLong statementsExecuted = new AtomicLong(0);
+	private transient ObjectName metricsMBeanName;
+	private volatile boolean needToInitialiseConnections = true;
 	private final DatabaseConnectionSettings settings = new DatabaseConnectionSettings();
 	private boolean terminated = false;
 	private final List<RegularProcess> REGULAR_PROCESSORS = new ArrayList<>();
@@ -133,8 +156,14 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	 */
 	@Override
 	public DBDatabase clone() throws CloneNotSupportedException {
+		if (supportsPooledConnections()) {
+			// make sure the clone shares this database's pool
+			getConnectionPool();
+		}
+		getPreparedStatementCaches();
 		Object clone = super.clone();
 		DBDatabase newInstance = (DBDatabase) clone;
+		newInstance.metricsMBeanName = null;
 		return newInstance;
 	}
 
@@ -255,6 +284,7 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 		settings.setDataSource(ds);
 		setDBDatabaseClassInSettings();
 		createRequiredTables();
+		warmUpConnectionPoolIfRequired();
 	}
 
 	/**
@@ -293,6 +323,7 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 		this.settings.copy(dcs);
 		setDBDatabaseClassInSettings();
 		createRequiredTables();
+		warmUpConnectionPoolIfRequired();
 	}
 
 	/**
@@ -341,6 +372,7 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 		settings.setSchema(set.getSchema());
 		settings.setPort(set.getPort());
 		createRequiredTables();
+		warmUpConnectionPoolIfRequired();
 	}
 
 	private void initDriver(String driverName1) {
@@ -429,7 +461,7 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	 * and MS SQLserver, in particular, need to be added to the path if you wish
 	 * to work with those databases.
 	 */
-	public synchronized Connection getConnection() throws UnableToCreateDatabaseConnectionException, UnableToFindJDBCDriver, SQLException {
+	public Connection getConnection() throws UnableToCreateDatabaseConnectionException, UnableToFindJDBCDriver, SQLException {
 		if (terminated) {
 			return null;
 		} else {
@@ -439,11 +471,7 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 			Connection conn = null;
 			while (conn == null) {
 				if (supportsPooledConnections()) {
-					if (FREE_CONNECTIONS.isEmpty() || getConnectionList(FREE_CONNECTIONS).isEmpty()) {
-						conn = getRawConnection();
-					} else {
-						conn = getConnectionList(FREE_CONNECTIONS).get(0);
-					}
+					conn = getConnectionPool().acquire();
 				} else {
 					conn = getRawConnection();
 				}
@@ -455,71 +483,182 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 				} catch (SQLException ex) {
 					Logger.getLogger(DBDatabase.class.getName()).log(Level.FINEST, null, ex);
 				}
-				if (connectionUsedForPersistentConnection(conn)) {
+				if (conn != null && connectionUsedForPersistentConnection(conn)) {
+					// the persistent connection stays open but is no longer pooled
+					if (connectionPool != null) {
+						connectionPool.remove(conn);
+					}
 					conn = null;
 				}
 			}
-			usedConnection(conn);
 			return conn;
 		}
 	}
 
-	@edu.umd.cs.findbugs.annotations.SuppressFBWarnings(
-			value = {"OBL_UNSATISFIED_OBLIGATION_EXCEPTION_EDGE", "ODR_OPEN_DATABASE_RESOURCE"},
-			justification = "Raw connections are pooled and closed  in discardConnection()")
+	/**
+	 * Returns the pool of connections used by this database, creating it from
+	 * the pool settings of {@link #getSettings() } when first required.
+	 *
+	 * @return the connection pool
+	 */
+	private ConnectionPool getConnectionPool() {
+		ConnectionPool pool = connectionPool;
+		if (pool == null) {
+			synchronized (getConnectionPoolSynchronizeObject) {
+				pool = connectionPool;
+				if (pool == null) {
+					pool = new ConnectionPool(new PooledConnectionSource(), getSettings());
+					connectionPool = pool;
+				}
+			}
+		}
+		return pool;
+	}
+
+	private boolean hasNoPooledConnections() {
+		final ConnectionPool pool = connectionPool;
+		return pool == null || pool.getTotalConnections() == 0;
+	}
+
+	/**
+	 * Opens the pooled connections before they are needed.
+	 *
+	 * <p>
+	 * Opens the {@link DatabaseConnectionSettings#getMinimumPoolSize() minimum number of connections},
+	 * or one connection if there is no minimum, in parallel and validates them.
+	 * The database specific features are installed once, by the first
+	 * connection.
+	 *
+	 * <p>
+	 * Call this method before declaring the application ready so the first
+	 * requests do not pay for connecting to the database. Alternatively use
+	 * {@link DatabaseConnectionSettings#setWarmUpConnectionPool(boolean) } to
+	 * warm up the pool when the DBDatabase is created.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the number of connections opened
+	 * @throws SQLException a connection could not be opened or was invalid
+	 */
+	public int warmUpConnectionPool() throws SQLException {
+		return warmUpConnectionPool(Math.max(1, getSettings().getMinimumPoolSize()));
+	}
+
+	/**
+	 * Opens the pooled connections before they are needed.
+	 *
+	 * <p>
+	 * Opens connections in parallel, and validates them, until the pool holds
+	 * the required number of connections or reaches its maximum size.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param connections the number of connections the pool should hold
+	 * @return the number of connections opened
+	 * @throws SQLException a connection could not be opened or was invalid
+	 */
+	public int warmUpConnectionPool(int connections) throws SQLException {
+		if (terminated || !supportsPooledConnections()) {
+			return 0;
+		}
+		if (needToInitialiseConnections) {
+			// initialise the database once before opening the rest in parallel
+			unusedConnection(getConnection());
+		}
+		return getConnectionPool().warmUp(connections);
+	}
+
+	private void warmUpConnectionPoolIfRequired() throws SQLException {
+		if (getSettings().isWarmUpConnectionPool()) {
+			warmUpConnectionPool();
+		}
+	}
+
 	private Connection getRawConnection() throws UnableToFindJDBCDriver, UnableToCreateDatabaseConnectionException, SQLException {
 		if (!terminated) {
-			Connection connection = null;
-			int retries = 0;
-			synchronized (getConnectionSynchronizeObject) {
-				if (this.getDataSource() == null) {
-					try {
-						// load the driver
-						Class.forName(getDriverName());
-					} catch (ClassNotFoundException noDriver) {
-						throw new UnableToFindJDBCDriver(getDriverName(), noDriver);
+			if (needToInitialiseConnections) {
+				synchronized (getConnectionSynchronizeObject) {
+					if (needToInitialiseConnections) {
+						final Connection connection = openRawConnection(true);
+						needToInitialiseConnections = false;
+						return connection;
 					}
-					startServerIfRequired();
-					while (connection == null) {
+				}
+			}
+			// once the database is initialised connections can be opened in parallel
+			return openRawConnection(false);
+		}
+		return null;
+	}
+
+	/**
+	 * Opens a new connection to the database, retrying if the database is not
+	 * yet accepting connections.
+	 *
+	 * <p>
+	 * The first connection also loads the driver, starts the server if required,
+	 * configures the definition from the connection's metadata, and adds the
+	 * database specific features.
+	 *
+	 * @param firstConnection TRUE if the database still needs to be initialised
+	 * @return a new connection
+	 */
+	@edu.umd.cs.findbugs.annotations.SuppressFBWarnings(
+			value = {"OBL_UNSATISFIED_OBLIGATION_EXCEPTION_EDGE", "ODR_OPEN_DATABASE_RESOURCE"},
+			justification = "Raw connections are pooled and closed  in discardConnection()")
+	private Connection openRawConnection(boolean firstConnection) throws UnableToFindJDBCDriver, UnableToCreateDatabaseConnectionException, SQLException {
+		Connection connection = null;
+		int retries = 0;
+		if (this.getDataSource() == null) {
+			if (firstConnection) {
+				try {
+					// load the driver
+					Class.forName(getDriverName());
+				} catch (ClassNotFoundException noDriver) {
+					throw new UnableToFindJDBCDriver(getDriverName(), noDriver);
+				}
+				startServerIfRequired();
+			}
+			while (connection == null) {
+				try {
+					connection = getConnectionFromDriverManager();
+					LOG.debug("NEW CONNECTION: " + this.getUrlFromSettings(settings));
+				} catch (SQLException noConnection) {
+					if (retries < MAX_CONNECTION_RETRIES) {
+						retries++;
+						connectionRetries.incrementAndGet();
 						try {
-							connection = getConnectionFromDriverManager();
-							LOG.debug("NEW CONNECTION: " + this.getUrlFromSettings(settings));
-							DatabaseMetaData metaData = connection.getMetaData();
-							LOG.debug("DATABASE: " + metaData.getDatabaseProductName() + " - " + metaData.getDatabaseProductVersion());
-							LOG.debug("DATABASE: " + metaData.getDriverName() + " - " + metaData.getDriverVersion());
-							setDefinitionBasedOnConnectionMetaData(connection.getClientInfo(), metaData);
-						} catch (SQLException noConnection) {
-							if (retries < MAX_CONNECTION_RETRIES) {
-								retries++;
-								try {
-									getConnectionSynchronizeObject.wait(SLEEP_BETWEEN_CONNECTION_RETRIES_MILLIS);
-								} catch (InterruptedException ex) {
-									Logger.getLogger(DBDatabase.class.getName()).log(Level.SEVERE, null, ex);
-								}
-							} else {
-								throw noConnection;
-							}
+							Thread.sleep(SLEEP_BETWEEN_CONNECTION_RETRIES_MILLIS);
+						} catch (InterruptedException ex) {
+							Logger.getLogger(DBDatabase.class.getName()).log(Level.SEVERE, null, ex);
 						}
-					}
-				} else {
-					try {
-						connection = getDataSource().getConnection();
-					} catch (SQLException noConnection) {
-						throw new UnableToCreateDatabaseConnectionException(getDataSource(), noConnection);
+					} else {
+						throw noConnection;
 					}
 				}
 			}
-			synchronized (this) {
-				if (needToAddDatabaseSpecificFeatures) {
-					try (Statement createStatement = connection.createStatement()) {
-						addDatabaseSpecificFeatures(createStatement);
-						needToAddDatabaseSpecificFeatures = false;
-					}
-				}
+		} else {
+			try {
+				connection = getDataSource().getConnection();
+			} catch (SQLException noConnection) {
+				throw new UnableToCreateDatabaseConnectionException(getDataSource(), noConnection);
 			}
-			return connection;
 		}
-		return null;
+		if (firstConnection) {
+			try (Statement createStatement = connection.createStatement()) {
+				DatabaseMetaData metaData = connection.getMetaData();
+				LOG.debug("DATABASE: " + metaData.getDatabaseProductName() + " - " + metaData.getDatabaseProductVersion());
+				LOG.debug("DATABASE: " + metaData.getDriverName() + " - " + metaData.getDriverVersion());
+				setDefinitionBasedOnConnectionMetaData(connection.getClientInfo(), metaData);
+				addDatabaseSpecificFeatures(createStatement);
+			} catch (SQLException | RuntimeException cantAddFeatures) {
+				closeConnection(connection);
+				throw cantAddFeatures;
+			}
+		}
+		return connection;
 	}
 	private final int SLEEP_BETWEEN_CONNECTION_RETRIES_MILLIS;
 	private int MAX_CONNECTION_RETRIES = 6;
@@ -641,18 +780,21 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	 * @throws SQLException database exceptions
 	 */
 	public final DBActionList insert(Collection<? extends DBRow> listOfRowsToInsert) throws SQLException {
-		DBActionList changes = new DBActionList();
 		if (listOfRowsToInsert.size() > 0) {
-			for (DBRow row : listOfRowsToInsert) {
-				changes.addAll(this.getDBTable(row).insert(row));
-			}
+			DBBulkInsert insert = new DBBulkInsert(listOfRowsToInsert.iterator().next());
+			insert.addAll(listOfRowsToInsert);
+			return insert.insert(this);
 		}
-		return changes;
+		return new DBActionList();
 	}
 
 	/**
 	 *
-	 * Inserts DBRows and Lists of DBRows into the correct tables automatically
+	 * Inserts DBRows into the correct tables automatically, or updates the
+	 * existing rows with the same primary key.
+	 *
+	 * <p>
+	 * Uses the database's native upsert statement when it has one.
 	 *
 	 * @param listOfRowsToInsert a List of DBRows
 	 * <p style="color: #F90;">Support DBvolution at
@@ -661,21 +803,14 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	 * @throws SQLException database exceptions
 	 */
 	public final DBActionList insertOrUpdate(Collection<? extends DBRow> listOfRowsToInsert) throws SQLException {
-		DBActionList changes = new DBActionList();
-		if (listOfRowsToInsert.size() > 0) {
-			for (DBRow row : listOfRowsToInsert) {
-				changes.addAll(this.getDBTable(row).insertOrUpdate(row));
-			}
-		}
-		return changes;
+		return DBInsertOrUpdate.save(this, listOfRowsToInsert);
 	}
 
 	protected DBActionList updateAnyway(List<DBRow> rows) throws SQLException {
-		DBActionList actions = new DBActionList();
-		for (DBRow row : rows) {
-			actions.addAll(this.getDBTable(row).updateAnyway(row));
+		if (rows.size() > 0) {
+			return DBBulkUpdate.updateAnyway(this, rows);
 		}
-		return actions;
+		return new DBActionList();
 	}
 
 	/**
@@ -718,6 +853,10 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	 *
 	 * Deletes Lists of DBRows from the correct tables automatically
 	 *
+	 * <p>
+	 * Rows with primary keys are deleted using one statement for each chunk of
+	 * rows from the same table.
+	 *
 	 * @param list a list of DBRows
 	 * <p style="color: #F90;">Support DBvolution at
 	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
@@ -725,13 +864,10 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	 * @throws SQLException database exceptions
 	 */
 	public final DBActionList delete(Collection<? extends DBRow> list) throws SQLException {
-		DBActionList changes = new DBActionList();
 		if (list.size() > 0) {
-			for (DBRow row : list) {
-				changes.addAll(this.getDBTable(row).delete(row));
-			}
+			return DBBulkDelete.delete(this, list);
 		}
-		return changes;
+		return new DBActionList();
 	}
 
 	/**
@@ -769,13 +905,10 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	 * @throws SQLException database exceptions
 	 */
 	public final DBActionList update(Collection<? extends DBRow> listOfRowsToUpdate) throws SQLException {
-		DBActionList actions = new DBActionList();
 		if (listOfRowsToUpdate.size() > 0) {
-			for (DBRow row : listOfRowsToUpdate) {
-				actions.addAll(this.getDBTable(row).update(row));
-			}
+			return DBBulkUpdate.update(this, listOfRowsToUpdate);
 		}
-		return actions;
+		return new DBActionList();
 	}
 
 	/**
@@ -995,6 +1128,15 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	 * Convenience method to simplify switching from READONLY to COMMITTED
 	 * transaction
 	 *
+	 * <p>
+	 * Each transaction runs on its own pooled connection, so transactions on the
+	 * same DBDatabase can run concurrently. The connection is returned to the
+	 * pool with auto-commit and the transaction isolation restored. A
+	 * transaction started within another transaction joins the enclosing
+	 * transaction. If the nested transaction is not committed, its changes are
+	 * rolled back to a savepoint taken when it started, leaving the changes of
+	 * the enclosing transaction in place.
+	 *
 	 * @param <V> the return type of the transaction, can be anything
 	 * @param dbTransaction the transaction to execute
 	 * @param commit commit=true or rollback=false.
@@ -1009,7 +1151,19 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	 * @see
 	 * DBDatabase#doReadOnlyTransaction(nz.co.gregs.dbvolution.transactions.DBTransaction)
 	 */
-	public synchronized <V> V doTransaction(DBTransaction<V> dbTransaction, Boolean commit) throws SQLException, ExceptionThrownDuringTransaction {
+	public <V> V doTransaction(DBTransaction<V> dbTransaction, Boolean commit) throws SQLException, ExceptionThrownDuringTransaction {
+		if (isInATransaction) {
+			// already using the transaction connection, so join the enclosing transaction
+			if (commit) {
+				return dbTransaction.doTransaction(this);
+			}
+			final Savepoint savepoint = transactionConnection.setSavepoint();
+			try {
+				return dbTransaction.doTransaction(this);
+			} finally {
+				transactionConnection.rollback(savepoint);
+			}
+		}
 		DBDatabase db;
 		try {
 			db = this.clone();
@@ -1019,9 +1173,7 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 		V returnValues = null;
 		db.transactionStatement = db.getDBTransactionStatement();
 		try {
-			db.isInATransaction = true;
-			db.transactionConnection = db.transactionStatement.getConnection();
-			db.transactionConnection.setAutoCommit(false);
+			db.startTransaction();
 			try {
 				returnValues = dbTransaction.doTransaction(db);
 				if (commit) {
@@ -1042,15 +1194,72 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 				throw ex;
 			}
 		} finally {
-			db.isInATransaction = false;
-			db.transactionStatement.transactionFinished();
-			discardConnection(db.transactionConnection);
-			db.transactionConnection = null;
-			db.transactionStatement = null;
+			db.finishTransaction();
 		}
 		return returnValues;
 	}
 
+	/**
+	 * Switches this transaction database to the connection of its transaction
+	 * statement and turns off auto-commit.
+	 *
+	 * @throws SQLException database exceptions
+	 */
+	void startTransaction() throws SQLException {
+		isInATransaction = true;
+		transactionConnection = transactionStatement.getConnection();
+		transactionIsolationBeforeTransaction = transactionConnection.getTransactionIsolation();
+		transactionConnection.setAutoCommit(false);
+	}
+
+	/**
+	 * Ends the transaction of this transaction database and returns its
+	 * connection to the pool.
+	 *
+	 * <p>
+	 * Any uncommitted changes are rolled back, then auto-commit and the
+	 * transaction isolation are restored so the next user of the connection is
+	 * not affected by the transaction. Connections that can not be reset are
+	 * discarded.
+	 *
+	 * @throws SQLException database exceptions
+	 */
+	void finishTransaction() throws SQLException {
+		isInATransaction = false;
+		final Connection connection = transactionConnection;
+		try {
+			if (connection != null && !resetConnectionAfterTransaction(connection)) {
+				discardConnection(connection);
+			}
+			if (transactionStatement != null) {
+				transactionStatement.transactionFinished();
+			}
+		} finally {
+			transactionConnection = null;
+			transactionStatement = null;
+		}
+	}
+
+	private boolean resetConnectionAfterTransaction(Connection connection) {
+		try {
+			if (connection.isClosed()) {
+				return false;
+			}
+			if (!connection.getAutoCommit()) {
+				// turning auto-commit on would commit anything left over
+				connection.rollback();
+				connection.setAutoCommit(true);
+			}
+			if (connection.getTransactionIsolation() != transactionIsolationBeforeTransaction) {
+				connection.setTransactionIsolation(transactionIsolationBeforeTransaction);
+			}
+			return true;
+		} catch (SQLException ex) {
+			LOG.warn("Unable to reset the connection after the transaction, discarding the connection: " + ex.getLocalizedMessage());
+			return false;
+		}
+	}
+
 	/**
 	 * Performs the transaction on this database.
 	 *
@@ -1974,6 +2183,36 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 		batchIfPossible = batchSQLStatementsWhenPossible;
 	}
 
+	/**
+	 * Returns the maximum number of SQL statements that will be sent to the
+	 * database in one batch.
+	 *
+	 * <p>
+	 * Only used when {@link #batchSQLStatementsWhenPossible() } is TRUE.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the maximum number of statements in each batch
+	 */
+	public synchronized int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Sets the maximum number of SQL statements that will be sent to the
+	 * database in one batch.
+	 *
+	 * <p>
+	 * Larger batches require fewer round trips to the database but use more
+	 * memory in the driver. Values less than 1 are treated as 1.
+	 *
+	 * @param batchSize the maximum number of statements in each batch
+	 */
+	public synchronized void setBatchSize(int batchSize) {
+		this.batchSize = Math.max(1, batchSize);
+	}
+
 	protected synchronized void preventDDLDuringTransaction(String message) throws AutoCommitActionDuringTransactionException {
 		if (isInATransaction) {
 			throw new AutoCommitActionDuringTransactionException(message);
@@ -2125,7 +2364,7 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	 * @param jdbcURL the jdbcURL to set
 	 */
 	final protected synchronized void setJdbcURL(String jdbcURL) {
-		if (FREE_CONNECTIONS.isEmpty()) {
+		if (hasNoPooledConnections()) {
 			settings.setUrl(jdbcURL);
 //			this.jdbcURL = jdbcURL;
 		}
@@ -2135,7 +2374,7 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	 * @param username the username to set
 	 */
 	final protected synchronized void setUsername(String username) {
-		if (FREE_CONNECTIONS.isEmpty()) {
+		if (hasNoPooledConnections()) {
 			settings.setUsername(username);
 //			this.username = username;
 		}
@@ -2145,7 +2384,7 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	 * @param password the password to set
 	 */
 	final protected synchronized void setPassword(String password) {
-		if (FREE_CONNECTIONS.isEmpty()) {
+		if (hasNoPooledConnections()) {
 			settings.setPassword(password);
 //			this.password = password;
 		}
@@ -2175,13 +2414,14 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 	 * @param connection connection
 	 * @throws java.sql.SQLException java.sql.SQLException
 	 */
-	public synchronized void unusedConnection(Connection connection) throws SQLException {
-		if (supportsPooledConnections()) {
-			List<Connection> busy = getConnectionList(BUSY_CONNECTIONS);
-			busy.remove(connection);
-			getConnectionList(FREE_CONNECTIONS).add(connection);
-		} else {
-			discardConnection(connection);
+	public void unusedConnection(Connection connection) throws SQLException {
+		if (connection == null || connection == storedConnection) {
+			return;
+		}
+		final ConnectionPool pool = connectionPool;
+		if (!supportsPooledConnections() || pool == null || !pool.release(connection)) {
+			// not pooled, or already discarded, so just close it
+			closeConnection(connection);
 		}
 	}
 
@@ -2202,42 +2442,311 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 		return true;
 	}
 
-	private synchronized void usedConnection(Connection connection) {
-		if (supportsPooledConnections()) {
-			getConnectionList(FREE_CONNECTIONS).remove(connection);
-			getConnectionList(BUSY_CONNECTIONS).add(connection);
-		}
-	}
-
 	/**
 	 * Removes a connection from the available pool.
 	 *
 	 * You'll not need to use this unless you're replacing DBvolution's database
 	 * connection handling.
 	 *
+	 * <p>
+	 * The connection is closed and counted in
+	 * {@link DatabaseMetrics#getConnectionsDiscarded() }, so only use this for
+	 * connections that are broken or can not be reset. Connections that are
+	 * finished with should be returned with {@link #unusedConnection(java.sql.Connection)
+	 * }.
+	 *
 	 * @param connection the JDBC connection to be removed
 	 */
-	public synchronized void discardConnection(Connection connection) {
+	public void discardConnection(Connection connection) {
 		if (connection != null) {
-			getConnectionList(BUSY_CONNECTIONS).remove(connection);
-			getConnectionList(FREE_CONNECTIONS).remove(connection);
+			connectionsDiscarded.incrementAndGet();
+			final ConnectionPool pool = connectionPool;
+			if (pool != null) {
+				pool.remove(connection);
+			}
+			closeConnection(connection);
+		}
+	}
+
+	private void closeConnection(Connection connection) {
+		final PreparedStatementCache cache = getPreparedStatementCaches().remove(connection);
+		if (cache != null) {
+			cache.close();
+		}
+		try {
+			connection.close();
+		} catch (SQLException ex) {
+			Logger.getLogger(DBDatabase.class
+					.getName()).log(Level.WARNING, null, ex);
+		}
+	}
+
+	/**
+	 * Supplies the connection pool with raw connections to this database.
+	 */
+	private class PooledConnectionSource implements ConnectionPool.ConnectionSource {
+
+		@Override
+		public Connection createConnection() throws SQLException {
+			return getRawConnection();
+		}
+
+		@Override
+		public void closeConnection(Connection connection) {
+			DBDatabase.this.closeConnection(connection);
+		}
+	}
+
+	/**
+	 * Returns the PreparedStatement cache for the connection.
+	 *
+	 * <p>
+	 * The cache is created when first requested and closed when the connection
+	 * is discarded. The size of the cache is set by
+	 * {@link DatabaseConnectionSettings#setPreparedStatementCacheSize(int) }.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param connection a connection created by this database
+	 * @return the cache for the connection or NULL if PreparedStatements are not
+	 * being cached.
+	 */
+	public PreparedStatementCache getPreparedStatementCache(Connection connection) {
+		final int cacheSize = getSettings().getPreparedStatementCacheSize();
+		if (cacheSize <= 0 || connection == null) {
+			return null;
+		}
+		final Map<Connection, PreparedStatementCache> caches = getPreparedStatementCaches();
+		synchronized (caches) {
+			PreparedStatementCache cache = caches.get(connection);
+			if (cache == null) {
+				cache = new PreparedStatementCache(connection, cacheSize, getPreparedStatementCacheStatistics());
+				caches.put(connection, cache);
+			}
+			return cache;
+		}
+	}
+
+	/**
+	 * The PreparedStatement caches of the connections to this database.
+	 *
+	 * <p>
+	 * Clones share the map as they share the connections.
+	 */
+	private synchronized Map<Connection, PreparedStatementCache> getPreparedStatementCaches() {
+		if (preparedStatementCaches == null) {
+			preparedStatementCaches = Collections.synchronizedMap(new IdentityHashMap<Connection, PreparedStatementCache>());
+		}
+		return preparedStatementCaches;
+	}
+
+	private void closePreparedStatementCaches() {
+		final Map<Connection, PreparedStatementCache> caches = getPreparedStatementCaches();
+		final List<PreparedStatementCache> toClose;
+		synchronized (caches) {
+			toClose = new ArrayList<>(caches.values());
+			caches.clear();
+		}
+		for (PreparedStatementCache cache : toClose) {
+			cache.close();
+		}
+	}
+
+	/**
+	 * Returns the hit, miss, and eviction counts of the PreparedStatement caches
+	 * used by this database.
+	 *
+	 * <p>
+	 * Use these to size the cache with
+	 * {@link DatabaseConnectionSettings#setPreparedStatementCacheSize(int) }:
+	 * a large number of evictions indicates the cache is too small.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the statistics for this database's PreparedStatement caches
+	 */
+	public synchronized PreparedStatementCache.Statistics getPreparedStatementCacheStatistics() {
+		if (preparedStatementCacheStatistics == null) {
+			preparedStatementCacheStatistics = new PreparedStatementCache.Statistics();
+		}
+		return preparedStatementCacheStatistics;
+	}
+
+	/**
+	 * Returns a snapshot of the connection pool and statement metrics of this
+	 * database.
+	 *
+	 * <p>
+	 * The metrics include the size of the connection pool, the number of busy
+	 * and idle connections, how long threads waited for connections, how long
+	 * connections stayed open, how often connections could not be created or
+	 * were discarded, and the number of statements executed.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the current metrics of this database
+	 */
+	public DatabaseMetrics getMetrics() {
+		final DatabaseMetrics metrics = new DatabaseMetrics();
+		final ConnectionPool pool = connectionPool;
+		if (pool != null) {
+			metrics.addConnectionPool(pool);
+		}
+		metrics.addDatabaseCounters(connectionRetries.get(), connectionsDiscarded.get(), statementsExecuted.get());
+		return metrics;
+	}
+
+	void statementsExecuted(int count) {
+		statementsExecuted.addAndGet(count);
+	}
+
+	/**
+	 * Registers the metrics of this database with the platform MBeanServer.
+	 *
+	 * <p>
+	 * The MBean is named using the database's label, if it has one, and is
+	 * unregistered when the database is stopped.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the name of the registered MBean
+	 * @throws JMException the MBean could not be registered
+	 * @see DatabaseMetricsMXBean
+	 */
+	public synchronized ObjectName registerMetricsMBean() throws JMException {
+		if (metricsMBeanName == null) {
+			final String label = getLabel();
+			final String name = (label == null || label.isEmpty())
+					? getClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(this))
+					: label;
+			final ObjectName objectName = new ObjectName("nz.co.gregs.dbvolution:type=" + getClass().getSimpleName() + ",name=" + ObjectName.quote(name));
+			final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			server.registerMBean(new StandardMBean(new LiveMetrics(), DatabaseMetricsMXBean.class, true), objectName);
+			metricsMBeanName = objectName;
+		}
+		return metricsMBeanName;
+	}
+
+	/**
+	 * Removes the metrics of this database from the platform MBeanServer.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 */
+	public synchronized void unregisterMetricsMBean() {
+		if (metricsMBeanName != null) {
 			try {
-				connection.close();
-			} catch (SQLException ex) {
-				Logger.getLogger(DBDatabase.class
-						.getName()).log(Level.WARNING, null, ex);
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsMBeanName);
+			} catch (JMException ex) {
+				LOG.warn("Unable to unregister the metrics MBean " + metricsMBeanName, ex);
 			}
+			metricsMBeanName = null;
 		}
 	}
 
-	private synchronized List<Connection> getConnectionList(Map<String, List<Connection>> connectionMap) {
-		final String key = this.getSettings().encode();
-		List<Connection> connList = connectionMap.get(key);
-		if (connList == null) {
-			connList = new ArrayList<>();
-			connectionMap.put(key, connList);
+	/**
+	 * Exposes the current metrics of this database to JMX.
+	 */
+	private class LiveMetrics implements DatabaseMetricsMXBean {
+
+		@Override
+		public int getMaximumPoolSize() {
+			return getMetrics().getMaximumPoolSize();
+		}
+
+		@Override
+		public int getTotalConnections() {
+			return getMetrics().getTotalConnections();
+		}
+
+		@Override
+		public int getIdleConnections() {
+			return getMetrics().getIdleConnections();
+		}
+
+		@Override
+		public int getBusyConnections() {
+			return getMetrics().getBusyConnections();
+		}
+
+		@Override
+		public int getWaitingThreads() {
+			return getMetrics().getWaitingThreads();
+		}
+
+		@Override
+		public long getConnectionAcquisitions() {
+			return getMetrics().getConnectionAcquisitions();
+		}
+
+		@Override
+		public long getConnectionAcquireTimeouts() {
+			return getMetrics().getConnectionAcquireTimeouts();
+		}
+
+		@Override
+		public long getTotalAcquireWaitMillis() {
+			return getMetrics().getTotalAcquireWaitMillis();
+		}
+
+		@Override
+		public long getMaximumAcquireWaitMillis() {
+			return getMetrics().getMaximumAcquireWaitMillis();
+		}
+
+		@Override
+		public long[] getAcquireWaitHistogram() {
+			return getMetrics().getAcquireWaitHistogram();
+		}
+
+		@Override
+		public long[] getAcquireWaitHistogramBoundsMillis() {
+			return getMetrics().getAcquireWaitHistogramBoundsMillis();
+		}
+
+		@Override
+		public long getConnectionsCreated() {
+			return getMetrics().getConnectionsCreated();
+		}
+
+		@Override
+		public long getConnectionCreationFailures() {
+			return getMetrics().getConnectionCreationFailures();
+		}
+
+		@Override
+		public long getConnectionRetries() {
+			return getMetrics().getConnectionRetries();
+		}
+
+		@Override
+		public long getConnectionsClosed() {
+			return getMetrics().getConnectionsClosed();
+		}
+
+		@Override
+		public long getConnectionsDiscarded() {
+			return getMetrics().getConnectionsDiscarded();
+		}
+
+		@Override
+		public long getAverageConnectionLifetimeMillis() {
+			return getMetrics().getAverageConnectionLifetimeMillis();
+		}
+
+		@Override
+		public long getMaximumConnectionLifetimeMillis() {
+			return getMetrics().getMaximumConnectionLifetimeMillis();
+		}
+
+		@Override
+		public long getStatementsExecuted() {
+			return getMetrics().getStatementsExecuted();
 		}
-		return connList;
 	}
 
 	/**
@@ -2594,20 +3103,12 @@ public abstract class DBDatabase implements Serializable, Cloneable {
 				} catch (Exception ex) {
 				}
 			}
-			final List<Connection> freeConnections = getConnectionList(FREE_CONNECTIONS);
-			synchronized (freeConnections) {
-				final Connection[] free = freeConnections.toArray(new Connection[]{});
-				for (Connection connection : free) {
-					discardConnection(connection);
-				}
-			}
-			final List<Connection> busyConnections = getConnectionList(BUSY_CONNECTIONS);
-			synchronized (busyConnections) {
-				final Connection[] busy = busyConnections.toArray(new Connection[]{});
-				for (Connection connection : busy) {
-					discardConnection(connection);
-				}
+			final ConnectionPool pool = connectionPool;
+			if (pool != null) {
+				pool.close();
 			}
+			unregisterMetricsMBean();
+			closePreparedStatementCaches();
 			try {
 				if (storedConnection != null) {
 					storedConnection.close();
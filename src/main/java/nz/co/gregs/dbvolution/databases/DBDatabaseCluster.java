@@ -31,6 +31,10 @@ package nz.co.gregs.dbvolution.databases;
 import nz.co.gregs.dbvolution.utility.ReconnectionProcess;
 import java.lang.reflect.InvocationTargetException;
 import nz.co.gregs.dbvolution.internal.database.ClusterDetails;
+import nz.co.gregs.dbvolution.internal.database.ClusterMemberLease;
+import nz.co.gregs.dbvolution.internal.database.ClusterMemberLoad;
+import nz.co.gregs.dbvolution.internal.database.ClusterRoutingPolicies;
+import nz.co.gregs.dbvolution.internal.database.ClusterRoutingPolicy;
 import nz.co.gregs.dbvolution.exceptions.UnableToRemoveLastDatabaseFromClusterException;
 import java.sql.Connection;
 import java.sql.SQLException;
@@ -421,7 +425,8 @@ public class DBDatabaseCluster extends DBDatabase {
 	}
 
 	/**
-	 * Returns a single random database that is ready for queries
+	 * Returns a single database that is ready for queries, chosen by the
+	 * {@link #getRoutingPolicy() routing policy}.
 	 *
 	 * @return a ready database
 	 * @throws nz.co.gregs.dbvolution.exceptions.NoAvailableDatabaseException
@@ -430,6 +435,58 @@ public class DBDatabaseCluster extends DBDatabase {
 		return details.getReadyDatabase();
 	}
 
+	/**
+	 * Chooses a ready database, like {@link #getReadyDatabase() }, and records
+	 * the query in its load until the lease is closed.
+	 *
+	 * <p>
+	 * Use this instead of {@link #getReadyDatabase() } when querying the
+	 * database directly, so that the routing policy sees the query.
+	 *
+	 * @return the lease of a ready database
+	 * @throws nz.co.gregs.dbvolution.exceptions.NoAvailableDatabaseException
+	 */
+	public ClusterMemberLease leaseReadyDatabase() throws NoAvailableDatabaseException {
+		return details.leaseReadyDatabase();
+	}
+
+	/**
+	 * Sets how the cluster chooses which database runs each query.
+	 *
+	 * <p>
+	 * By default queries are sent to the database with the fewest outstanding
+	 * queries. Other policies, including latency based, weighted, and preferred
+	 * database routing, are available from {@link ClusterRoutingPolicies}.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param policy the routing policy, or NULL to use the default policy
+	 */
+	public void setRoutingPolicy(ClusterRoutingPolicy policy) {
+		details.setRoutingPolicy(policy);
+	}
+
+	/**
+	 * The policy used to choose which database runs each query.
+	 *
+	 * @return the routing policy
+	 */
+	public ClusterRoutingPolicy getRoutingPolicy() {
+		return details.getRoutingPolicy();
+	}
+
+	/**
+	 * Returns the record of the queries the cluster has sent to the database.
+	 *
+	 * @param database a database in the cluster
+	 * @return the number of outstanding queries and the average latency of the
+	 * database
+	 */
+	public ClusterMemberLoad getLoad(DBDatabase database) {
+		return details.getLoad(database);
+	}
+
 	@Override
 	public ResponseToException addFeatureToFixException(Exception exp) throws Exception {
 		throw new UnsupportedOperationException("DBDatabase.addFeatureToFixException(Exception) should not be called");
@@ -482,6 +539,15 @@ public class DBDatabaseCluster extends DBDatabase {
 		}
 	}
 
+	@Override
+	public synchronized void setBatchSize(int batchSize) {
+		super.setBatchSize(batchSize);
+		DBDatabase[] dbs = details.getReadyDatabases();
+		for (DBDatabase next : dbs) {
+			next.setBatchSize(batchSize);
+		}
+	}
+
 	@Override
 	public synchronized boolean batchSQLStatementsWhenPossible() {
 		super.batchSQLStatementsWhenPossible();
@@ -549,7 +615,7 @@ public class DBDatabaseCluster extends DBDatabase {
 
 	@Override
 	public boolean willCreateBlankQuery(DBRow row) throws NoAvailableDatabaseException {
-		return getReadyDatabase().willCreateBlankQuery(row);
+		return details.getMetadataDatabase().willCreateBlankQuery(row);
 	}
 
 	@Override
@@ -783,19 +849,23 @@ public class DBDatabaseCluster extends DBDatabase {
 	}
 
 	@Override
-	public DBActionList test(DBScript script) throws SQLException, ExceptionThrownDuringTransaction, NoAvailableDatabaseException {
-		final DBDatabase readyDatabase = getReadyDatabase();
-		synchronized (readyDatabase) {
-			return readyDatabase.test(script);
-		}
+	public DBActionList test(final DBScript script) throws SQLException, ExceptionThrownDuringTransaction, NoAvailableDatabaseException {
+		return queryReadyDatabase(new ClusterQuery<DBActionList, ExceptionThrownDuringTransaction>() {
+			@Override
+			public DBActionList query(DBDatabase database) throws SQLException, ExceptionThrownDuringTransaction {
+				return database.test(script);
+			}
+		});
 	}
 
 	@Override
-	public <V> V doReadOnlyTransaction(DBTransaction<V> dbTransaction) throws SQLException, ExceptionThrownDuringTransaction, NoAvailableDatabaseException {
-		final DBDatabase readyDatabase = getReadyDatabase();
-		synchronized (readyDatabase) {
-			return readyDatabase.doReadOnlyTransaction(dbTransaction);
-		}
+	public <V> V doReadOnlyTransaction(final DBTransaction<V> dbTransaction) throws SQLException, ExceptionThrownDuringTransaction, NoAvailableDatabaseException {
+		return queryReadyDatabase(new ClusterQuery<V, ExceptionThrownDuringTransaction>() {
+			@Override
+			public V query(DBDatabase database) throws SQLException, ExceptionThrownDuringTransaction {
+				return database.doReadOnlyTransaction(dbTransaction);
+			}
+		});
 	}
 
 	@Override
@@ -813,9 +883,7 @@ public class DBDatabaseCluster extends DBDatabase {
 					V returnValues = null;
 					db.transactionStatement = db.getDBTransactionStatement();
 					try {
-						db.isInATransaction = true;
-						db.transactionConnection = db.transactionStatement.getConnection();
-						db.transactionConnection.setAutoCommit(false);
+						db.startTransaction();
 						try {
 							returnValues = dbTransaction.doTransaction(db);
 							if (!commit) {
@@ -843,18 +911,14 @@ public class DBDatabaseCluster extends DBDatabase {
 		} finally {
 			for (DBDatabase db : transactionDatabases) {
 				synchronized (db) {
-					if (commit) {
+					if (commit && db.transactionConnection != null) {
 						if (rollbackAll) {
 							db.transactionConnection.rollback();
 						} else {
 							db.transactionConnection.commit();
 						}
 					}
-					db.isInATransaction = false;
-					db.transactionStatement.transactionFinished();
-					db.discardConnection(db.transactionConnection);
-					db.transactionConnection = null;
-					db.transactionStatement = null;
+					db.finishTransaction();
 				}
 			}
 		}
@@ -862,193 +926,103 @@ public class DBDatabaseCluster extends DBDatabase {
 	}
 
 	@Override
-	public <A extends DBReport> List<A> getRows(A report, DBRow... examples) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
-		DBDatabase readyDatabase;
-		boolean finished = false;
-		do {
-			readyDatabase = getReadyDatabase();
-			synchronized (readyDatabase) {
-				try {
-					return readyDatabase.getRows(report, examples);
-				} catch (SQLException | AccidentalBlankQueryException | AccidentalCartesianJoinException | NoAvailableDatabaseException e) {
-					if (handleExceptionDuringQuery(e, readyDatabase).equals(HandlerAdvice.ABORT)) {
-						throw e;
-					}
-				}
+	public <A extends DBReport> List<A> getRows(final A report, final DBRow... examples) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
+		return queryReadyDatabase(new ClusterQuery<List<A>, RuntimeException>() {
+			@Override
+			public List<A> query(DBDatabase database) throws SQLException {
+				return database.getRows(report, examples);
 			}
-		} while (!finished);
-		return new ArrayList<>(0);
+		});
 	}
 
 	@Override
-	public <A extends DBReport> List<A> getAllRows(A report, DBRow... examples) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
-		DBDatabase readyDatabase;
-		boolean finished = false;
-		do {
-			readyDatabase = getReadyDatabase();
-			synchronized (readyDatabase) {
-				try {
-					return readyDatabase.getAllRows(report, examples);
-				} catch (SQLException | AccidentalBlankQueryException | AccidentalCartesianJoinException | NoAvailableDatabaseException e) {
-					if (handleExceptionDuringQuery(e, readyDatabase).equals(HandlerAdvice.ABORT)) {
-						throw e;
-					}
-				}
+	public <A extends DBReport> List<A> getAllRows(final A report, final DBRow... examples) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
+		return queryReadyDatabase(new ClusterQuery<List<A>, RuntimeException>() {
+			@Override
+			public List<A> query(DBDatabase database) throws SQLException {
+				return database.getAllRows(report, examples);
 			}
-		} while (!finished);
-		return new ArrayList<>(0);
+		});
 	}
 
 	@Override
-	public <A extends DBReport> List<A> get(A report, DBRow... examples) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
-		DBDatabase readyDatabase;
-		boolean finished = false;
-		do {
-			readyDatabase = getReadyDatabase();
-			synchronized (readyDatabase) {
-				try {
-					return readyDatabase.get(report, examples);
-				} catch (SQLException | AccidentalBlankQueryException | AccidentalCartesianJoinException | NoAvailableDatabaseException e) {
-					if (handleExceptionDuringQuery(e, readyDatabase).equals(HandlerAdvice.ABORT)) {
-						throw e;
-					}
-				}
+	public <A extends DBReport> List<A> get(final A report, final DBRow... examples) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
+		return queryReadyDatabase(new ClusterQuery<List<A>, RuntimeException>() {
+			@Override
+			public List<A> query(DBDatabase database) throws SQLException {
+				return database.get(report, examples);
 			}
-		} while (!finished);
-		return new ArrayList<>(0);
+		});
 	}
 
 	@Override
-	public List<DBQueryRow> get(Long expectedNumberOfRows, DBRow... rows) throws SQLException, UnexpectedNumberOfRowsException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
-		DBDatabase readyDatabase;
-		boolean finished = false;
-		do {
-			readyDatabase = getReadyDatabase();
-			synchronized (readyDatabase) {
-				try {
-					return readyDatabase.get(expectedNumberOfRows, rows);
-				} catch (SQLException | AccidentalBlankQueryException | AccidentalCartesianJoinException | NoAvailableDatabaseException | UnexpectedNumberOfRowsException e) {
-					if (handleExceptionDuringQuery(e, readyDatabase).equals(HandlerAdvice.ABORT)) {
-						throw e;
-					}
-				}
+	public List<DBQueryRow> get(final Long expectedNumberOfRows, final DBRow... rows) throws SQLException, UnexpectedNumberOfRowsException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
+		return queryReadyDatabase(new ClusterQuery<List<DBQueryRow>, UnexpectedNumberOfRowsException>() {
+			@Override
+			public List<DBQueryRow> query(DBDatabase database) throws SQLException, UnexpectedNumberOfRowsException {
+				return database.get(expectedNumberOfRows, rows);
 			}
-		} while (!finished);
-		return new ArrayList<>(0);
+		});
 	}
 
 	@Override
-	public List<DBQueryRow> getByExamples(DBRow... rows) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
-		DBDatabase readyDatabase;
-		boolean finished = false;
-		do {
-			readyDatabase = getReadyDatabase();
-			synchronized (readyDatabase) {
-				try {
-					return readyDatabase.getByExamples(rows);
-				} catch (SQLException | AccidentalBlankQueryException | AccidentalCartesianJoinException | NoAvailableDatabaseException e) {
-					if (handleExceptionDuringQuery(e, readyDatabase).equals(HandlerAdvice.ABORT)) {
-						throw e;
-					}
-				}
+	public List<DBQueryRow> getByExamples(final DBRow... rows) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
+		return queryReadyDatabase(new ClusterQuery<List<DBQueryRow>, RuntimeException>() {
+			@Override
+			public List<DBQueryRow> query(DBDatabase database) throws SQLException {
+				return database.getByExamples(rows);
 			}
-		} while (!finished);
-		return new ArrayList<>(0);
+		});
 	}
 
 	@Override
-	public List<DBQueryRow> get(DBRow... rows) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
-		DBDatabase readyDatabase;
-		boolean finished = false;
-		do {
-			readyDatabase = getReadyDatabase();
-			synchronized (readyDatabase) {
-				try {
-					return readyDatabase.get(rows);
-				} catch (SQLException | AccidentalBlankQueryException | AccidentalCartesianJoinException | NoAvailableDatabaseException e) {
-					if (handleExceptionDuringQuery(e, readyDatabase).equals(HandlerAdvice.ABORT)) {
-						throw e;
-					}
-				}
+	public List<DBQueryRow> get(final DBRow... rows) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
+		return queryReadyDatabase(new ClusterQuery<List<DBQueryRow>, RuntimeException>() {
+			@Override
+			public List<DBQueryRow> query(DBDatabase database) throws SQLException {
+				return database.get(rows);
 			}
-		} while (!finished);
-		return new ArrayList<>(0);
+		});
 	}
 
 	@Override
-	public <R extends DBRow> List<R> getByExample(Long expectedNumberOfRows, R exampleRow) throws SQLException, UnexpectedNumberOfRowsException, AccidentalBlankQueryException, NoAvailableDatabaseException {
-		DBDatabase readyDatabase;
-		boolean finished = false;
-		do {
-			readyDatabase = getReadyDatabase();
-			synchronized (readyDatabase) {
-				try {
-					return readyDatabase.getByExample(expectedNumberOfRows, exampleRow);
-				} catch (SQLException | AccidentalBlankQueryException | UnexpectedNumberOfRowsException e) {
-					if (handleExceptionDuringQuery(e, readyDatabase).equals(HandlerAdvice.ABORT)) {
-						throw e;
-					}
-				}
+	public <R extends DBRow> List<R> getByExample(final Long expectedNumberOfRows, final R exampleRow) throws SQLException, UnexpectedNumberOfRowsException, AccidentalBlankQueryException, NoAvailableDatabaseException {
+		return queryReadyDatabase(new ClusterQuery<List<R>, UnexpectedNumberOfRowsException>() {
+			@Override
+			public List<R> query(DBDatabase database) throws SQLException, UnexpectedNumberOfRowsException {
+				return database.getByExample(expectedNumberOfRows, exampleRow);
 			}
-		} while (!finished);
-		return new ArrayList<R>(0);
+		});
 	}
 
 	@Override
-	public <R extends DBRow> List<R> get(Long expectedNumberOfRows, R exampleRow) throws SQLException, UnexpectedNumberOfRowsException, AccidentalBlankQueryException, NoAvailableDatabaseException {
-		DBDatabase readyDatabase;
-		boolean finished = false;
-		do {
-			readyDatabase = getReadyDatabase();
-			synchronized (readyDatabase) {
-				try {
-					return readyDatabase.get(expectedNumberOfRows, exampleRow);
-				} catch (SQLException | AccidentalBlankQueryException | NoAvailableDatabaseException | UnexpectedNumberOfRowsException e) {
-					if (handleExceptionDuringQuery(e, readyDatabase).equals(HandlerAdvice.ABORT)) {
-						throw e;
-					}
-				}
+	public <R extends DBRow> List<R> get(final Long expectedNumberOfRows, final R exampleRow) throws SQLException, UnexpectedNumberOfRowsException, AccidentalBlankQueryException, NoAvailableDatabaseException {
+		return queryReadyDatabase(new ClusterQuery<List<R>, UnexpectedNumberOfRowsException>() {
+			@Override
+			public List<R> query(DBDatabase database) throws SQLException, UnexpectedNumberOfRowsException {
+				return database.get(expectedNumberOfRows, exampleRow);
 			}
-		} while (!finished);
-		return new ArrayList<R>(0);
+		});
 	}
 
 	@Override
-	public <R extends DBRow> List<R> getByExample(R exampleRow) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
-		DBDatabase readyDatabase;
-		boolean finished = false;
-		do {
-			readyDatabase = getReadyDatabase();
-			synchronized (readyDatabase) {
-				try {
-					return readyDatabase.getByExample(exampleRow);
-				} catch (SQLException | AccidentalBlankQueryException | AccidentalCartesianJoinException | NoAvailableDatabaseException e) {
-					if (handleExceptionDuringQuery(e, readyDatabase).equals(HandlerAdvice.ABORT)) {
-						throw e;
-					}
-				}
+	public <R extends DBRow> List<R> getByExample(final R exampleRow) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
+		return queryReadyDatabase(new ClusterQuery<List<R>, RuntimeException>() {
+			@Override
+			public List<R> query(DBDatabase database) throws SQLException {
+				return database.getByExample(exampleRow);
 			}
-		} while (!finished);
-		return new ArrayList<R>(0);
+		});
 	}
 
 	@Override
-	public <R extends DBRow> List<R> get(R exampleRow) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
-		DBDatabase readyDatabase;
-		boolean finished = false;
-		do {
-			readyDatabase = getReadyDatabase();
-			synchronized (readyDatabase) {
-				try {
-					return readyDatabase.get(exampleRow);
-				} catch (SQLException | AccidentalBlankQueryException | AccidentalCartesianJoinException | NoAvailableDatabaseException e) {
-					if (handleExceptionDuringQuery(e, readyDatabase).equals(HandlerAdvice.ABORT)) {
-						throw e;
-					};
-				}
+	public <R extends DBRow> List<R> get(final R exampleRow) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
+		return queryReadyDatabase(new ClusterQuery<List<R>, RuntimeException>() {
+			@Override
+			public List<R> query(DBDatabase database) throws SQLException {
+				return database.get(exampleRow);
 			}
-		} while (!finished);
-		return new ArrayList<R>(0);
+		});
 	}
 
 	@Override
@@ -1056,6 +1030,40 @@ public class DBDatabaseCluster extends DBDatabase {
 		throw new UnsupportedOperationException("DBDatabase.getConnection should not be used.");
 	}
 
+	/**
+	 * Warms up the connection pool of every ready database in the cluster.
+	 *
+	 * @param connections the number of connections each pool should hold
+	 * @return the total number of connections opened
+	 * @throws SQLException a connection could not be opened or was invalid
+	 */
+	@Override
+	public int warmUpConnectionPool(int connections) throws SQLException {
+		int opened = 0;
+		for (DBDatabase next : details.getReadyDatabases()) {
+			opened += next.warmUpConnectionPool(connections);
+		}
+		return opened;
+	}
+
+	/**
+	 * Returns the total metrics of all the databases in the cluster.
+	 *
+	 * <p>
+	 * Pool sizes and counters are summed and the maximum waits and lifetimes
+	 * are the largest of any database.
+	 *
+	 * @return the combined metrics of the cluster
+	 */
+	@Override
+	public DatabaseMetrics getMetrics() {
+		final DatabaseMetrics metrics = new DatabaseMetrics();
+		for (DBDatabase next : details.getAllDatabases()) {
+			metrics.add(next.getMetrics());
+		}
+		return metrics;
+	}
+
 	@Override
 	protected DBStatement getLowLevelStatement() throws UnableToCreateDatabaseConnectionException, UnableToFindJDBCDriver, SQLException {
 		return getClusterStatement();
@@ -1122,15 +1130,51 @@ public class DBDatabaseCluster extends DBDatabase {
 	}
 
 	@Override
-	public DBQueryable executeDBQuery(DBQueryable query) throws SQLException, UnableToRemoveLastDatabaseFromClusterException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
-		DBQueryable actionsPerformed = query;
-		boolean finished = false;
-		while (!finished) {
-			final DBDatabase readyDatabase = getReadyDatabase();
-			synchronized (readyDatabase) {
+	public DBQueryable executeDBQuery(final DBQueryable query) throws SQLException, UnableToRemoveLastDatabaseFromClusterException, AccidentalCartesianJoinException, AccidentalBlankQueryException, NoAvailableDatabaseException {
+		return queryReadyDatabase(new ClusterQuery<DBQueryable, RuntimeException>() {
+			@Override
+			public DBQueryable query(DBDatabase database) throws SQLException {
+				return database.executeDBQuery(query);
+			}
+		});
+	}
+
+	/**
+	 * A read-only operation that can be run on any member of the cluster.
+	 *
+	 * @param <V> the result of the operation
+	 * @param <E> the checked exception thrown by the operation, or
+	 * RuntimeException if there is none
+	 */
+	private static abstract class ClusterQuery<V, E extends Exception> {
+
+		abstract V query(DBDatabase database) throws SQLException, E;
+	}
+
+	/**
+	 * Runs the query on the member chosen by the routing policy, recording the
+	 * member's load and re-running the query on another member if the chosen
+	 * member fails.
+	 *
+	 * <p>
+	 * The member is not locked, so concurrent queries run on it in parallel
+	 * and the load records only the queries actually running.
+	 *
+	 * @param <V> the result of the query
+	 * @param <E> the checked exception thrown by the query
+	 * @param query the query to run
+	 * @return the result of the query
+	 * @throws SQLException database errors
+	 * @throws E the exception thrown by the query
+	 */
+	private <V, E extends Exception> V queryReadyDatabase(ClusterQuery<V, E> query) throws SQLException, E {
+		while (true) {
+			try (ClusterMemberLease lease = leaseReadyDatabase()) {
+				final DBDatabase readyDatabase = lease.getDatabase();
 				try {
-					actionsPerformed = readyDatabase.executeDBQuery(query);
-					finished = true;
+					final V result = query.query(readyDatabase);
+					lease.succeeded();
+					return result;
 				} catch (SQLException | AccidentalBlankQueryException | AccidentalCartesianJoinException | NoAvailableDatabaseException e) {
 					if (handleExceptionDuringQuery(e, readyDatabase).equals(HandlerAdvice.ABORT)) {
 						throw e;
@@ -1138,7 +1182,6 @@ public class DBDatabaseCluster extends DBDatabase {
 				}
 			}
 		}
-		return actionsPerformed;
 	}
 
 	private static ArrayList<Class<? extends Exception>> okExceptions
@@ -1184,9 +1227,9 @@ public class DBDatabaseCluster extends DBDatabase {
 
 	@Override
 	public String getSQLForDBQuery(DBQueryable query) throws NoAvailableDatabaseException {
-		final DBDatabase readyDatabase = this.getReadyDatabase();
-		synchronized (readyDatabase) {
-			return readyDatabase.getSQLForDBQuery(query);
+		final DBDatabase template = details.getMetadataDatabase();
+		synchronized (template) {
+			return template.getSQLForDBQuery(query);
 		}
 	}
 
@@ -1203,9 +1246,9 @@ public class DBDatabaseCluster extends DBDatabase {
 
 	@Override
 	public DBDefinition getDefinition() throws NoAvailableDatabaseException {
-		final DBDatabase readyDatabase = getReadyDatabase();
-		synchronized (readyDatabase) {
-			return readyDatabase.getDefinition();
+		final DBDatabase template = details.getMetadataDatabase();
+		synchronized (template) {
+			return template.getDefinition();
 		}
 	}
 
@@ -16,14 +16,21 @@
  */
 package nz.co.gregs.dbvolution.databases;
 
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLWarning;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
 import nz.co.gregs.dbvolution.exceptions.UnableToCreateDatabaseConnectionException;
 import nz.co.gregs.dbvolution.exceptions.UnableToFindJDBCDriver;
+import nz.co.gregs.dbvolution.internal.database.PreparedStatementCache;
+import nz.co.gregs.dbvolution.internal.query.ParameterisedQuery;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -53,7 +60,13 @@ public class DBStatement implements Statement {
 	static final private Log LOG = LogFactory.getLog(DBStatement.class);
 
 	private Statement internalStatement;
+	private PreparedStatement preparedStatement;
+	private PreparedStatementCache preparedStatementCache;
+	private ResultSet preparedResultSet;
+	private final List<OpenPreparedStatement> openPreparedStatements = new ArrayList<>();
+	private int fetchSize = 0;
 	private boolean batchHasEntries;
+	private final List<String> batchedSQL = new ArrayList<>();
 	final DBDatabase database;
 	private Connection connection;
 	private boolean isClosed = false;
@@ -82,6 +95,7 @@ public class DBStatement implements Statement {
 	public ResultSet executeQuery(String sql) throws SQLException {
 		final String logSQL = "EXECUTING QUERY: " + sql;
 		database.printSQLIfRequested(logSQL);
+		database.statementsExecuted(1);
 		ResultSet executeQuery = null;
 		try {
 			executeQuery = getInternalStatement().executeQuery(sql);
@@ -124,6 +138,225 @@ public class DBStatement implements Statement {
 		}
 	}
 
+	/**
+	 * Executes the parameterised query as a PreparedStatement, which returns a
+	 * single ResultSet object.
+	 *
+	 * <p>
+	 * The PreparedStatement remains open until the next parameterised query is
+	 * executed or this DBStatement is closed.
+	 *
+	 * @param query the SQL and parameters to execute
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return a ResultSet
+	 * @throws SQLException database exceptions
+	 */
+	public ResultSet executeQuery(ParameterisedQuery query) throws SQLException {
+		final String logSQL = "EXECUTING PREPARED QUERY: " + query;
+		database.printSQLIfRequested(logSQL);
+		database.statementsExecuted(1);
+		LOG.debug(logSQL);
+		ResultSet executeQuery = null;
+		try {
+			executeQuery = getPreparedStatement(query).executeQuery();
+		} catch (SQLException exp) {
+			try {
+				executeQuery = addFeatureAndAttemptQueryAgain(exp, query);
+			} catch (SQLException ex) {
+				throw ex;
+			} catch (Exception ex) {
+				throw new SQLException(ex);
+			}
+		}
+		setPreparedResultSet(executeQuery);
+		return executeQuery;
+	}
+
+	private synchronized void setPreparedResultSet(ResultSet resultSet) {
+		preparedResultSet = resultSet;
+	}
+
+	private ResultSet addFeatureAndAttemptQueryAgain(Exception exp, ParameterisedQuery query) throws Exception {
+		discardPreparedStatement(query);
+		checkForBrokenConnection(exp, query.getSQL());
+		try {
+			handleResponseFromFixingException(exp);
+		} catch (Exception ex) {
+			throw new SQLException("Failed To Add Support For SQL: " + exp.getMessage() + " : Original Query: " + query, ex);
+		}
+		try {
+			return getPreparedStatement(query).executeQuery();
+		} catch (SQLException exp2) {
+			if (exp.getMessage().equals(exp2.getMessage())) {
+				throw exp;
+			} else {
+				return addFeatureAndAttemptQueryAgain(exp2, query);
+			}
+		}
+	}
+
+	/**
+	 * Creates a PreparedStatement for the query's SQL and binds the query's
+	 * parameters to it.
+	 *
+	 * <p>
+	 * The statement is re-used from the connection's
+	 * {@link PreparedStatementCache} if possible. The PreparedStatement
+	 * previously created by this DBStatement is released, unless its ResultSet
+	 * is still open.
+	 *
+	 * @param query the SQL and parameters
+	 * @return a PreparedStatement ready to be executed
+	 * @throws SQLException database exceptions
+	 */
+	protected synchronized PreparedStatement getPreparedStatement(ParameterisedQuery query) throws SQLException {
+		closePreparedStatement();
+		final PreparedStatementCache cache = database.getPreparedStatementCache(connection);
+		if (cache != null) {
+			preparedStatement = cache.getPreparedStatement(query.getSQL());
+			preparedStatementCache = preparedStatement == null ? null : cache;
+		}
+		if (preparedStatement == null) {
+			// no cache, or the cached statement still has an open ResultSet
+			preparedStatement = connection.prepareStatement(query.getSQL());
+		}
+		preparedStatement.setFetchSize(fetchSize);
+		query.setParameters(preparedStatement, database.getDefinition());
+		return preparedStatement;
+	}
+
+	/**
+	 * Releases the PreparedStatement created by the last parameterised query, if
+	 * there is one.
+	 *
+	 * <p>
+	 * Cached statements are returned to the cache for re-use, other statements
+	 * are closed. A statement whose ResultSet is still open, for instance one
+	 * being read by a {@link nz.co.gregs.dbvolution.DBQueryRowIterator}, is kept
+	 * until the ResultSet is closed or this DBStatement is closed.
+	 */
+	protected synchronized void closePreparedStatement() {
+		if (preparedStatement != null) {
+			final OpenPreparedStatement current = new OpenPreparedStatement(preparedStatement, preparedStatementCache, preparedResultSet);
+			if (current.hasOpenResultSet()) {
+				openPreparedStatements.add(current);
+			} else {
+				current.release();
+			}
+			preparedStatement = null;
+			preparedStatementCache = null;
+			preparedResultSet = null;
+		}
+		final Iterator<OpenPreparedStatement> iterator = openPreparedStatements.iterator();
+		while (iterator.hasNext()) {
+			final OpenPreparedStatement open = iterator.next();
+			if (isClosed || !open.hasOpenResultSet()) {
+				open.release();
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Executes the parameterised statements as JDBC batches using a single
+	 * PreparedStatement.
+	 *
+	 * <p>
+	 * All the queries must have the same SQL and only differ by their
+	 * parameters. The statements are sent to the database in batches of
+	 * {@link DBDatabase#getBatchSize() }.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param queries the statements to execute, all using the same SQL
+	 * @return the update count of each statement, in the same order as the
+	 * queries
+	 * @throws SQLException database exceptions
+	 */
+	public synchronized int[] executeBatch(List<ParameterisedQuery> queries) throws SQLException {
+		final int[] updateCounts = new int[queries.size()];
+		if (queries.isEmpty()) {
+			return updateCounts;
+		}
+		final ParameterisedQuery first = queries.get(0);
+		final String logSQL = "EXECUTING PREPARED BATCH OF " + queries.size() + " STATEMENTS: " + first.getSQL();
+		database.printSQLIfRequested(logSQL);
+		database.statementsExecuted(queries.size());
+		LOG.debug(logSQL);
+		final DBDefinition defn = database.getDefinition();
+		final int batchSize = database.getBatchSize();
+		try {
+			final PreparedStatement statement = getPreparedStatement(first);
+			int executed = 0;
+			for (int i = 0; i < queries.size(); i++) {
+				queries.get(i).setParameters(statement, defn);
+				statement.addBatch();
+				if (i + 1 - executed >= batchSize || i == queries.size() - 1) {
+					final int[] counts = statement.executeBatch();
+					System.arraycopy(counts, 0, updateCounts, executed, Math.min(counts.length, queries.size() - executed));
+					executed = i + 1;
+				}
+			}
+		} catch (SQLException exp) {
+			discardPreparedStatement(first);
+			checkForBrokenConnection(exp, first.getSQL());
+			throw exp;
+		} finally {
+			closePreparedStatement();
+		}
+		return updateCounts;
+	}
+
+	private synchronized void discardPreparedStatement(ParameterisedQuery query) {
+		if (preparedStatementCache != null) {
+			preparedStatementCache.remove(query.getSQL());
+			preparedStatement = null;
+			preparedStatementCache = null;
+			preparedResultSet = null;
+		} else {
+			closePreparedStatement();
+		}
+	}
+
+	/**
+	 * A PreparedStatement created by this DBStatement and the ResultSet it
+	 * produced.
+	 */
+	private static class OpenPreparedStatement {
+
+		private final PreparedStatement statement;
+		private final PreparedStatementCache cache;
+		private final ResultSet resultSet;
+
+		OpenPreparedStatement(PreparedStatement statement, PreparedStatementCache cache, ResultSet resultSet) {
+			this.statement = statement;
+			this.cache = cache;
+			this.resultSet = resultSet;
+		}
+
+		boolean hasOpenResultSet() {
+			try {
+				return resultSet != null && !resultSet.isClosed();
+			} catch (SQLException | AbstractMethodError ex) {
+				return false;
+			}
+		}
+
+		void release() {
+			if (cache != null) {
+				cache.release(statement);
+			} else {
+				try {
+					statement.close();
+				} catch (SQLException exp) {
+					LOG.debug(this, exp);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Executes the given SQL statement, which may be an INSERT, UPDATE, or DELETE
 	 * statement or an SQL statement that returns nothing, such as an SQL DDL
@@ -139,6 +372,7 @@ public class DBStatement implements Statement {
 	 */
 	@Override
 	public int executeUpdate(String string) throws SQLException {
+		database.statementsExecuted(1);
 		int executeUpdate = getInternalStatement().executeUpdate(string);
 
 		return executeUpdate;
@@ -158,6 +392,7 @@ public class DBStatement implements Statement {
 	@Override
 	public void close() throws SQLException {
 		isClosed = true;
+		closePreparedStatement();
 		try {
 			database.unusedConnection(getConnection());
 		} catch (SQLException e) {
@@ -313,6 +548,9 @@ public class DBStatement implements Statement {
 	@Override
 	public synchronized void cancel() throws SQLException {
 		try {
+			if (preparedStatement != null) {
+				preparedStatement.cancel();
+			}
 			getInternalStatement().cancel();
 			if (database.getDefinition().willCloseConnectionOnStatementCancel()) {
 				replaceBrokenConnection();
@@ -339,6 +577,7 @@ public class DBStatement implements Statement {
 	 * to work with those databases.
 	 */
 	protected synchronized void replaceBrokenConnection() throws SQLException, UnableToCreateDatabaseConnectionException, UnableToFindJDBCDriver {
+		closePreparedStatement();
 		database.discardConnection(connection);
 		connection = database.getConnection();
 		if (internalStatement != null) {
@@ -436,6 +675,15 @@ public class DBStatement implements Statement {
 	 */
 	@Override
 	public boolean execute(String sql) throws SQLException {
+		database.statementsExecuted(1);
+		return executeCountedStatement(sql);
+	}
+
+	/**
+	 * Executes a statement that has already been included in the statement
+	 * metrics.
+	 */
+	private boolean executeCountedStatement(String sql) throws SQLException {
 		final String logSQL = "EXECUTING: " + sql;
 		database.printSQLIfRequested(logSQL);
 		LOG.debug(logSQL);
@@ -611,6 +859,10 @@ public class DBStatement implements Statement {
 	 * If the value specified is zero, then the hint is ignored. The default value
 	 * is zero.
 	 *
+	 * <p>
+	 * The fetch size is also used by the PreparedStatements of parameterised
+	 * queries executed by this DBStatement.
+	 *
 	 *
 	 * 1 Database exceptions may be thrown
 	 *
@@ -620,6 +872,7 @@ public class DBStatement implements Statement {
 	@Override
 	public void setFetchSize(int i) throws SQLException {
 		getInternalStatement().setFetchSize(i);
+		fetchSize = i;
 	}
 
 	/**
@@ -689,7 +942,11 @@ public class DBStatement implements Statement {
 	 */
 	@Override
 	public void addBatch(String string) throws SQLException {
+		final String logSQL = "BATCHING: " + string;
+		database.printSQLIfRequested(logSQL);
+		LOG.debug(logSQL);
 		getInternalStatement().addBatch(string);
+		batchedSQL.add(string);
 		setBatchHasEntries(true);
 	}
 
@@ -703,6 +960,7 @@ public class DBStatement implements Statement {
 	@Override
 	public void clearBatch() throws SQLException {
 		getInternalStatement().clearBatch();
+		batchedSQL.clear();
 		setBatchHasEntries(false);
 	}
 
@@ -748,7 +1006,57 @@ public class DBStatement implements Statement {
 	 */
 	@Override
 	public int[] executeBatch() throws SQLException {
-		return getInternalStatement().executeBatch();
+		final List<String> batch = new ArrayList<>(batchedSQL);
+		batchedSQL.clear();
+		setBatchHasEntries(false);
+		final String logSQL = "EXECUTING BATCH OF " + batch.size() + " STATEMENTS";
+		database.printSQLIfRequested(logSQL);
+		database.statementsExecuted(batch.size());
+		LOG.debug(logSQL);
+		try {
+			return getInternalStatement().executeBatch();
+		} catch (BatchUpdateException exp) {
+			return addFeatureAndAttemptBatchAgain(exp, batch);
+		}
+	}
+
+	/**
+	 * Re-executes the statements of a failed batch individually so that the
+	 * usual exception handling can add missing features to the database.
+	 *
+	 * <p>
+	 * Statements that the driver reports as successful are not executed again.
+	 * Inside a transaction the state of the batch is unknown, and may already
+	 * have been rolled back, so the original exception is thrown for the caller
+	 * to roll back instead.
+	 */
+	private int[] addFeatureAndAttemptBatchAgain(BatchUpdateException exp, List<String> batch) throws SQLException {
+		getInternalStatement().clearBatch();
+		final boolean autoCommit;
+		try {
+			autoCommit = getConnection().getAutoCommit();
+		} catch (SQLException ex) {
+			ex.addSuppressed(exp);
+			throw ex;
+		}
+		if (!autoCommit) {
+			throw exp;
+		}
+		int[] updateCounts = exp.getUpdateCounts();
+		if (updateCounts == null) {
+			updateCounts = new int[]{};
+		}
+		final int[] results = new int[batch.size()];
+		for (int i = 0; i < batch.size(); i++) {
+			if (i < updateCounts.length && updateCounts[i] != Statement.EXECUTE_FAILED) {
+				results[i] = updateCounts[i];
+			} else {
+				// already counted by executeBatch()
+				executeCountedStatement(batch.get(i));
+				results[i] = getInternalStatement().getUpdateCount();
+			}
+		}
+		return results;
 	}
 
 	/**
@@ -831,6 +1139,7 @@ public class DBStatement implements Statement {
 	 */
 	@Override
 	public int executeUpdate(String string, int i) throws SQLException {
+		database.statementsExecuted(1);
 		return getInternalStatement().executeUpdate(string, i);
 	}
 
@@ -856,6 +1165,7 @@ public class DBStatement implements Statement {
 	 */
 	@Override
 	public int executeUpdate(String string, int[] ints) throws SQLException {
+		database.statementsExecuted(1);
 		return getInternalStatement().executeUpdate(string, ints);
 	}
 
@@ -882,6 +1192,7 @@ public class DBStatement implements Statement {
 	public int executeUpdate(String string, String[] strings) throws SQLException {
 		final String logSQL = "EXECUTING UPDATE: " + string;
 		database.printSQLIfRequested(logSQL);
+		database.statementsExecuted(1);
 		LOG.debug(logSQL);
 		return getInternalStatement().executeUpdate(string, strings);
 	}
@@ -916,6 +1227,7 @@ public class DBStatement implements Statement {
 	public boolean execute(String string, int i) throws SQLException {
 		final String logSQL = "EXECUTING: " + string;
 		database.printSQLIfRequested(logSQL);
+		database.statementsExecuted(1);
 		LOG.debug(logSQL);
 		return getInternalStatement().execute(string, i);
 	}
@@ -952,6 +1264,7 @@ public class DBStatement implements Statement {
 	public boolean execute(String string, int[] ints) throws SQLException {
 		final String logSQL = "EXECUTING: " + string;
 		database.printSQLIfRequested(logSQL);
+		database.statementsExecuted(1);
 		LOG.debug(logSQL);
 		return getInternalStatement().execute(string, ints);
 	}
@@ -989,6 +1302,7 @@ public class DBStatement implements Statement {
 	public boolean execute(String string, String[] strings) throws SQLException {
 		final String logSQL = "EXECUTING: " + string;
 		database.printSQLIfRequested(logSQL);
+		database.statementsExecuted(1);
 		LOG.debug(logSQL);
 		try {
 			return getInternalStatement().execute(string, strings);
@@ -36,6 +36,7 @@ import java.util.ArrayList;
 import java.util.Random;
 import nz.co.gregs.dbvolution.exceptions.UnableToCreateDatabaseConnectionException;
 import nz.co.gregs.dbvolution.exceptions.UnableToFindJDBCDriver;
+import nz.co.gregs.dbvolution.internal.query.ParameterisedQuery;
 
 public class DBStatementCluster extends DBStatement {
 
@@ -312,6 +313,11 @@ public class DBStatementCluster extends DBStatement {
 		return executed;
 	}
 
+	@Override
+	public ResultSet executeQuery(ParameterisedQuery query) throws SQLException {
+		return getRandomStatement().executeQuery(query);
+	}
+
 	@Override
 	public ResultSet executeQuery(String string) throws SQLException {
 		return getRandomStatement().executeQuery(string);
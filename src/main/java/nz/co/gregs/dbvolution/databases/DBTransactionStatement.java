@@ -78,6 +78,7 @@ public class DBTransactionStatement extends DBStatement {
 			justification = "We try twice, is there a better way to do this?")
 	@Override
 	public void close() throws SQLException {
+		closePreparedStatement();
 		try {
 			getInternalStatement().close();
 		} catch (SQLException ex) {
@@ -119,6 +119,50 @@ public class DatabaseConnectionSettings {
 	private String label = "";
 	private DataSource dataSource = null;
 	private String protocol;
+	private int preparedStatementCacheSize = DEFAULT_PREPARED_STATEMENT_CACHE_SIZE;
+	private int minimumPoolSize = DEFAULT_MINIMUM_POOL_SIZE;
+	private int maximumPoolSize = DEFAULT_MAXIMUM_POOL_SIZE;
+	private long connectionAcquireTimeoutMillis = DEFAULT_CONNECTION_ACQUIRE_TIMEOUT_MILLIS;
+	private long connectionIdleTimeoutMillis = DEFAULT_CONNECTION_IDLE_TIMEOUT_MILLIS;
+	private long connectionMaximumLifetimeMillis = DEFAULT_CONNECTION_MAXIMUM_LIFETIME_MILLIS;
+	private boolean fairConnectionPool = false;
+	private boolean validateConnectionsOnBorrow = true;
+	private boolean warmUpConnectionPool = false;
+
+	/**
+	 * The number of PreparedStatements cached for each connection unless
+	 * specified otherwise.
+	 */
+	public static final int DEFAULT_PREPARED_STATEMENT_CACHE_SIZE = 32;
+
+	/**
+	 * The number of idle connections kept in the pool unless specified
+	 * otherwise.
+	 */
+	public static final int DEFAULT_MINIMUM_POOL_SIZE = 0;
+
+	/**
+	 * The maximum number of connections in the pool unless specified otherwise.
+	 */
+	public static final int DEFAULT_MAXIMUM_POOL_SIZE = 100;
+
+	/**
+	 * The time to wait for a connection from a full pool unless specified
+	 * otherwise.
+	 */
+	public static final long DEFAULT_CONNECTION_ACQUIRE_TIMEOUT_MILLIS = 30000;
+
+	/**
+	 * The time a connection may remain unused in the pool unless specified
+	 * otherwise.
+	 */
+	public static final long DEFAULT_CONNECTION_IDLE_TIMEOUT_MILLIS = 600000;
+
+	/**
+	 * The time a connection may be used before it is replaced unless specified
+	 * otherwise.
+	 */
+	public static final long DEFAULT_CONNECTION_MAXIMUM_LIFETIME_MILLIS = 1800000;
 
 	private static final String FIELD_SEPARATOR = "<DCS FIELD>";
 	private static final String TOSTRING_SEPARATOR = ", ";
@@ -569,6 +613,15 @@ public class DatabaseConnectionSettings {
 		this.setSchema(newSettings.getSchema());
 		this.setUrl(newSettings.getUrl());
 		this.setUsername(newSettings.getUsername());
+		this.setPreparedStatementCacheSize(newSettings.getPreparedStatementCacheSize());
+		this.setMinimumPoolSize(newSettings.getMinimumPoolSize());
+		this.setMaximumPoolSize(newSettings.getMaximumPoolSize());
+		this.setConnectionAcquireTimeoutMillis(newSettings.getConnectionAcquireTimeoutMillis());
+		this.setConnectionIdleTimeoutMillis(newSettings.getConnectionIdleTimeoutMillis());
+		this.setConnectionMaximumLifetimeMillis(newSettings.getConnectionMaximumLifetimeMillis());
+		this.setFairConnectionPool(newSettings.isFairConnectionPool());
+		this.setValidateConnectionsOnBorrow(newSettings.isValidateConnectionsOnBorrow());
+		this.setWarmUpConnectionPool(newSettings.isWarmUpConnectionPool());
 	}
 
 	/**
@@ -815,4 +868,211 @@ public class DatabaseConnectionSettings {
 	public String getProtocol() {
 		return protocol;
 	}
+
+	/**
+	 * Sets the maximum number of PreparedStatements that will be kept open for
+	 * each connection.
+	 *
+	 * <p>
+	 * The least recently used statement is closed when the cache is full. Use 0
+	 * to disable caching.
+	 *
+	 * @param cacheSize the number of statements to cache per connection
+	 */
+	public void setPreparedStatementCacheSize(int cacheSize) {
+		this.preparedStatementCacheSize = cacheSize;
+	}
+
+	/**
+	 * The maximum number of PreparedStatements that will be kept open for each
+	 * connection.
+	 *
+	 * @return the number of statements to cache per connection, 0 means no
+	 * caching.
+	 */
+	public int getPreparedStatementCacheSize() {
+		return preparedStatementCacheSize;
+	}
+
+	/**
+	 * Sets the number of connections the pool keeps open even when they are not
+	 * being used.
+	 *
+	 * <p>
+	 * Idle connections are only closed for being idle while the pool has more
+	 * than this number of connections.
+	 *
+	 * @param minimumPoolSize the number of connections to keep open
+	 */
+	public void setMinimumPoolSize(int minimumPoolSize) {
+		this.minimumPoolSize = minimumPoolSize;
+	}
+
+	/**
+	 * The number of connections the pool keeps open even when they are not
+	 * being used.
+	 *
+	 * @return the minimum number of pooled connections
+	 */
+	public int getMinimumPoolSize() {
+		return minimumPoolSize;
+	}
+
+	/**
+	 * Sets the maximum number of connections the pool will open.
+	 *
+	 * <p>
+	 * When all the connections are busy, threads wait up to
+	 * {@link #getConnectionAcquireTimeoutMillis() the acquire timeout} for a
+	 * connection to be returned.
+	 *
+	 * @param maximumPoolSize the maximum number of connections
+	 */
+	public void setMaximumPoolSize(int maximumPoolSize) {
+		this.maximumPoolSize = maximumPoolSize;
+	}
+
+	/**
+	 * The maximum number of connections the pool will open.
+	 *
+	 * @return the maximum number of connections
+	 */
+	public int getMaximumPoolSize() {
+		return maximumPoolSize;
+	}
+
+	/**
+	 * Sets how long a thread will wait for a connection when all the pooled
+	 * connections are busy.
+	 *
+	 * @param timeoutMillis the maximum wait in milliseconds
+	 */
+	public void setConnectionAcquireTimeoutMillis(long timeoutMillis) {
+		this.connectionAcquireTimeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * How long a thread will wait for a connection when all the pooled
+	 * connections are busy.
+	 *
+	 * @return the maximum wait in milliseconds
+	 */
+	public long getConnectionAcquireTimeoutMillis() {
+		return connectionAcquireTimeoutMillis;
+	}
+
+	/**
+	 * Sets how long a connection may remain unused in the pool before it is
+	 * closed.
+	 *
+	 * @param timeoutMillis the idle time in milliseconds, 0 keeps idle
+	 * connections open
+	 */
+	public void setConnectionIdleTimeoutMillis(long timeoutMillis) {
+		this.connectionIdleTimeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * How long a connection may remain unused in the pool before it is closed.
+	 *
+	 * @return the idle time in milliseconds, 0 means idle connections are kept
+	 * open
+	 */
+	public long getConnectionIdleTimeoutMillis() {
+		return connectionIdleTimeoutMillis;
+	}
+
+	/**
+	 * Sets how long a connection may be used before it is closed and replaced.
+	 *
+	 * <p>
+	 * Busy connections are not interrupted, they are closed when they are
+	 * returned to the pool.
+	 *
+	 * @param lifetimeMillis the lifetime in milliseconds, 0 for no limit
+	 */
+	public void setConnectionMaximumLifetimeMillis(long lifetimeMillis) {
+		this.connectionMaximumLifetimeMillis = lifetimeMillis;
+	}
+
+	/**
+	 * How long a connection may be used before it is closed and replaced.
+	 *
+	 * @return the lifetime in milliseconds, 0 means no limit
+	 */
+	public long getConnectionMaximumLifetimeMillis() {
+		return connectionMaximumLifetimeMillis;
+	}
+
+	/**
+	 * Sets whether threads waiting for a connection receive them in the order
+	 * they started waiting.
+	 *
+	 * <p>
+	 * Fairness prevents a thread waiting indefinitely under heavy load but
+	 * reduces the throughput of the pool.
+	 *
+	 * @param fair TRUE to hand out connections in arrival order
+	 */
+	public void setFairConnectionPool(boolean fair) {
+		this.fairConnectionPool = fair;
+	}
+
+	/**
+	 * Indicates whether threads waiting for a connection receive them in the
+	 * order they started waiting.
+	 *
+	 * @return TRUE if connections are handed out in arrival order
+	 */
+	public boolean isFairConnectionPool() {
+		return fairConnectionPool;
+	}
+
+	/**
+	 * Sets whether idle connections are checked with
+	 * {@link java.sql.Connection#isValid(int) } before being reused.
+	 *
+	 * @param validate TRUE to check connections before reusing them
+	 */
+	public void setValidateConnectionsOnBorrow(boolean validate) {
+		this.validateConnectionsOnBorrow = validate;
+	}
+
+	/**
+	 * Indicates whether idle connections are checked with
+	 * {@link java.sql.Connection#isValid(int) } before being reused.
+	 *
+	 * @return TRUE if connections are checked before being reused
+	 */
+	public boolean isValidateConnectionsOnBorrow() {
+		return validateConnectionsOnBorrow;
+	}
+
+	/**
+	 * Sets whether the DBDatabase opens its pooled connections when it is
+	 * created rather than when they are first needed.
+	 *
+	 * <p>
+	 * The {@link #getMinimumPoolSize() minimum number of connections}, or one
+	 * connection if there is no minimum, are opened in parallel and validated
+	 * before the DBDatabase constructor returns, so the first requests do not pay
+	 * for connecting to the database and installing the database specific
+	 * features.
+	 *
+	 * @param warmUp TRUE to open the pooled connections at startup
+	 * @see DBDatabase#warmUpConnectionPool()
+	 */
+	public void setWarmUpConnectionPool(boolean warmUp) {
+		this.warmUpConnectionPool = warmUp;
+	}
+
+	/**
+	 * Indicates whether the DBDatabase opens its pooled connections when it is
+	 * created rather than when they are first needed.
+	 *
+	 * @return TRUE if the pooled connections are opened at startup
+	 */
+	public boolean isWarmUpConnectionPool() {
+		return warmUpConnectionPool;
+	}
 }
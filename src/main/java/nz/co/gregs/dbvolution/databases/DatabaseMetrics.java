@@ -0,0 +1,229 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.databases;
+
+import java.util.Arrays;
+import nz.co.gregs.dbvolution.internal.database.ConnectionPool;
+
+/**
+ * A snapshot of the connection pool and statement metrics of a database.
+ *
+ * <p>
+ * Retrieve the metrics with {@link DBDatabase#getMetrics() }. The metrics of a
+ * {@link DBDatabaseCluster} are the totals of the databases in the cluster.
+ *
+ * <p>
+ * The counters accumulate from when the database was created and the pool
+ * sizes are the values when the snapshot was taken.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class DatabaseMetrics implements DatabaseMetricsMXBean {
+
+	private int maximumPoolSize = 0;
+	private int totalConnections = 0;
+	private int idleConnections = 0;
+	private int busyConnections = 0;
+	private int waitingThreads = 0;
+	private long connectionAcquisitions = 0;
+	private long connectionAcquireTimeouts = 0;
+	private long totalAcquireWaitMillis = 0;
+	private long maximumAcquireWaitMillis = 0;
+	private final long[] acquireWaitHistogram = new long[ConnectionPool.Statistics.getAcquireWaitHistogramBoundsMillis().length + 1];
+	private long connectionsCreated = 0;
+	private long connectionCreationFailures = 0;
+	private long connectionRetries = 0;
+	private long connectionsClosed = 0;
+	private long connectionsDiscarded = 0;
+	private long totalConnectionLifetimeMillis = 0;
+	private long maximumConnectionLifetimeMillis = 0;
+	private long statementsExecuted = 0;
+
+	DatabaseMetrics() {
+	}
+
+	void addConnectionPool(ConnectionPool pool) {
+		maximumPoolSize += pool.getMaximumSize();
+		totalConnections += pool.getTotalConnections();
+		idleConnections += pool.getIdleConnections();
+		busyConnections += pool.getBusyConnections();
+		waitingThreads += pool.getWaitingThreads();
+		final ConnectionPool.Statistics statistics = pool.getStatistics();
+		connectionAcquisitions += statistics.getAcquisitions();
+		connectionAcquireTimeouts += statistics.getAcquireTimeouts();
+		totalAcquireWaitMillis += statistics.getTotalAcquireWaitMillis();
+		maximumAcquireWaitMillis = Math.max(maximumAcquireWaitMillis, statistics.getMaximumAcquireWaitMillis());
+		addHistogram(statistics.getAcquireWaitHistogram());
+		connectionsCreated += statistics.getConnectionsCreated();
+		connectionCreationFailures += statistics.getConnectionCreationFailures();
+		connectionsClosed += statistics.getConnectionsClosed();
+		totalConnectionLifetimeMillis += statistics.getTotalConnectionLifetimeMillis();
+		maximumConnectionLifetimeMillis = Math.max(maximumConnectionLifetimeMillis, statistics.getMaximumConnectionLifetimeMillis());
+	}
+
+	void addDatabaseCounters(long retries, long discarded, long statements) {
+		connectionRetries += retries;
+		connectionsDiscarded += discarded;
+		statementsExecuted += statements;
+	}
+
+	void add(DatabaseMetrics other) {
+		maximumPoolSize += other.maximumPoolSize;
+		totalConnections += other.totalConnections;
+		idleConnections += other.idleConnections;
+		busyConnections += other.busyConnections;
+		waitingThreads += other.waitingThreads;
+		connectionAcquisitions += other.connectionAcquisitions;
+		connectionAcquireTimeouts += other.connectionAcquireTimeouts;
+		totalAcquireWaitMillis += other.totalAcquireWaitMillis;
+		maximumAcquireWaitMillis = Math.max(maximumAcquireWaitMillis, other.maximumAcquireWaitMillis);
+		addHistogram(other.acquireWaitHistogram);
+		connectionsCreated += other.connectionsCreated;
+		connectionCreationFailures += other.connectionCreationFailures;
+		connectionRetries += other.connectionRetries;
+		connectionsClosed += other.connectionsClosed;
+		connectionsDiscarded += other.connectionsDiscarded;
+		totalConnectionLifetimeMillis += other.totalConnectionLifetimeMillis;
+		maximumConnectionLifetimeMillis = Math.max(maximumConnectionLifetimeMillis, other.maximumConnectionLifetimeMillis);
+		statementsExecuted += other.statementsExecuted;
+	}
+
+	private void addHistogram(long[] counts) {
+		for (int i = 0; i < counts.length && i < acquireWaitHistogram.length; i++) {
+			acquireWaitHistogram[i] += counts[i];
+		}
+	}
+
+	@Override
+	public int getMaximumPoolSize() {
+		return maximumPoolSize;
+	}
+
+	@Override
+	public int getTotalConnections() {
+		return totalConnections;
+	}
+
+	@Override
+	public int getIdleConnections() {
+		return idleConnections;
+	}
+
+	@Override
+	public int getBusyConnections() {
+		return busyConnections;
+	}
+
+	@Override
+	public int getWaitingThreads() {
+		return waitingThreads;
+	}
+
+	@Override
+	public long getConnectionAcquisitions() {
+		return connectionAcquisitions;
+	}
+
+	@Override
+	public long getConnectionAcquireTimeouts() {
+		return connectionAcquireTimeouts;
+	}
+
+	@Override
+	public long getTotalAcquireWaitMillis() {
+		return totalAcquireWaitMillis;
+	}
+
+	@Override
+	public long getMaximumAcquireWaitMillis() {
+		return maximumAcquireWaitMillis;
+	}
+
+	@Override
+	public long[] getAcquireWaitHistogram() {
+		return acquireWaitHistogram.clone();
+	}
+
+	@Override
+	public long[] getAcquireWaitHistogramBoundsMillis() {
+		return ConnectionPool.Statistics.getAcquireWaitHistogramBoundsMillis();
+	}
+
+	@Override
+	public long getConnectionsCreated() {
+		return connectionsCreated;
+	}
+
+	@Override
+	public long getConnectionCreationFailures() {
+		return connectionCreationFailures;
+	}
+
+	@Override
+	public long getConnectionRetries() {
+		return connectionRetries;
+	}
+
+	@Override
+	public long getConnectionsClosed() {
+		return connectionsClosed;
+	}
+
+	@Override
+	public long getConnectionsDiscarded() {
+		return connectionsDiscarded;
+	}
+
+	@Override
+	public long getAverageConnectionLifetimeMillis() {
+		return connectionsClosed == 0 ? 0 : totalConnectionLifetimeMillis / connectionsClosed;
+	}
+
+	@Override
+	public long getMaximumConnectionLifetimeMillis() {
+		return maximumConnectionLifetimeMillis;
+	}
+
+	@Override
+	public long getStatementsExecuted() {
+		return statementsExecuted;
+	}
+
+	@Override
+	public String toString() {
+		return "DatabaseMetrics{"
+				+ "maximumPoolSize=" + maximumPoolSize
+				+ ", totalConnections=" + totalConnections
+				+ ", idleConnections=" + idleConnections
+				+ ", busyConnections=" + busyConnections
+				+ ", waitingThreads=" + waitingThreads
+				+ ", connectionAcquisitions=" + connectionAcquisitions
+				+ ", connectionAcquireTimeouts=" + connectionAcquireTimeouts
+				+ ", maximumAcquireWaitMillis=" + maximumAcquireWaitMillis
+				+ ", acquireWaitHistogram=" + Arrays.toString(acquireWaitHistogram)
+				+ ", connectionsCreated=" + connectionsCreated
+				+ ", connectionCreationFailures=" + connectionCreationFailures
+				+ ", connectionRetries=" + connectionRetries
+				+ ", connectionsClosed=" + connectionsClosed
+				+ ", connectionsDiscarded=" + connectionsDiscarded
+				+ ", averageConnectionLifetimeMillis=" + getAverageConnectionLifetimeMillis()
+				+ ", statementsExecuted=" + statementsExecuted
+				+ "}";
+	}
+}
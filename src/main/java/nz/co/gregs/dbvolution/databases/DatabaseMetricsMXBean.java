@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.databases;
+
+/**
+ * The connection pool and statement metrics of a database as exposed to JMX.
+ *
+ * <p>
+ * Register a database's metrics with
+ * {@link DBDatabase#registerMetricsMBean() }.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ * @see DatabaseMetrics
+ */
+public interface DatabaseMetricsMXBean {
+
+	/**
+	 * @return the maximum number of connections the pool will open
+	 */
+	int getMaximumPoolSize();
+
+	/**
+	 * @return the number of connections currently open, busy or idle
+	 */
+	int getTotalConnections();
+
+	/**
+	 * @return the number of connections waiting in the pool to be reused
+	 */
+	int getIdleConnections();
+
+	/**
+	 * @return the number of connections currently in use
+	 */
+	int getBusyConnections();
+
+	/**
+	 * @return an estimate of the number of threads waiting for a connection
+	 */
+	int getWaitingThreads();
+
+	/**
+	 * @return the number of connections handed out by the pool
+	 */
+	long getConnectionAcquisitions();
+
+	/**
+	 * @return the number of times a thread gave up waiting for a connection
+	 */
+	long getConnectionAcquireTimeouts();
+
+	/**
+	 * @return the total time threads have waited for connections
+	 */
+	long getTotalAcquireWaitMillis();
+
+	/**
+	 * @return the longest time a thread has waited for a connection
+	 */
+	long getMaximumAcquireWaitMillis();
+
+	/**
+	 * @return the number of acquisitions in each bucket of the wait histogram
+	 */
+	long[] getAcquireWaitHistogram();
+
+	/**
+	 * @return the exclusive upper bound, in milliseconds, of every bucket of the
+	 * wait histogram except the last
+	 */
+	long[] getAcquireWaitHistogramBoundsMillis();
+
+	/**
+	 * @return the number of connections opened
+	 */
+	long getConnectionsCreated();
+
+	/**
+	 * @return the number of times a connection could not be opened
+	 */
+	long getConnectionCreationFailures();
+
+	/**
+	 * @return the number of times opening a connection was retried
+	 */
+	long getConnectionRetries();
+
+	/**
+	 * @return the number of connections closed or removed from the pool
+	 */
+	long getConnectionsClosed();
+
+	/**
+	 * @return the number of connections discarded because they were broken or
+	 * could not be reset
+	 */
+	long getConnectionsDiscarded();
+
+	/**
+	 * @return the average time that closed connections were open
+	 */
+	long getAverageConnectionLifetimeMillis();
+
+	/**
+	 * @return the longest time a closed connection was open
+	 */
+	long getMaximumConnectionLifetimeMillis();
+
+	/**
+	 * @return the number of SQL statements executed
+	 */
+	long getStatementsExecuted();
+}
@@ -15,12 +15,17 @@
  */
 package nz.co.gregs.dbvolution.databases;
 
+import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.sql.DataSource;
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
 import nz.co.gregs.dbvolution.databases.definitions.MariaDBDefinition;
 
 /**
@@ -196,6 +201,20 @@ public class MariaClusterDB extends DBDatabase {
 		return -1;
 	}
 
+	@Override
+	protected void setDefinitionBasedOnConnectionMetaData(Properties clientInfo, DatabaseMetaData metaData) {
+		final DBDefinition defn = getDefinition();
+		if (defn instanceof MariaDBDefinition) {
+			try {
+				((MariaDBDefinition) defn).setServerVersion(metaData.getDatabaseMajorVersion(), metaData.getDatabaseMinorVersion());
+			} catch (SQLException ex) {
+				final Logger logger = Logger.getLogger(MariaClusterDB.class.getName());
+				logger.log(Level.INFO, "Failed to get connection metadata information to set the database definition");
+				logger.log(Level.INFO, null, ex);
+			}
+		}
+	}
+
 	@Override
 	protected Class<? extends DBDatabase> getBaseDBDatabaseClass() {
 		return MariaClusterDB.class;
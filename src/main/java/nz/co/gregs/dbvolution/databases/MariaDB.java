@@ -15,11 +15,16 @@
  */
 package nz.co.gregs.dbvolution.databases;
 
+import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.sql.DataSource;
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
 import nz.co.gregs.dbvolution.databases.definitions.MariaDBDefinition;
 
 /**
@@ -159,6 +164,20 @@ public class MariaDB extends DBDatabase {
 		return 3306;
 	}
 
+	@Override
+	protected void setDefinitionBasedOnConnectionMetaData(Properties clientInfo, DatabaseMetaData metaData) {
+		final DBDefinition defn = getDefinition();
+		if (defn instanceof MariaDBDefinition) {
+			try {
+				((MariaDBDefinition) defn).setServerVersion(metaData.getDatabaseMajorVersion(), metaData.getDatabaseMinorVersion());
+			} catch (SQLException ex) {
+				final Logger logger = Logger.getLogger(MariaDB.class.getName());
+				logger.log(Level.INFO, "Failed to get connection metadata information to set the database definition");
+				logger.log(Level.INFO, null, ex);
+			}
+		}
+	}
+
 	@Override
 	protected Class<? extends DBDatabase> getBaseDBDatabaseClass() {
 		return MariaDB.class;
@@ -206,7 +206,9 @@ public class MySQLDB extends DBDatabase implements SupportsPolygonDatatype {
 			if(metaData.getDatabaseMajorVersion()<8){
 				setDefinition(new MySQLDBDefinition_5_7());
 			}else{
-				setDefinition(new MySQLDBDefinition());
+				final MySQLDBDefinition defn = new MySQLDBDefinition();
+				defn.setServerVersion(metaData.getDatabaseMajorVersion(), metaData.getDatabaseMinorVersion());
+				setDefinition(defn);
 			}
 		} catch (SQLException ex) {
 			final Logger logger = Logger.getLogger(MySQLDB.class.getName());
@@ -18,22 +18,28 @@ package nz.co.gregs.dbvolution.databases.definitions;
 import nz.co.gregs.dbvolution.internal.query.LargeObjectHandlerType;
 import com.vividsolutions.jts.geom.*;
 import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 import nz.co.gregs.dbvolution.databases.DBDatabase;
 import nz.co.gregs.dbvolution.DBRecursiveQuery;
 import nz.co.gregs.dbvolution.DBRow;
+import nz.co.gregs.dbvolution.datatypes.DBDate;
 import nz.co.gregs.dbvolution.datatypes.DBInteger;
 import nz.co.gregs.dbvolution.datatypes.DBJavaObject;
 import nz.co.gregs.dbvolution.datatypes.DBLargeObject;
 import nz.co.gregs.dbvolution.datatypes.DBLargeText;
 import nz.co.gregs.dbvolution.datatypes.DBNumber;
+import nz.co.gregs.dbvolution.datatypes.DBString;
 import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
 import nz.co.gregs.dbvolution.datatypes.spatial2D.DBLine2D;
 import nz.co.gregs.dbvolution.datatypes.spatial2D.DBMultiPoint2D;
@@ -68,6 +74,8 @@ public abstract class DBDefinition implements Serializable {
 
 	public static final long serialVersionUID = 1L;
 
+	private static final ThreadLocalDateFormat GET_STRING_DATE_FORMAT = new ThreadLocalDateFormat("yyyy-MM-dd HH:mm:ss");
+
 	public int getNumericPrecision() {
 		return DBNumber.getNumericPrecision();
 	}
@@ -2420,7 +2428,45 @@ public abstract class DBDefinition implements Serializable {
 	 * @see #prefersDatesReadAsStrings()
 	 */
 	public Date parseDateFromGetString(String getStringDate) throws ParseException {
-		return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse(getStringDate);
+		return GET_STRING_DATE_FORMAT.get().parse(getStringDate);
+	}
+
+	/**
+	 * Reads a date value from the ResultSet using the method preferred by the
+	 * database.
+	 *
+	 * <p>
+	 * The column is read exactly once. If the database
+	 * {@link #prefersDatesReadAsStrings() prefers dates read as strings} the
+	 * value is read with {@link ResultSet#getString(int) } and parsed with
+	 * {@link #parseDateFromGetString(java.lang.String) }, otherwise it is read
+	 * with {@link ResultSet#getTimestamp(int) } so that the time is retained.
+	 *
+	 * <p>
+	 * Override this method if the database's driver requires a different
+	 * approach.
+	 *
+	 * @param resultSet the ResultSet positioned on the required row
+	 * @param fullColumnName the alias of the column
+	 * @param columnIndex the index of the column, or 0 if it is not known
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the date, or NULL if the value is a database NULL
+	 * @throws SQLException database errors
+	 * @throws ParseException the date could not be parsed from the string
+	 * returned by the database
+	 */
+	public Date getDateFromResultSet(ResultSet resultSet, String fullColumnName, int columnIndex) throws SQLException, ParseException {
+		if (prefersDatesReadAsStrings()) {
+			final String string = columnIndex > 0 ? resultSet.getString(columnIndex) : resultSet.getString(fullColumnName);
+			if (string == null || string.isEmpty()) {
+				return null;
+			}
+			return new Date(parseDateFromGetString(string).getTime());
+		} else {
+			final Timestamp timestamp = columnIndex > 0 ? resultSet.getTimestamp(columnIndex) : resultSet.getTimestamp(fullColumnName);
+			return timestamp == null ? null : new Date(timestamp.getTime());
+		}
 	}
 
 	/**
@@ -4712,6 +4758,78 @@ public abstract class DBDefinition implements Serializable {
 		return false;
 	}
 
+	/**
+	 * Indicates whether the value of the QDT can be sent to the database as a
+	 * PreparedStatement parameter rather than as a literal in the SQL.
+	 *
+	 * <p>
+	 * Only values whose literal format is a plain transformation of the value
+	 * are supported. Override this method to exclude datatypes that the
+	 * database's JDBC driver does not handle well.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param qdt the QDT that owns the value
+	 * @param value the literal value of the QDT
+	 * @return TRUE if the value can be used as a parameter, otherwise FALSE.
+	 */
+	public boolean supportsParameterisedValue(QueryableDatatype<?> qdt, Object value) {
+		final Class<?> qdtClass = qdt.getClass();
+		if (qdtClass.equals(DBString.class)) {
+			return (value instanceof String) && !((String) value).isEmpty();
+		} else if (qdtClass.equals(DBInteger.class) || qdtClass.equals(DBNumber.class)) {
+			return value instanceof Number;
+		} else if (qdtClass.equals(DBDate.class)) {
+			return (value instanceof Date) && !prefersDatesReadAsStrings();
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the placeholder used in the SQL for a PreparedStatement parameter.
+	 *
+	 * <p>
+	 * The default implementation returns "?".
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param qdt the QDT that owns the parameter value
+	 * @return the SQL to use in place of the literal value
+	 */
+	public String getParameterPlaceholder(QueryableDatatype<?> qdt) {
+		return "?";
+	}
+
+	/**
+	 * Binds the value to the PreparedStatement parameter.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param statement the PreparedStatement to be executed
+	 * @param index the index of the parameter, starting at 1
+	 * @param value a value accepted by {@link #supportsParameterisedValue(nz.co.gregs.dbvolution.datatypes.QueryableDatatype, java.lang.Object)
+	 * }
+	 * @throws SQLException database errors
+	 */
+	public void setParameterValue(PreparedStatement statement, int index, Object value) throws SQLException {
+		if (value instanceof String) {
+			statement.setString(index, (String) value);
+		} else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			statement.setLong(index, ((Number) value).longValue());
+		} else if (value instanceof BigDecimal) {
+			statement.setBigDecimal(index, (BigDecimal) value);
+		} else if (value instanceof Number) {
+			statement.setDouble(index, ((Number) value).doubleValue());
+		} else if (value instanceof Date) {
+			statement.setTimestamp(index, new Timestamp(((Date) value).getTime()));
+		} else {
+			statement.setObject(index, value);
+		}
+	}
+
 	/**
 	 * Indicates that the database driver does not provide the
 	 * Statement.isClosed() method.
@@ -6105,10 +6223,416 @@ public abstract class DBDefinition implements Serializable {
 		return transformToStorableType(expression);
 	}
 
+	/**
+	 * Indicates whether the database supports inserting several rows with one
+	 * INSERT statement using multiple VALUES clauses.
+	 *
+	 * <p>
+	 * When this returns FALSE DBBulkInsert will still batch the INSERT
+	 * statements but each statement will only insert one row.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if multi-row VALUES clauses are supported, FALSE otherwise.
+	 */
 	public boolean supportsBulkInserts() {
 		return true;
 	}
 
+	/**
+	 * The maximum number of rows DBBulkInsert will include in a single
+	 * multi-row INSERT statement.
+	 *
+	 * <p>
+	 * Only used when {@link #supportsBulkInserts() } returns TRUE.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the default implementation returns 1000.
+	 */
+	public int getMaximumRowsPerBulkInsert() {
+		return 1000;
+	}
+
+	/**
+	 * Indicates whether the database can insert a row or update the existing row
+	 * with the same primary key in a single statement.
+	 *
+	 * <p>
+	 * When this returns TRUE DBTable.insertOrUpdate uses
+	 * {@link #getUpsertSQL(nz.co.gregs.dbvolution.DBRow, java.util.Map, java.util.Map, java.util.Map)
+	 * } instead of attempting an INSERT and then an UPDATE.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the default implementation returns FALSE.
+	 */
+	public boolean supportsUpsert() {
+		return false;
+	}
+
+	/**
+	 * Generates a statement that inserts the row, or updates the existing row if
+	 * a row with the same primary key already exists.
+	 *
+	 * <p>
+	 * All the maps use the formatted column name as the key and the SQL of the
+	 * value as the value.
+	 *
+	 * <p>
+	 * The default implementation generates a standard MERGE statement using
+	 * {@link #getUpsertSourceSQL(java.util.Map) } to provide the primary key
+	 * values.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param table the row to be inserted or updated
+	 * @param primaryKeys the values of the primary key columns
+	 * @param insertValues the values to use if the row is inserted, including
+	 * the primary key
+	 * @param updateValues the values to use if the row already exists, may be
+	 * empty
+	 * @return an SQL statement that inserts or updates the row
+	 */
+	public String getUpsertSQL(DBRow table, Map<String, String> primaryKeys, Map<String, String> insertValues, Map<String, String> updateValues) {
+		return getMergeUpsertSQL(table, primaryKeys, insertValues, updateValues, endSQLStatement());
+	}
+
+	/**
+	 * Generates an upsert using a standard MERGE statement.
+	 *
+	 * <p>
+	 * The terminator is required as some databases, like SQL Server, require a
+	 * MERGE to be terminated even though their other statements are not.
+	 *
+	 * @param table the row to be inserted or updated
+	 * @param primaryKeys the values of the primary key columns
+	 * @param insertValues the values to use if the row is inserted
+	 * @param updateValues the values to use if the row already exists
+	 * @param terminator the text that ends the statement
+	 * @return a MERGE statement that inserts or updates the row
+	 */
+	protected String getMergeUpsertSQL(DBRow table, Map<String, String> primaryKeys, Map<String, String> insertValues, Map<String, String> updateValues, String terminator) {
+		final String target = "DBV_TARGET";
+		final String source = "DBV_SOURCE";
+		StringBuilder sql = new StringBuilder("MERGE INTO ")
+				.append(formatTableName(table))
+				.append(" ").append(target)
+				.append(" USING (")
+				.append(getUpsertSourceSQL(primaryKeys))
+				.append(") ").append(source)
+				.append(" ON (");
+		String separator = "";
+		for (String column : primaryKeys.keySet()) {
+			sql.append(separator)
+					.append(target).append(".").append(column)
+					.append(getEqualsComparator())
+					.append(source).append(".").append(column);
+			separator = beginAndLine();
+		}
+		sql.append(")");
+		if (!updateValues.isEmpty()) {
+			sql.append(" WHEN MATCHED THEN UPDATE SET ");
+			separator = "";
+			for (Map.Entry<String, String> entry : updateValues.entrySet()) {
+				sql.append(separator)
+						.append(entry.getKey())
+						.append(getEqualsComparator())
+						.append(entry.getValue());
+				separator = getSubsequentSetSubClauseSeparator();
+			}
+		}
+		sql.append(" WHEN NOT MATCHED THEN INSERT ")
+				.append(beginInsertColumnList())
+				.append(joinUpsertValues(insertValues.keySet(), getValuesClauseColumnSeparator()))
+				.append(endInsertColumnList())
+				.append(beginValueClause())
+				.append(joinUpsertValues(insertValues.values(), getValuesClauseValueSeparator()))
+				.append(endValueClause())
+				.append(terminator);
+		return sql.toString();
+	}
+
+	/**
+	 * Generates the source query used by the MERGE statement of
+	 * {@link #getUpsertSQL(nz.co.gregs.dbvolution.DBRow, java.util.Map, java.util.Map, java.util.Map)
+	 * }.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param primaryKeys the values of the primary key columns
+	 * @return a SELECT statement returning one row containing the primary key
+	 * values
+	 */
+	public String getUpsertSourceSQL(Map<String, String> primaryKeys) {
+		StringBuilder sql = new StringBuilder("SELECT ");
+		String separator = "";
+		for (Map.Entry<String, String> entry : primaryKeys.entrySet()) {
+			sql.append(separator)
+					.append(entry.getValue())
+					.append(" AS ")
+					.append(entry.getKey());
+			separator = ", ";
+		}
+		return sql.toString();
+	}
+
+	/**
+	 * Generates an INSERT statement for the upsert variants that extend an
+	 * INSERT, like ON CONFLICT and ON DUPLICATE KEY UPDATE.
+	 *
+	 * @param table the row to be inserted
+	 * @param insertValues the formatted column names and the SQL of their values
+	 * @return an INSERT statement without the statement terminator
+	 */
+	protected String getUpsertInsertSQL(DBRow table, Map<String, String> insertValues) {
+		return beginInsertLine()
+				+ formatTableName(table)
+				+ beginInsertColumnList()
+				+ joinUpsertValues(insertValues.keySet(), getValuesClauseColumnSeparator())
+				+ endInsertColumnList()
+				+ beginValueClause()
+				+ joinUpsertValues(insertValues.values(), getValuesClauseValueSeparator())
+				+ endValueClause();
+	}
+
+	/**
+	 * Generates an upsert using INSERT ... ON DUPLICATE KEY UPDATE as supported
+	 * by MySQL and MariaDB.
+	 *
+	 * <p>
+	 * When there is nothing to update the first primary key column is set to
+	 * itself so that the existing row is left unchanged.
+	 *
+	 * @param table the row to be inserted or updated
+	 * @param primaryKeys the values of the primary key columns
+	 * @param insertValues the values to use if the row is inserted
+	 * @param updateValues the values to use if the row already exists
+	 * @return an INSERT statement that updates the existing row on a duplicate
+	 * key
+	 */
+	protected String getInsertOnDuplicateKeyUpsertSQL(DBRow table, Map<String, String> primaryKeys, Map<String, String> insertValues, Map<String, String> updateValues) {
+		StringBuilder sql = new StringBuilder(getUpsertInsertSQL(table, insertValues))
+				.append(" ON DUPLICATE KEY UPDATE ");
+		if (updateValues.isEmpty()) {
+			final String column = primaryKeys.keySet().iterator().next();
+			sql.append(column).append(getEqualsComparator()).append(column);
+		} else {
+			String separator = "";
+			for (Map.Entry<String, String> entry : updateValues.entrySet()) {
+				sql.append(separator)
+						.append(entry.getKey())
+						.append(getEqualsComparator())
+						.append(entry.getValue());
+				separator = getSubsequentSetSubClauseSeparator();
+			}
+		}
+		sql.append(endInsertLine());
+		return sql.toString();
+	}
+
+	/**
+	 * Generates an upsert using INSERT ... ON CONFLICT (...) DO UPDATE as
+	 * supported by PostgreSQL and SQLite.
+	 *
+	 * @param table the row to be inserted or updated
+	 * @param primaryKeys the values of the primary key columns
+	 * @param insertValues the values to use if the row is inserted
+	 * @param updateValues the values to use if the row already exists
+	 * @return an INSERT statement that updates the existing row on conflict
+	 */
+	protected String getInsertOnConflictUpsertSQL(DBRow table, Map<String, String> primaryKeys, Map<String, String> insertValues, Map<String, String> updateValues) {
+		StringBuilder sql = new StringBuilder(getUpsertInsertSQL(table, insertValues))
+				.append(" ON CONFLICT (")
+				.append(joinUpsertValues(primaryKeys.keySet(), getValuesClauseColumnSeparator()))
+				.append(")");
+		if (updateValues.isEmpty()) {
+			sql.append(" DO NOTHING");
+		} else {
+			sql.append(" DO UPDATE SET ");
+			String separator = "";
+			for (Map.Entry<String, String> entry : updateValues.entrySet()) {
+				sql.append(separator)
+						.append(entry.getKey())
+						.append(getEqualsComparator())
+						.append(entry.getValue());
+				separator = getSubsequentSetSubClauseSeparator();
+			}
+		}
+		sql.append(endInsertLine());
+		return sql.toString();
+	}
+
+	/**
+	 * Joins the column names or values of an upsert statement.
+	 *
+	 * @param values the column names or values
+	 * @param separator the separator to place between the values
+	 * @return the values separated by the separator
+	 */
+	protected String joinUpsertValues(Collection<String> values, String separator) {
+		StringBuilder result = new StringBuilder();
+		String sep = "";
+		for (String value : values) {
+			result.append(sep).append(value);
+			sep = separator;
+		}
+		return result.toString();
+	}
+
+	/**
+	 * The maximum number of values DBvolution will place in a single IN clause,
+	 * or the maximum number of comparisons in an OR of ANDs.
+	 *
+	 * <p>
+	 * Used to size the chunks of bulk deletes by primary key.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the default implementation returns 1000.
+	 */
+	public int getMaximumValuesPerInList() {
+		return 1000;
+	}
+
+	/**
+	 * Indicates whether the database supports comparing several columns to a
+	 * list of rows like "(col1, col2) IN ((1, 2), (3, 4))".
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the default implementation returns FALSE.
+	 */
+	public boolean supportsRowValueInList() {
+		return false;
+	}
+
+	/**
+	 * Produce SQL that will compare the columns to each row of values.
+	 *
+	 * <p>
+	 * Uses a row value IN clause if {@link #supportsRowValueInList() } returns
+	 * TRUE, otherwise each row is compared using ANDs and the rows are combined
+	 * using ORs. A single column always uses
+	 * {@link #doInTransform(java.lang.String, java.util.List) }.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param columns the formatted column names
+	 * @param rows the SQL values of each row in the same order as the columns
+	 * @return SQL similar to "(col1, col2) IN ((1, 2), (3, 4))" or "((col1 = 1
+	 * AND col2 = 2) OR (col1 = 3 AND col2 = 4))"
+	 */
+	public String doRowValueInTransform(List<String> columns, List<List<String>> rows) {
+		if (columns.size() == 1) {
+			List<String> values = new ArrayList<>();
+			for (List<String> row : rows) {
+				values.add(row.get(0));
+			}
+			return doInTransform(columns.get(0), values);
+		}
+		StringBuilder builder = new StringBuilder();
+		if (supportsRowValueInList()) {
+			builder.append("(")
+					.append(joinRowValue(columns))
+					.append(") IN (");
+			String separator = "";
+			for (List<String> row : rows) {
+				builder.append(separator)
+						.append("(")
+						.append(joinRowValue(row))
+						.append(")");
+				separator = ", ";
+			}
+			builder.append(")");
+		} else {
+			builder.append("(");
+			String orSeparator = "";
+			for (List<String> row : rows) {
+				builder.append(orSeparator).append("(");
+				String andSeparator = "";
+				for (int i = 0; i < columns.size(); i++) {
+					builder.append(andSeparator)
+							.append(columns.get(i))
+							.append(getEqualsComparator())
+							.append(row.get(i));
+					andSeparator = beginAndLine();
+				}
+				builder.append(")");
+				orSeparator = beginOrLine();
+			}
+			builder.append(")");
+		}
+		return builder.toString();
+	}
+
+	private String joinRowValue(List<String> elements) {
+		StringBuilder result = new StringBuilder();
+		String separator = "";
+		for (String element : elements) {
+			result.append(separator).append(element);
+			separator = ", ";
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Converts the fetch size requested for a streaming query into the value
+	 * the JDBC driver requires to stream the results.
+	 *
+	 * <p>
+	 * Some drivers, notably MySQL's, read the entire ResultSet into memory
+	 * unless a special value is used.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param fetchSize the number of rows to retrieve at a time
+	 * @return the default implementation returns the fetch size unchanged.
+	 */
+	public int getFetchSizeForStreaming(int fetchSize) {
+		return fetchSize;
+	}
+
+	/**
+	 * Indicates whether the driver only uses the fetch size, rather than reading
+	 * the entire ResultSet, when auto-commit is turned off.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the default implementation returns FALSE.
+	 */
+	public boolean requiresTransactionToStreamResults() {
+		return false;
+	}
+
+	/**
+	 * Indicates whether the database supports window functions, like COUNT(*)
+	 * OVER (), in the select clause.
+	 *
+	 * <p>
+	 * Used by {@link nz.co.gregs.dbvolution.DBQuery#getPageWithTotalCount(java.lang.Integer)
+	 * } to retrieve the total number of rows with the page. Databases that
+	 * return FALSE use a separate count query instead.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the default implementation returns TRUE.
+	 */
+	public boolean supportsWindowingFunctionsInTheSelectClause() {
+		return true;
+	}
+
 	public boolean supportsWindowingFunctionsInTheHavingClause() {
 		return false;
 	}
@@ -628,4 +628,9 @@ public class H2DBDefinition extends DBDefinition implements SupportsDateRepeatDa
 	public String doStringAccumulateTransform(String accumulateColumn, String separator, String orderByColumnName, String referencedTable) {
 		return "GROUP_CONCAT("+accumulateColumn+" ORDER BY "+orderByColumnName+" SEPARATOR "+separator+")";
 	}
+
+	@Override
+	public boolean supportsUpsert() {
+		return true;
+	}
 }
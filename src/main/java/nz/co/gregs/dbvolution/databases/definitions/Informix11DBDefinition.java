@@ -33,4 +33,9 @@ public class Informix11DBDefinition extends InformixDBDefinition {
 		return true;
 	}
 
+	@Override
+	public boolean supportsWindowingFunctionsInTheSelectClause() {
+		return false;
+	}
+
 }
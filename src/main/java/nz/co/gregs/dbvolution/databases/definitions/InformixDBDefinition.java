@@ -221,4 +221,9 @@ public class InformixDBDefinition extends DBDefinition {
 	public boolean supportsStatementIsClosed() {
 		return false;
 	}
+
+	@Override
+	public boolean supportsBulkInserts() {
+		return false;
+	}
 }
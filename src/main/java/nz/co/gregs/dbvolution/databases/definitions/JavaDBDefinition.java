@@ -312,4 +312,21 @@ public class JavaDBDefinition extends DBDefinition {
 	public boolean supportsFullOuterJoinNatively() {
 		return false;
 	}
+
+	@Override
+	public boolean supportsWindowingFunctionsInTheSelectClause() {
+		return false;
+	}
+
+	/**
+	 * JavaDB needs to know the type of a parameter before it can be used in some
+	 * expressions so the placeholder is CAST to the type of the QDT.
+	 *
+	 * @param qdt the QDT that owns the parameter value
+	 * @return the placeholder cast to the QDT's datatype
+	 */
+	@Override
+	public String getParameterPlaceholder(QueryableDatatype<?> qdt) {
+		return "CAST(? AS " + getDatabaseDataTypeOfQueryableDatatype(qdt) + ")";
+	}
 }
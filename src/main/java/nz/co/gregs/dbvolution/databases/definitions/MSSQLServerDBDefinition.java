@@ -54,6 +54,9 @@ public class MSSQLServerDBDefinition extends DBDefinition {
 
 	public static final long serialVersionUID = 1L;
 
+	private static final ThreadLocalDateFormat GET_STRING_DATE_FORMAT = new ThreadLocalDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+	private static final ThreadLocalDateFormat GET_STRING_DATE_FORMAT_WITH_TIMEZONE = new ThreadLocalDateFormat("yyyy-MM-dd HH:mm:ss.SSS Z");
+
 	private static final String[] RESERVED_WORDS_ARRAY = new String[]{"ADD", "EXTERNAL", "PROCEDURE", "ALL", "FETCH", "PUBLIC", "ALTER", "FILE", "RAISERROR", "AND", "FILLFACTOR", "READ", "ANY", "FOR", "READTEXT", "AS", "FOREIGN", "RECONFIGURE", "ASC", "FREETEXT", "REFERENCES", "AUTHORIZATION", "FREETEXTTABLE", "REPLICATION", "BACKUP", "FROM", "RESTORE", "BEGIN", "FULL", "RESTRICT", "BETWEEN", "FUNCTION", "RETURN", "BREAK", "GOTO", "REVERT", "BROWSE", "GRANT", "REVOKE", "BULK", "GROUP", "RIGHT", "BY", "HAVING", "ROLLBACK", "CASCADE", "HOLDLOCK", "ROWCOUNT", "CASE", "IDENTITY", "ROWGUIDCOL", "CHECK", "IDENTITY_INSERT", "RULE", "CHECKPOINT", "IDENTITYCOL", "SAVE", "CLOSE", "IF", "SCHEMA", "CLUSTERED", "IN", "SECURITYAUDIT", "COALESCE", "INDEX", "SELECT", "COLLATE", "INNER", "SEMANTICKEYPHRASETABLE", "COLUMN", "INSERT", "SEMANTICSIMILARITYDETAILSTABLE", "COMMIT", "INTERSECT", "SEMANTICSIMILARITYTABLE", "COMPUTE", "INTO", "SESSION_USER", "CONSTRAINT", "IS", "SET", "CONTAINS", "JOIN", "SETUSER", "CONTAINSTABLE", "KEY", "SHUTDOWN", "CONTINUE", "KILL", "SOME", "CONVERT", "LEFT", "STATISTICS", "CREATE", "LIKE", "SYSTEM_USER", "CROSS", "LINENO", "TABLE", "CURRENT", "LOAD", "TABLESAMPLE", "CURRENT_DATE", "MERGE", "TEXTSIZE", "CURRENT_TIME", "NATIONAL", "THEN", "CURRENT_TIMESTAMP", "NOCHECK", "TO", "CURRENT_USER", "NONCLUSTERED", "TOP", "CURSOR", "NOT", "TRAN", "DATABASE", "NULL", "TRANSACTION", "DBCC", "NULLIF", "TRIGGER", "DEALLOCATE", "OF", "TRUNCATE", "DECLARE", "OFF", "TRY_CONVERT", "DEFAULT", "OFFSETS", "TSEQUAL", "DELETE", "ON", "UNION", "DENY", "OPEN", "UNIQUE", "DESC", "OPENDATASOURCE", "UNPIVOT", "DISK", "OPENQUERY", "UPDATE", "DISTINCT", "OPENROWSET", "UPDATETEXT", "DISTRIBUTED", "OPENXML", "USE", "DOUBLE", "OPTION", "USER", "DROP", "OR", "VALUES", "DUMP", "ORDER", "VARYING", "ELSE", "OUTER", "VIEW", "END", "OVER", "WAITFOR", "ERRLVL", "PERCENT", "WHEN", "ESCAPE", "PIVOT", "WHERE", "EXCEPT", "PLAN", "WHILE", "EXEC", "PRECISION", "WITH", "EXECUTE", "PRIMARY", "WITHIN GROUP", "EXISTS", "PRINT", "WRITETEXT", "EXIT", "PROC"};
 	private static final List<String> RESERVED_WORDS = Arrays.asList(RESERVED_WORDS_ARRAY);
 
@@ -131,12 +134,25 @@ public class MSSQLServerDBDefinition extends DBDefinition {
 
 	@Override
 	public Date parseDateFromGetString(String getStringDate) throws ParseException {
+		return parseDateTimeOffsetString(getStringDate);
+	}
+
+	/**
+	 * Parses the string returned by SQL Server for a DATETIMEOFFSET column.
+	 *
+	 * @param getStringDate the date as returned by ResultSet.getString()
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the date
+	 * @throws ParseException the string is not a SQL Server date
+	 */
+	static Date parseDateTimeOffsetString(String getStringDate) throws ParseException {
 		String tempString = getStringDate.replaceAll(":([0-9]*)$", "$1");
 		Date parsed;
 		try {
-			parsed = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS Z").parse(tempString);
+			parsed = GET_STRING_DATE_FORMAT_WITH_TIMEZONE.get().parse(tempString);
 		} catch (ParseException ex) {
-			parsed = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").parse(tempString);
+			parsed = GET_STRING_DATE_FORMAT.get().parse(tempString);
 		}
 		return parsed;
 	}
@@ -1205,4 +1221,22 @@ public class MSSQLServerDBDefinition extends DBDefinition {
 			return super.transformToStorableType(expression);
 		}
 	}
+
+	@Override
+	public boolean supportsUpsert() {
+		return true;
+	}
+
+	/**
+	 * SQL Server requires MERGE statements to be terminated with a semicolon.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the MERGE statement terminated with a semicolon.
+	 */
+	@Override
+	public String getUpsertSQL(DBRow table, Map<String, String> primaryKeys, Map<String, String> insertValues, Map<String, String> updateValues) {
+		return getMergeUpsertSQL(table, primaryKeys, insertValues, updateValues, ";");
+	}
 }
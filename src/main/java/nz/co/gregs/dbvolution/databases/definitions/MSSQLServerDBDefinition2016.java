@@ -130,14 +130,7 @@ public class MSSQLServerDBDefinition2016 extends DBDefinition {
 
 	@Override
 	public Date parseDateFromGetString(String getStringDate) throws ParseException {
-		String tempString = getStringDate.replaceAll(":([0-9]*)$", "$1");
-		Date parsed;
-		try {
-			parsed = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS Z").parse(tempString);
-		} catch (ParseException ex) {
-			parsed = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").parse(tempString);
-		}
-		return parsed;
+		return MSSQLServerDBDefinition.parseDateTimeOffsetString(getStringDate);
 	}
 
 	@Override
@@ -1162,4 +1155,22 @@ public class MSSQLServerDBDefinition2016 extends DBDefinition {
 	public boolean requiresReversingLineStringsFromDatabase() {
 		return false;
 	}
+
+	@Override
+	public boolean supportsUpsert() {
+		return true;
+	}
+
+	/**
+	 * SQL Server requires MERGE statements to be terminated with a semicolon.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the MERGE statement terminated with a semicolon.
+	 */
+	@Override
+	public String getUpsertSQL(DBRow table, Map<String, String> primaryKeys, Map<String, String> insertValues, Map<String, String> updateValues) {
+		return getMergeUpsertSQL(table, primaryKeys, insertValues, updateValues, ";");
+	}
 }
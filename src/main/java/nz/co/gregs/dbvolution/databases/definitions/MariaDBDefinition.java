@@ -18,6 +18,8 @@ package nz.co.gregs.dbvolution.databases.definitions;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.Map;
+import nz.co.gregs.dbvolution.DBRow;
 import nz.co.gregs.dbvolution.databases.MariaClusterDB;
 import nz.co.gregs.dbvolution.databases.MariaDB;
 import nz.co.gregs.dbvolution.datatypes.DBLargeBinary;
@@ -47,6 +49,28 @@ public class MariaDBDefinition extends DBDefinition {
 	
 	private final DateFormat DATETIME_FORMAT = new SimpleDateFormat("dd,MM,yyyy HH:mm:ss");
 
+	private boolean windowingFunctionsSupported = false;
+
+	/**
+	 * Records the version of the MariaDB server so that the features that depend
+	 * on the version can be used.
+	 *
+	 * <p>
+	 * Window functions are only available from MariaDB 10.2, so they are not used
+	 * until the server version is known.
+	 *
+	 * @param majorVersion the major version of the server
+	 * @param minorVersion the minor version of the server
+	 */
+	public void setServerVersion(int majorVersion, int minorVersion) {
+		windowingFunctionsSupported = majorVersion > 10 || (majorVersion == 10 && minorVersion >= 2);
+	}
+
+	@Override
+	public boolean supportsWindowingFunctionsInTheSelectClause() {
+		return windowingFunctionsSupported;
+	}
+
 	@Override
 	@SuppressWarnings("deprecation")
 	public String getDateFormattedForQuery(Date date) {
@@ -122,4 +146,19 @@ public class MariaDBDefinition extends DBDefinition {
 	public boolean supportsFullOuterJoinNatively() {
 		return false;
 	}
+
+	@Override
+	public boolean supportsUpsert() {
+		return true;
+	}
+
+	@Override
+	public boolean supportsRowValueInList() {
+		return true;
+	}
+
+	@Override
+	public String getUpsertSQL(DBRow table, Map<String, String> primaryKeys, Map<String, String> insertValues, Map<String, String> updateValues) {
+		return getInsertOnDuplicateKeyUpsertSQL(table, primaryKeys, insertValues, updateValues);
+	}
 }
@@ -15,6 +15,7 @@
  */
 package nz.co.gregs.dbvolution.databases.definitions;
 
+import nz.co.gregs.dbvolution.DBRow;
 import nz.co.gregs.dbvolution.internal.query.LargeObjectHandlerType;
 import com.vividsolutions.jts.geom.*;
 import com.vividsolutions.jts.io.WKTReader;
@@ -23,6 +24,7 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 import nz.co.gregs.dbvolution.databases.MySQLDB;
 import nz.co.gregs.dbvolution.datatypes.*;
@@ -53,6 +55,28 @@ public class MySQLDBDefinition extends DBDefinition {
 
 	private final DateFormat DATETIME_FORMAT = new SimpleDateFormat("dd,MM,yyyy HH:mm:ss.SSS");
 
+	private boolean windowingFunctionsSupported = false;
+
+	/**
+	 * Records the version of the MySQL server so that the features that depend
+	 * on the version can be used.
+	 *
+	 * <p>
+	 * Window functions are only available from MySQL 8.0, so they are not used
+	 * until the server version is known.
+	 *
+	 * @param majorVersion the major version of the server
+	 * @param minorVersion the minor version of the server
+	 */
+	public void setServerVersion(int majorVersion, int minorVersion) {
+		windowingFunctionsSupported = majorVersion >= 8;
+	}
+
+	@Override
+	public boolean supportsWindowingFunctionsInTheSelectClause() {
+		return windowingFunctionsSupported;
+	}
+
 	@Override
 	@SuppressWarnings("deprecation")
 	public String getDateFormattedForQuery(Date date) {
@@ -697,4 +721,24 @@ public class MySQLDBDefinition extends DBDefinition {
 	public String doStringAccumulateTransform(String accumulateColumn, String separator, String orderByColumnName, String referencedTable) {
 		return "GROUP_CONCAT("+accumulateColumn+" ORDER BY "+orderByColumnName+" SEPARATOR "+separator+")";
 	}
+
+	@Override
+	public boolean supportsUpsert() {
+		return true;
+	}
+
+	@Override
+	public boolean supportsRowValueInList() {
+		return true;
+	}
+
+	@Override
+	public int getFetchSizeForStreaming(int fetchSize) {
+		return Integer.MIN_VALUE;
+	}
+
+	@Override
+	public String getUpsertSQL(DBRow table, Map<String, String> primaryKeys, Map<String, String> insertValues, Map<String, String> updateValues) {
+		return getInsertOnDuplicateKeyUpsertSQL(table, primaryKeys, insertValues, updateValues);
+	}
 }
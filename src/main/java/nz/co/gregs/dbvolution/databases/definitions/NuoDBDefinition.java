@@ -186,4 +186,9 @@ public class NuoDBDefinition extends DBDefinition {
 	public boolean supportsFullOuterJoinNatively() {
 		return false;
 	}
+
+	@Override
+	public boolean supportsWindowingFunctionsInTheSelectClause() {
+		return false;
+	}
 }
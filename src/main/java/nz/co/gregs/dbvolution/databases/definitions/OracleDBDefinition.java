@@ -19,6 +19,8 @@ import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import nz.co.gregs.dbvolution.DBRow;
 import nz.co.gregs.dbvolution.datatypes.DBBoolean;
 import nz.co.gregs.dbvolution.datatypes.DBBooleanArray;
 import nz.co.gregs.dbvolution.datatypes.DBDate;
@@ -576,4 +578,32 @@ public class OracleDBDefinition extends DBDefinition {
 	public Boolean supportsDifferenceBetweenNullAndEmptyString() {
 		return false;
 	}
+
+	/**
+	 * Oracle does not support multiple VALUES clauses in an INSERT statement.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return FALSE.
+	 */
+	@Override
+	public boolean supportsBulkInserts() {
+		return false;
+	}
+
+	@Override
+	public boolean supportsUpsert() {
+		return true;
+	}
+
+	@Override
+	public boolean supportsRowValueInList() {
+		return true;
+	}
+
+	@Override
+	public String getUpsertSourceSQL(Map<String, String> primaryKeys) {
+		return super.getUpsertSourceSQL(primaryKeys) + " FROM DUAL";
+	}
 }
@@ -15,6 +15,7 @@
  */
 package nz.co.gregs.dbvolution.databases.definitions;
 
+import nz.co.gregs.dbvolution.DBRow;
 import nz.co.gregs.dbvolution.internal.query.LargeObjectHandlerType;
 import com.vividsolutions.jts.geom.*;
 import java.text.*;
@@ -927,4 +928,24 @@ public class PostgresDBDefinition extends DBDefinition {
 	public String doRoundWithDecimalPlacesTransform(String number, String decimalPlaces) {
 		return "ROUND((" + number + ")::numeric, " + decimalPlaces + ")";
 	}
+
+	@Override
+	public boolean supportsUpsert() {
+		return true;
+	}
+
+	@Override
+	public boolean supportsRowValueInList() {
+		return true;
+	}
+
+	@Override
+	public boolean requiresTransactionToStreamResults() {
+		return true;
+	}
+
+	@Override
+	public String getUpsertSQL(DBRow table, Map<String, String> primaryKeys, Map<String, String> insertValues, Map<String, String> updateValues) {
+		return getInsertOnConflictUpsertSQL(table, primaryKeys, insertValues, updateValues);
+	}
 }
@@ -24,6 +24,7 @@ import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import nz.co.gregs.dbvolution.DBRow;
 import nz.co.gregs.dbvolution.databases.SQLiteDB;
 import nz.co.gregs.dbvolution.databases.supports.SupportsDateRepeatDatatypeFunctions;
@@ -58,15 +59,22 @@ public class SQLiteDefinition extends DBDefinition implements SupportsDateRepeat
 	 * The date format used internally within DBvolution's SQLite implementation.
 	 *
 	 */
-	private final DateFormat DATETIME_PRECISE_FORMAT = getDateTimeFormat();//
-	private static final SimpleDateFormat DATETIME_SIMPLE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+	private final ThreadLocalDateFormat datetimePreciseFormat = new ThreadLocalDateFormat() {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected DateFormat createFormat() {
+			return getDateTimeFormat();
+		}
+	};
+	private static final ThreadLocalDateFormat DATETIME_SIMPLE_FORMAT = new ThreadLocalDateFormat("yyyy-MM-dd HH:mm:ss");
 //	private static final String[] RESERVED_WORDS_ARRAY = new String[]{"ABORT", "ACTION", "ADD", "AFTER", "ALL", "ALTER", "ANALYZE", "AND", "AS", "ASC", "ATTACH", "AUTOINCREMENT", "BEFORE", "BEGIN", "BETWEEN", "BY", "CASCADE", "CASE", "CAST", "CHECK", "COLLATE", "COLUMN", "COMMIT", "CONFLICT", "CONSTRAINT", "CREATE", "CROSS", "CURRENT", "CURRENT_DATE", "CURRENT_TIME", "CURRENT_TIMESTAMP", "DATABASE", "DEFAULT", "DEFERRABLE", "DEFERRED", "DELETE", "DESC", "DETACH", "DISTINCT", "DO", "DROP", "EACH", "ELSE", "END", "ESCAPE", "EXCEPT", "EXCLUSIVE", "EXISTS", "EXPLAIN", "FAIL", "FILTER", "FOLLOWING", "FOR", "FOREIGN", "FROM", "FULL", "GLOB", "GROUP", "HAVING", "IF", "IGNORE", "IMMEDIATE", "IN", "INDEX", "INDEXED", "INITIALLY", "INNER", "INSERT", "INSTEAD", "INTERSECT", "INTO", "IS", "ISNULL", "JOIN", "KEY", "LEFT", "LIKE", "LIMIT", "MATCH", "NATURAL", "NO", "NOT", "NOTHING", "NOTNULL", "NULL", "OF", "OFFSET", "ON", "OR", "ORDER", "OUTER", "OVER", "PARTITION", "PLAN", "PRAGMA", "PRECEDING", "PRIMARY", "QUERY", "RAISE", "RANGE", "RECURSIVE", "REFERENCES", "REGEXP", "REINDEX", "RELEASE", "RENAME", "REPLACE", "RESTRICT", "RIGHT", "ROLLBACK", "ROW", "ROWS", "SAVEPOINT", "SELECT", "SET", "TABLE", "TEMP", "TEMPORARY", "THEN", "TO", "TRANSACTION", "TRIGGER", "UNBOUNDED", "UNION", "UNIQUE", "UPDATE", "USING", "VACUUM", "VALUES", "VIEW", "VIRTUAL", "WHEN", "WHERE", "WINDOW", "WITH", "WITHOUT"};
 	private static final String[] RESERVED_WORDS_ARRAY = new String[]{};
 	private static final List<String> RESERVED_WORDS_LIST = Arrays.asList(RESERVED_WORDS_ARRAY);
 
 	@Override
 	public String getDateFormattedForQuery(Date date) {
-		return " strftime('%Y-%m-%d %H:%M:%f', '" + DATETIME_PRECISE_FORMAT.format(date) + "') ";
+		return " strftime('%Y-%m-%d %H:%M:%f', '" + datetimePreciseFormat.get().format(date) + "') ";
 	}
 
 	@Override
@@ -360,11 +368,11 @@ public class SQLiteDefinition extends DBDefinition implements SupportsDateRepeat
 	}
 
 	@Override
-	public synchronized Date parseDateFromGetString(String getStringDate) throws ParseException {
+	public Date parseDateFromGetString(String getStringDate) throws ParseException {
 		try {
-			return DATETIME_PRECISE_FORMAT.parse(getStringDate);
+			return datetimePreciseFormat.get().parse(getStringDate);
 		} catch (ParseException ex) {
-			return (DATETIME_SIMPLE_FORMAT).parse(getStringDate);
+			return DATETIME_SIMPLE_FORMAT.get().parse(getStringDate);
 		}
 	}
 
@@ -993,4 +1001,24 @@ public class SQLiteDefinition extends DBDefinition implements SupportsDateRepeat
 	public boolean requiresSortedSubselectForStringAggregate() {
 		return true;
 	}
+
+	@Override
+	public int getMaximumRowsPerBulkInsert() {
+		return 500;
+	}
+
+	@Override
+	public boolean supportsUpsert() {
+		return true;
+	}
+
+	@Override
+	public int getMaximumValuesPerInList() {
+		return 500;
+	}
+
+	@Override
+	public String getUpsertSQL(DBRow table, Map<String, String> primaryKeys, Map<String, String> insertValues, Map<String, String> updateValues) {
+		return getInsertOnConflictUpsertSQL(table, primaryKeys, insertValues, updateValues);
+	}
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.databases.definitions;
+
+import java.io.Serializable;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+
+/**
+ * Supplies each thread with its own DateFormat, as DateFormats are not thread
+ * safe.
+ *
+ * <p>
+ * The formats are created on first use by {@link #createFormat() }, so
+ * subclasses can delegate to an overridable method of their definition.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+class ThreadLocalDateFormat implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String pattern;
+	private transient volatile ThreadLocal<DateFormat> formats;
+
+	/**
+	 * Creates a ThreadLocalDateFormat that uses {@link #createFormat() } to
+	 * create the formats.
+	 */
+	ThreadLocalDateFormat() {
+		this(null);
+	}
+
+	/**
+	 * Creates a ThreadLocalDateFormat of SimpleDateFormats using the pattern.
+	 *
+	 * @param pattern the SimpleDateFormat pattern
+	 */
+	ThreadLocalDateFormat(String pattern) {
+		this.pattern = pattern;
+	}
+
+	/**
+	 * Creates the DateFormat for the current thread.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return a new DateFormat
+	 */
+	protected DateFormat createFormat() {
+		return new SimpleDateFormat(pattern);
+	}
+
+	/**
+	 * Returns the DateFormat of the current thread.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the DateFormat of this thread
+	 */
+	public DateFormat get() {
+		ThreadLocal<DateFormat> local = formats;
+		if (local == null) {
+			synchronized (this) {
+				local = formats;
+				if (local == null) {
+					local = new ThreadLocal<DateFormat>() {
+						@Override
+						protected DateFormat initialValue() {
+							return createFormat();
+						}
+					};
+					formats = local;
+				}
+			}
+		}
+		return local.get();
+	}
+}
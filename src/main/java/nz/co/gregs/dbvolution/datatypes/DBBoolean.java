@@ -246,7 +246,12 @@ public class DBBoolean extends QueryableDatatype<Boolean> implements BooleanResu
 
 	@Override
 	protected Boolean getFromResultSet(DBDefinition database, ResultSet resultSet, String fullColumnName) throws SQLException {
-		Boolean dbValue = resultSet.getBoolean(fullColumnName);
+		return getFromResultSetByIndex(database, resultSet, fullColumnName, 0);
+	}
+
+	@Override
+	protected Boolean getFromResultSetByIndex(DBDefinition database, ResultSet resultSet, String fullColumnName, int columnIndex) throws SQLException {
+		Boolean dbValue = columnIndex > 0 ? resultSet.getBoolean(columnIndex) : resultSet.getBoolean(fullColumnName);
 		if (resultSet.wasNull()) {
 			dbValue = null;
 		}
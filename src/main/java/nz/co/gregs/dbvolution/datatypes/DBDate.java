@@ -237,54 +237,18 @@ public class DBDate extends QueryableDatatype<Date> implements DateResult {
 
 	@Override
 	protected Date getFromResultSet(DBDefinition defn, ResultSet resultSet, String fullColumnName) {
-		Date dbValue;
-		if (defn.prefersDatesReadAsStrings()) {
-			dbValue = setByGetString(defn, resultSet, fullColumnName);
-		} else {
-			dbValue = setByGetDate(defn, resultSet, fullColumnName);
-		}
-		return dbValue;
+		return getFromResultSetByIndex(defn, resultSet, fullColumnName, 0);
 	}
 
-	private Date setByGetString(DBDefinition database, ResultSet resultSet, String fullColumnName) {
-		String string = null;
-		try {
-			string = resultSet.getString(fullColumnName);
-		} catch (SQLException sqlex) {
-			throw new DBRuntimeException("Unable to get Date from String:" + sqlex.getLocalizedMessage(), sqlex);
-		}
-		if (string == null || string.isEmpty()) {
-			return null;
-		} else {
-			try {
-				return new Date(database.parseDateFromGetString(string).getTime());
-			} catch (ParseException ex) {
-				throw new DBRuntimeException("Unable To Parse Date: " + string, ex);
-			}
-		}
-	}
-
-	private Date setByGetDate(DBDefinition defn, ResultSet resultSet, String fullColumnName) {
-		Date dbValue = null;
+	@Override
+	protected Date getFromResultSetByIndex(DBDefinition defn, ResultSet resultSet, String fullColumnName, int columnIndex) {
 		try {
-			Date dateValue = resultSet.getDate(fullColumnName);
-			if (resultSet.wasNull()) {
-				dbValue = null;
-			} else {
-				// Some drivers interpret getDate as meaning return only the date without the time
-				// so we should check both the date and the timestamp find the latest time.
-				final long timestamp = resultSet.getTimestamp(fullColumnName).getTime();
-				Date timestampValue = new Date(timestamp);
-				if (timestampValue.after(dateValue)) {
-					dbValue = timestampValue;
-				} else {
-					dbValue = dateValue;
-				}
-			}
+			return defn.getDateFromResultSet(resultSet, fullColumnName, columnIndex);
 		} catch (SQLException sqlex) {
-			throw new DBRuntimeException("Unable to set Date by getting Date: " + sqlex.getLocalizedMessage(), sqlex);
+			throw new DBRuntimeException("Unable to get Date from ResultSet: " + sqlex.getLocalizedMessage(), sqlex);
+		} catch (ParseException ex) {
+			throw new DBRuntimeException("Unable To Parse Date: " + ex.getLocalizedMessage(), ex);
 		}
-		return dbValue;
 	}
 
 	@Override
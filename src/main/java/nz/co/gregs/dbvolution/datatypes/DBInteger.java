@@ -736,6 +736,14 @@ public class DBInteger extends QueryableDatatype<Long> implements IntegerResult
 		return resultSet.getLong(fullColumnName);
 	}
 
+	@Override
+	protected Long getFromResultSetByIndex(DBDefinition database, ResultSet resultSet, String fullColumnName, int columnIndex) throws SQLException {
+		if (columnIndex > 0) {
+			return resultSet.getLong(columnIndex);
+		}
+		return getFromResultSet(database, resultSet, fullColumnName);
+	}
+
 	@Override
 	public DBInteger copy() {
 		return (DBInteger) super.copy();
@@ -643,7 +643,7 @@ public class DBLargeBinary extends DBLargeObject<byte[]> {
 	}
 
 	@Override
-	public synchronized DBLargeBinary copy() {
+	public DBLargeBinary copy() {
 		DBLargeBinary result = (DBLargeBinary) super.copy();
 		return result;
 	}
@@ -699,6 +699,22 @@ public class DBNumber extends QueryableDatatype<Number> implements NumberResult
 		}
 	}
 
+	@Override
+	protected Number getFromResultSetByIndex(DBDefinition defn, ResultSet resultSet, String fullColumnName, int columnIndex) throws SQLException {
+		if (columnIndex > 0) {
+			try {
+				return resultSet.getBigDecimal(columnIndex);
+			} catch (SQLException ex) {
+				try {
+					return resultSet.getLong(columnIndex);
+				} catch (SQLException ex2) {
+					return null;
+				}
+			}
+		}
+		return getFromResultSet(defn, resultSet, fullColumnName);
+	}
+
 	@Override
 	public StringExpression stringResult() {
 		return NumberExpression.value(this).stringResult();
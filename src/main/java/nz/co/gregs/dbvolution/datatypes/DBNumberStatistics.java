@@ -220,6 +220,16 @@ public class DBNumberStatistics extends DBNumber {
 	@Override
 	public DBNumberStatistics copy() {
 		DBNumberStatistics copy = (DBNumberStatistics) super.copy();
+		return copyStatisticsTo(copy);
+	}
+
+	@Override
+	public DBNumberStatistics shallowCopy() {
+		DBNumberStatistics copy = (DBNumberStatistics) super.shallowCopy();
+		return copyStatisticsTo(copy);
+	}
+
+	private DBNumberStatistics copyStatisticsTo(DBNumberStatistics copy) {
 		copy.averageNumber = this.averageNumber;
 		copy.stdDev = this.stdDev;
 		copy.countOfRows = this.countOfRows;
@@ -321,6 +331,16 @@ public class DBNumberStatistics extends DBNumber {
 		propertyWrapperDefn = null;
 	}
 
+	@Override
+	public void setFromResultSet(DBDefinition database, ResultSet resultSet, String resultSetColumnName, int resultSetColumnIndex) throws SQLException {
+		setFromResultSet(database, resultSet, resultSetColumnName);
+	}
+
+	@Override
+	public void setFromResultSetReadOnly(DBDefinition database, ResultSet resultSet, String resultSetColumnName, int resultSetColumnIndex) throws SQLException {
+		setFromResultSet(database, resultSet, resultSetColumnName);
+	}
+
 	@Override
 	public String toString() {
 		return (averageNumber == null ? "" : "count=" + countOfRows + "sum=" + sumNumber + "ave=" + averageNumber + "stdDev=" + stdDev + ":max=" + maxNumber + ":min=" + minNumber);
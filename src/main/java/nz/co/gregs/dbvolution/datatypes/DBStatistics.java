@@ -177,6 +177,17 @@ public class DBStatistics<B, R extends EqualResult<B>, D extends QueryableDataty
 	@SuppressWarnings("unchecked")
 	public DBStatistics<B, R, D, X> copy() {
 		DBStatistics<B, R, D, X> copy = (DBStatistics<B, R, D, X>) super.copy();
+		return copyStatisticsTo(copy);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public DBStatistics<B, R, D, X> shallowCopy() {
+		DBStatistics<B, R, D, X> copy = (DBStatistics<B, R, D, X>) super.shallowCopy();
+		return copyStatisticsTo(copy);
+	}
+
+	private DBStatistics<B, R, D, X> copyStatisticsTo(DBStatistics<B, R, D, X> copy) {
 		copy.countOfRows = this.countOfRows;
 		copy.firstQuartileValue = this.firstQuartileValue;
 		copy.modeStrict = this.modeStrict;
@@ -250,6 +261,16 @@ public class DBStatistics<B, R extends EqualResult<B>, D extends QueryableDataty
 		propertyWrapperDefn = null;
 	}
 
+	@Override
+	public void setFromResultSet(DBDefinition database, ResultSet resultSet, String resultSetColumnName, int resultSetColumnIndex) throws SQLException {
+		setFromResultSet(database, resultSet, resultSetColumnName);
+	}
+
+	@Override
+	public void setFromResultSetReadOnly(DBDefinition database, ResultSet resultSet, String resultSetColumnName, int resultSetColumnIndex) throws SQLException {
+		setFromResultSet(database, resultSet, resultSetColumnName);
+	}
+
 	@Override
 	public String toString() {
 		return ("count=" + countOfRows);
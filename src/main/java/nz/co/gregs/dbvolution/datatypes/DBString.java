@@ -729,7 +729,12 @@ public class DBString extends QueryableDatatype<String> implements StringResult
 
 	@Override
 	protected String getFromResultSet(DBDefinition database, ResultSet resultSet, String fullColumnName) throws SQLException {
-		String gotString = resultSet.getString(fullColumnName);
+		return getFromResultSetByIndex(database, resultSet, fullColumnName, 0);
+	}
+
+	@Override
+	protected String getFromResultSetByIndex(DBDefinition database, ResultSet resultSet, String fullColumnName, int columnIndex) throws SQLException {
+		String gotString = columnIndex > 0 ? resultSet.getString(columnIndex) : resultSet.getString(fullColumnName);
 		if (!database.supportsDifferenceBetweenNullAndEmptyString()) {
 			if (gotString != null && gotString.isEmpty()) {
 				return null;
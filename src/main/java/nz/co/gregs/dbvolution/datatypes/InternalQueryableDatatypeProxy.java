@@ -113,4 +113,31 @@ public class InternalQueryableDatatypeProxy {
 		}
 
 	}
+
+	/**
+	 * Internal class, do not use.
+	 * <p>
+	 * Returns the literal value of the QDT, which may differ from
+	 * {@link QueryableDatatype#getValue() } for types like DBEnum.
+	 *
+	 * @return the literal value of the QDT
+	 */
+	public Object getLiteralValue() {
+		return qdt.getLiteralValue();
+	}
+
+	/**
+	 * Internal class, do not use.
+	 * <p>
+	 * Sets the QDT to a literal value previously retrieved from the database,
+	 * without searching for a specialised setValueFromDatabase method.
+	 *
+	 * @param literalValue a value returned by {@link #getLiteralValue() } for
+	 * the same type of QDT
+	 */
+	@SuppressWarnings("unchecked")
+	public void setLiteralValueFromDatabase(Object literalValue) {
+		((QueryableDatatype<Object>) qdt).setValueFromDatabase(literalValue);
+		qdt.setUnchanged();
+	}
 }
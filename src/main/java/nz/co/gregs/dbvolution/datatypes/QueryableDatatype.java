@@ -16,6 +16,10 @@
 package nz.co.gregs.dbvolution.datatypes;
 
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -40,6 +44,7 @@ import nz.co.gregs.dbvolution.results.LargeObjectResult;
 import nz.co.gregs.dbvolution.results.NumberResult;
 import nz.co.gregs.dbvolution.results.StringResult;
 import nz.co.gregs.dbvolution.internal.properties.PropertyWrapperDefinition;
+import nz.co.gregs.dbvolution.internal.query.QueryParameters;
 import nz.co.gregs.dbvolution.operators.DBEqualsOperator;
 import nz.co.gregs.dbvolution.operators.DBIsNullOperator;
 import nz.co.gregs.dbvolution.operators.DBOperator;
@@ -59,6 +64,16 @@ import nz.co.gregs.dbvolution.expressions.HasSQLString;
 public abstract class QueryableDatatype<T> extends Object implements Serializable, DBExpression {
 
 	private static final long serialVersionUID = 1L;
+	private static final ClassValue<MethodHandle> CONSTRUCTORS = new ClassValue<MethodHandle>() {
+		@Override
+		protected MethodHandle computeValue(Class<?> type) {
+			try {
+				return findConstructor(type);
+			} catch (ReflectiveOperationException | SecurityException ex) {
+				return null;
+			}
+		}
+	};
 	private T literalValue = null;
 	private boolean isDBNull = false;
 	private DBOperator operator = null;
@@ -170,9 +185,16 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 	 * @return a new instance of the supplied QDT class
 	 */
 	public static <T extends QueryableDatatype<?>> T getQueryableDatatypeInstance(Class<T> requiredQueryableDatatype) {
+		final MethodHandle constructor = CONSTRUCTORS.get(requiredQueryableDatatype);
 		try {
-			return requiredQueryableDatatype.getConstructor().newInstance();
-		} catch (NoSuchMethodException | SecurityException | InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
+			if (constructor == null) {
+				// Use reflection to report why the class can't be instantiated
+				return requiredQueryableDatatype.getConstructor().newInstance();
+			}
+			return requiredQueryableDatatype.cast((QueryableDatatype<?>) constructor.invokeExact());
+		} catch (Error ex) {
+			throw ex;
+		} catch (Throwable ex) {
 			throw new RuntimeException("Unable To Create " + requiredQueryableDatatype.getClass().getSimpleName() + ": Please ensure that the constructor of " + requiredQueryableDatatype.getClass().getSimpleName() + " has no arguments, throws no exceptions, and is public", ex);
 		}
 	}
@@ -252,44 +274,93 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 	 * @return a complete copy of the QDT with all values set.
 	 */
 	@Override
-	@SuppressWarnings("unchecked")
-	public synchronized QueryableDatatype<T> copy() {
-		QueryableDatatype<T> newQDT = this;
-		try {
-			synchronized (newQDT) {
-				newQDT = this.getClass().newInstance();
-
-				newQDT.literalValue = this.getLiteralValue();
-				newQDT.isDBNull = this.isDBNull;
-				newQDT.operator = this.operator;
-				newQDT.undefined = this.undefined;
-				newQDT.changed = this.changed;
-				newQDT.setValueHasBeenCalled = this.setValueHasBeenCalled;
-				newQDT.defaultInsertValue = this.defaultInsertValue;
-				newQDT.defaultInsertExpression = this.defaultInsertExpression;
-				newQDT.defaultUpdateValue = this.defaultUpdateValue;
-				newQDT.defaultUpdateExpression = this.defaultUpdateExpression;
-				if (this.previousValueAsQDT != null) {
-					newQDT.previousValueAsQDT = this.previousValueAsQDT.copy();
-				}
+	public QueryableDatatype<T> copy() {
+		return copy(true);
+	}
 
-				newQDT.sort = this.sort;
-				final DBExpression[] columnExpressions = this.getColumnExpression();
+	/**
+	 * Copies a QueryableDatatype without copying its internal objects.
+	 *
+	 * <p>
+	 * The values, operator, and settings of the QDT are copied but the previous
+	 * value and column expressions are shared with this QDT, so the copy is
+	 * cheaper than {@link #copy() } and is only suitable for reading.
+	 *
+	 * <p>
+	 * Subclasses that extend {@link #copy() } to copy extra state should extend
+	 * this method as well.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return a copy of the QDT with all values set that shares its internal
+	 * objects with this QDT.
+	 */
+	public QueryableDatatype<T> shallowCopy() {
+		return copy(false);
+	}
+
+	private QueryableDatatype<T> copy(boolean deepCopy) {
+		QueryableDatatype<T> newQDT = newInstanceOfThisClass();
+
+		newQDT.literalValue = this.literalValue;
+		newQDT.isDBNull = this.isDBNull;
+		newQDT.operator = this.operator;
+		newQDT.undefined = this.undefined;
+		newQDT.changed = this.changed;
+		newQDT.setValueHasBeenCalled = this.setValueHasBeenCalled;
+		newQDT.defaultInsertValue = this.defaultInsertValue;
+		newQDT.defaultInsertExpression = this.defaultInsertExpression;
+		newQDT.defaultUpdateValue = this.defaultUpdateValue;
+		newQDT.defaultUpdateExpression = this.defaultUpdateExpression;
+		newQDT.sort = this.sort;
+
+		final QueryableDatatype<T> previousValue = this.previousValueAsQDT;
+		final DBExpression[] columnExpressions = this.columnExpression;
+		if (!deepCopy) {
+			newQDT.previousValueAsQDT = previousValue;
+			newQDT.columnExpression = columnExpressions;
+		} else {
+			if (previousValue != null) {
+				newQDT.previousValueAsQDT = previousValue.copy();
+			}
+			if (columnExpressions.length > 0) {
 				final DBExpression[] newExpressions = new DBExpression[columnExpressions.length];
-				int i = 0;
-				for (DBExpression columnExpression1 : columnExpressions) {
-					newExpressions[i] = columnExpression1.copy();
-					i++;
+				for (int i = 0; i < columnExpressions.length; i++) {
+					newExpressions[i] = columnExpressions[i].copy();
 				}
-				newQDT.setColumnExpression(newExpressions);
+				newQDT.columnExpression = newExpressions;
 			}
-		} catch (InstantiationException ex) {
-			throw new UnableInstantiateQueryableDatatypeException(this, ex);
+		}
+		return newQDT;
+	}
+
+	@SuppressWarnings("unchecked")
+	private QueryableDatatype<T> newInstanceOfThisClass() {
+		MethodHandle constructor = CONSTRUCTORS.get(getClass());
+		try {
+			if (constructor == null) {
+				// Look it up again to report why the class can't be instantiated
+				constructor = findConstructor(getClass());
+			}
+			return (QueryableDatatype<T>) constructor.invokeExact();
 		} catch (IllegalAccessException ex) {
 			throw new UnableToCopyQueryableDatatypeException(this, ex);
+		} catch (RuntimeException | Error ex) {
+			throw ex;
+		} catch (Exception ex) {
+			throw new UnableInstantiateQueryableDatatypeException(this, ex);
+		} catch (Throwable ex) {
+			throw new UnableInstantiateQueryableDatatypeException(this, new InvocationTargetException(ex));
 		}
+	}
 
-		return newQDT;
+	private static MethodHandle findConstructor(Class<?> qdtClass) throws NoSuchMethodException, IllegalAccessException {
+		final Constructor<?> constructor = qdtClass.getDeclaredConstructor();
+		constructor.setAccessible(true);
+		return MethodHandles.lookup()
+				.unreflectConstructor(constructor)
+				.asType(MethodType.methodType(QueryableDatatype.class));
 	}
 
 	@Override
@@ -633,6 +704,10 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 		} else if (getLiteralValue() instanceof DBExpression) {
 			return "(" + ((HasSQLString) getLiteralValue()).toSQLString(defn) + ")";
 		} else {
+			final QueryParameters parameters = QueryParameters.getCollectingParameters();
+			if (parameters != null && defn.supportsParameterisedValue(this, getLiteralValue())) {
+				return parameters.addParameter(defn, this, getLiteralValue());
+			}
 			return formatValueForSQLStatement(defn);
 		}
 	}
@@ -721,13 +796,34 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 	 * @throws java.sql.SQLException Database exceptions may be thrown
 	 */
 	public void setFromResultSet(DBDefinition defn, ResultSet resultSet, String resultSetColumnName) throws SQLException {
+		setFromResultSet(defn, resultSet, resultSetColumnName, 0);
+	}
+
+	/**
+	 * Used internally to set the QDT to the value returned from the database,
+	 * using the index of the column when it is known.
+	 *
+	 * <p>
+	 * Reading the column by index avoids the ResultSet searching for the column
+	 * name on every row. QDTs that override
+	 * {@link #setFromResultSet(nz.co.gregs.dbvolution.databases.definitions.DBDefinition, java.sql.ResultSet, java.lang.String)
+	 * } should override this method as well.
+	 *
+	 * @param defn database
+	 * @param resultSet resultSet
+	 * @param resultSetColumnName resultSetColumnName
+	 * @param resultSetColumnIndex the index of the column in the ResultSet, or 0
+	 * if unknown
+	 * @throws java.sql.SQLException Database exceptions may be thrown
+	 */
+	public void setFromResultSet(DBDefinition defn, ResultSet resultSet, String resultSetColumnName, int resultSetColumnIndex) throws SQLException {
 		removeConstraints();
 		if (resultSet == null || resultSetColumnName == null) {
 			this.setToNull(defn);
 		} else {
 			T dbValue;
 			try {
-				dbValue = getFromResultSet(defn, resultSet, resultSetColumnName);
+				dbValue = getFromResultSetByIndex(defn, resultSet, resultSetColumnName, resultSetColumnIndex);
 				if (resultSet.wasNull()) {
 					dbValue = null;
 				}
@@ -746,6 +842,50 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 //		propertyWrapperDefn = null;
 	}
 
+	/**
+	 * Used internally to set the QDT to the value returned from the database by
+	 * a read-only query.
+	 *
+	 * <p>
+	 * The value is set directly without creating the previous value and operator
+	 * used to track changes, so the QDT is unchanged and will not act as a
+	 * condition. QDTs that override
+	 * {@link #setFromResultSet(nz.co.gregs.dbvolution.databases.definitions.DBDefinition, java.sql.ResultSet, java.lang.String, int)
+	 * } should override this method as well.
+	 *
+	 * @param defn database
+	 * @param resultSet resultSet
+	 * @param resultSetColumnName resultSetColumnName
+	 * @param resultSetColumnIndex the index of the column in the ResultSet, or 0
+	 * if unknown
+	 * @throws java.sql.SQLException Database exceptions may be thrown
+	 */
+	public void setFromResultSetReadOnly(DBDefinition defn, ResultSet resultSet, String resultSetColumnName, int resultSetColumnIndex) throws SQLException {
+		T dbValue = null;
+		if (resultSet != null && resultSetColumnName != null) {
+			try {
+				dbValue = getFromResultSetByIndex(defn, resultSet, resultSetColumnName, resultSetColumnIndex);
+				if (resultSet.wasNull()) {
+					dbValue = null;
+				}
+			} catch (SQLException ex) {
+				// Probably means the column wasn't selected.
+				dbValue = null;
+			}
+		}
+		isDBNull = false;
+		operator = null;
+		if (dbValue == null) {
+			this.setToNull(defn);
+		} else {
+			literalValue = dbValue;
+			setValueHasBeenCalled = true;
+		}
+		changed = false;
+		previousValueAsQDT = null;
+		undefined = false;
+	}
+
 	/**
 	 * Returns the correct object from the ResultSet for the QueryableDatatype to
 	 * handle.
@@ -761,6 +901,31 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 	 */
 	abstract protected T getFromResultSet(DBDefinition database, ResultSet resultSet, String fullColumnName) throws SQLException;
 
+	/**
+	 * Returns the correct object from the ResultSet using the index of the column
+	 * if it is known.
+	 *
+	 * <p>
+	 * The default implementation uses
+	 * {@link #getFromResultSet(nz.co.gregs.dbvolution.databases.definitions.DBDefinition, java.sql.ResultSet, java.lang.String) the column name}.
+	 * QDTs that read a single column with a simple getter should override this
+	 * method to use the index.
+	 *
+	 * @param database database
+	 * @param resultSet resultSet
+	 * @param fullColumnName fullColumnName
+	 * @param columnIndex the index of the column in the ResultSet, or 0 if
+	 * unknown
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the expected object from the ResultSet. 1 Database exceptions may
+	 * be thrown
+	 * @throws java.sql.SQLException java.sql.SQLException
+	 */
+	protected T getFromResultSetByIndex(DBDefinition database, ResultSet resultSet, String fullColumnName, int columnIndex) throws SQLException {
+		return getFromResultSet(database, resultSet, fullColumnName);
+	}
+
 	private synchronized void moveCurrentValueToPreviousValue(T newLiteralValue) {
 		if ((this.isDBNull && newLiteralValue != null)
 				|| (!this.isDBNull && (newLiteralValue == null || !newLiteralValue.equals(literalValue)))) {
@@ -1000,15 +1165,13 @@ public abstract class QueryableDatatype<T> extends Object implements Serializabl
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public QueryableDatatype<T> getQueryableDatatypeForExpressionValue() {
-		try {
-			final QueryableDatatype<T> newInstance = this.getClass().newInstance();
-			newInstance.setColumnExpression(this.getColumnExpression());
-			return newInstance;
-		} catch (InstantiationException | IllegalAccessException e) {
+		if (CONSTRUCTORS.get(getClass()) == null) {
 			return this;
 		}
+		final QueryableDatatype<T> newInstance = newInstanceOfThisClass();
+		newInstance.setColumnExpression(this.getColumnExpression());
+		return newInstance;
 	}
 
 	/**
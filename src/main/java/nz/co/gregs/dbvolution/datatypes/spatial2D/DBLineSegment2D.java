@@ -211,6 +211,16 @@ public class DBLineSegment2D extends QueryableDatatype<LineSegment> implements L
 //		propertyWrapperDefn = null;
 	}
 
+	@Override
+	public void setFromResultSet(DBDefinition defn, ResultSet resultSet, String resultSetColumnName, int resultSetColumnIndex) throws SQLException {
+		setFromResultSet(defn, resultSet, resultSetColumnName);
+	}
+
+	@Override
+	public void setFromResultSetReadOnly(DBDefinition defn, ResultSet resultSet, String resultSetColumnName, int resultSetColumnIndex) throws SQLException {
+		setFromResultSet(defn, resultSet, resultSetColumnName);
+	}
+
 	@Override
 	public String getSQLDatatype() {
 		return " LINESTRING ";
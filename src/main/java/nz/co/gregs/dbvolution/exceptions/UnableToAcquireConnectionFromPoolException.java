@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.exceptions;
+
+/**
+ * Thrown when all the connections of the connection pool remain busy for
+ * longer than the acquire timeout.
+ *
+ * <p>
+ * Either the pool is too small for the load, see
+ * {@link nz.co.gregs.dbvolution.databases.DatabaseConnectionSettings#setMaximumPoolSize(int) },
+ * or connections are not being returned because DBStatements are not being
+ * closed.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class UnableToAcquireConnectionFromPoolException extends DBRuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Thrown when no connection became available within the timeout.
+	 *
+	 * @param maximumPoolSize the number of connections in the full pool
+	 * @param timeoutMillis the time waited for a connection
+	 */
+	public UnableToAcquireConnectionFromPoolException(int maximumPoolSize, long timeoutMillis) {
+		super("Unable to acquire a Database Connection: all " + maximumPoolSize + " connections of the pool were busy for " + timeoutMillis + "ms, check that DBStatements are closed or increase the maximum pool size");
+	}
+
+	/**
+	 * Thrown when the thread was interrupted while waiting for a connection.
+	 *
+	 * @param interrupted the exception thrown while waiting
+	 */
+	public UnableToAcquireConnectionFromPoolException(InterruptedException interrupted) {
+		super("Unable to acquire a Database Connection: interrupted while waiting for a connection from the pool", interrupted);
+	}
+}
@@ -34,10 +34,10 @@ import nz.co.gregs.dbvolution.exceptions.NoAvailableDatabaseException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
-import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.logging.Level;
@@ -68,6 +68,14 @@ public class ClusterDetails implements Serializable {
 
 	private final Set<DBRow> requiredTables = Collections.synchronizedSet(DataModel.getRequiredTables());
 	private final transient Map<DBDatabase, Queue<DBAction>> queuedActions = Collections.synchronizedMap(new HashMap<DBDatabase, Queue<DBAction>>(0));
+	private final transient Map<DBDatabase, ClusterMemberLoad> memberLoads = Collections.synchronizedMap(new IdentityHashMap<DBDatabase, ClusterMemberLoad>(0));
+	private transient volatile ClusterRoutingPolicy routingPolicy;
+
+	/**
+	 * How long to wait for a paused database to become ready when no database
+	 * is ready.
+	 */
+	private static final long MAXIMUM_WAIT_FOR_READY_DATABASE_MILLIS = 1000;
 
 	private final Preferences prefs = Preferences.userNodeForPackage(this.getClass());
 	private String clusterName = "NotDefined";
@@ -136,6 +144,7 @@ public class ClusterDetails implements Serializable {
 			readyDatabases.remove(database);
 			pausedDatabases.remove(database);
 			unsynchronizedDatabases.remove(database);
+			notifyAll();
 
 			queuedActions.remove(database);
 
@@ -168,6 +177,8 @@ public class ClusterDetails implements Serializable {
 		result = result && pausedDatabases.contains(database) ? pausedDatabases.remove(database) : true;
 		result = result && readyDatabases.contains(database) ? readyDatabases.remove(database) : true;
 		result = result && allDatabases.contains(database) ? allDatabases.remove(database) : true;
+		memberLoads.remove(database);
+		notifyAll();
 		return result;
 	}
 
@@ -205,6 +216,7 @@ public class ClusterDetails implements Serializable {
 				if (readyDatabase != null) {
 					secondary.setPrintSQLBeforeExecuting(readyDatabase.getPrintSQLBeforeExecuting());
 					secondary.setBatchSQLStatementsWhenPossible(readyDatabase.getBatchSQLStatementsWhenPossible());
+					secondary.setBatchSize(readyDatabase.getBatchSize());
 				}
 			}
 		} catch (NoAvailableDatabaseException ex) {
@@ -212,6 +224,7 @@ public class ClusterDetails implements Serializable {
 		}
 		readyDatabases.add(secondary);
 		setAuthoritativeDatabase();
+		notifyAll();
 	}
 
 	protected boolean hasReadyDatabases() {
@@ -239,26 +252,129 @@ public class ClusterDetails implements Serializable {
 		return template;
 	}
 
+	/**
+	 * Chooses a ready database using the cluster's routing policy.
+	 *
+	 * <p>
+	 * If no database is ready but some are paused, waits briefly for a paused
+	 * database to become ready.
+	 *
+	 * @return a ready database
+	 * @throws NoAvailableDatabaseException no database is ready
+	 */
 	public DBDatabase getReadyDatabase() throws NoAvailableDatabaseException {
 		DBDatabase[] dbs = getReadyDatabases();
-		int tries = 0;
-		while (dbs.length < 1 && pausedDatabases.size() > 0 && tries <= 1000) {
-			tries++;
+		if (dbs.length < 1 && pausedDatabases.size() > 0) {
+			dbs = waitForReadyDatabases();
+		}
+		if (dbs.length == 1) {
+			return dbs[0];
+		} else if (dbs.length > 1) {
+			final ClusterMemberLoad[] loads = new ClusterMemberLoad[dbs.length];
+			for (int i = 0; i < dbs.length; i++) {
+				loads[i] = getLoad(dbs[i]);
+			}
+			final DBDatabase chosen = getRoutingPolicy().chooseDatabase(dbs, loads);
+			return chosen == null ? dbs[0] : chosen;
+		}
+		throw new NoAvailableDatabaseException();
+	}
+
+	/**
+	 * Chooses a ready database using the cluster's routing policy and records the
+	 * query in the database's load until the lease is closed.
+	 *
+	 * @return the lease of a ready database
+	 * @throws NoAvailableDatabaseException no database is ready
+	 */
+	public ClusterMemberLease leaseReadyDatabase() throws NoAvailableDatabaseException {
+		final DBDatabase database = getReadyDatabase();
+		return new ClusterMemberLease(database, getLoad(database));
+	}
+
+	/**
+	 * Returns the first ready database without consulting the routing policy.
+	 *
+	 * <p>
+	 * Used as the template for metadata, like the definition or generated SQL,
+	 * that is the same on every member, so that such calls do not count towards
+	 * the load of the member or disturb the routing policy.
+	 *
+	 * <p>
+	 * If no database is ready but some are paused, waits briefly for a paused
+	 * database to become ready.
+	 *
+	 * @return a ready database
+	 * @throws NoAvailableDatabaseException no database is ready
+	 */
+	public DBDatabase getMetadataDatabase() throws NoAvailableDatabaseException {
+		DBDatabase[] dbs = getReadyDatabases();
+		if (dbs.length < 1 && pausedDatabases.size() > 0) {
+			dbs = waitForReadyDatabases();
+		}
+		if (dbs.length > 0) {
+			return dbs[0];
+		}
+		throw new NoAvailableDatabaseException();
+	}
+
+	private synchronized DBDatabase[] waitForReadyDatabases() {
+		final long deadline = System.currentTimeMillis() + MAXIMUM_WAIT_FOR_READY_DATABASE_MILLIS;
+		DBDatabase[] dbs = getReadyDatabases();
+		long remaining = MAXIMUM_WAIT_FOR_READY_DATABASE_MILLIS;
+		while (dbs.length < 1 && pausedDatabases.size() > 0 && remaining > 0) {
 			try {
-				Thread.sleep(1);
+				wait(remaining);
 			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
 				Logger.getLogger(ClusterDetails.class.getName()).log(Level.SEVERE, null, ex);
+				break;
 			}
 			dbs = getReadyDatabases();
+			remaining = deadline - System.currentTimeMillis();
 		}
-		Random rand = new Random();
-		if (dbs.length > 0) {
-			final int randNumber = rand.nextInt(dbs.length);
-			DBDatabase randomElement = dbs[randNumber];
-			return randomElement;
+		return dbs;
+	}
+
+	/**
+	 * Returns the record of the queries sent to the database by the cluster.
+	 *
+	 * @param database a database in the cluster
+	 * @return the load of the database
+	 */
+	public ClusterMemberLoad getLoad(DBDatabase database) {
+		synchronized (memberLoads) {
+			ClusterMemberLoad load = memberLoads.get(database);
+			if (load == null) {
+				load = new ClusterMemberLoad();
+				memberLoads.put(database, load);
+			}
+			return load;
 		}
-		throw new NoAvailableDatabaseException();
-//		return null;
+	}
+
+	/**
+	 * Sets the policy used to choose which ready database runs each query.
+	 *
+	 * @param policy the routing policy, or NULL to use
+	 * {@link ClusterRoutingPolicies#leastOutstandingRequests() }
+	 */
+	public void setRoutingPolicy(ClusterRoutingPolicy policy) {
+		this.routingPolicy = policy;
+	}
+
+	/**
+	 * The policy used to choose which ready database runs each query.
+	 *
+	 * @return the routing policy
+	 */
+	public ClusterRoutingPolicy getRoutingPolicy() {
+		ClusterRoutingPolicy policy = routingPolicy;
+		if (policy == null) {
+			policy = ClusterRoutingPolicies.leastOutstandingRequests();
+			routingPolicy = policy;
+		}
+		return policy;
 	}
 
 	public synchronized void addAll(DBDatabase[] databases) {
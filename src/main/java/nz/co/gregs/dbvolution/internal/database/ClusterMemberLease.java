@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.database;
+
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+
+/**
+ * A database chosen from a cluster for a query, recorded in the database's
+ * {@link ClusterMemberLoad} until the lease is closed.
+ *
+ * <p>
+ * Call {@link #succeeded() } once the query has worked, and always close the
+ * lease, so that the routing policy sees the real load of the database.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class ClusterMemberLease implements AutoCloseable {
+
+	private final DBDatabase database;
+	private final ClusterMemberLoad load;
+	private final long startedNanos;
+	private long respondedNanos = -1;
+	private boolean succeeded = false;
+	private boolean closed = false;
+
+	ClusterMemberLease(DBDatabase database, ClusterMemberLoad load) {
+		this.database = database;
+		this.load = load;
+		this.startedNanos = load.started();
+	}
+
+	/**
+	 * The database chosen for the query.
+	 *
+	 * @return a ready database of the cluster
+	 */
+	public DBDatabase getDatabase() {
+		return database;
+	}
+
+	/**
+	 * Records that the database has responded to the query, for queries that
+	 * keep using the database afterwards.
+	 *
+	 * <p>
+	 * Only the first response is recorded.
+	 */
+	public synchronized void responded() {
+		if (respondedNanos < 0) {
+			respondedNanos = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Records that the query worked.
+	 */
+	public synchronized void succeeded() {
+		responded();
+		succeeded = true;
+	}
+
+	/**
+	 * Records that the query has finished with the database.
+	 *
+	 * <p>
+	 * Closing the lease more than once has no effect.
+	 */
+	@Override
+	public synchronized void close() {
+		if (!closed) {
+			closed = true;
+			load.finished(startedNanos, respondedNanos < 0 ? System.nanoTime() : respondedNanos, succeeded);
+		}
+	}
+}
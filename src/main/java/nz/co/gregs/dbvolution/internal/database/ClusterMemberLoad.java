@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.database;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the queries a cluster has sent to one of its databases.
+ *
+ * <p>
+ * Records the number of queries currently running on the database and an
+ * exponentially weighted moving average of how long queries take, so that a
+ * {@link ClusterRoutingPolicy} can send queries to the least loaded or fastest
+ * database.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class ClusterMemberLoad {
+
+	/**
+	 * The weight given to the latest query when updating the average latency.
+	 */
+	private static final double LATENCY_DECAY = 0.3;
+	private static final long NO_LATENCY = Double.doubleToLongBits(-1.0);
+
+	private final AtomicInteger outstandingRequests = new AtomicInteger(0);
+	private final AtomicLong completedRequests = new AtomicLong(0);
+	private final AtomicLong failures = new AtomicLong(0);
+	private final AtomicLong averageLatencyNanos = new AtomicLong(NO_LATENCY);
+
+	/**
+	 * Records that a query has been sent to the database.
+	 *
+	 * <p>
+	 * Every call must be matched by a call to {@link #finished(long, boolean) }.
+	 *
+	 * @return the start time of the query, to be passed to
+	 * {@link #finished(long, boolean) }
+	 */
+	public long started() {
+		outstandingRequests.incrementAndGet();
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records that a query sent to the database has finished.
+	 *
+	 * @param startedNanos the value returned by {@link #started() }
+	 * @param succeeded FALSE if the query failed
+	 */
+	public void finished(long startedNanos, boolean succeeded) {
+		finished(startedNanos, System.nanoTime(), succeeded);
+	}
+
+	/**
+	 * Records that a query that kept using the database after it responded,
+	 * like a streaming iterator, has finished.
+	 *
+	 * <p>
+	 * The latency is measured to the response so that slow readers of the
+	 * results do not count against the database.
+	 *
+	 * @param startedNanos the value returned by {@link #started() }
+	 * @param respondedNanos the {@link System#nanoTime() } when the database
+	 * responded
+	 * @param succeeded FALSE if the query failed
+	 */
+	public void finished(long startedNanos, long respondedNanos, boolean succeeded) {
+		outstandingRequests.decrementAndGet();
+		if (succeeded) {
+			completedRequests.incrementAndGet();
+			updateAverageLatency(respondedNanos - startedNanos);
+		} else {
+			failures.incrementAndGet();
+		}
+	}
+
+	private void updateAverageLatency(long latencyNanos) {
+		long current = averageLatencyNanos.get();
+		while (true) {
+			final double average = Double.longBitsToDouble(current);
+			final double updated = average < 0
+					? latencyNanos
+					: average + LATENCY_DECAY * (latencyNanos - average);
+			if (averageLatencyNanos.compareAndSet(current, Double.doubleToLongBits(updated))) {
+				return;
+			}
+			current = averageLatencyNanos.get();
+		}
+	}
+
+	/**
+	 * @return the number of queries currently running on the database
+	 */
+	public int getOutstandingRequests() {
+		return outstandingRequests.get();
+	}
+
+	/**
+	 * @return the number of queries that completed successfully
+	 */
+	public long getCompletedRequests() {
+		return completedRequests.get();
+	}
+
+	/**
+	 * @return the number of queries that failed
+	 */
+	public long getFailures() {
+		return failures.get();
+	}
+
+	/**
+	 * Indicates whether any query has completed on the database.
+	 *
+	 * @return TRUE if the average latency is known
+	 */
+	public boolean hasLatency() {
+		return Double.longBitsToDouble(averageLatencyNanos.get()) >= 0;
+	}
+
+	/**
+	 * The moving average of how long queries took to complete, more recent
+	 * queries having the greater weight.
+	 *
+	 * @return the average latency in milliseconds, or 0 if no query has
+	 * completed
+	 */
+	public double getAverageLatencyMillis() {
+		final double average = Double.longBitsToDouble(averageLatencyNanos.get());
+		return average < 0 ? 0 : average / 1000000.0;
+	}
+
+	@Override
+	public String toString() {
+		return "ClusterMemberLoad{outstanding=" + getOutstandingRequests() + ", completed=" + getCompletedRequests() + ", failures=" + getFailures() + ", averageLatencyMillis=" + getAverageLatencyMillis() + "}";
+	}
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.database;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+
+/**
+ * The standard ways of choosing which database in a cluster runs a query.
+ *
+ * <p>
+ * {@link #leastOutstandingRequests() } is used unless the cluster is given
+ * another policy.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public final class ClusterRoutingPolicies {
+
+	private ClusterRoutingPolicies() {
+	}
+
+	/**
+	 * Sends each query to a randomly chosen database.
+	 *
+	 * @return a random routing policy
+	 */
+	public static ClusterRoutingPolicy random() {
+		return new RandomPolicy();
+	}
+
+	/**
+	 * Sends each query to the database with the fewest queries running, or
+	 * waiting to run.
+	 *
+	 * <p>
+	 * Slow databases accumulate outstanding queries and so receive fewer new
+	 * queries. Ties are broken randomly.
+	 *
+	 * @return a least outstanding requests routing policy
+	 */
+	public static ClusterRoutingPolicy leastOutstandingRequests() {
+		return new LeastOutstandingRequestsPolicy();
+	}
+
+	/**
+	 * Sends each query to the database expected to answer first.
+	 *
+	 * <p>
+	 * The expected time is the moving average of the database's recent query
+	 * times multiplied by the number of queries it is already running plus one.
+	 * Databases that have not yet answered a query are tried first so that
+	 * every database has an average.
+	 *
+	 * @return a latency based routing policy
+	 */
+	public static ClusterRoutingPolicy lowestLatency() {
+		return new LowestLatencyPolicy();
+	}
+
+	/**
+	 * Sends queries to the databases in proportion to their weights.
+	 *
+	 * <p>
+	 * A database with a weight of 3 receives three times as many queries as a
+	 * database with a weight of 1. Databases without a weight have a weight of
+	 * 1 and databases with a weight of 0 are only used when no other database is
+	 * ready.
+	 *
+	 * @param weights the relative share of queries for each database
+	 * @return a weighted routing policy
+	 */
+	public static ClusterRoutingPolicy weighted(Map<DBDatabase, Integer> weights) {
+		return new WeightedPolicy(weights);
+	}
+
+	/**
+	 * Sends queries to the preferred databases while any of them are ready,
+	 * choosing between them with the fallback policy.
+	 *
+	 * <p>
+	 * Use this to keep reads on a local database, for instance an in-memory
+	 * cache of a remote database, and only use the other databases when the
+	 * local database is unavailable.
+	 *
+	 * @param fallback the policy used to choose between databases
+	 * @param preferredDatabases the databases to use while they are ready
+	 * @return a preferred database routing policy
+	 */
+	public static ClusterRoutingPolicy preferred(ClusterRoutingPolicy fallback, DBDatabase... preferredDatabases) {
+		return new PreferredPolicy(fallback, preferredDatabases);
+	}
+
+	/**
+	 * Sends queries to the preferred databases while any of them are ready,
+	 * choosing between them with {@link #leastOutstandingRequests() }.
+	 *
+	 * @param preferredDatabases the databases to use while they are ready
+	 * @return a preferred database routing policy
+	 */
+	public static ClusterRoutingPolicy preferred(DBDatabase... preferredDatabases) {
+		return preferred(leastOutstandingRequests(), preferredDatabases);
+	}
+
+	private static class RandomPolicy implements ClusterRoutingPolicy {
+
+		@Override
+		public DBDatabase chooseDatabase(DBDatabase[] candidates, ClusterMemberLoad[] loads) {
+			return candidates[ThreadLocalRandom.current().nextInt(candidates.length)];
+		}
+	}
+
+	private static class LeastOutstandingRequestsPolicy implements ClusterRoutingPolicy {
+
+		@Override
+		public DBDatabase chooseDatabase(DBDatabase[] candidates, ClusterMemberLoad[] loads) {
+			// start at a random candidate so ties are shared
+			final int offset = ThreadLocalRandom.current().nextInt(candidates.length);
+			int chosen = offset;
+			int fewest = Integer.MAX_VALUE;
+			for (int i = 0; i < candidates.length; i++) {
+				final int index = (offset + i) % candidates.length;
+				final int outstanding = loads[index].getOutstandingRequests();
+				if (outstanding < fewest) {
+					fewest = outstanding;
+					chosen = index;
+				}
+			}
+			return candidates[chosen];
+		}
+	}
+
+	private static class LowestLatencyPolicy implements ClusterRoutingPolicy {
+
+		@Override
+		public DBDatabase chooseDatabase(DBDatabase[] candidates, ClusterMemberLoad[] loads) {
+			final int offset = ThreadLocalRandom.current().nextInt(candidates.length);
+			int chosen = offset;
+			double fastest = Double.MAX_VALUE;
+			for (int i = 0; i < candidates.length; i++) {
+				final int index = (offset + i) % candidates.length;
+				final ClusterMemberLoad load = loads[index];
+				if (!load.hasLatency()) {
+					return candidates[index];
+				}
+				final double expected = load.getAverageLatencyMillis() * (load.getOutstandingRequests() + 1);
+				if (expected < fastest) {
+					fastest = expected;
+					chosen = index;
+				}
+			}
+			return candidates[chosen];
+		}
+	}
+
+	private static class WeightedPolicy implements ClusterRoutingPolicy {
+
+		private final Map<DBDatabase, Integer> weights = new IdentityHashMap<>();
+
+		WeightedPolicy(Map<DBDatabase, Integer> weights) {
+			this.weights.putAll(weights);
+		}
+
+		@Override
+		public DBDatabase chooseDatabase(DBDatabase[] candidates, ClusterMemberLoad[] loads) {
+			final int[] candidateWeights = new int[candidates.length];
+			long total = 0;
+			for (int i = 0; i < candidates.length; i++) {
+				final Integer weight = weights.get(candidates[i]);
+				candidateWeights[i] = weight == null ? 1 : Math.max(0, weight);
+				total += candidateWeights[i];
+			}
+			if (total == 0) {
+				return candidates[ThreadLocalRandom.current().nextInt(candidates.length)];
+			}
+			long choice = ThreadLocalRandom.current().nextLong(total);
+			for (int i = 0; i < candidates.length; i++) {
+				choice -= candidateWeights[i];
+				if (choice < 0) {
+					return candidates[i];
+				}
+			}
+			return candidates[candidates.length - 1];
+		}
+	}
+
+	private static class PreferredPolicy implements ClusterRoutingPolicy {
+
+		private final ClusterRoutingPolicy fallback;
+		private final DBDatabase[] preferredDatabases;
+
+		PreferredPolicy(ClusterRoutingPolicy fallback, DBDatabase[] preferredDatabases) {
+			this.fallback = fallback;
+			this.preferredDatabases = preferredDatabases.clone();
+		}
+
+		@Override
+		public DBDatabase chooseDatabase(DBDatabase[] candidates, ClusterMemberLoad[] loads) {
+			final List<DBDatabase> preferred = new ArrayList<>(preferredDatabases.length);
+			final List<ClusterMemberLoad> preferredLoads = new ArrayList<>(preferredDatabases.length);
+			for (int i = 0; i < candidates.length; i++) {
+				if (isPreferred(candidates[i])) {
+					preferred.add(candidates[i]);
+					preferredLoads.add(loads[i]);
+				}
+			}
+			if (preferred.isEmpty()) {
+				return fallback.chooseDatabase(candidates, loads);
+			} else if (preferred.size() == 1) {
+				return preferred.get(0);
+			} else {
+				return fallback.chooseDatabase(
+						preferred.toArray(new DBDatabase[preferred.size()]),
+						preferredLoads.toArray(new ClusterMemberLoad[preferredLoads.size()]));
+			}
+		}
+
+		private boolean isPreferred(DBDatabase candidate) {
+			for (DBDatabase preferred : preferredDatabases) {
+				if (preferred == candidate) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.database;
+
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+
+/**
+ * Chooses which of the ready databases in a cluster will run a query.
+ *
+ * <p>
+ * Standard policies are available from {@link ClusterRoutingPolicies}.
+ * Policies are called for every query so they should be fast and must be
+ * thread safe.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ * @see nz.co.gregs.dbvolution.databases.DBDatabaseCluster#setRoutingPolicy(nz.co.gregs.dbvolution.internal.database.ClusterRoutingPolicy)
+ */
+public interface ClusterRoutingPolicy {
+
+	/**
+	 * Chooses the database to run the next query.
+	 *
+	 * @param candidates the ready databases of the cluster, never empty
+	 * @param loads the load of each candidate, in the same order as the
+	 * candidates
+	 * @return one of the candidates
+	 */
+	DBDatabase chooseDatabase(DBDatabase[] candidates, ClusterMemberLoad[] loads);
+}
@@ -0,0 +1,682 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import nz.co.gregs.dbvolution.databases.DatabaseConnectionSettings;
+import nz.co.gregs.dbvolution.exceptions.UnableToAcquireConnectionFromPoolException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A bounded pool of JDBC connections for a single database.
+ *
+ * <p>
+ * The number of busy connections is limited by a semaphore with one permit per
+ * connection, so threads only wait when the pool is full and never contend on
+ * a shared monitor. Idle connections are kept in a lock-free stack so the most
+ * recently used, and most likely to still be valid, connection is reused first.
+ *
+ * <p>
+ * Idle connections are validated before reuse and closed when they exceed the
+ * idle timeout or the maximum lifetime. Eviction happens while connections are
+ * acquired and returned, so the pool does not need its own thread.
+ *
+ * <p>
+ * The pool is configured using the pool settings of
+ * {@link DatabaseConnectionSettings}.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class ConnectionPool {
+
+	private static final Log LOG = LogFactory.getLog(ConnectionPool.class);
+
+	/**
+	 * Connections returned more recently than this are reused without
+	 * validation.
+	 */
+	private static final long VALIDATION_BYPASS_MILLIS = 500;
+	private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+	private static final long EVICTION_INTERVAL_MILLIS = 30000;
+	private static final int MAXIMUM_WARM_UP_THREADS = 16;
+
+	private final ConnectionSource source;
+	private final int minimumSize;
+	private final int maximumSize;
+	private final long acquireTimeoutMillis;
+	private final long idleTimeoutMillis;
+	private final long maximumLifetimeMillis;
+	private final boolean validateOnBorrow;
+	private final Semaphore permits;
+	private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+	private final ConcurrentHashMap<Connection, PooledConnection> connections = new ConcurrentHashMap<>();
+	private final AtomicLong nextEviction = new AtomicLong(0);
+	private final Statistics statistics = new Statistics();
+	private volatile boolean closed = false;
+
+	/**
+	 * Creates an empty pool.
+	 *
+	 * @param source creates and closes the connections for the pool
+	 * @param settings the pool settings to use
+	 */
+	public ConnectionPool(ConnectionSource source, DatabaseConnectionSettings settings) {
+		this.source = source;
+		this.maximumSize = Math.max(1, settings.getMaximumPoolSize());
+		this.minimumSize = Math.max(0, Math.min(settings.getMinimumPoolSize(), maximumSize));
+		this.acquireTimeoutMillis = settings.getConnectionAcquireTimeoutMillis();
+		this.idleTimeoutMillis = settings.getConnectionIdleTimeoutMillis();
+		this.maximumLifetimeMillis = settings.getConnectionMaximumLifetimeMillis();
+		this.validateOnBorrow = settings.isValidateConnectionsOnBorrow();
+		this.permits = new Semaphore(maximumSize, settings.isFairConnectionPool());
+	}
+
+	/**
+	 * Borrows a connection from the pool, creating one if there are no idle
+	 * connections.
+	 *
+	 * <p>
+	 * Waits for a connection to be returned if all the connections are busy.
+	 *
+	 * @return a connection that must be returned with
+	 * {@link #release(java.sql.Connection) } or removed with
+	 * {@link #remove(java.sql.Connection) }
+	 * @throws SQLException the connection could not be created
+	 * @throws UnableToAcquireConnectionFromPoolException the pool remained full
+	 * for the acquire timeout
+	 */
+	public Connection acquire() throws SQLException {
+		final long startedWaiting = System.nanoTime();
+		try {
+			if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				statistics.timedOut();
+				throw new UnableToAcquireConnectionFromPoolException(maximumSize, acquireTimeoutMillis);
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new UnableToAcquireConnectionFromPoolException(ex);
+		}
+		statistics.acquired(System.nanoTime() - startedWaiting);
+		try {
+			PooledConnection pooled = idle.pollFirst();
+			while (pooled != null) {
+				if (isReusable(pooled)) {
+					pooled.borrowed();
+					return pooled.connection;
+				}
+				destroy(pooled);
+				pooled = idle.pollFirst();
+			}
+			final Connection connection = createConnection();
+			pooled = new PooledConnection(connection);
+			pooled.borrowed();
+			connections.put(connection, pooled);
+			return connection;
+		} catch (SQLException | RuntimeException ex) {
+			permits.release();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Opens connections in parallel until the pool holds the required number of
+	 * connections.
+	 *
+	 * <p>
+	 * Each new connection is validated and added to the idle connections, so
+	 * the first requests made after startup do not wait for connections to be
+	 * opened. Connections are only opened while the pool has free permits, so
+	 * warming up never blocks threads using the pool or exceeds the maximum
+	 * size.
+	 *
+	 * @param required the number of connections the pool should hold
+	 * @return the number of connections opened
+	 * @throws SQLException a connection could not be created or failed
+	 * validation
+	 */
+	public int warmUp(int required) throws SQLException {
+		final int toOpen = Math.min(required, maximumSize) - connections.size();
+		if (toOpen <= 0 || closed) {
+			return 0;
+		}
+		final List<Future<Boolean>> results = new ArrayList<>();
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(toOpen, MAXIMUM_WARM_UP_THREADS), new WarmUpThreadFactory());
+		int opened = 0;
+		Throwable failure = null;
+		try {
+			for (int i = 0; i < toOpen; i++) {
+				results.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() throws SQLException {
+						return openIdleConnection();
+					}
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				try {
+					if (result.get()) {
+						opened++;
+					}
+				} catch (ExecutionException ex) {
+					if (failure == null) {
+						failure = ex.getCause();
+					}
+				}
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new UnableToAcquireConnectionFromPoolException(ex);
+		} finally {
+			executor.shutdownNow();
+		}
+		if (failure instanceof SQLException) {
+			throw (SQLException) failure;
+		} else if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		} else if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+		return opened;
+	}
+
+	private boolean openIdleConnection() throws SQLException {
+		if (closed || !permits.tryAcquire()) {
+			return false;
+		}
+		try {
+			final Connection connection = createConnection();
+			if (!isValid(connection)) {
+				source.closeConnection(connection);
+				throw new SQLException("New connection failed validation while warming up the connection pool");
+			}
+			final PooledConnection pooled = new PooledConnection(connection);
+			connections.put(connection, pooled);
+			idle.offerFirst(pooled);
+			if (closed) {
+				closeIdleConnections();
+			}
+			return true;
+		} finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * Returns a borrowed connection to the pool.
+	 *
+	 * <p>
+	 * Closed connections and connections that have exceeded their lifetime are
+	 * closed instead of being reused. Returning a connection more than once has
+	 * no effect.
+	 *
+	 * @param connection a connection from {@link #acquire() }
+	 * @return TRUE if the connection belongs to this pool, otherwise FALSE
+	 */
+	public boolean release(Connection connection) {
+		final PooledConnection pooled = connections.get(connection);
+		if (pooled == null) {
+			return false;
+		}
+		if (pooled.returned()) {
+			try {
+				if (closed || hasExceededLifetime(pooled, System.currentTimeMillis()) || connection.isClosed()) {
+					destroy(pooled);
+				} else {
+					idle.offerFirst(pooled);
+					if (closed) {
+						closeIdleConnections();
+					}
+				}
+			} catch (SQLException ex) {
+				destroy(pooled);
+			} finally {
+				permits.release();
+			}
+			evictIdleConnectionsIfDue();
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the connection from the pool without closing it.
+	 *
+	 * <p>
+	 * Used when the connection is being closed by its owner or kept open for
+	 * another purpose.
+	 *
+	 * @param connection a connection from {@link #acquire() }
+	 * @return TRUE if the connection belonged to this pool, otherwise FALSE
+	 */
+	public boolean remove(Connection connection) {
+		final PooledConnection pooled = connections.remove(connection);
+		if (pooled == null) {
+			return false;
+		}
+		idle.removeFirstOccurrence(pooled);
+		statistics.closed(System.currentTimeMillis() - pooled.created);
+		if (pooled.returned()) {
+			permits.release();
+		}
+		return true;
+	}
+
+	/**
+	 * Closes every connection in the pool, including busy connections, and
+	 * prevents connections being reused.
+	 */
+	public void close() {
+		closed = true;
+		closeIdleConnections();
+		for (PooledConnection pooled : new ArrayList<>(connections.values())) {
+			if (remove(pooled.connection)) {
+				source.closeConnection(pooled.connection);
+			}
+		}
+	}
+
+	/**
+	 * The number of connections currently open, busy or idle.
+	 *
+	 * @return the number of pooled connections
+	 */
+	public int getTotalConnections() {
+		return connections.size();
+	}
+
+	/**
+	 * The number of connections waiting in the pool to be reused.
+	 *
+	 * @return the number of idle connections
+	 */
+	public int getIdleConnections() {
+		return idle.size();
+	}
+
+	/**
+	 * The number of connections currently borrowed from the pool.
+	 *
+	 * @return the number of busy connections
+	 */
+	public int getBusyConnections() {
+		return maximumSize - permits.availablePermits();
+	}
+
+	/**
+	 * An estimate of the number of threads waiting for a connection.
+	 *
+	 * @return the number of threads waiting
+	 */
+	public int getWaitingThreads() {
+		return permits.getQueueLength();
+	}
+
+	/**
+	 * The counters recording how connections have been acquired, created and
+	 * closed by this pool.
+	 *
+	 * @return the statistics of this pool
+	 */
+	public Statistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * The maximum number of connections this pool will open.
+	 *
+	 * @return the maximum size of the pool
+	 */
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * The number of idle connections this pool will keep open.
+	 *
+	 * @return the minimum size of the pool
+	 */
+	public int getMinimumSize() {
+		return minimumSize;
+	}
+
+	private Connection createConnection() throws SQLException {
+		try {
+			final Connection connection = source.createConnection();
+			statistics.created();
+			return connection;
+		} catch (SQLException | RuntimeException ex) {
+			statistics.creationFailed();
+			throw ex;
+		}
+	}
+
+	private boolean isReusable(PooledConnection pooled) {
+		final long now = System.currentTimeMillis();
+		if (hasExceededLifetime(pooled, now)) {
+			return false;
+		}
+		if (hasExceededIdleTimeout(pooled, now) && connections.size() > minimumSize) {
+			return false;
+		}
+		try {
+			if (validateOnBorrow && now - pooled.lastReturned.get() > VALIDATION_BYPASS_MILLIS) {
+				return isValid(pooled.connection);
+			}
+			return !pooled.connection.isClosed();
+		} catch (SQLException ex) {
+			LOG.debug("Pooled connection failed validation", ex);
+			return false;
+		}
+	}
+
+	private static boolean isValid(Connection connection) throws SQLException {
+		try {
+			return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+		} catch (AbstractMethodError | SQLFeatureNotSupportedException ex) {
+			// older drivers do not implement isValid
+			return !connection.isClosed();
+		}
+	}
+
+	private boolean hasExceededLifetime(PooledConnection pooled, long now) {
+		return maximumLifetimeMillis > 0 && now - pooled.created > maximumLifetimeMillis;
+	}
+
+	private boolean hasExceededIdleTimeout(PooledConnection pooled, long now) {
+		return idleTimeoutMillis > 0 && now - pooled.lastReturned.get() > idleTimeoutMillis;
+	}
+
+	private void evictIdleConnectionsIfDue() {
+		final long now = System.currentTimeMillis();
+		final long due = nextEviction.get();
+		if (now >= due && nextEviction.compareAndSet(due, now + EVICTION_INTERVAL_MILLIS)) {
+			List<PooledConnection> expired = new ArrayList<>();
+			for (PooledConnection pooled : idle) {
+				if (hasExceededLifetime(pooled, now)
+						|| (hasExceededIdleTimeout(pooled, now) && connections.size() - expired.size() > minimumSize)) {
+					expired.add(pooled);
+				}
+			}
+			for (PooledConnection pooled : expired) {
+				if (idle.removeFirstOccurrence(pooled)) {
+					destroy(pooled);
+				}
+			}
+		}
+	}
+
+	private void closeIdleConnections() {
+		PooledConnection pooled = idle.pollFirst();
+		while (pooled != null) {
+			destroy(pooled);
+			pooled = idle.pollFirst();
+		}
+	}
+
+	private void destroy(PooledConnection pooled) {
+		if (connections.remove(pooled.connection) != null) {
+			statistics.closed(System.currentTimeMillis() - pooled.created);
+		}
+		source.closeConnection(pooled.connection);
+	}
+
+	/**
+	 * Creates and closes the connections of a pool.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 */
+	public static interface ConnectionSource {
+
+		/**
+		 * Opens a new connection to the database.
+		 *
+		 * @return a new connection
+		 * @throws SQLException the connection could not be created
+		 */
+		Connection createConnection() throws SQLException;
+
+		/**
+		 * Closes a connection that the pool no longer needs.
+		 *
+		 * @param connection the connection to close
+		 */
+		void closeConnection(Connection connection);
+	}
+
+	/**
+	 * Counters recording the activity of a connection pool.
+	 *
+	 * <p>
+	 * The time threads waited for a connection is recorded in a histogram with
+	 * the upper bounds of {@link #getAcquireWaitHistogramBoundsMillis() }, the
+	 * last bucket holding every wait longer than the largest bound.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 */
+	public static class Statistics {
+
+		private static final long[] ACQUIRE_WAIT_HISTOGRAM_BOUNDS_MILLIS = new long[]{1, 5, 10, 50, 100, 500, 1000, 5000};
+
+		private final AtomicLong acquisitions = new AtomicLong(0);
+		private final AtomicLong acquireTimeouts = new AtomicLong(0);
+		private final AtomicLong totalAcquireWaitNanos = new AtomicLong(0);
+		private final AtomicLong maximumAcquireWaitNanos = new AtomicLong(0);
+		private final AtomicLongArray acquireWaitHistogram = new AtomicLongArray(ACQUIRE_WAIT_HISTOGRAM_BOUNDS_MILLIS.length + 1);
+		private final AtomicLong created = new AtomicLong(0);
+		private final AtomicLong creationFailures = new AtomicLong(0);
+		private final AtomicLong closed = new AtomicLong(0);
+		private final AtomicLong totalLifetimeMillis = new AtomicLong(0);
+		private final AtomicLong maximumLifetimeMillis = new AtomicLong(0);
+
+		void acquired(long waitNanos) {
+			acquisitions.incrementAndGet();
+			totalAcquireWaitNanos.addAndGet(waitNanos);
+			updateMaximum(maximumAcquireWaitNanos, waitNanos);
+			final long waitMillis = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+			int bucket = 0;
+			while (bucket < ACQUIRE_WAIT_HISTOGRAM_BOUNDS_MILLIS.length && waitMillis >= ACQUIRE_WAIT_HISTOGRAM_BOUNDS_MILLIS[bucket]) {
+				bucket++;
+			}
+			acquireWaitHistogram.incrementAndGet(bucket);
+		}
+
+		void timedOut() {
+			acquireTimeouts.incrementAndGet();
+		}
+
+		void created() {
+			created.incrementAndGet();
+		}
+
+		void creationFailed() {
+			creationFailures.incrementAndGet();
+		}
+
+		void closed(long lifetimeMillis) {
+			closed.incrementAndGet();
+			totalLifetimeMillis.addAndGet(lifetimeMillis);
+			updateMaximum(maximumLifetimeMillis, lifetimeMillis);
+		}
+
+		private static void updateMaximum(AtomicLong maximum, long value) {
+			long current = maximum.get();
+			while (value > current && !maximum.compareAndSet(current, value)) {
+				current = maximum.get();
+			}
+		}
+
+		/**
+		 * @return the number of connections handed out by the pool
+		 */
+		public long getAcquisitions() {
+			return acquisitions.get();
+		}
+
+		/**
+		 * @return the number of times a thread gave up waiting for a connection
+		 */
+		public long getAcquireTimeouts() {
+			return acquireTimeouts.get();
+		}
+
+		/**
+		 * @return the total time threads have waited for connections
+		 */
+		public long getTotalAcquireWaitMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(totalAcquireWaitNanos.get());
+		}
+
+		/**
+		 * @return the longest time a thread has waited for a connection
+		 */
+		public long getMaximumAcquireWaitMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(maximumAcquireWaitNanos.get());
+		}
+
+		/**
+		 * @return the number of acquisitions in each bucket of the wait histogram
+		 */
+		public long[] getAcquireWaitHistogram() {
+			final long[] counts = new long[acquireWaitHistogram.length()];
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = acquireWaitHistogram.get(i);
+			}
+			return counts;
+		}
+
+		/**
+		 * @return the exclusive upper bound, in milliseconds, of every bucket of
+		 * the wait histogram except the last
+		 */
+		public static long[] getAcquireWaitHistogramBoundsMillis() {
+			return ACQUIRE_WAIT_HISTOGRAM_BOUNDS_MILLIS.clone();
+		}
+
+		/**
+		 * @return the number of connections opened by the pool
+		 */
+		public long getConnectionsCreated() {
+			return created.get();
+		}
+
+		/**
+		 * @return the number of times the pool failed to open a connection
+		 */
+		public long getConnectionCreationFailures() {
+			return creationFailures.get();
+		}
+
+		/**
+		 * @return the number of connections closed or removed from the pool
+		 */
+		public long getConnectionsClosed() {
+			return closed.get();
+		}
+
+		/**
+		 * @return the total time that closed connections were open
+		 */
+		public long getTotalConnectionLifetimeMillis() {
+			return totalLifetimeMillis.get();
+		}
+
+		/**
+		 * @return the longest time a closed connection was open
+		 */
+		public long getMaximumConnectionLifetimeMillis() {
+			return maximumLifetimeMillis.get();
+		}
+
+		/**
+		 * Sets all the counters to zero.
+		 */
+		public void reset() {
+			acquisitions.set(0);
+			acquireTimeouts.set(0);
+			totalAcquireWaitNanos.set(0);
+			maximumAcquireWaitNanos.set(0);
+			for (int i = 0; i < acquireWaitHistogram.length(); i++) {
+				acquireWaitHistogram.set(i, 0);
+			}
+			created.set(0);
+			creationFailures.set(0);
+			closed.set(0);
+			totalLifetimeMillis.set(0);
+			maximumLifetimeMillis.set(0);
+		}
+
+		@Override
+		public String toString() {
+			return "ConnectionPool{acquisitions=" + getAcquisitions() + ", acquireTimeouts=" + getAcquireTimeouts() + ", maximumAcquireWaitMillis=" + getMaximumAcquireWaitMillis() + ", created=" + getConnectionsCreated() + ", creationFailures=" + getConnectionCreationFailures() + ", closed=" + getConnectionsClosed() + "}";
+		}
+	}
+
+	private static class WarmUpThreadFactory implements ThreadFactory {
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			final Thread thread = new Thread(runnable, "DBvolution Connection Pool Warm Up");
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+	private static class PooledConnection {
+
+		private final Connection connection;
+		private final long created = System.currentTimeMillis();
+		private final AtomicLong lastReturned = new AtomicLong(created);
+		private final AtomicBoolean busy = new AtomicBoolean(false);
+
+		PooledConnection(Connection connection) {
+			this.connection = connection;
+		}
+
+		void borrowed() {
+			busy.set(true);
+		}
+
+		boolean returned() {
+			if (busy.compareAndSet(true, false)) {
+				lastReturned.set(System.currentTimeMillis());
+				return true;
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A bounded cache of PreparedStatements for a single Connection.
+ *
+ * <p>
+ * Statements are keyed by their SQL and the least recently used statement is
+ * closed and removed when the cache is full.
+ *
+ * <p>
+ * Cached statements remain open until they are evicted or the cache is closed,
+ * which should happen when the connection is discarded.
+ *
+ * <p>
+ * A statement is in use from {@link #getPreparedStatement(java.lang.String) }
+ * until it is passed to {@link #release(java.sql.PreparedStatement) } and is
+ * not handed out again, or closed by an eviction, while it is in use. This
+ * keeps the ResultSet of a running query open while the same SQL is executed
+ * elsewhere on the connection.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class PreparedStatementCache {
+
+	private static final Log LOG = LogFactory.getLog(PreparedStatementCache.class);
+
+	private final Connection connection;
+	private final int maximumSize;
+	private final Statistics statistics;
+	private final LinkedHashMap<String, PreparedStatement> statements;
+	private final Set<PreparedStatement> inUse = Collections.newSetFromMap(new IdentityHashMap<PreparedStatement, Boolean>());
+
+	/**
+	 * Creates a cache for the connection.
+	 *
+	 * @param connection the connection used to prepare the statements
+	 * @param maximumSize the maximum number of statements to keep open
+	 * @param statistics the counters to update, usually shared by all the caches
+	 * of a database
+	 */
+	public PreparedStatementCache(Connection connection, final int maximumSize, Statistics statistics) {
+		this.connection = connection;
+		this.maximumSize = maximumSize;
+		this.statistics = statistics;
+		this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+				if (size() > maximumSize) {
+					if (!inUse.contains(eldest.getValue())) {
+						closeStatement(eldest.getValue());
+					}
+					PreparedStatementCache.this.statistics.evicted();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Returns an open PreparedStatement for the SQL, re-using the cached
+	 * statement if there is one.
+	 *
+	 * <p>
+	 * The parameters of a re-used statement are cleared before it is returned.
+	 * The statement is in use until it is passed to
+	 * {@link #release(java.sql.PreparedStatement) }.
+	 *
+	 * @param sql the SQL to prepare
+	 * @return a PreparedStatement that must not be closed by the caller, or NULL
+	 * if the cached statement for the SQL is still in use
+	 * @throws SQLException database errors
+	 */
+	public synchronized PreparedStatement getPreparedStatement(String sql) throws SQLException {
+		PreparedStatement statement = statements.get(sql);
+		if (statement != null && inUse.contains(statement)) {
+			statistics.miss();
+			return null;
+		}
+		if (statement != null && !statement.isClosed()) {
+			statistics.hit();
+			statement.clearParameters();
+		} else {
+			statistics.miss();
+			statement = connection.prepareStatement(sql);
+			statements.put(sql, statement);
+		}
+		inUse.add(statement);
+		return statement;
+	}
+
+	/**
+	 * Returns the statement to the cache so that it can be re-used.
+	 *
+	 * <p>
+	 * Call this once the ResultSet of the statement, if any, has been closed.
+	 * Statements evicted while they were in use are closed.
+	 *
+	 * @param statement a statement returned by
+	 * {@link #getPreparedStatement(java.lang.String) }
+	 */
+	public synchronized void release(PreparedStatement statement) {
+		if (statement != null && inUse.remove(statement) && !statements.containsValue(statement)) {
+			closeStatement(statement);
+		}
+	}
+
+	/**
+	 * Closes and removes the statement for the SQL.
+	 *
+	 * <p>
+	 * Use this when the statement has failed and should not be re-used.
+	 *
+	 * @param sql the SQL of the statement
+	 */
+	public synchronized void remove(String sql) {
+		final PreparedStatement statement = statements.remove(sql);
+		if (statement != null) {
+			inUse.remove(statement);
+			closeStatement(statement);
+		}
+	}
+
+	/**
+	 * Closes all the cached statements, including those still in use.
+	 */
+	public synchronized void close() {
+		final List<PreparedStatement> toClose = new ArrayList<>(statements.values());
+		toClose.addAll(inUse);
+		statements.clear();
+		inUse.clear();
+		for (PreparedStatement statement : toClose) {
+			closeStatement(statement);
+		}
+	}
+
+	/**
+	 * @return the number of statements currently cached
+	 */
+	public synchronized int size() {
+		return statements.size();
+	}
+
+	private static void closeStatement(PreparedStatement statement) {
+		if (statement != null) {
+			try {
+				statement.close();
+			} catch (SQLException ex) {
+				LOG.debug("Exception while closing cached PreparedStatement, continuing regardless.", ex);
+			}
+		}
+	}
+
+	/**
+	 * Counts the hits, misses, and evictions of the PreparedStatement caches of a
+	 * database.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 */
+	public static class Statistics {
+
+		private final AtomicLong hits = new AtomicLong(0);
+		private final AtomicLong misses = new AtomicLong(0);
+		private final AtomicLong evictions = new AtomicLong(0);
+
+		void hit() {
+			hits.incrementAndGet();
+		}
+
+		void miss() {
+			misses.incrementAndGet();
+		}
+
+		void evicted() {
+			evictions.incrementAndGet();
+		}
+
+		/**
+		 * @return the number of times a cached statement was re-used
+		 */
+		public long getHits() {
+			return hits.get();
+		}
+
+		/**
+		 * @return the number of times a statement had to be prepared
+		 */
+		public long getMisses() {
+			return misses.get();
+		}
+
+		/**
+		 * @return the number of statements closed to make room in a cache
+		 */
+		public long getEvictions() {
+			return evictions.get();
+		}
+
+		/**
+		 * Sets all the counters to zero.
+		 */
+		public void reset() {
+			hits.set(0);
+			misses.set(0);
+			evictions.set(0);
+		}
+
+		@Override
+		public String toString() {
+			return "PreparedStatementCache{hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions() + "}";
+		}
+	}
+}
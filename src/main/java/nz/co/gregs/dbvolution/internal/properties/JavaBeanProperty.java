@@ -18,6 +18,9 @@ package nz.co.gregs.dbvolution.internal.properties;
 import java.beans.PropertyDescriptor;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
@@ -39,6 +42,10 @@ public class JavaBeanProperty implements JavaProperty, Serializable {
 	private Type genericType;
 	private transient final Method getter;
 	private transient final Method setter;
+	private transient MethodHandle getterHandle;
+	private transient MethodHandle setterHandle;
+	private transient final Class<?> setterValueType;
+	private transient final boolean setterIsPrimitive;
 
 	/**
 	 * Create a new JavaBeanProperty from the supplied descriptor.
@@ -50,6 +57,17 @@ public class JavaBeanProperty implements JavaProperty, Serializable {
 		this.type = descriptor.getPropertyType();
 		this.getter = descriptor.getReadMethod();
 		this.setter = descriptor.getWriteMethod();
+		if (this.setter == null) {
+			this.setterValueType = null;
+			this.setterIsPrimitive = false;
+		} else {
+			// resolved once as the setter is called for every row
+			final Class<?> parameterType = this.setter.getParameterTypes()[0];
+			this.setterIsPrimitive = parameterType.isPrimitive();
+			this.setterValueType = setterIsPrimitive
+					? MethodType.methodType(parameterType).wrap().returnType()
+					: parameterType;
+		}
 		if (this.getter != null) {
 			this.genericType = this.getter.getGenericReturnType();
 		} else if (this.setter != null) {
@@ -185,20 +203,17 @@ public class JavaBeanProperty implements JavaProperty, Serializable {
 			// caller should have checked the isReadable() method first
 			throw new IllegalStateException("Internal error attempting to read non-readable property " + qualifiedName() + " (this is probably a DBvolution bug)");
 		}
-		try {
-			return getter.invoke(target);
-		} catch (IllegalArgumentException e) {
-			// usually thrown when 'target' isn't of the same type as 'field' is declared on,
+		if (!getter.getDeclaringClass().isInstance(target)) {
+			// 'target' isn't of the same type as the getter is declared on,
 			// so this is probably a bug
 			String class1 = (target == null) ? "null" : target.getClass().getName();
-			throw new DBRuntimeException("Internal error reading property " + qualifiedName() + " on object of type " + class1 + " (this is probably a DBvolution bug): " + e.getLocalizedMessage(), e);
-		} catch (IllegalAccessException e) {
-			// caused by a Java security manager or an attempt to access a non-visible field
-			// without first making it visible
-			throw new DBRuntimeException("Java security error reading property " + qualifiedName() + ": " + e.getLocalizedMessage(), e);
-		} catch (InvocationTargetException e) {
-			// any checked or runtime exception thrown by the setter method itself
-			Throwable cause = (e.getCause() == null) ? e : e.getCause();
+			throw new DBRuntimeException("Internal error reading property " + qualifiedName() + " on object of type " + class1 + " (this is probably a DBvolution bug)");
+		}
+		final MethodHandle handle = getGetterHandle();
+		try {
+			return handle.invokeExact(target);
+		} catch (Throwable cause) {
+			// any checked or runtime exception thrown by the getter method itself
 			String msg = (cause.getLocalizedMessage() == null) ? "" : ": " + cause.getLocalizedMessage();
 			throw new DBThrownByEndUserCodeException("Accessor method threw " + cause.getClass().getSimpleName() + " reading property " + qualifiedName() + msg, cause);
 		}
@@ -210,25 +225,76 @@ public class JavaBeanProperty implements JavaProperty, Serializable {
 			// caller should have checked the isWritable method first
 			throw new IllegalStateException("Internal error attempting to write to non-writable property " + qualifiedName() + " (this is probably a DBvolution bug)");
 		}
-		try {
-			setter.invoke(target, value);
-		} catch (IllegalArgumentException e) {
-			// usually thrown when 'target' isn't of the same type as 'field' is declared on,
+		if (!setter.getDeclaringClass().isInstance(target) || !isAssignableValue(value)) {
+			// usually 'target' isn't of the same type as the setter is declared on,
 			// so this is probably a bug
 			String class1 = (target == null) ? "null" : target.getClass().getName();
-			throw new IllegalArgumentException("internal error writing to property " + qualifiedName() + " on object of type " + class1 + " (this is probably a DBvolution bug): " + e.getLocalizedMessage(), e);
-		} catch (IllegalAccessException e) {
-			// caused by a Java security manager or an attempt to access a non-visible field
-			// without first making it visible
-			throw new DBRuntimeException("Java security error writing to property " + qualifiedName() + ": " + e.getLocalizedMessage(), e);
-		} catch (InvocationTargetException e) {
+			throw new IllegalArgumentException("internal error writing to property " + qualifiedName() + " on object of type " + class1 + " (this is probably a DBvolution bug): argument type mismatch");
+		}
+		final MethodHandle handle = getSetterHandle();
+		try {
+			handle.invokeExact(target, value);
+		} catch (Throwable cause) {
 			// any checked or runtime exception thrown by the setter method itself
-			Throwable cause = (e.getCause() == null) ? e : e.getCause();
 			String msg = (cause.getLocalizedMessage() == null) ? "" : ": " + cause.getLocalizedMessage();
 			throw new DBThrownByEndUserCodeException("Accessor method threw " + cause.getClass().getSimpleName() + " writing to property " + qualifiedName() + msg, cause);
 		}
 	}
 
+	private boolean isAssignableValue(Object value) {
+		if (value == null) {
+			return !setterIsPrimitive;
+		} else {
+			return setterValueType.isInstance(value);
+		}
+	}
+
+	/**
+	 * Gets the cached handle used to call the getter, creating it if necessary.
+	 *
+	 * <p>
+	 * The handle accepts and returns Objects so that it can be invoked exactly
+	 * without reflection on every read.
+	 *
+	 * @return a MethodHandle of type (Object)Object
+	 */
+	private MethodHandle getGetterHandle() {
+		MethodHandle handle = getterHandle;
+		if (handle == null) {
+			try {
+				getter.setAccessible(true);
+				handle = MethodHandles.lookup().unreflect(getter)
+						.asType(MethodType.methodType(Object.class, Object.class));
+			} catch (IllegalAccessException | SecurityException e) {
+				// caused by a Java security manager or an attempt to access a non-visible method
+				throw new DBRuntimeException("Java security error reading property " + qualifiedName() + ": " + e.getLocalizedMessage(), e);
+			}
+			getterHandle = handle;
+		}
+		return handle;
+	}
+
+	/**
+	 * Gets the cached handle used to call the setter, creating it if necessary.
+	 *
+	 * @return a MethodHandle of type (Object,Object)void
+	 */
+	private MethodHandle getSetterHandle() {
+		MethodHandle handle = setterHandle;
+		if (handle == null) {
+			try {
+				setter.setAccessible(true);
+				handle = MethodHandles.lookup().unreflect(setter)
+						.asType(MethodType.methodType(void.class, Object.class, Object.class));
+			} catch (IllegalAccessException | SecurityException e) {
+				// caused by a Java security manager or an attempt to access a non-visible method
+				throw new DBRuntimeException("Java security error writing to property " + qualifiedName() + ": " + e.getLocalizedMessage(), e);
+			}
+			setterHandle = handle;
+		}
+		return handle;
+	}
+
 	@Override
 	public boolean isAnnotationPresent(Class<? extends Annotation> annotationClass) {
 		return (getter != null && getter.isAnnotationPresent(annotationClass)) || (setter != null && setter.isAnnotationPresent(annotationClass));
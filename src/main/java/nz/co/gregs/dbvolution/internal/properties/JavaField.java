@@ -17,6 +17,9 @@ package nz.co.gregs.dbvolution.internal.properties;
 
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Type;
 import nz.co.gregs.dbvolution.exceptions.DBRuntimeException;
@@ -30,6 +33,8 @@ public class JavaField implements JavaProperty, Serializable {
 	private static final long serialVersionUID = 1l;
 
 	private transient final Field field;
+	private transient MethodHandle getterHandle;
+	private transient MethodHandle setterHandle;
 
 	/**
 	 * Create a JavaField for the supplied field.
@@ -136,35 +141,81 @@ public class JavaField implements JavaProperty, Serializable {
 	@Override
 	public Object get(Object target) {
 		try {
-			return field.get(target);
-		} catch (IllegalArgumentException e) {
+			return getGetterHandle().invokeExact(target);
+		} catch (ClassCastException e) {
 			// usually thrown when 'target' isn't of the same type as 'field' is declared on,
 			// so this is probably a bug
 			String class1 = (target == null) ? "null" : target.getClass().getName();
 			throw new FailedToSetPropertyValueOnRowDefinition(qualifiedName(), class1, e);
-		} catch (IllegalAccessException e) {
-			// caused by a Java security manager or an attempt to access a non-visible field
-			// without first making it visible
-			throw new DBRuntimeException("Java security error reading field " + qualifiedName() + ": " + e.getLocalizedMessage(), e);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new DBRuntimeException("Error reading field " + qualifiedName() + ": " + e.getLocalizedMessage(), e);
 		}
 	}
 
 	@Override
 	public void set(Object target, Object value) {
 		try {
-			field.set(target, value);
-		} catch (IllegalArgumentException e) {
+			getSetterHandle().invokeExact(target, value);
+		} catch (ClassCastException e) {
 			// usually thrown when 'target' isn't of the same type as 'field' is declared on,
 			// so this is probably a bug
 			String class1 = (target == null) ? "null" : target.getClass().getName();
 			throw new IllegalArgumentException("Internal error writing field " + qualifiedName() + " on object of type " + class1 + " (this is probably a DBvolution bug): " + e.getLocalizedMessage(), e);
-		} catch (IllegalAccessException e) {
-			// caused by a Java security manager or an attempt to access a non-visible field
-			// without first making it visible
-			throw new DBRuntimeException("Java security error writing field " + qualifiedName() + ": " + e.getLocalizedMessage(), e);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new DBRuntimeException("Error writing field " + qualifiedName() + ": " + e.getLocalizedMessage(), e);
 		}
 	}
 
+	/**
+	 * Gets the cached handle used to read the field, creating it if necessary.
+	 *
+	 * <p>
+	 * The handle accepts and returns Objects so that it can be invoked exactly
+	 * without reflection on every read.
+	 *
+	 * @return a MethodHandle of type (Object)Object
+	 */
+	private MethodHandle getGetterHandle() {
+		MethodHandle handle = getterHandle;
+		if (handle == null) {
+			try {
+				handle = MethodHandles.lookup().unreflectGetter(field)
+						.asType(MethodType.methodType(Object.class, Object.class));
+			} catch (IllegalAccessException e) {
+				// caused by a Java security manager or an attempt to access a non-visible field
+				// without first making it visible
+				throw new DBRuntimeException("Java security error reading field " + qualifiedName() + ": " + e.getLocalizedMessage(), e);
+			}
+			getterHandle = handle;
+		}
+		return handle;
+	}
+
+	/**
+	 * Gets the cached handle used to write the field, creating it if necessary.
+	 *
+	 * @return a MethodHandle of type (Object,Object)void
+	 */
+	private MethodHandle getSetterHandle() {
+		MethodHandle handle = setterHandle;
+		if (handle == null) {
+			try {
+				handle = MethodHandles.lookup().unreflectSetter(field)
+						.asType(MethodType.methodType(void.class, Object.class, Object.class));
+			} catch (IllegalAccessException e) {
+				// caused by a Java security manager or an attempt to access a non-visible field
+				// without first making it visible
+				throw new DBRuntimeException("Java security error writing field " + qualifiedName() + ": " + e.getLocalizedMessage(), e);
+			}
+			setterHandle = handle;
+		}
+		return handle;
+	}
+
 	@Override
 	public boolean isAnnotationPresent(Class<? extends Annotation> annotationClass) {
 		return field.isAnnotationPresent(annotationClass);
@@ -1,6 +1,11 @@
 package nz.co.gregs.dbvolution.internal.properties;
 
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -90,6 +95,8 @@ public class RowDefinitionClassWrapper implements Serializable{
 	 */
 	private final Map<String, PropertyWrapperDefinition> columnPropertiesByPropertyName;
 
+	private transient volatile MethodHandle constructorHandle;
+
 	/**
 	 * Fully constructs a wrapper for the given class, including performing all
 	 * validations that can be performed up front.
@@ -348,6 +355,39 @@ public class RowDefinitionClassWrapper implements Serializable{
 		return adapteeClass;
 	}
 
+	/**
+	 * Creates a new instance of the wrapped class using its argument-less
+	 * constructor.
+	 *
+	 * <p>
+	 * The constructor is found once and cached as a MethodHandle, avoiding the
+	 * reflective lookup and access checks on every new instance.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return a new instance of the wrapped class
+	 * @throws ReflectiveOperationException if the class does not have a usable
+	 * argument-less constructor
+	 */
+	public RowDefinition newInstance() throws ReflectiveOperationException {
+		MethodHandle handle = constructorHandle;
+		if (handle == null) {
+			Constructor<? extends RowDefinition> constructor = adapteeClass.getDeclaredConstructor();
+			constructor.setAccessible(true);
+			handle = MethodHandles.lookup().unreflectConstructor(constructor)
+					.asType(MethodType.methodType(RowDefinition.class));
+			constructorHandle = handle;
+		}
+		try {
+			return (RowDefinition) handle.invokeExact();
+		} catch (RuntimeException | Error | ReflectiveOperationException ex) {
+			throw ex;
+		} catch (Throwable ex) {
+			throw new InvocationTargetException(ex);
+		}
+	}
+
 	/**
 	 * Gets the simple name of the class being wrapped by this adaptor.
 	 * <p>
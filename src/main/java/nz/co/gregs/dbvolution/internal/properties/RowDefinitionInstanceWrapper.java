@@ -40,12 +40,14 @@ public class RowDefinitionInstanceWrapper implements Serializable{
 
 	private final RowDefinitionClassWrapper classWrapper;
 	private final RowDefinition rowDefinition;
-	private final List<PropertyWrapper> allProperties;
-	private final List<PropertyWrapper> columnProperties;
-	private final List<PropertyWrapper> autoFillingProperties;
-	private final List<PropertyWrapper> foreignKeyProperties;
-	private final List<PropertyWrapper> recursiveForeignKeyProperties;
-	private final List<PropertyWrapper> primaryKeyProperties;
+	// The property lists are built on first use as most rows only need a few of them.
+	// Each list is complete before it is published through its volatile field so
+	// concurrent callers can only duplicate work, not see a partial list.
+	private volatile List<PropertyWrapper> columnProperties;
+	private volatile List<PropertyWrapper> autoFillingProperties;
+	private volatile List<PropertyWrapper> foreignKeyProperties;
+	private volatile List<PropertyWrapper> recursiveForeignKeyProperties;
+	private volatile List<PropertyWrapper> primaryKeyProperties;
 
 	/**
 	 * Called by
@@ -67,45 +69,6 @@ public class RowDefinitionInstanceWrapper implements Serializable{
 
 		this.rowDefinition = rowDefinition;
 		this.classWrapper = classWrapper;
-
-		// pre-cache commonly used things
-		// (note: if you change this to use lazy-initialisation, you'll have to
-		// add explicit synchronisation, or it won't be thread-safe anymore)
-		this.allProperties = new ArrayList<PropertyWrapper>();
-		this.columnProperties = new ArrayList<PropertyWrapper>();
-		for (PropertyWrapperDefinition propertyDefinition : classWrapper.getColumnPropertyDefinitions()) {
-			final PropertyWrapper propertyWrapper = new PropertyWrapper(this, propertyDefinition, rowDefinition);
-			addPropertyWrapperToCollection(columnProperties, propertyWrapper);
-//			this.columnProperties.add(propertyWrapper);
-//			this.allProperties.add(propertyWrapper);
-//			if (propertyWrapper.isAutoFilling()){
-//				autoFillingProperties.add(propertyWrapper);
-//			}
-		}
-		this.autoFillingProperties = new ArrayList<PropertyWrapper>();
-		for (PropertyWrapperDefinition propertyDefinition : classWrapper.getAutoFillingPropertyDefinitions()) {
-			final PropertyWrapper propertyWrapper = new PropertyWrapper(this, propertyDefinition, rowDefinition);
-			addPropertyWrapperToCollection(autoFillingProperties, propertyWrapper);
-		}
-
-		this.foreignKeyProperties = new ArrayList<PropertyWrapper>();
-		this.recursiveForeignKeyProperties = new ArrayList<PropertyWrapper>();
-		for (PropertyWrapperDefinition propertyDefinition : classWrapper.getForeignKeyPropertyDefinitions()) {
-			this.foreignKeyProperties.add(new PropertyWrapper(this, propertyDefinition, rowDefinition));
-			if(propertyDefinition.isRecursiveForeignKey()){
-				this.recursiveForeignKeyProperties.add(new PropertyWrapper(this, propertyDefinition, rowDefinition));
-			}
-		}
-
-		this.primaryKeyProperties = new ArrayList<PropertyWrapper>();
-		for (PropertyWrapperDefinition propertyDefinition : classWrapper.primaryKeyDefinitions()) {
-			this.primaryKeyProperties.add(new PropertyWrapper(this, propertyDefinition, rowDefinition));
-		}
-	}
-
-	private void addPropertyWrapperToCollection(List<PropertyWrapper> collection, PropertyWrapper propertyWrapper) {
-		collection.add(propertyWrapper);
-		this.allProperties.add(propertyWrapper);
 	}
 
 	/**
@@ -299,7 +262,17 @@ public class RowDefinitionInstanceWrapper implements Serializable{
 	 * @return the primary key property or null if no primary key
 	 */
 	public List<PropertyWrapper> getPrimaryKeysPropertyWrappers() {
-		return primaryKeyProperties;
+		List<PropertyWrapper> list = primaryKeyProperties;
+		if (list == null) {
+			list = new ArrayList<PropertyWrapper>();
+			for (PropertyWrapper property : getColumnPropertyWrappers()) {
+				if (property.getPropertyWrapperDefinition().isPrimaryKey()) {
+					list.add(property);
+				}
+			}
+			primaryKeyProperties = list;
+		}
+		return list;
 	}
 
 	/**
@@ -360,7 +333,12 @@ public class RowDefinitionInstanceWrapper implements Serializable{
 	 * @return the non-null list of properties, empty if none
 	 */
 	public List<PropertyWrapper> getColumnPropertyWrappers() {
-		return columnProperties;
+		List<PropertyWrapper> list = columnProperties;
+		if (list == null) {
+			list = wrapPropertyDefinitions(classWrapper.getColumnPropertyDefinitions());
+			columnProperties = list;
+		}
+		return list;
 	}
 
 	/**
@@ -379,7 +357,12 @@ public class RowDefinitionInstanceWrapper implements Serializable{
 	 * @return the non-null list of properties, empty if none
 	 */
 	public List<PropertyWrapper> getAutoFillingPropertyWrappers() {
-		return autoFillingProperties;
+		List<PropertyWrapper> list = autoFillingProperties;
+		if (list == null) {
+			list = wrapPropertyDefinitions(classWrapper.getAutoFillingPropertyDefinitions());
+			autoFillingProperties = list;
+		}
+		return list;
 	}
 
 	/**
@@ -392,7 +375,18 @@ public class RowDefinitionInstanceWrapper implements Serializable{
 	 * properties
 	 */
 	public List<PropertyWrapper> getForeignKeyPropertyWrappers() {
-		return foreignKeyProperties;
+		List<PropertyWrapper> list = foreignKeyProperties;
+		if (list == null) {
+			list = new ArrayList<PropertyWrapper>();
+			for (PropertyWrapper property : getColumnPropertyWrappers()) {
+				final PropertyWrapperDefinition definition = property.getPropertyWrapperDefinition();
+				if (definition.isColumn() && definition.isForeignKey()) {
+					list.add(property);
+				}
+			}
+			foreignKeyProperties = list;
+		}
+		return list;
 	}
 
 	/**
@@ -418,7 +412,25 @@ public class RowDefinitionInstanceWrapper implements Serializable{
 	 * properties
 	 */
 	public List<PropertyWrapper> getRecursiveForeignKeyPropertyWrappers() {
-		return recursiveForeignKeyProperties;
+		List<PropertyWrapper> list = recursiveForeignKeyProperties;
+		if (list == null) {
+			list = new ArrayList<PropertyWrapper>();
+			for (PropertyWrapper property : getForeignKeyPropertyWrappers()) {
+				if (property.getPropertyWrapperDefinition().isRecursiveForeignKey()) {
+					list.add(property);
+				}
+			}
+			recursiveForeignKeyProperties = list;
+		}
+		return list;
+	}
+
+	private List<PropertyWrapper> wrapPropertyDefinitions(List<PropertyWrapperDefinition> definitions) {
+		List<PropertyWrapper> list = new ArrayList<PropertyWrapper>(definitions.size());
+		for (PropertyWrapperDefinition propertyDefinition : definitions) {
+			list.add(new PropertyWrapper(this, propertyDefinition, rowDefinition));
+		}
+		return list;
 	}
 
 	/**
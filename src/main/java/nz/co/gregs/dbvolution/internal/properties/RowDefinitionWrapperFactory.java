@@ -1,7 +1,7 @@
 package nz.co.gregs.dbvolution.internal.properties;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import nz.co.gregs.dbvolution.query.RowDefinition;
 
 /**
@@ -25,29 +25,38 @@ import nz.co.gregs.dbvolution.query.RowDefinition;
 public class RowDefinitionWrapperFactory {
 
 	/**
-	 * Thread-safety: access to this object must be synchronized on it
+	 * Thread-safety: reads are lock-free, new wrappers are only added while
+	 * holding {@link #creationLock} so that each class is wrapped exactly once.
 	 */
-	private final Map<Class<?>, RowDefinitionClassWrapper> classWrappersByClass = new HashMap<Class<?>, RowDefinitionClassWrapper>();
+	private final ConcurrentMap<Class<?>, RowDefinitionClassWrapper> classWrappersByClass = new ConcurrentHashMap<Class<?>, RowDefinitionClassWrapper>();
+	private final Object creationLock = new Object();
 
 	/**
 	 * Gets the class adaptor for the given class. If an adaptor for the given
 	 * class has not yet been created, one will be created and added to the
 	 * internal cache.
 	 *
+	 * <p>
+	 * Finding an existing adaptor does not lock, only the creation of a new
+	 * adaptor is synchronized.
+	 *
 	 * @param clazz clazz
 	 * <p style="color: #F90;">Support DBvolution at
 	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
 	 * @return the class adaptor
 	 */
 	public RowDefinitionClassWrapper classWrapperFor(Class<? extends RowDefinition> clazz) {
-		synchronized (classWrappersByClass) {
-			RowDefinitionClassWrapper wrapper = classWrappersByClass.get(clazz);
-			if (wrapper == null) {
-				wrapper = new RowDefinitionClassWrapper(clazz);
-				classWrappersByClass.put(clazz, wrapper);
+		RowDefinitionClassWrapper wrapper = classWrappersByClass.get(clazz);
+		if (wrapper == null) {
+			synchronized (creationLock) {
+				wrapper = classWrappersByClass.get(clazz);
+				if (wrapper == null) {
+					wrapper = new RowDefinitionClassWrapper(clazz);
+					classWrappersByClass.put(clazz, wrapper);
+				}
 			}
-			return wrapper;
 		}
+		return wrapper;
 	}
 
 	/**
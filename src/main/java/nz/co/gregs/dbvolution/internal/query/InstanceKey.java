@@ -0,0 +1,196 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.query;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import nz.co.gregs.dbvolution.DBRow;
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+import nz.co.gregs.dbvolution.datatypes.DBInteger;
+import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+import nz.co.gregs.dbvolution.internal.properties.PropertyWrapper;
+
+/**
+ * Identifies a row retrieved by a query using the values of its primary keys.
+ *
+ * <p>
+ * Used by {@link QueryDetails} to find the existing instance of a row so that
+ * a row returned several times by a query is only created once.
+ *
+ * <p>
+ * Keys are built directly from the primary key values, rather than the SQL
+ * representation of the values, and a single DBInteger primary key is stored
+ * as a primitive long.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public abstract class InstanceKey implements Serializable {
+
+	private static final long serialVersionUID = 1l;
+
+	InstanceKey() {
+	}
+
+	/**
+	 * Creates the key for the row using the values of its primary keys.
+	 *
+	 * @param defn the database definition used to format unusual values
+	 * @param row the row to identify
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the key of the row, or NULL if the row has no primary keys.
+	 */
+	public static InstanceKey forRow(DBDefinition defn, DBRow row) {
+		final List<PropertyWrapper> primaryKeys = row.getPrimaryKeyPropertyWrappers();
+		if (primaryKeys.size() == 1) {
+			final PropertyWrapper primaryKey = primaryKeys.get(0);
+			final QueryableDatatype<?> qdt = primaryKey == null ? null : primaryKey.getQueryableDatatype();
+			if (qdt == null) {
+				return null;
+			} else if (qdt instanceof DBInteger && !qdt.isNull()) {
+				return new LongKey(((DBInteger) qdt).getValue());
+			} else {
+				return new ValueKey(getKeyValue(defn, qdt));
+			}
+		} else {
+			Object[] values = new Object[primaryKeys.size()];
+			int count = 0;
+			for (PropertyWrapper primaryKey : primaryKeys) {
+				if (primaryKey != null) {
+					final QueryableDatatype<?> qdt = primaryKey.getQueryableDatatype();
+					if (qdt != null) {
+						values[count] = getKeyValue(defn, qdt);
+						count++;
+					}
+				}
+			}
+			if (count == 0) {
+				return null;
+			}
+			return new CompositeKey(count == values.length ? values : Arrays.copyOf(values, count));
+		}
+	}
+
+	private static Object getKeyValue(DBDefinition defn, QueryableDatatype<?> qdt) {
+		if (qdt.isNull()) {
+			return NullValue.NULL;
+		}
+		final Object value = qdt.getValue();
+		if (value instanceof String
+				|| value instanceof Long
+				|| value instanceof Integer
+				|| value instanceof Date
+				|| value instanceof Boolean) {
+			return value;
+		} else {
+			// arrays and unusual types may not implement equals() usefully
+			return qdt.toSQLString(defn);
+		}
+	}
+
+	private static enum NullValue {
+		NULL
+	}
+
+	private static class LongKey extends InstanceKey {
+
+		private static final long serialVersionUID = 1l;
+
+		private final long value;
+
+		LongKey(long value) {
+			this.value = value;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (value ^ (value >>> 32));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return (obj instanceof LongKey) && ((LongKey) obj).value == value;
+		}
+
+		@Override
+		public String toString() {
+			return "(" + value + ")";
+		}
+	}
+
+	private static class ValueKey extends InstanceKey {
+
+		private static final long serialVersionUID = 1l;
+
+		private final Object value;
+
+		ValueKey(Object value) {
+			this.value = value;
+		}
+
+		@Override
+		public int hashCode() {
+			return value.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return (obj instanceof ValueKey) && ((ValueKey) obj).value.equals(value);
+		}
+
+		@Override
+		public String toString() {
+			return "(" + value + ")";
+		}
+	}
+
+	private static class CompositeKey extends InstanceKey {
+
+		private static final long serialVersionUID = 1l;
+
+		private final Object[] values;
+		private final int hashCode;
+
+		CompositeKey(Object[] values) {
+			this.values = values;
+			this.hashCode = Arrays.hashCode(values);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return (obj instanceof CompositeKey) && ((CompositeKey) obj).hashCode == hashCode && Arrays.equals(((CompositeKey) obj).values, values);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder str = new StringBuilder();
+			for (Object value : values) {
+				str.append("(").append(value).append(")");
+			}
+			return str.toString();
+		}
+	}
+}
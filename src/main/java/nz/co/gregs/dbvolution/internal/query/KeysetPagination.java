@@ -0,0 +1,293 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import nz.co.gregs.dbvolution.DBQueryPageToken;
+import nz.co.gregs.dbvolution.DBQueryRow;
+import nz.co.gregs.dbvolution.DBRow;
+import nz.co.gregs.dbvolution.columns.ColumnProvider;
+import nz.co.gregs.dbvolution.datatypes.InternalQueryableDatatypeProxy;
+import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+import nz.co.gregs.dbvolution.expressions.BooleanExpression;
+import nz.co.gregs.dbvolution.expressions.DateExpression;
+import nz.co.gregs.dbvolution.expressions.IntegerExpression;
+import nz.co.gregs.dbvolution.expressions.NumberExpression;
+import nz.co.gregs.dbvolution.expressions.RangeExpression;
+import nz.co.gregs.dbvolution.expressions.SortProvider;
+import nz.co.gregs.dbvolution.expressions.StringExpression;
+import nz.co.gregs.dbvolution.internal.properties.PropertyWrapper;
+import nz.co.gregs.dbvolution.internal.properties.PropertyWrapperDefinition;
+import nz.co.gregs.dbvolution.query.RowDefinition;
+
+/**
+ * Generates the sort order and conditions required to page through a query
+ * using the values of the last row retrieved rather than an offset.
+ *
+ * <p>
+ * The keys are the columns of the query's sort order followed by the primary
+ * keys of the query's tables, so that every row has a unique position. The
+ * next page is found by adding a condition that the keys sort after the keys
+ * of the last row of the previous page, for instance (A, B) &gt; (a, b) is
+ * generated as A &gt; a OR (A = a AND B &gt; b).
+ *
+ * <p>
+ * Only sort orders using the integer, number, string, and date columns of the
+ * tables in the query are supported. Keys that may be NULL, that is sort
+ * columns and the primary keys of optional tables, are sorted with NULLs last
+ * and the conditions allow for NULLs, so outer joins can be paged.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class KeysetPagination {
+
+	private final List<Key> keys = new ArrayList<>();
+
+	/**
+	 * Creates the keys for the tables and sort order of a query.
+	 *
+	 * @param tables the tables of the query
+	 * @param optionalTables the tables of the query that are outer joined
+	 * @param sortOrder the sort order of the query, may be NULL
+	 * @throws UnsupportedOperationException the sort order uses expressions that
+	 * are not columns of the query's tables, or there are no keys to page by
+	 */
+	public KeysetPagination(List<DBRow> tables, List<DBRow> optionalTables, SortProvider[] sortOrder) {
+		final Set<DBRow> optional = Collections.newSetFromMap(new IdentityHashMap<DBRow, Boolean>());
+		optional.addAll(optionalTables);
+		if (sortOrder != null) {
+			for (SortProvider sorter : sortOrder) {
+				final PropertyWrapper prop = getPropertyWrapper(sorter);
+				final RowDefinition row = prop.getRowDefinitionInstanceWrapper().adapteeRowDefinition();
+				if (!(row instanceof DBRow)) {
+					throw new UnsupportedOperationException("Keyset Paging Not Supported: the sort order must only use columns of the tables in the query.");
+				}
+				addKey((DBRow) row, prop, isDescending(sorter, prop), true);
+			}
+		}
+		for (DBRow table : tables) {
+			for (PropertyWrapper primaryKey : table.getPrimaryKeyPropertyWrappers()) {
+				addKey(table, primaryKey, false, optional.contains(table));
+			}
+		}
+		if (keys.isEmpty()) {
+			throw new UnsupportedOperationException("Keyset Paging Not Supported: set a sort order or use tables with primary keys.");
+		}
+	}
+
+	private static PropertyWrapper getPropertyWrapper(SortProvider sorter) {
+		if (sorter instanceof SortProvider.Column) {
+			return ((SortProvider.Column) sorter).getPropertyWrapper();
+		} else if (sorter.hasInnerExpression() && (sorter.getInnerExpression() instanceof ColumnProvider)) {
+			return ((ColumnProvider) sorter.getInnerExpression()).getColumn().getPropertyWrapper();
+		}
+		throw new UnsupportedOperationException("Keyset Paging Not Supported: the sort order must only use columns of the tables in the query.");
+	}
+
+	private static boolean isDescending(SortProvider sorter, PropertyWrapper prop) {
+		switch (sorter.getOrdering()) {
+			case DESCENDING:
+				return true;
+			case ASCENDING:
+				return false;
+			default:
+				return sorter.hasColumn() && QueryableDatatype.SORT_DESCENDING.equals(prop.getQueryableDatatype().getSortOrder());
+		}
+	}
+
+	private void addKey(DBRow table, PropertyWrapper prop, boolean descending, boolean nullable) {
+		final PropertyWrapperDefinition definition = prop.getPropertyWrapperDefinition();
+		for (Key key : keys) {
+			if (key.table == table && key.definition.equals(definition)) {
+				return;
+			}
+		}
+		final QueryableDatatype<?> field = prop.getQueryableDatatype();
+		final ColumnProvider column = table.column(field);
+		if (!(column instanceof IntegerExpression
+				|| column instanceof NumberExpression
+				|| column instanceof StringExpression
+				|| column instanceof DateExpression)) {
+			throw new UnsupportedOperationException("Keyset Paging Not Supported: " + prop.qualifiedJavaName() + " is not an integer, number, string, or date column.");
+		}
+		keys.add(new Key(table, definition, column, descending, nullable, prop.qualifiedJavaName()));
+	}
+
+	/**
+	 * The sort order that places the rows in the order of the keys.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the sort order to use for every page
+	 */
+	public SortProvider[] getSortOrder() {
+		SortProvider[] sortOrder = new SortProvider[keys.size()];
+		for (int i = 0; i < keys.size(); i++) {
+			final Key key = keys.get(i);
+			final SortProvider sorter = key.descending ? key.column.descending() : key.column.ascending();
+			sortOrder[i] = key.nullable ? sorter.nullsLast() : sorter;
+		}
+		return sortOrder;
+	}
+
+	/**
+	 * Creates the token that identifies the position of the row.
+	 *
+	 * @param row the last row of a page
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the token for the page after the row
+	 */
+	public DBQueryPageToken getTokenForRow(DBQueryRow row) {
+		String[] names = new String[keys.size()];
+		Object[] values = new Object[keys.size()];
+		for (int i = 0; i < keys.size(); i++) {
+			final Key key = keys.get(i);
+			names[i] = key.name;
+			final DBRow instance = row.get(key.table);
+			if (instance != null) {
+				final QueryableDatatype<?> qdt = key.definition.getQueryableDatatype(instance);
+				values[i] = qdt.isNull() ? null : new InternalQueryableDatatypeProxy(qdt).getLiteralValue();
+			}
+		}
+		return new DBQueryPageToken(names, values);
+	}
+
+	/**
+	 * Creates the condition that limits the query to rows after the position
+	 * recorded in the token.
+	 *
+	 * @param token a token created by this query
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the condition to add to the query
+	 * @throws IllegalArgumentException the token was created by a query with a
+	 * different sort order
+	 */
+	public BooleanExpression getConditionForRowsAfter(DBQueryPageToken token) {
+		final String[] names = token.getKeys();
+		final Object[] values = token.getValues();
+		if (names.length != keys.size()) {
+			throw new IllegalArgumentException("Incorrect Page Token: the token was created for a query with a different sort order.");
+		}
+		for (int i = 0; i < keys.size(); i++) {
+			if (!keys.get(i).name.equals(names[i])) {
+				throw new IllegalArgumentException("Incorrect Page Token: the token was created for a query with a different sort order, expected " + Arrays.toString(getNames()) + " but found " + Arrays.toString(names));
+			}
+		}
+		BooleanExpression condition = null;
+		for (int i = keys.size() - 1; i >= 0; i--) {
+			final Key key = keys.get(i);
+			final Object value = values[i];
+			if (value == null) {
+				if (!key.nullable) {
+					throw new IllegalArgumentException("Incorrect Page Token: " + key.name + " can not be NULL.");
+				}
+				// NULLs sort last so only the following keys can place a row after this one
+				condition = condition == null
+						? BooleanExpression.falseExpression()
+						: ((RangeExpression<?, ?, ?>) key.column).isNull().and(condition);
+			} else {
+				final BooleanExpression sortsAfter = getConditionForValuesAfter(key, value, condition);
+				condition = key.nullable
+						? sortsAfter.or(((RangeExpression<?, ?, ?>) key.column).isNull())
+						: sortsAfter;
+			}
+		}
+		return condition;
+	}
+
+	/**
+	 * Creates the condition that the key sorts after the value, or equals the
+	 * value and the following keys sort after the token.
+	 *
+	 * @param key the key to compare
+	 * @param value the non-NULL value of the key from the token
+	 * @param whenEqual the condition for the following keys, NULL if this is
+	 * the last key
+	 * @return the condition for rows after the value
+	 */
+	private static BooleanExpression getConditionForValuesAfter(Key key, Object value, BooleanExpression whenEqual) {
+		final boolean descending = key.descending;
+		if (key.column instanceof IntegerExpression && (value instanceof Long || value instanceof Integer)) {
+			final IntegerExpression column = (IntegerExpression) key.column;
+			final Long longValue = ((Number) value).longValue();
+			if (whenEqual == null) {
+				return descending ? column.isLessThan(longValue) : column.isGreaterThan(longValue);
+			}
+			return descending ? column.isLessThan(longValue, whenEqual) : column.isGreaterThan(longValue, whenEqual);
+		} else if (key.column instanceof NumberExpression && value instanceof Number) {
+			final NumberExpression column = (NumberExpression) key.column;
+			final Number number = (Number) value;
+			if (whenEqual == null) {
+				return descending ? column.isLessThan(number) : column.isGreaterThan(number);
+			}
+			return descending ? column.isLessThan(number, whenEqual) : column.isGreaterThan(number, whenEqual);
+		} else if (key.column instanceof StringExpression && value instanceof String) {
+			final StringExpression column = (StringExpression) key.column;
+			final String string = (String) value;
+			if (whenEqual == null) {
+				return descending ? column.isLessThan(string) : column.isGreaterThan(string);
+			}
+			return descending ? column.isLessThan(string, whenEqual) : column.isGreaterThan(string, whenEqual);
+		} else if (key.column instanceof DateExpression && value instanceof Date) {
+			final DateExpression column = (DateExpression) key.column;
+			final Date date = (Date) value;
+			if (whenEqual == null) {
+				return descending ? column.isLessThan(date) : column.isGreaterThan(date);
+			}
+			return descending ? column.isLessThan(date, whenEqual) : column.isGreaterThan(date, whenEqual);
+		}
+		throw new IllegalArgumentException("Incorrect Page Token: " + key.name + " has a value of " + value.getClass().getSimpleName() + " which does not match the column.");
+	}
+
+	private String[] getNames() {
+		String[] names = new String[keys.size()];
+		for (int i = 0; i < keys.size(); i++) {
+			names[i] = keys.get(i).name;
+		}
+		return names;
+	}
+
+	private static class Key {
+
+		private final DBRow table;
+		private final PropertyWrapperDefinition definition;
+		private final ColumnProvider column;
+		private final boolean descending;
+		private final boolean nullable;
+		private final String name;
+
+		Key(DBRow table, PropertyWrapperDefinition definition, ColumnProvider column, boolean descending, boolean nullable, String name) {
+			this.table = table;
+			this.definition = definition;
+			this.column = column;
+			this.descending = descending;
+			this.nullable = nullable;
+			this.name = name + (descending ? " DESC" : " ASC");
+		}
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.query;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import nz.co.gregs.dbvolution.DBQueryRow;
+import nz.co.gregs.dbvolution.actions.DBQueryable;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.databases.DBStatement;
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+
+/**
+ * Runs the SELECT query of a QueryDetails and hands each row of the ResultSet
+ * to a {@link Mapper} rather than creating DBQueryRows.
+ *
+ * <p>
+ * Executed via {@link DBDatabase#executeDBQuery(nz.co.gregs.dbvolution.actions.DBQueryable)
+ * } so that clusters choose, and track the load of, the member used, and
+ * re-run the query on another member if required. The mapper is restarted
+ * for every attempt.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+class MappedResultsQuery implements DBQueryable {
+
+	private final QueryDetails details;
+	private final Mapper mapper;
+
+	MappedResultsQuery(QueryDetails details, Mapper mapper) {
+		this.details = details;
+		this.mapper = mapper;
+	}
+
+	@Override
+	public DBQueryable query(DBDatabase db) throws SQLException {
+		final QueryOptions opts = details.getOptions();
+		final DBDefinition defn = db.getDefinition();
+		try (DBStatement dbStatement = db.getDBStatement()) {
+			try (ResultSet resultSet = opts.isUseParameterisedQuery()
+					? details.getResultSetForSQL(dbStatement, details.getParameterisedSQL(db, QueryType.SELECT, opts))
+					: details.getResultSetForSQL(dbStatement, details.getSQLForQuery(db, new QueryState(details), QueryType.SELECT, opts))) {
+				mapper.start(defn, resultSet);
+				while (resultSet.next()) {
+					mapper.mapRow(resultSet);
+				}
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public List<DBQueryRow> getAllRows() {
+		throw new UnsupportedOperationException("Mapped results do not produce DBQueryRows");
+	}
+
+	@Override
+	public String toSQLString(DBDatabase db) {
+		return details.getSQLForQuery(db, new QueryState(details), QueryType.SELECT, details.getOptions());
+	}
+
+	/**
+	 * Receives the rows of a {@link MappedResultsQuery}.
+	 */
+	static abstract class Mapper {
+
+		/**
+		 * Prepares to receive the rows of the ResultSet, discarding anything
+		 * collected by an earlier attempt.
+		 *
+		 * @param defn the definition of the database that produced the ResultSet
+		 * @param resultSet the ResultSet before the first row
+		 * @throws SQLException database errors
+		 */
+		abstract void start(DBDefinition defn, ResultSet resultSet) throws SQLException;
+
+		/**
+		 * Reads the current row of the ResultSet.
+		 *
+		 * @param resultSet a ResultSet positioned on the row to use
+		 * @throws SQLException database errors
+		 */
+		abstract void mapRow(ResultSet resultSet) throws SQLException;
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.query;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+
+/**
+ * The SQL of a query with its literal values separated out as PreparedStatement
+ * parameters.
+ *
+ * <p>
+ * Parameterised queries allow the database to reuse the query plan for queries
+ * that only differ by the values being searched for.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class ParameterisedQuery {
+
+	private final String sql;
+	private final List<Object> parameters;
+
+	/**
+	 * Create a parameterised query for the SQL and values.
+	 *
+	 * @param sql the SQL including placeholders for the parameters
+	 * @param parameters the values of the parameters in the order they appear in
+	 * the SQL
+	 */
+	public ParameterisedQuery(String sql, List<Object> parameters) {
+		this.sql = sql;
+		this.parameters = Collections.unmodifiableList(new ArrayList<>(parameters));
+	}
+
+	/**
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the SQL with placeholders for the parameters
+	 */
+	public String getSQL() {
+		return sql;
+	}
+
+	/**
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the values of the parameters in the order they appear in the SQL
+	 */
+	public List<Object> getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * Binds the parameters of this query to the PreparedStatement.
+	 *
+	 * @param statement a PreparedStatement created from {@link #getSQL() }
+	 * @param defn the database definition used to generate the SQL
+	 * @throws SQLException database errors
+	 */
+	public void setParameters(PreparedStatement statement, DBDefinition defn) throws SQLException {
+		int index = 1;
+		for (Object parameter : parameters) {
+			defn.setParameterValue(statement, index, parameter);
+			index++;
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 7;
+		hash = 83 * hash + Objects.hashCode(this.sql);
+		hash = 83 * hash + Objects.hashCode(this.parameters);
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		final ParameterisedQuery other = (ParameterisedQuery) obj;
+		return Objects.equals(this.sql, other.sql)
+				&& Objects.equals(this.parameters, other.parameters);
+	}
+
+	@Override
+	public String toString() {
+		return sql + " PARAMETERS: " + parameters;
+	}
+}
@@ -17,6 +17,7 @@ package nz.co.gregs.dbvolution.internal.query;
 
 import java.io.Serializable;
 import java.lang.reflect.Array;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLTimeoutException;
@@ -26,13 +27,17 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ScheduledFuture;
+import nz.co.gregs.dbvolution.DBColumnarResults;
+import nz.co.gregs.dbvolution.DBCompactRowList;
 import nz.co.gregs.dbvolution.DBQueryRow;
+import nz.co.gregs.dbvolution.DBQueryRowIterator;
 import nz.co.gregs.dbvolution.DBRow;
 import nz.co.gregs.dbvolution.actions.DBQueryable;
 import nz.co.gregs.dbvolution.columns.ColumnProvider;
@@ -76,7 +81,7 @@ public class QueryDetails implements DBQueryable, Serializable {
 	private final List<BooleanExpression> conditions = new ArrayList<>();
 	private final Map<Object, QueryableDatatype<?>> expressionColumns = new LinkedHashMap<>();
 	private final Map<Object, DBExpression> dbReportGroupByColumns = new LinkedHashMap<>();
-	private final Map<Class<?>, Map<String, DBRow>> existingInstances = new HashMap<>();
+	private final Map<Class<?>, Map<InstanceKey, DBRow>> existingInstances = new HashMap<>();
 	private boolean groupByRequiredByAggregator = false;
 //	private DBDefinition databaseDefinition = null;
 	private String selectSQLClause = null;
@@ -84,10 +89,12 @@ public class QueryDetails implements DBQueryable, Serializable {
 	private String rawSQLClause = "";
 	private List<DBQueryRow> results = new ArrayList<>();
 	private String resultSQL;
+	private transient ParameterisedQuery resultQuery;
 	private Integer resultsPageIndex = 0;
 	private Integer resultsRowLimit = -1;
 	private Long queryCount = null;
 	private transient QueryGraph queryGraph;
+	private transient ResultSetMappingPlan resultSetMappingPlan;
 	private SortProvider[] sortOrderColumns;
 //	private ArrayList<PropertyWrapper> sortOrder;
 	private List<DBQueryRow> currentPage;
@@ -205,7 +212,7 @@ public class QueryDetails implements DBQueryable, Serializable {
 	 *
 	 * @return the existingInstances
 	 */
-	public Map<Class<?>, Map<String, DBRow>> getExistingInstances() {
+	public Map<Class<?>, Map<InstanceKey, DBRow>> getExistingInstances() {
 		return existingInstances;
 	}
 
@@ -323,6 +330,23 @@ public class QueryDetails implements DBQueryable, Serializable {
 	 */
 	public synchronized void setResultSQL(String resultSQL) {
 		this.resultSQL = resultSQL;
+		this.resultQuery = null;
+	}
+
+	/**
+	 * @return the parameterised query used to retrieve the results, or NULL if
+	 * the results were retrieved without parameters.
+	 */
+	public synchronized ParameterisedQuery getResultQuery() {
+		return resultQuery;
+	}
+
+	/**
+	 * @param resultQuery the parameterised query used to retrieve the results
+	 */
+	public synchronized void setResultQuery(ParameterisedQuery resultQuery) {
+		this.resultSQL = resultQuery == null ? null : resultQuery.getSQL();
+		this.resultQuery = resultQuery;
 	}
 
 	/**
@@ -367,8 +391,9 @@ public class QueryDetails implements DBQueryable, Serializable {
 	private synchronized void getResultSetCount(DBDatabase db, QueryDetails details) throws SQLException {
 		long result = 0L;
 		try (DBStatement dbStatement = db.getDBStatement()) {
-			final String sqlForCount = details.getSQLForCount(db, details);
-			try (ResultSet resultSet = dbStatement.executeQuery(sqlForCount)) {
+			try (ResultSet resultSet = details.getOptions().isUseParameterisedQuery()
+					? dbStatement.executeQuery(details.getParameterisedSQL(db, QueryType.COUNT, details.getOptions()))
+					: dbStatement.executeQuery(details.getSQLForCount(db, details))) {
 				while (resultSet.next()) {
 					result = resultSet.getLong(1);
 				}
@@ -378,14 +403,50 @@ public class QueryDetails implements DBQueryable, Serializable {
 	}
 
 	private synchronized String getSQLForCount(DBDatabase database, QueryDetails details) {
+		return getSQLForCount(database, details, null);
+	}
+
+	private synchronized String getSQLForCount(DBDatabase database, QueryDetails details, QueryParameters parameters) {
 		if (!database.getDefinition().supportsFullOuterJoinNatively()) {
 			return "SELECT COUNT(*) FROM ("
-					+ getSQLForQuery(database, new QueryState(details), QueryType.SELECT, details.getOptions())
+					+ getSQLForQuery(database, new QueryState(details, parameters), QueryType.SELECT, details.getOptions())
 							.replaceAll("; *$", "")
 					+ ") A"
 					+ database.getDefinition().endSQLStatement();
 		} else {
-			return getSQLForQuery(database, new QueryState(details), QueryType.COUNT, details.getOptions());
+			return getSQLForQuery(database, new QueryState(details, parameters), QueryType.COUNT, details.getOptions());
+		}
+	}
+
+	/**
+	 * Generates the SQL for the query with the literal values of the conditions
+	 * replaced by PreparedStatement parameters.
+	 *
+	 * <p>
+	 * Only the conditions are parameterised, the selected columns, GROUP BY, and
+	 * ORDER BY clauses continue to use literal values so that they stay
+	 * consistent with each other.
+	 *
+	 * @param database the database the query will be executed on
+	 * @param queryType SELECT or COUNT
+	 * @param options the options of the query
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the SQL and the parameter values
+	 */
+	public synchronized ParameterisedQuery getParameterisedSQL(DBDatabase database, QueryType queryType, QueryOptions options) {
+		final QueryParameters parameters = new QueryParameters();
+		parameters.activate();
+		try {
+			final String sql;
+			if (queryType == QueryType.COUNT) {
+				sql = getSQLForCount(database, this, parameters);
+			} else {
+				sql = getSQLForQuery(database, new QueryState(this, parameters), queryType, options);
+			}
+			return parameters.resolve(sql);
+		} finally {
+			parameters.deactivate();
 		}
 	}
 
@@ -492,12 +553,16 @@ public class QueryDetails implements DBQueryable, Serializable {
 					fromClause.append(fromClauseTableSeparator).append(tableName);
 					queryState.addedInnerJoinToQuery();
 				} else {
+					queryState.startCollectingParameters();
 					fromClause.append(getANSIJoinClause(defn, queryState, tabRow, options));
+					queryState.stopCollectingParameters();
 				}
 				queryState.addJoinedTable(tabRow);
 
 				if (!options.isUseANSISyntax()) {
+					queryState.startCollectingParameters();
 					List<String> tabRowCriteria = tabRow.getWhereClausesWithAliases(defn);
+					queryState.stopCollectingParameters();
 					if (tabRowCriteria != null && !tabRowCriteria.isEmpty()) {
 						for (String clause : tabRowCriteria) {
 							whereClause.append(lineSep).append(defn.beginConditionClauseLine(options)).append(clause);
@@ -510,6 +575,7 @@ public class QueryDetails implements DBQueryable, Serializable {
 				fromClauseTableSeparator = ", " + lineSep;
 			}
 
+			queryState.startCollectingParameters();
 			//add conditions found during the ANSI Join creation
 			final String conditionsAsSQLClause = mergeConditionsIntoSQLClause(queryState.getRequiredConditions(), defn, options);
 			if (!conditionsAsSQLClause.isEmpty()) {
@@ -529,6 +595,7 @@ public class QueryDetails implements DBQueryable, Serializable {
 				whereClause.append(lineSep).append(defn.beginConditionClauseLine(options)).append("(").append(expression.toSQLString(defn)).append(")");
 				queryState.consumeExpression(expression);
 			}
+			queryState.stopCollectingParameters();
 
 			for (Map.Entry<Object, QueryableDatatype<?>> entry : getExpressionColumns().entrySet()) {
 				final Object key = entry.getKey();
@@ -617,7 +684,9 @@ public class QueryDetails implements DBQueryable, Serializable {
 					orderByClauseFinal += lineSep;
 					queryState.setHasBeenOrdered(true);
 				}
+				queryState.startCollectingParameters();
 				havingClause = getHavingClause(database, options);
+				queryState.stopCollectingParameters();
 				if (!havingClause.trim().isEmpty()) {
 					havingClause += lineSep;
 				}
@@ -924,7 +993,7 @@ public class QueryDetails implements DBQueryable, Serializable {
 		} else {
 			// Watch out for the infinite loop
 			options.setCreatingNativeQuery(false);
-			String reversedQuery = getSQLForQuery(database, new QueryState(details), QueryType.REVERSESELECT, options);
+			String reversedQuery = getSQLForQuery(database, new QueryState(details, queryState.getQueryParameters()), QueryType.REVERSESELECT, options);
 			options.setCreatingNativeQuery(true);
 
 			sqlForQuery = existingSQL.replaceAll("; *$", " ").replaceAll(defn.beginFullOuterJoin(), defn.beginLeftOuterJoin());
@@ -934,6 +1003,18 @@ public class QueryDetails implements DBQueryable, Serializable {
 		return sqlForQuery;
 	}
 
+	/**
+	 * Returns a copy of the sort order of the query.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the sort order, or NULL if no sort order has been set
+	 */
+	public synchronized SortProvider[] getSortOrder() {
+		return sortOrderColumns == null ? null : Arrays.copyOf(sortOrderColumns, sortOrderColumns.length);
+	}
+
 	public synchronized void setSortOrder(SortProvider[] sortColumns) {
 		blankResults();
 		sortOrderColumns = Arrays.copyOf(sortColumns, sortColumns.length);
@@ -949,8 +1030,9 @@ public class QueryDetails implements DBQueryable, Serializable {
 
 	public synchronized void blankResults() {
 		setResults(null);
-		setResultSQL(null);
+		setResultQuery(null);
 		queryGraph = null;
+		resultSetMappingPlan = null;
 	}
 
 	public synchronized void addToSortOrder(SortProvider[] sortColumns) {
@@ -973,7 +1055,11 @@ public class QueryDetails implements DBQueryable, Serializable {
 
 	private synchronized void prepareForQuery(DBDatabase database, QueryOptions options) throws SQLException {
 		clearResults();
-		setResultSQL(this.getSQLForQuery(database, new QueryState(this), QueryType.SELECT, options));
+		if (options.isUseParameterisedQuery()) {
+			setResultQuery(getParameterisedSQL(database, QueryType.SELECT, options));
+		} else {
+			setResultSQL(this.getSQLForQuery(database, new QueryState(this), QueryType.SELECT, options));
+		}
 	}
 
 	public synchronized boolean needsResults(QueryOptions options) {
@@ -984,7 +1070,16 @@ public class QueryDetails implements DBQueryable, Serializable {
 				|| getResults().isEmpty()
 				|| !getResultsPageIndex().equals(options.getPageIndex())
 				|| !getResultsRowLimit().equals(options.getRowLimit())
-				|| !getResultSQL().equals(getSQLForQuery(queryDatabase, new QueryState(this), QueryType.SELECT, options));
+				|| resultSQLHasChanged(queryDatabase, options);
+	}
+
+	private synchronized boolean resultSQLHasChanged(DBDatabase queryDatabase, QueryOptions options) {
+		if (options.isUseParameterisedQuery()) {
+			return getResultQuery() == null
+					|| !getResultQuery().equals(getParameterisedSQL(queryDatabase, QueryType.SELECT, options));
+		} else {
+			return !getResultSQL().equals(getSQLForQuery(queryDatabase, new QueryState(this), QueryType.SELECT, options));
+		}
 	}
 
 	@Override
@@ -1079,6 +1174,18 @@ public class QueryDetails implements DBQueryable, Serializable {
 
 		final DBDefinition defn = db.getDefinition();
 
+		checkForAccidentalQueries(db, details, options);
+
+		final ParameterisedQuery parameterisedQuery = details.getResultQuery();
+		if (parameterisedQuery != null) {
+			fillResultSetFromSQL(db, details, defn, parameterisedQuery);
+		} else {
+			fillResultSetFromSQL(db, details, defn, details.getResultSQL());
+		}
+
+	}
+
+	private void checkForAccidentalQueries(DBDatabase db, QueryDetails details, QueryOptions options) throws AccidentalBlankQueryException, AccidentalCartesianJoinException {
 		if (!options.isBlankQueryAllowed() && willCreateBlankQuery(db) && details.getRawSQLClause().isEmpty()) {
 			throw new AccidentalBlankQueryException(options.isBlankQueryAllowed(), willCreateBlankQuery(db), details.getRawSQLClause().isEmpty());
 		}
@@ -1088,38 +1195,357 @@ public class QueryDetails implements DBQueryable, Serializable {
 				&& queryGraph.willCreateCartesianJoin()) {
 			throw new AccidentalCartesianJoinException(details);
 		}
+	}
+
+	/**
+	 * Executes the query and returns an iterator that creates the DBQueryRows
+	 * one at a time from the open ResultSet.
+	 *
+	 * <p>
+	 * The results are not stored by this QueryDetails, so autofilled fields are
+	 * not set and rows with the same primary key are not combined into a single
+	 * instance. The iterator holds a connection to the database until it is
+	 * exhausted or closed.
+	 *
+	 * @param db the database to query, this should not be a cluster
+	 * @param fetchSize the number of rows to retrieve from the database at a time
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return an iterator over the results of the query
+	 * @throws SQLException database errors
+	 * @throws AccidentalBlankQueryException the query would return the whole
+	 * table and blank queries are not allowed
+	 * @throws AccidentalCartesianJoinException the query would create a cartesian
+	 * join and they are not allowed
+	 */
+	public synchronized DBQueryRowIterator getRowIterator(DBDatabase db, int fetchSize) throws SQLException, AccidentalBlankQueryException, AccidentalCartesianJoinException {
+		final QueryOptions opts = getOptions();
+		final DBDefinition defn = db.getDefinition();
+		final ParameterisedQuery parameterisedQuery;
+		final String sql;
+		if (opts.isUseParameterisedQuery()) {
+			parameterisedQuery = getParameterisedSQL(db, QueryType.SELECT, opts);
+			sql = null;
+		} else {
+			parameterisedQuery = null;
+			sql = getSQLForQuery(db, new QueryState(this), QueryType.SELECT, opts);
+		}
+		checkForAccidentalQueries(db, this, opts);
 
-		fillResultSetFromSQL(db, details, defn, details.getResultSQL());
+		final DBStatement dbStatement = db.getDBStatement();
+		boolean restoreAutoCommit = false;
+		try {
+			final Connection connection = dbStatement.getConnection();
+			if (defn.requiresTransactionToStreamResults() && connection.getAutoCommit()) {
+				connection.setAutoCommit(false);
+				restoreAutoCommit = true;
+			}
+			dbStatement.setFetchSize(defn.getFetchSizeForStreaming(fetchSize));
+			final ResultSet resultSet = parameterisedQuery == null
+					? getResultSetForSQL(dbStatement, sql)
+					: getResultSetForSQL(dbStatement, parameterisedQuery);
+			return new DBQueryRowIterator(this, defn, dbStatement, resultSet, restoreAutoCommit);
+		} catch (SQLException | RuntimeException ex) {
+			if (restoreAutoCommit) {
+				dbStatement.getConnection().setAutoCommit(true);
+			}
+			dbStatement.close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Executes the query and stores the values of the exemplar's rows in a
+	 * DBCompactRowList.
+	 *
+	 * <p>
+	 * The values are read into a single reusable instance of the exemplar's
+	 * class, so no DBRows or DBQueryRows are created for the results and the
+	 * results are not stored by this QueryDetails. Rows with the same primary
+	 * key are only stored once and empty rows from outer joins are skipped.
+	 *
+	 * @param <E> the DBRow class required
+	 * @param db the database to query
+	 * @param exemplar an instance of the required DBRow class
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the values of the exemplar's rows
+	 * @throws SQLException database errors
+	 * @throws AccidentalBlankQueryException the query would return the whole
+	 * table and blank queries are not allowed
+	 * @throws AccidentalCartesianJoinException the query would create a cartesian
+	 * join and they are not allowed
+	 */
+	public synchronized <E extends DBRow> DBCompactRowList<E> getCompactInstancesOf(DBDatabase db, final E exemplar) throws SQLException, AccidentalBlankQueryException, AccidentalCartesianJoinException {
+		final List<DBRow> allTables = getAllQueryTables();
+		DBRow foundTable = null;
+		for (DBRow table : allTables) {
+			if (table.getClass().equals(exemplar.getClass())) {
+				foundTable = table;
+				break;
+			}
+		}
+		if (foundTable == null) {
+			return new DBCompactRowList<>(exemplar, exemplar);
+		}
+		final DBRow queryTable = foundTable;
+		final DBRow reusedRow = DBRow.getDBRow(queryTable.getClass());
+		final boolean combineInstances = !isGroupedQuery() && !reusedRow.getPrimaryKeys().isEmpty();
+		final List<DBCompactRowList<E>> result = new ArrayList<>(1);
+
+		executeAndMap(db, new MappedResultsQuery.Mapper() {
+			private DBDefinition defn;
+			private ResultSetMappingPlan plan;
+			private DBCompactRowList<E> compactRows;
+			private Set<InstanceKey> foundKeys;
+
+			@Override
+			void start(DBDefinition defn, ResultSet resultSet) throws SQLException {
+				this.defn = defn;
+				plan = new ResultSetMappingPlan(defn, resultSet, allTables);
+				compactRows = new DBCompactRowList<>(exemplar, queryTable);
+				foundKeys = new HashSet<>();
+				result.clear();
+				result.add(compactRows);
+			}
 
+			@Override
+			void mapRow(ResultSet resultSet) throws SQLException {
+				reusedRow.setEmptyRow(true);
+				plan.setFieldsFromColumns(queryTable, reusedRow, true);
+				if (!reusedRow.isEmptyRow()) {
+					final InstanceKey key = combineInstances ? InstanceKey.forRow(defn, reusedRow) : null;
+					if (key == null || foundKeys.add(key)) {
+						compactRows.addValuesOf(reusedRow);
+					}
+				}
+			}
+		});
+		final DBCompactRowList<E> compactRows = result.get(0);
+		compactRows.trimToSize();
+		return compactRows;
 	}
 
-	protected synchronized void fillResultSetFromSQL(DBDatabase db, QueryDetails details, final DBDefinition defn, String sqlString) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
-		DBQueryRow queryRow;
+	/**
+	 * Executes the query and stores the values of the selected fields and
+	 * expression columns in a DBColumnarResults.
+	 *
+	 * <p>
+	 * Each table's values are read into a single reusable instance of the
+	 * table's class, and each expression column into a single reusable QDT, so
+	 * no DBRows, DBQueryRows, or QDTs are created for the rows of the results.
+	 * The results are not stored by this QueryDetails.
+	 *
+	 * @param db the database to query
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the values of the query as columns
+	 * @throws SQLException database errors
+	 * @throws AccidentalBlankQueryException the query would return the whole
+	 * table and blank queries are not allowed
+	 * @throws AccidentalCartesianJoinException the query would create a cartesian
+	 * join and they are not allowed
+	 */
+	public synchronized DBColumnarResults getColumnarResults(DBDatabase db) throws SQLException, AccidentalBlankQueryException, AccidentalCartesianJoinException {
+		final List<DBRow> allTables = getAllQueryTables();
+		final DBRow[] reusedRows = new DBRow[allTables.size()];
+		for (int t = 0; t < allTables.size(); t++) {
+			reusedRows[t] = DBRow.getDBRow(allTables.get(t).getClass());
+		}
+		final Map<Object, QueryableDatatype<?>> expressions = getExpressionColumns();
+		final QueryableDatatype<?>[] reusedExpressionQDTs = new QueryableDatatype<?>[expressions.size()];
+		final List<DBColumnarResults> result = new ArrayList<>(1);
+
+		executeAndMap(db, new MappedResultsQuery.Mapper() {
+			private DBDefinition defn;
+			private ResultSetMappingPlan plan;
+			private DBColumnarResults columns;
+			private DBColumnarResults.Values[][] tableColumns;
+			private DBColumnarResults.Values[] expressionColumns;
+			private String[] expressionAliases;
+			private int[] expressionIndexes;
+
+			@Override
+			void start(DBDefinition defn, ResultSet resultSet) throws SQLException {
+				this.defn = defn;
+				plan = new ResultSetMappingPlan(defn, resultSet, allTables);
+				columns = new DBColumnarResults();
+				result.clear();
+				result.add(columns);
+
+				tableColumns = new DBColumnarResults.Values[allTables.size()][];
+				for (int t = 0; t < allTables.size(); t++) {
+					final DBRow table = allTables.get(t);
+					Set<PropertyWrapperDefinition> selectedProperties = new HashSet<>();
+					for (PropertyWrapper selected : table.getSelectedProperties()) {
+						selectedProperties.add(selected.getPropertyWrapperDefinition());
+					}
+					final List<PropertyWrapper> props = table.getColumnPropertyWrappers();
+					tableColumns[t] = new DBColumnarResults.Values[props.size()];
+					for (int i = 0; i < props.size(); i++) {
+						final PropertyWrapper prop = props.get(i);
+						if (selectedProperties.contains(prop.getPropertyWrapperDefinition())) {
+							tableColumns[t][i] = columns.addFieldColumn(prop.getQueryableDatatype());
+						}
+					}
+				}
+
+				expressionAliases = new String[expressions.size()];
+				expressionIndexes = new int[expressions.size()];
+				expressionColumns = new DBColumnarResults.Values[expressions.size()];
+				int e = 0;
+				for (Map.Entry<Object, QueryableDatatype<?>> entry : expressions.entrySet()) {
+					expressionAliases[e] = defn.formatExpressionAlias(entry.getKey());
+					reusedExpressionQDTs[e] = entry.getValue().getQueryableDatatypeForExpressionValue();
+					expressionColumns[e] = columns.addExpressionColumn(entry.getKey(), entry.getValue());
+					try {
+						expressionIndexes[e] = resultSet.findColumn(expressionAliases[e]);
+					} catch (SQLException ex) {
+						// let the QDT find the column by name
+						expressionIndexes[e] = 0;
+					}
+					e++;
+				}
+			}
+
+			@Override
+			void mapRow(ResultSet resultSet) throws SQLException {
+				final int row = columns.addRow();
+				for (int t = 0; t < reusedRows.length; t++) {
+					final DBRow reusedRow = reusedRows[t];
+					plan.setFieldsFromColumns(allTables.get(t), reusedRow, true);
+					final List<PropertyWrapper> props = reusedRow.getColumnPropertyWrappers();
+					for (int i = 0; i < tableColumns[t].length; i++) {
+						if (tableColumns[t][i] != null) {
+							tableColumns[t][i].set(row, props.get(i).getQueryableDatatype());
+						}
+					}
+				}
+				for (int i = 0; i < reusedExpressionQDTs.length; i++) {
+					reusedExpressionQDTs[i].setFromResultSetReadOnly(defn, resultSet, expressionAliases[i], expressionIndexes[i]);
+					expressionColumns[i].set(row, reusedExpressionQDTs[i]);
+				}
+			}
+		});
+		final DBColumnarResults columns = result.get(0);
+		columns.trimToSize();
+		return columns;
+	}
+
+	/**
+	 * Executes the SELECT query of this QueryDetails and passes each row of the
+	 * results to the mapper.
+	 *
+	 * <p>
+	 * The query is run with {@link DBDatabase#executeDBQuery(nz.co.gregs.dbvolution.actions.DBQueryable)
+	 * } so clusters can choose, track the load of, and retry the member database
+	 * used.
+	 *
+	 * @param db the database to query
+	 * @param mapper the receiver of the rows
+	 * @throws SQLException database errors
+	 * @throws AccidentalBlankQueryException the query would return the whole
+	 * table and blank queries are not allowed
+	 * @throws AccidentalCartesianJoinException the query would create a cartesian
+	 * join and they are not allowed
+	 */
+	private void executeAndMap(DBDatabase db, MappedResultsQuery.Mapper mapper) throws SQLException, AccidentalBlankQueryException, AccidentalCartesianJoinException {
+		checkForAccidentalQueries(db, this, getOptions());
+		db.executeDBQuery(new MappedResultsQuery(this, mapper));
+	}
+
+	/**
+	 * Creates a DBQueryRow from the current row of the ResultSet.
+	 *
+	 * @param defn the definition of the database that produced the ResultSet
+	 * @param resultSet a ResultSet positioned on the row to use
+	 * @param useExistingInstances TRUE to re-use the instances of rows with the
+	 * same primary key already retrieved by this query
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return a new DBQueryRow
+	 * @throws SQLException database errors
+	 */
+	public synchronized DBQueryRow getQueryRowFromResultSet(DBDefinition defn, ResultSet resultSet, boolean useExistingInstances) throws SQLException {
+		DBQueryRow queryRow = new DBQueryRow(this);
+		setExpressionColumns(defn, resultSet, queryRow);
+		setQueryRowFromResultSet(defn, resultSet, this, queryRow, isGroupedQuery(), useExistingInstances);
+		return queryRow;
+	}
 
+	protected synchronized void fillResultSetFromSQL(DBDatabase db, QueryDetails details, final DBDefinition defn, String sqlString) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
 		try (DBStatement dbStatement = db.getDBStatement()) {
 			try (ResultSet resultSet = getResultSetForSQL(dbStatement, sqlString)) {
-				while (resultSet.next()) {
-					queryRow = new DBQueryRow(this);
+				addResultSetToResults(defn, details, resultSet);
+			}
+		}
+		setAutoFilledFieldsOfResults(details);
+	}
 
-					setExpressionColumns(defn, resultSet, queryRow);
+	protected synchronized void fillResultSetFromSQL(DBDatabase db, QueryDetails details, final DBDefinition defn, ParameterisedQuery query) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		try (DBStatement dbStatement = db.getDBStatement()) {
+			try (ResultSet resultSet = getResultSetForSQL(dbStatement, query)) {
+				addResultSetToResults(defn, details, resultSet);
+			}
+		}
+		setAutoFilledFieldsOfResults(details);
+	}
 
-					setQueryRowFromResultSet(defn, resultSet, details, queryRow, details.isGroupedQuery());
-					details.getResults().add(queryRow);
+	private void addResultSetToResults(final DBDefinition defn, QueryDetails details, ResultSet resultSet) throws SQLException {
+		while (resultSet.next()) {
+			details.getResults().add(getQueryRowFromResultSet(defn, resultSet, true));
+		}
+	}
+
+	private void setAutoFilledFieldsOfResults(QueryDetails details) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		Map<DBRow, List<DBQueryRow>> queryRowsByInstance = null;
+		Set<DBRow> alreadyFilled = Collections.newSetFromMap(new IdentityHashMap<DBRow, Boolean>());
+		for (DBQueryRow result : details.getResults()) {
+			for (DBRow row : result.values()) {
+				if (row != null && alreadyFilled.add(row) && !row.getAutoFillingPropertyWrappers().isEmpty()) {
+					if (queryRowsByInstance == null) {
+						queryRowsByInstance = getQueryRowsByInstance();
+					}
+					setAutoFilledFields(row, queryRowsByInstance);
 				}
 			}
 		}
-		for (DBQueryRow result : details.getResults()) {
-			List<DBRow> rows = result.getAll();
-			for (DBRow row : rows) {
+	}
+
+	/**
+	 * Indexes the results of this query by the DBRow instances they contain.
+	 *
+	 * <p>
+	 * DBRows are compared by identity, as in
+	 * {@link #getRelatedInstancesFromQuery(nz.co.gregs.dbvolution.DBRow, nz.co.gregs.dbvolution.DBRow)},
+	 * so that the related instances of every row can be found with one pass
+	 * through the results.
+	 *
+	 * @return the DBQueryRows containing each DBRow instance
+	 */
+	private Map<DBRow, List<DBQueryRow>> getQueryRowsByInstance() throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		Map<DBRow, List<DBQueryRow>> queryRowsByInstance = new IdentityHashMap<>();
+		for (DBQueryRow qrow : getAllRows()) {
+			for (DBRow row : qrow.values()) {
 				if (row != null) {
-					setAutoFilledFields(row);
+					List<DBQueryRow> queryRows = queryRowsByInstance.get(row);
+					if (queryRows == null) {
+						queryRows = new ArrayList<>();
+						queryRowsByInstance.put(row, queryRows);
+					}
+					queryRows.add(qrow);
 				}
 			}
 		}
+		return queryRowsByInstance;
 	}
 
-	@SuppressWarnings("unchecked")
 	synchronized void setAutoFilledFields(DBRow row) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
+		setAutoFilledFields(row, getQueryRowsByInstance());
+	}
+
+	@SuppressWarnings("unchecked")
+	private void setAutoFilledFields(DBRow row, Map<DBRow, List<DBQueryRow>> queryRowsByInstance) throws SQLException, AccidentalCartesianJoinException, AccidentalBlankQueryException {
 		boolean arrayRequired = false;
 		boolean listRequired = false;
 		try {
@@ -1150,7 +1576,7 @@ public class QueryDetails implements DBQueryable, Serializable {
 						} catch (InstantiationException | IllegalAccessException ex) {
 							throw new UnableToInstantiateDBRowSubclassException((Class<? extends DBRow>) requiredClass, ex);
 						}
-						List<DBRow> relatedInstancesFromQuery = getRelatedInstancesFromQuery(row, fieldInstance);
+						List<DBRow> relatedInstancesFromQuery = getRelatedInstances(queryRowsByInstance, row, fieldInstance);
 						if (arrayRequired) {
 							Object newInstance = Array.newInstance(requiredClass, relatedInstancesFromQuery.size());
 							for (int index = 0; index < relatedInstancesFromQuery.size(); index++) {
@@ -1198,6 +1624,20 @@ public class QueryDetails implements DBQueryable, Serializable {
 		return instances;
 	}
 
+	private <R extends DBRow> List<R> getRelatedInstances(Map<DBRow, List<DBQueryRow>> queryRowsByInstance, DBRow row, R example) {
+		List<R> instances = new ArrayList<>();
+		final List<DBQueryRow> queryRows = queryRowsByInstance.get(row);
+		if (queryRows != null) {
+			for (DBQueryRow qrow : queryRows) {
+				R versionOfThat = qrow.get(example);
+				if (versionOfThat != null) {
+					instances.add(versionOfThat);
+				}
+			}
+		}
+		return instances;
+	}
+
 	public synchronized boolean willCreateBlankQuery(DBDatabase db) {
 		boolean willCreateBlankQuery = true;
 		for (DBRow table : getAllQueryTables()) {
@@ -1223,14 +1663,7 @@ public class QueryDetails implements DBQueryable, Serializable {
 	 * @throws java.sql.SQLTimeoutException
 	 */
 	protected synchronized ResultSet getResultSetForSQL(final DBStatement statement, String sql) throws SQLException, SQLTimeoutException {
-		final Long timeoutTime = this.getTimeoutInMilliseconds();
-		ScheduledFuture<?> cancelHandle = null;
-		if (timeoutTime > 0) {
-			if (timeoutTime != null && timeoutTime > 0) {
-				final QueryCanceller canceller = new QueryCanceller(statement, sql);
-				cancelHandle = canceller.schedule(timeoutTime);//TIMER_SERVICE.schedule(canceller, timeoutTime, TimeUnit.MILLISECONDS);
-			}
-		}
+		final ScheduledFuture<?> cancelHandle = scheduleCancellation(statement, sql);
 		final ResultSet queryResults = statement.executeQuery(sql);
 
 		if (cancelHandle != null) {
@@ -1239,27 +1672,76 @@ public class QueryDetails implements DBQueryable, Serializable {
 		return queryResults;
 	}
 
+	/**
+	 * Executes the parameterised query on the statement, cancelling the query if
+	 * it exceeds the timeout.
+	 *
+	 * @param statement the statement to use
+	 * @param query the SQL and parameters to execute
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 * @return the ResultSet returned from the actual database. Database
+	 * exceptions may be thrown
+	 * @throws java.sql.SQLException java.sql.SQLException
+	 * @throws java.sql.SQLTimeoutException
+	 */
+	protected synchronized ResultSet getResultSetForSQL(final DBStatement statement, ParameterisedQuery query) throws SQLException, SQLTimeoutException {
+		final ScheduledFuture<?> cancelHandle = scheduleCancellation(statement, query.getSQL());
+		final ResultSet queryResults = statement.executeQuery(query);
+
+		if (cancelHandle != null) {
+			cancelHandle.cancel(true);
+		}
+		return queryResults;
+	}
+
+	private ScheduledFuture<?> scheduleCancellation(final DBStatement statement, String sql) {
+		final Long timeoutTime = this.getTimeoutInMilliseconds();
+		ScheduledFuture<?> cancelHandle = null;
+		if (timeoutTime != null && timeoutTime > 0) {
+			final QueryCanceller canceller = new QueryCanceller(statement, sql);
+			cancelHandle = canceller.schedule(timeoutTime);//TIMER_SERVICE.schedule(canceller, timeoutTime, TimeUnit.MILLISECONDS);
+		}
+		return cancelHandle;
+	}
+
 	private void setExpressionColumns(DBDefinition defn, ResultSet resultSet, DBQueryRow queryRow) throws SQLException {
 		for (Map.Entry<Object, QueryableDatatype<?>> entry : getExpressionColumns().entrySet()) {
 			final Object key = entry.getKey();
 			final QueryableDatatype<?> value = entry.getValue();
 			String expressionAlias = defn.formatExpressionAlias(key);
 			QueryableDatatype<?> expressionQDT = value.getQueryableDatatypeForExpressionValue();
-			expressionQDT.setFromResultSet(defn, resultSet, expressionAlias);
+			if (options.isReadOnly()) {
+				expressionQDT.setFromResultSetReadOnly(defn, resultSet, expressionAlias, 0);
+			} else {
+				expressionQDT.setFromResultSet(defn, resultSet, expressionAlias);
+			}
 			queryRow.addExpressionColumnValue(key, expressionQDT);
 		}
 	}
 
 	public synchronized void setQueryRowFromResultSet(DBDefinition defn, ResultSet resultSet, QueryDetails details, DBQueryRow queryRow, boolean isGroupedQuery) throws SQLException {
-		for (DBRow tableRow : details.getAllQueryTables()) {
+		setQueryRowFromResultSet(defn, resultSet, details, queryRow, isGroupedQuery, true);
+	}
+
+	private void setQueryRowFromResultSet(DBDefinition defn, ResultSet resultSet, QueryDetails details, DBQueryRow queryRow, boolean isGroupedQuery, boolean useExistingInstances) throws SQLException {
+		final List<DBRow> allTables = details.getAllQueryTables();
+		final boolean readOnly = details.getOptions().isReadOnly();
+		if (resultSetMappingPlan == null || !resultSetMappingPlan.isPlanFor(defn, resultSet, allTables)) {
+			resultSetMappingPlan = new ResultSetMappingPlan(defn, resultSet, allTables);
+		}
+		for (DBRow tableRow : allTables) {
 			DBRow newInstance = DBRow.getDBRow(tableRow.getClass());
 
-			setFieldsFromColumns(defn, tableRow, newInstance, resultSet);
+			resultSetMappingPlan.setFieldsFromColumns(tableRow, newInstance, readOnly);
 			newInstance.setReturnFieldsBasedOn(tableRow);
 
 			newInstance.setDefined(); // Actually came from the database so it is a defined row.
+			if (readOnly) {
+				newInstance.setReadOnly();
+			}
 
-//			Map<String, DBRow> existingInstancesOfThisTableRow = details.getExistingInstances().get(tableRow.getClass());
+//			Map<InstanceKey, DBRow> existingInstancesOfThisTableRow = details.getExistingInstances().get(tableRow.getClass());
 //			existingInstancesOfThisTableRow = setExistingInstancesForTable(existingInstancesOfThisTableRow, newInstance);
 			final Class<? extends DBRow> newInstanceClass = newInstance.getClass();
 
@@ -1277,10 +1759,10 @@ public class QueryDetails implements DBQueryable, Serializable {
 				for (QueryableDatatype<?> pk : primaryKeys) {
 					pksHaveBeenSet = pksHaveBeenSet && pk.hasBeenSet();
 				}
-				if (isGroupedQuery || primaryKeys.isEmpty() || !pksHaveBeenSet) {
+				if (isGroupedQuery || !useExistingInstances || primaryKeys.isEmpty() || !pksHaveBeenSet) {
 					queryRow.put(newInstanceClass, newInstance);
 				} else {
-					Map<String, DBRow> existingInstancesOfThisTableRow = details.getExistingInstances().get(tableRow.getClass());
+					Map<InstanceKey, DBRow> existingInstancesOfThisTableRow = details.getExistingInstances().get(tableRow.getClass());
 					existingInstancesOfThisTableRow = setExistingInstancesForTable(existingInstancesOfThisTableRow, newInstance);
 					DBRow existingInstance = getOrSetExistingInstanceForRow(defn, newInstance, existingInstancesOfThisTableRow);
 					queryRow.put(existingInstance.getClass(), existingInstance);
@@ -1339,8 +1821,8 @@ public class QueryDetails implements DBQueryable, Serializable {
 	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
 	 * @return a list of existing rows.
 	 */
-	protected Map<String, DBRow> setExistingInstancesForTable(Map<String, DBRow> existingInstancesOfThisTableRow, DBRow newInstance) {
-		Map<String, DBRow> hashMap = existingInstancesOfThisTableRow;
+	protected Map<InstanceKey, DBRow> setExistingInstancesForTable(Map<InstanceKey, DBRow> existingInstancesOfThisTableRow, DBRow newInstance) {
+		Map<InstanceKey, DBRow> hashMap = existingInstancesOfThisTableRow;
 		if (hashMap == null) {
 			hashMap = new HashMap<>();
 		}
@@ -1368,19 +1850,10 @@ public class QueryDetails implements DBQueryable, Serializable {
 	 * @return the exisinting instance of the provided row, or the row itself if
 	 * none exists.
 	 */
-	protected DBRow getOrSetExistingInstanceForRow(DBDefinition defn, DBRow newInstance, Map<String, DBRow> existingInstancesOfThisTableRow) {
+	protected DBRow getOrSetExistingInstanceForRow(DBDefinition defn, DBRow newInstance, Map<InstanceKey, DBRow> existingInstancesOfThisTableRow) {
 		DBRow existingInstance = newInstance;
-		String keyToSearchFor = "";
-		final List<PropertyWrapper> primaryKeys = newInstance.getPrimaryKeyPropertyWrappers();
-		for (PropertyWrapper primaryKey : primaryKeys) {
-			if (primaryKey != null) {
-				final QueryableDatatype<?> qdt = primaryKey.getQueryableDatatype();
-				if (qdt != null) {
-					keyToSearchFor += "(" + qdt.toSQLString(defn) + ")";
-				}
-			}
-		}
-		if (!keyToSearchFor.isEmpty()) {
+		final InstanceKey keyToSearchFor = InstanceKey.forRow(defn, newInstance);
+		if (keyToSearchFor != null) {
 			existingInstance = existingInstancesOfThisTableRow.get(keyToSearchFor);
 			if (existingInstance == null) {
 				existingInstance = newInstance;
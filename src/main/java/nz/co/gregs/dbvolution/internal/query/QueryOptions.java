@@ -40,6 +40,8 @@ public class QueryOptions  implements Serializable{
 	private boolean useANSISyntax = true;
 	private boolean matchAnyRelationship = false;
 	private boolean queryIsNativeQuery = true;
+	private boolean useParameterisedQuery = false;
+	private boolean readOnly = false;
 	private QueryType queryType = QueryType.SELECT;
 
 	public QueryOptions() {
@@ -59,6 +61,8 @@ public class QueryOptions  implements Serializable{
 		setRowLimit(opts.getRowLimit());
 		setSortColumns(opts.getSortColumns());
 		setUseANSISyntax(opts.isUseANSISyntax());
+		setUseParameterisedQuery(opts.isUseParameterisedQuery());
+		setReadOnly(opts.isReadOnly());
 	}
 
 	/**
@@ -316,6 +320,55 @@ public class QueryOptions  implements Serializable{
 		queryIsNativeQuery = creatingNativeQuery;
 	}
 
+	/**
+	 * Indicates whether the query will send its literal values as
+	 * PreparedStatement parameters.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if the query will be executed as a parameterised
+	 * PreparedStatement, otherwise FALSE.
+	 */
+	public boolean isUseParameterisedQuery() {
+		return useParameterisedQuery;
+	}
+
+	/**
+	 * Sets whether the query will send its literal values as PreparedStatement
+	 * parameters.
+	 *
+	 * @param useParameterisedQuery TRUE to execute the query as a parameterised
+	 * PreparedStatement
+	 */
+	public final void setUseParameterisedQuery(boolean useParameterisedQuery) {
+		this.useParameterisedQuery = useParameterisedQuery;
+	}
+
+	/**
+	 * Indicates whether the query will create rows without the change tracking
+	 * required to update them.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return TRUE if the rows returned by the query will be read-only,
+	 * otherwise FALSE.
+	 */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	/**
+	 * Sets whether the query will create rows without the change tracking
+	 * required to update them.
+	 *
+	 * @param readOnly TRUE to return read-only rows
+	 */
+	public final void setReadOnly(boolean readOnly) {
+		this.readOnly = readOnly;
+	}
+
 	public synchronized QueryType getQueryType() {
 		return queryType;
 	}
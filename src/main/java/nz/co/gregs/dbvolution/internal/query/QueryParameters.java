@@ -0,0 +1,159 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+
+/**
+ * Collects the literal values of a query while its SQL is being generated so
+ * that they can be supplied as PreparedStatement parameters.
+ *
+ * <p>
+ * While a QueryParameters is active on the current thread and collecting,
+ * {@link QueryableDatatype#toSQLString(nz.co.gregs.dbvolution.databases.definitions.DBDefinition)}
+ * replaces suitable literal values with a marker. Once the SQL is complete
+ * {@link #resolve(java.lang.String) } swaps the markers for the database's
+ * placeholder and produces the values in the order that they appear in the
+ * SQL.
+ *
+ * <p>
+ * Resolving the markers by their position in the final SQL means the clauses
+ * of the query can be generated in any order, and duplicated, without the
+ * parameters getting out of step.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class QueryParameters {
+
+	private static final ThreadLocal<QueryParameters> ACTIVE_PARAMETERS = new ThreadLocal<>();
+	private static final char MARKER_START = '\u0001';
+	private static final char MARKER_END = '\u0002';
+
+	private final List<Object> values = new ArrayList<>();
+	private final List<String> placeholders = new ArrayList<>();
+	private boolean collecting = false;
+
+	/**
+	 * Returns the QueryParameters that is currently collecting values on this
+	 * thread.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the collecting QueryParameters or NULL if no values are being
+	 * collected.
+	 */
+	public static QueryParameters getCollectingParameters() {
+		final QueryParameters parameters = ACTIVE_PARAMETERS.get();
+		if (parameters != null && parameters.collecting) {
+			return parameters;
+		}
+		return null;
+	}
+
+	/**
+	 * Makes this instance available to the SQL generation on the current thread.
+	 *
+	 * <p>
+	 * Values are only collected between {@link #startCollecting() } and
+	 * {@link #stopCollecting() }. Always call {@link #deactivate() } in a finally
+	 * block.
+	 */
+	public void activate() {
+		ACTIVE_PARAMETERS.set(this);
+	}
+
+	/**
+	 * Removes this instance from the current thread.
+	 */
+	public void deactivate() {
+		collecting = false;
+		ACTIVE_PARAMETERS.remove();
+	}
+
+	/**
+	 * Start replacing literal values with parameters.
+	 */
+	public void startCollecting() {
+		collecting = true;
+	}
+
+	/**
+	 * Stop replacing literal values with parameters.
+	 */
+	public void stopCollecting() {
+		collecting = false;
+	}
+
+	/**
+	 * Stores the value as a parameter and returns the marker to be used in the
+	 * SQL instead of the literal value.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param defn the database definition used to generate the SQL
+	 * @param qdt the QDT that owns the value
+	 * @param value the literal value to be bound to the PreparedStatement
+	 * @return the marker to include in the SQL
+	 */
+	public String addParameter(DBDefinition defn, QueryableDatatype<?> qdt, Object value) {
+		final int index = values.size();
+		values.add(value);
+		placeholders.add(defn.getParameterPlaceholder(qdt));
+		return "" + MARKER_START + index + MARKER_END;
+	}
+
+	/**
+	 * Replaces the parameter markers in the SQL with the database's placeholders
+	 * and collects the values in the order required by the PreparedStatement.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param sql the SQL generated while this instance was active
+	 * @return the SQL and parameters ready for execution
+	 */
+	public ParameterisedQuery resolve(String sql) {
+		if (values.isEmpty()) {
+			return new ParameterisedQuery(sql, new ArrayList<Object>());
+		}
+		final StringBuilder resolvedSQL = new StringBuilder(sql.length());
+		final List<Object> orderedValues = new ArrayList<>();
+		int position = 0;
+		int start = sql.indexOf(MARKER_START);
+		while (start >= 0) {
+			final int end = sql.indexOf(MARKER_END, start);
+			if (end < 0) {
+				break;
+			}
+			resolvedSQL.append(sql, position, start);
+			final int index = Integer.parseInt(sql.substring(start + 1, end));
+			resolvedSQL.append(placeholders.get(index));
+			orderedValues.add(values.get(index));
+			position = end + 1;
+			start = sql.indexOf(MARKER_START, position);
+		}
+		resolvedSQL.append(sql, position, sql.length());
+		return new ParameterisedQuery(resolvedSQL.toString(), orderedValues);
+	}
+}
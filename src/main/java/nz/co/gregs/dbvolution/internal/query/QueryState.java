@@ -51,9 +51,54 @@ public class QueryState {
 	private boolean hasBeenOrdered = false;
 	private final List<DBRow> joinedTables = new ArrayList<>();
 	private final List<DBExpression> joinedComplexExpressions = new ArrayList<>();
+	private final QueryParameters parameters;
 
 	public QueryState(QueryDetails details) {
+		this(details, null);
+	}
+
+	/**
+	 * Creates a QueryState that collects the literal values of the conditions
+	 * as PreparedStatement parameters.
+	 *
+	 * @param details the query being turned into SQL
+	 * @param parameters the collector for the parameters, or NULL to use literal
+	 * values throughout
+	 */
+	public QueryState(QueryDetails details, QueryParameters parameters) {
 		this.remainingExpressions = new ArrayList<>(details.getConditions());
+		this.parameters = parameters;
+	}
+
+	/**
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @return the parameter collector for this query, or NULL if the query is
+	 * not parameterised.
+	 */
+	public QueryParameters getQueryParameters() {
+		return parameters;
+	}
+
+	/**
+	 * Starts replacing literal values with parameters, if this query is
+	 * parameterised.
+	 */
+	void startCollectingParameters() {
+		if (parameters != null) {
+			parameters.startCollecting();
+		}
+	}
+
+	/**
+	 * Stops replacing literal values with parameters, if this query is
+	 * parameterised.
+	 */
+	void stopCollectingParameters() {
+		if (parameters != null) {
+			parameters.stopCollecting();
+		}
 	}
 
 	public Iterable<BooleanExpression> getRemainingExpressions() {
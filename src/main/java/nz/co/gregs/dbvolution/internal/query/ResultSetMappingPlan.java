@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.query;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import nz.co.gregs.dbvolution.DBRow;
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+import nz.co.gregs.dbvolution.datatypes.QueryableDatatype;
+import nz.co.gregs.dbvolution.internal.properties.PropertyWrapper;
+import nz.co.gregs.dbvolution.internal.properties.PropertyWrapperDefinition;
+
+/**
+ * Maps the columns of a ResultSet to the properties of the DBRows in a query.
+ *
+ * <p>
+ * The selected properties of each table are matched to their column aliases
+ * and ResultSet column indexes once per ResultSet, rather than once per row,
+ * so reading each row only requires a lookup by position.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+class ResultSetMappingPlan {
+
+	private final ResultSet resultSet;
+	private final DBDefinition defn;
+	private final Map<DBRow, TableMapping> tableMappings = new IdentityHashMap<>();
+
+	/**
+	 * Creates a plan for reading the tables from the ResultSet.
+	 *
+	 * @param defn the definition of the database that produced the ResultSet
+	 * @param resultSet the results of the query
+	 * @param tables the example rows of the query
+	 */
+	ResultSetMappingPlan(DBDefinition defn, ResultSet resultSet, List<DBRow> tables) {
+		this.defn = defn;
+		this.resultSet = resultSet;
+		for (DBRow table : tables) {
+			tableMappings.put(table, new TableMapping(defn, resultSet, table));
+		}
+	}
+
+	/**
+	 * Indicates whether this plan can be used for the ResultSet and database.
+	 *
+	 * @param defn the definition of the database that produced the ResultSet
+	 * @param resultSet the results of the query
+	 * @param tables the example rows of the query
+	 * @return TRUE if this plan was created for the ResultSet and tables
+	 */
+	boolean isPlanFor(DBDefinition defn, ResultSet resultSet, List<DBRow> tables) {
+		if (this.resultSet != resultSet || !this.defn.equals(defn) || tableMappings.size() != tables.size()) {
+			return false;
+		}
+		for (DBRow table : tables) {
+			if (!tableMappings.containsKey(table)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Fills the fields of the new instance with the data from the current row of
+	 * the ResultSet.
+	 *
+	 * @param table the example row used to create the plan
+	 * @param newInstance a new instance of the same class as the example
+	 * @param readOnly TRUE to set the fields without tracking changes
+	 * @throws SQLException database errors
+	 */
+	void setFieldsFromColumns(DBRow table, DBRow newInstance, boolean readOnly) throws SQLException {
+		tableMappings.get(table).setFieldsFromColumns(defn, resultSet, newInstance, readOnly);
+	}
+
+	private static class TableMapping {
+
+		private final String[] columnAliases;
+		private final int[] columnIndexes;
+
+		TableMapping(DBDefinition defn, ResultSet resultSet, DBRow table) {
+			Set<PropertyWrapperDefinition> selectedProperties = new HashSet<>();
+			for (PropertyWrapper selected : table.getSelectedProperties()) {
+				selectedProperties.add(selected.getPropertyWrapperDefinition());
+			}
+			final List<PropertyWrapper> properties = DBRow.getDBRow(table.getClass()).getColumnPropertyWrappers();
+			columnAliases = new String[properties.size()];
+			columnIndexes = new int[properties.size()];
+			for (int i = 0; i < properties.size(); i++) {
+				final PropertyWrapper property = properties.get(i);
+				if (selectedProperties.contains(property.getPropertyWrapperDefinition())) {
+					columnAliases[i] = property.getColumnAlias(defn)[0];
+					columnIndexes[i] = findColumn(resultSet, columnAliases[i]);
+				}
+			}
+		}
+
+		private static int findColumn(ResultSet resultSet, String columnAlias) {
+			try {
+				return resultSet.findColumn(columnAlias);
+			} catch (SQLException ex) {
+				// Probably means the column wasn't selected, let the QDT handle it
+				return 0;
+			}
+		}
+
+		void setFieldsFromColumns(DBDefinition defn, ResultSet resultSet, DBRow newInstance, boolean readOnly) throws SQLException {
+			final List<PropertyWrapper> properties = newInstance.getColumnPropertyWrappers();
+			for (int i = 0; i < properties.size(); i++) {
+				final PropertyWrapper property = properties.get(i);
+				QueryableDatatype<?> qdt = property.getQueryableDatatype();
+				if (columnAliases[i] != null) {
+					if (readOnly) {
+						qdt.setFromResultSetReadOnly(defn, resultSet, columnAliases[i], columnIndexes[i]);
+					} else {
+						qdt.setFromResultSet(defn, resultSet, columnAliases[i], columnIndexes[i]);
+					}
+					if (newInstance.isEmptyRow() && !qdt.isNull()) {
+						newInstance.setEmptyRow(false);
+					}
+				}
+				// ensure field set when using type adaptors
+				property.setQueryableDatatype(qdt);
+			}
+		}
+	}
+}
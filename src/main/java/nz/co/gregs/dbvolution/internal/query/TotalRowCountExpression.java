@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.query;
+
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+import nz.co.gregs.dbvolution.expressions.IntegerExpression;
+
+/**
+ * Counts all the rows of the query using COUNT(*) OVER ().
+ *
+ * <p>
+ * Unlike {@link nz.co.gregs.dbvolution.expressions.AnyExpression#countAll() } this is a window function, so
+ * it does not group the query and every row receives the total number of rows
+ * the query would return without paging. Only use this expression with
+ * databases that
+ * {@link DBDefinition#supportsWindowingFunctionsInTheSelectClause() support window functions}.
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class TotalRowCountExpression extends IntegerExpression {
+
+	private final static long serialVersionUID = 1l;
+
+	/**
+	 * The key used for the expression column containing the total row count.
+	 */
+	public static final String EXPRESSION_COLUMN_KEY = "DBvolution Total Row Count";
+
+	/**
+	 * Creates a COUNT(*) OVER () expression.
+	 */
+	public TotalRowCountExpression() {
+		super();
+	}
+
+	@Override
+	public String toSQLString(DBDefinition db) {
+		return db.getCountFunctionName() + "(*) OVER ()";
+	}
+
+	@Override
+	public boolean isAggregator() {
+		return false;
+	}
+
+	@Override
+	public boolean isWindowingFunction() {
+		return true;
+	}
+
+	@Override
+	public TotalRowCountExpression copy() {
+		return new TotalRowCountExpression();
+	}
+}
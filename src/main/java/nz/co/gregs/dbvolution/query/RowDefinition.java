@@ -53,7 +53,7 @@ public class RowDefinition implements Serializable {
 	private static final long serialVersionUID = 1L;
 
 	private static final RowDefinitionWrapperFactory WRAPPER_FACTORY = new RowDefinitionWrapperFactory();
-	private final RowDefinitionInstanceWrapper wrapper = WRAPPER_FACTORY.instanceWrapperFor(this);
+	private transient volatile RowDefinitionInstanceWrapper wrapper = null;
 	private transient List<PropertyWrapperDefinition> returnColumns = null;
 
 	/**
@@ -86,6 +86,23 @@ public class RowDefinition implements Serializable {
 		return null;
 	}
 
+	/**
+	 * Return the {@link RowDefinitionClassWrapper } for the RowDefinition class.
+	 *
+	 * <p>
+	 * The {@link RowDefinitionClassWrapper } contains the meta-data shared by
+	 * all instances of the class and is cached for the life of the JVM.
+	 *
+	 * <p style="color: #F90;">Support DBvolution at
+	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+	 *
+	 * @param clazz the RowDefinition class
+	 * @return a {@link RowDefinitionClassWrapper}
+	 */
+	protected static RowDefinitionClassWrapper getClassWrapper(Class<? extends RowDefinition> clazz) {
+		return WRAPPER_FACTORY.classWrapperFor(clazz);
+	}
+
 	/**
 	 * Return the {@link RowDefinitionInstanceWrapper } for this RowDefinition.
 	 *
@@ -93,13 +110,28 @@ public class RowDefinition implements Serializable {
 	 * The {@link RowDefinitionInstanceWrapper } contains meta-data about this
 	 * instance of the RowDefinition class.
 	 *
+	 * <p>
+	 * The wrapper is created on first use, so rows that are never inspected
+	 * don't pay for it. Only one wrapper is created even when several threads
+	 * use the row at once.
+	 *
 	 * <p style="color: #F90;">Support DBvolution at
 	 * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
 	 *
 	 * @return a {@link RowDefinitionInstanceWrapper}
 	 */
 	protected RowDefinitionInstanceWrapper getWrapper() {
-		return wrapper;
+		RowDefinitionInstanceWrapper result = wrapper;
+		if (result == null) {
+			synchronized (this) {
+				result = wrapper;
+				if (result == null) {
+					result = WRAPPER_FACTORY.instanceWrapperFor(this);
+					wrapper = result;
+				}
+			}
+		}
+		return result;
 	}
 
 	/**
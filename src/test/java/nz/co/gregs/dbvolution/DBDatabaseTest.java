@@ -15,14 +15,17 @@
  */
 package nz.co.gregs.dbvolution;
 
+import java.lang.management.ManagementFactory;
 import java.sql.SQLException;
 import java.util.List;
+import javax.management.ObjectName;
 import nz.co.gregs.dbvolution.annotations.DBAutoIncrement;
 import nz.co.gregs.dbvolution.annotations.DBColumn;
 import nz.co.gregs.dbvolution.annotations.DBForeignKey;
 import nz.co.gregs.dbvolution.annotations.DBPrimaryKey;
 import nz.co.gregs.dbvolution.annotations.DBRequiredTable;
 import nz.co.gregs.dbvolution.annotations.DBTableName;
+import nz.co.gregs.dbvolution.databases.DatabaseMetrics;
 import nz.co.gregs.dbvolution.datatypes.DBInteger;
 import nz.co.gregs.dbvolution.datatypes.DBString;
 import nz.co.gregs.dbvolution.example.Marque;
@@ -337,6 +340,28 @@ public class DBDatabaseTest extends AbstractTest {
 		Assert.assertEquals("" + 4893059, rowsByExample.get(0).getPrimaryKeys().get(0).toSQLString(database.getDefinition()));
 	}
 
+	@Test
+	public void testMetricsRecordStatementsAndConnections() throws Exception {
+		final DatabaseMetrics before = database.getMetrics();
+		List<Marque> rows = database.getDBTable(new Marque()).setBlankQueryAllowed(true).getAllRows();
+		Assert.assertThat(rows.size(), greaterThan(0));
+
+		final DatabaseMetrics after = database.getMetrics();
+		Assert.assertThat(after.getStatementsExecuted(), greaterThan(before.getStatementsExecuted()));
+		Assert.assertThat(after.getConnectionAcquisitions(), greaterThan(before.getConnectionAcquisitions()));
+		Assert.assertThat(after.getMaximumPoolSize(), greaterThan(0));
+		Assert.assertThat(after.getAcquireWaitHistogram().length, is(after.getAcquireWaitHistogramBoundsMillis().length + 1));
+
+		ObjectName name = database.registerMetricsMBean();
+		try {
+			Object executed = ManagementFactory.getPlatformMBeanServer().getAttribute(name, "StatementsExecuted");
+			Assert.assertThat((Long) executed, greaterThanOrEqualTo(after.getStatementsExecuted()));
+		} finally {
+			database.unregisterMetricsMBean();
+		}
+		Assert.assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(name), is(false));
+	}
+
 	public void testRequiredTableAutomaticallyCreated() throws SQLException, Exception {
 		Assert.assertTrue(database.tableExists(new RequiredTableShouldBeCreatedAutomatically()));
 	}
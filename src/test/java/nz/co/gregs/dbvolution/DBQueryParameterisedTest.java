@@ -0,0 +1,150 @@
+/*
+ * Copyright 2018 Gregory Graham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution;
+
+import java.sql.SQLException;
+import java.util.List;
+import nz.co.gregs.dbvolution.databases.DBDatabaseCluster;
+import nz.co.gregs.dbvolution.example.CarCompany;
+import nz.co.gregs.dbvolution.example.Marque;
+import nz.co.gregs.dbvolution.generic.AbstractTest;
+import nz.co.gregs.dbvolution.internal.database.PreparedStatementCache;
+import nz.co.gregs.dbvolution.internal.query.ParameterisedQuery;
+import nz.co.gregs.dbvolution.internal.query.QueryDetails;
+import nz.co.gregs.dbvolution.internal.query.QueryType;
+import static org.hamcrest.Matchers.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class DBQueryParameterisedTest extends AbstractTest {
+
+	public DBQueryParameterisedTest(Object testIterationName, Object db) {
+		super(testIterationName, db);
+	}
+
+	@Test
+	public void testParameterisedQueryMatchesLiteralQuery() throws SQLException {
+		CarCompany carCompany = new CarCompany();
+		carCompany.name.permittedValues("TOYOTA");
+		DBQuery literalQuery = database.getDBQuery(new Marque(), carCompany);
+		List<DBQueryRow> literalRows = literalQuery.getAllRows();
+
+		DBQuery parameterisedQuery = database.getDBQuery(new Marque(), carCompany).setUseParameterisedQuery(true);
+		List<DBQueryRow> parameterisedRows = parameterisedQuery.getAllRows();
+
+		Assert.assertThat(parameterisedRows.size(), is(2));
+		Assert.assertThat(parameterisedRows.size(), is(literalRows.size()));
+		Assert.assertThat(parameterisedQuery.getSQLForQuery(), is(literalQuery.getSQLForQuery()));
+	}
+
+	@Test
+	public void testParameterisedSQLUsesPlaceholders() throws SQLException {
+		CarCompany carCompany = new CarCompany();
+		carCompany.name.permittedValues("TOYOTA");
+		DBQuery dbQuery = database.getDBQuery(new Marque(), carCompany).setUseParameterisedQuery(true);
+		final QueryDetails details = dbQuery.getQueryDetails();
+		ParameterisedQuery query = details.getParameterisedSQL(database, QueryType.SELECT, details.getOptions());
+
+		Assert.assertThat(query.getSQL(), containsString("?"));
+		Assert.assertThat(query.getSQL(), not(containsString("TOYOTA")));
+		Assert.assertThat(query.getParameters().size(), is(1));
+		Assert.assertThat(query.getParameters().get(0), is((Object) "TOYOTA"));
+	}
+
+	@Test
+	public void testParameterisedOuterJoinSQLUsesPlaceholders() throws SQLException {
+		Marque marque = new Marque();
+		marque.statusClassID.permittedValues(1246974);
+		CarCompany carCompany = new CarCompany();
+		carCompany.name.permittedValues("OTHER");
+		DBQuery dbQuery = database.getDBQuery(marque).addOptional(carCompany).setUseParameterisedQuery(true);
+		final QueryDetails details = dbQuery.getQueryDetails();
+		ParameterisedQuery query = details.getParameterisedSQL(database, QueryType.SELECT, details.getOptions());
+
+		Assert.assertThat(query.getSQL(), containsString("?"));
+		Assert.assertThat(query.getSQL(), not(containsString("1246974")));
+		Assert.assertThat(query.getSQL(), not(containsString("OTHER")));
+		Assert.assertThat(query.getParameters().size(), is(2));
+		Assert.assertThat(query.getParameters().toString(), containsString("1246974"));
+		Assert.assertThat(query.getParameters().toString(), containsString("OTHER"));
+	}
+
+	@Test
+	public void testParameterisedQueryChangesWithConditions() throws SQLException {
+		CarCompany carCompany = new CarCompany();
+		carCompany.name.permittedValues("OTHER");
+		DBQuery dbQuery = database.getDBQuery(new Marque(), carCompany).setUseParameterisedQuery(true);
+		Assert.assertThat(dbQuery.getAllRows().size(), is(16));
+		Assert.assertThat(dbQuery.count(), is(16L));
+
+		carCompany.name.permittedValues("Ford");
+		Assert.assertThat(dbQuery.getAllRows().size(), is(1));
+		Assert.assertThat(dbQuery.count(), is(1L));
+
+		carCompany.name.permittedValues("GENERAL MOTORS");
+		Assert.assertThat(dbQuery.getAllRows().size(), is(3));
+		Assert.assertThat(dbQuery.count(), is(3L));
+	}
+
+	@Test
+	public void testParameterisedQueryWithNumbersAndDates() throws SQLException {
+		Marque marque = new Marque();
+		marque.uidMarque.permittedRange(1, 4893101);
+		marque.creationDate.permittedValues(march23rd2013);
+		marque.statusClassID.permittedValues(1246974);
+		List<Marque> literalRows = database.getDBTable(marque).getAllRows();
+
+		List<Marque> parameterisedRows = database.getDBTable(marque).setUseParameterisedQuery(true).getAllRows();
+
+		Assert.assertThat(parameterisedRows.size(), is(literalRows.size()));
+		for (int i = 0; i < literalRows.size(); i++) {
+			Assert.assertThat(parameterisedRows.get(i).uidMarque.getValue(), is(literalRows.get(i).uidMarque.getValue()));
+		}
+	}
+
+	@Test
+	public void testParameterisedOuterJoinQuery() throws SQLException {
+		CarCompany carCompany = new CarCompany();
+		carCompany.name.permittedValues("OTHER");
+		DBQuery dbQuery = database.getDBQuery(new Marque()).addOptional(carCompany).setUseParameterisedQuery(true);
+
+		Assert.assertThat(dbQuery.count(), is(22L));
+		Assert.assertThat(dbQuery.getAllRows().size(), is(22));
+	}
+
+	@Test
+	public void testParameterisedQueryReusesPreparedStatements() throws SQLException {
+		if (!(database instanceof DBDatabaseCluster)) {
+			PreparedStatementCache.Statistics statistics = database.getPreparedStatementCacheStatistics();
+			CarCompany carCompany = new CarCompany();
+			carCompany.name.permittedValues("OTHER");
+			DBQuery dbQuery = database.getDBQuery(new Marque(), carCompany).setUseParameterisedQuery(true);
+			Assert.assertThat(dbQuery.getAllRows().size(), is(16));
+			final long hits = statistics.getHits();
+
+			carCompany.name.permittedValues("Ford");
+			Assert.assertThat(dbQuery.getAllRows().size(), is(1));
+			Assert.assertThat(statistics.getHits(), greaterThan(hits));
+		}
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 Gregory Graham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.example.CarCompany;
+import nz.co.gregs.dbvolution.example.Marque;
+import nz.co.gregs.dbvolution.exceptions.AccidentalBlankQueryException;
+import nz.co.gregs.dbvolution.exceptions.ExceptionThrownDuringTransaction;
+import nz.co.gregs.dbvolution.generic.AbstractTest;
+import nz.co.gregs.dbvolution.transactions.DBTransaction;
+import static org.hamcrest.Matchers.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class DBQueryRowIteratorTest extends AbstractTest {
+
+	public DBQueryRowIteratorTest(Object testIterationName, Object db) {
+		super(testIterationName, db);
+	}
+
+	@Test
+	public void testQueryIteratorReturnsAllRows() throws SQLException {
+		CarCompany carCompany = new CarCompany();
+		carCompany.name.permittedValues("OTHER");
+		DBQuery dbQuery = database.getDBQuery(new Marque(), carCompany);
+
+		List<String> iteratedNames = new ArrayList<>();
+		try (DBQueryRowIterator iterator = dbQuery.getRowIterator(5)) {
+			while (iterator.hasNext()) {
+				DBQueryRow row = iterator.next();
+				Assert.assertThat(row.get(carCompany).name.stringValue(), is("OTHER"));
+				iteratedNames.add(row.get(new Marque()).name.stringValue());
+			}
+			Assert.assertThat(iterator.isClosed(), is(true));
+		}
+
+		Assert.assertThat(iteratedNames.size(), is(16));
+		List<String> expectedNames = new ArrayList<>();
+		for (Marque marque : dbQuery.getAllInstancesOf(new Marque())) {
+			expectedNames.add(marque.name.stringValue());
+		}
+		Assert.assertThat(iteratedNames, containsInAnyOrder(expectedNames.toArray()));
+	}
+
+	@Test
+	public void testTableIteratorReturnsAllRows() throws SQLException {
+		final DBTable<Marque> table = database.getDBTable(new Marque()).setBlankQueryAllowed(true);
+		final int expectedRows = table.getAllRows().size();
+		int iteratedRows = 0;
+		try (DBRowIterator<Marque> iterator = table.getRowIterator()) {
+			while (iterator.hasNext()) {
+				Marque marque = iterator.next();
+				Assert.assertThat(marque.uidMarque.isNull(), is(false));
+				iteratedRows++;
+			}
+		}
+		Assert.assertThat(iteratedRows, is(expectedRows));
+	}
+
+	@Test
+	public void testIteratorCanBeClosedEarly() throws SQLException {
+		final DBTable<Marque> table = database.getDBTable(new Marque()).setBlankQueryAllowed(true);
+		DBRowIterator<Marque> iterator = table.getRowIterator(2);
+		Assert.assertThat(iterator.hasNext(), is(true));
+		Assert.assertThat(iterator.next(), notNullValue());
+		iterator.close();
+		Assert.assertThat(iterator.hasNext(), is(false));
+
+		Assert.assertThat(table.getAllRows().size(), greaterThan(1));
+	}
+
+	@Test
+	public void testParameterisedIteratorSurvivesSameQueryInTransaction() throws Exception {
+		final Integer iteratedRows = database.doTransaction(new DBTransaction<Integer>() {
+			@Override
+			public Integer doTransaction(DBDatabase dbDatabase) throws ExceptionThrownDuringTransaction {
+				CarCompany carCompany = new CarCompany();
+				carCompany.name.permittedValues("OTHER");
+				DBQuery dbQuery = dbDatabase.getDBQuery(new Marque(), carCompany).setUseParameterisedQuery(true);
+				int rows = 0;
+				try (DBQueryRowIterator iterator = dbQuery.getRowIterator(2)) {
+					while (iterator.hasNext()) {
+						iterator.next();
+						rows++;
+						if (rows == 1) {
+							Assert.assertThat(dbQuery.getAllRows().size(), is(16));
+						}
+					}
+				} catch (SQLException ex) {
+					throw new ExceptionThrownDuringTransaction(ex);
+				}
+				return rows;
+			}
+		}, false);
+		Assert.assertThat(iteratedRows, is(16));
+	}
+
+	@Test(expected = AccidentalBlankQueryException.class)
+	public void testIteratorPreventsBlankQueries() throws SQLException {
+		database.getDBTable(new Marque()).getRowIterator();
+	}
+}
@@ -16,6 +16,9 @@
 package nz.co.gregs.dbvolution;
 
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 import java.util.SortedSet;
@@ -26,6 +29,7 @@ import nz.co.gregs.dbvolution.example.LinkCarCompanyAndLogo;
 import nz.co.gregs.dbvolution.example.LinkCarCompanyAndLogoWithPreviousLink;
 import nz.co.gregs.dbvolution.example.Marque;
 import nz.co.gregs.dbvolution.example.MarqueSelectQuery;
+import nz.co.gregs.dbvolution.exceptions.AccidentalUpdateOfReadOnlyRowException;
 import nz.co.gregs.dbvolution.exceptions.IncorrectRowProviderInstanceSuppliedException;
 import nz.co.gregs.dbvolution.generic.AbstractTest;
 import org.junit.Assert;
@@ -130,6 +134,251 @@ public class DBQueryTest extends AbstractTest {
 		assertTrue("Did not find both marques expected.", foundToyota && foundHyundai);
 	}
 
+	@Test
+	public void testQueryExecutionWithChangedReturnFields() throws SQLException {
+		CarCompany carCompany = new CarCompany();
+		carCompany.name.permittedValues("TOYOTA");
+		Marque marque = new Marque();
+		marque.setReturnFields(marque.name, marque.statusClassID);
+		DBQuery dbQuery = database.getDBQuery(carCompany, marque);
+
+		List<DBQueryRow> results = dbQuery.getAllRows();
+		assertEquals(2, results.size());
+		for (DBQueryRow queryRow : results) {
+			Marque row = queryRow.get(marque);
+			Assert.assertThat(row.name.stringValue(), isOneOf("TOYOTA", "HYUNDAI"));
+			Assert.assertThat(row.statusClassID.intValue(), is(1246974));
+			Assert.assertThat(row.uidMarque.isNull(), is(true));
+			Assert.assertThat(row.updateCount.isNull(), is(true));
+			Assert.assertThat(queryRow.get(carCompany).name.stringValue(), is("TOYOTA"));
+		}
+
+		marque.setReturnFields(marque.uidMarque, marque.updateCount);
+		results = dbQuery.getAllRows();
+		assertEquals(2, results.size());
+		for (DBQueryRow queryRow : results) {
+			Marque row = queryRow.get(marque);
+			Assert.assertThat(row.uidMarque.getValue(), isOneOf(1L, 4896300L));
+			Assert.assertThat(row.name.isNull(), is(true));
+			Assert.assertThat(row.statusClassID.isNull(), is(true));
+		}
+	}
+
+	@Test
+	public void testReadOnlyQueryReturnsRowsWithoutChangeTracking() throws SQLException {
+		CarCompany carCompany = new CarCompany();
+		carCompany.name.permittedValues("TOYOTA");
+		DBQuery dbQuery = database.getDBQuery(carCompany, new Marque()).setReadOnly(true);
+
+		List<DBQueryRow> results = dbQuery.getAllRows();
+		assertEquals(2, results.size());
+		for (DBQueryRow queryRow : results) {
+			Marque row = queryRow.get(new Marque());
+			Assert.assertThat(row.isReadOnly(), is(true));
+			Assert.assertThat(row.getDefined(), is(true));
+			Assert.assertThat(row.name.stringValue(), isOneOf("TOYOTA", "HYUNDAI"));
+			Assert.assertThat(row.uidMarque.hasBeenSet(), is(true));
+			Assert.assertThat(row.hasChangedSimpleTypes(), is(false));
+			Assert.assertThat(row.name.getOperator(), nullValue());
+			Assert.assertThat(queryRow.get(carCompany).isReadOnly(), is(true));
+		}
+	}
+
+	@Test(expected = AccidentalUpdateOfReadOnlyRowException.class)
+	public void testReadOnlyRowsCannotBeUpdated() throws SQLException {
+		Marque marque = new Marque();
+		marque.name.permittedValues("TOYOTA");
+		List<Marque> marques = database.getDBTable(new Marque()).setReadOnly(true).getRowsByExample(marque);
+		assertEquals(1, marques.size());
+
+		Marque toyota = marques.get(0);
+		Assert.assertThat(toyota.isReadOnly(), is(true));
+		toyota.name.setValue("Toyota");
+		database.update(toyota);
+	}
+
+	@Test
+	public void testCompactInstancesMatchAllInstances() throws SQLException {
+		CarCompany carCompany = new CarCompany();
+		carCompany.name.permittedValues("TOYOTA");
+		Marque marque = new Marque();
+		DBQuery dbQuery = database.getDBQuery(carCompany, marque);
+
+		DBCompactRowList<Marque> compactMarques = dbQuery.getCompactInstancesOf(marque);
+		assertEquals(2, compactMarques.size());
+		for (int i = 0; i < compactMarques.size(); i++) {
+			Assert.assertThat(compactMarques.getLong(i, marque.uidMarque), isOneOf(1L, 4896300L));
+			Assert.assertThat(compactMarques.getDouble(i, marque.statusClassID), is(1246974.0));
+			Assert.assertThat(compactMarques.getDouble(i, marque.numericCode), nullValue());
+			Assert.assertThat(compactMarques.getValue(i, marque.name), isOneOf((Object) "TOYOTA", "HYUNDAI"));
+
+			Marque row = compactMarques.get(i);
+			Assert.assertThat(row, not(sameInstance(compactMarques.get(i))));
+			Assert.assertThat(row.getDefined(), is(true));
+			Assert.assertThat(row.hasChangedSimpleTypes(), is(false));
+			Assert.assertThat(row.uidMarque.getValue(), is(compactMarques.getLong(i, marque.uidMarque)));
+			Assert.assertThat(row.name.stringValue(), is(compactMarques.getValue(i, marque.name)));
+			Assert.assertThat(row.numericCode.isNull(), is(true));
+		}
+
+		List<Marque> allMarques = dbQuery.getAllInstancesOf(marque);
+		Assert.assertThat(allMarques.size(), is(compactMarques.size()));
+	}
+
+	@Test
+	public void testColumnarResultsMatchAllRows() throws SQLException {
+		CarCompany carCompany = new CarCompany();
+		carCompany.name.permittedValues("TOYOTA");
+		Marque marque = new Marque();
+		DBQuery dbQuery = database.getDBQuery(carCompany, marque);
+		dbQuery.addExpressionColumn("uid plus one", marque.column(marque.uidMarque).plus(1).asExpressionColumn());
+		dbQuery.setSortOrder(marque.column(marque.uidMarque));
+
+		DBColumnarResults columns = dbQuery.getColumnarResults();
+		List<DBQueryRow> allRows = dbQuery.getAllRows();
+		assertEquals(2, columns.size());
+		assertEquals(allRows.size(), columns.size());
+
+		final DBColumnarResults.LongValues uids = columns.getLongValues(marque.uidMarque);
+		Assert.assertThat(uids.getValues().length, is(2));
+		final DBColumnarResults.DoubleValues statuses = columns.getDoubleValues(marque.statusClassID);
+		final DBColumnarResults.DoubleValues numericCodes = columns.getDoubleValues(marque.numericCode);
+		final DBColumnarResults.DateValues creationDates = columns.getDateValues(marque.creationDate);
+		final DBColumnarResults.StringValues companyNames = columns.getStringValues(carCompany.name);
+		final DBColumnarResults.Values uidPlusOne = columns.getValues("uid plus one");
+		for (int i = 0; i < columns.size(); i++) {
+			final Marque rowMarque = allRows.get(i).get(marque);
+			Assert.assertThat(uids.get(i), is(rowMarque.uidMarque.getValue()));
+			Assert.assertThat(statuses.get(i), is(rowMarque.statusClassID.doubleValue()));
+			Assert.assertThat(numericCodes.isNull(i), is(true));
+			Assert.assertThat(creationDates.getValue(i), is((Object) rowMarque.creationDate.getValue()));
+			Assert.assertThat(companyNames.get(i), is("TOYOTA"));
+			Assert.assertThat(((Number) uidPlusOne.getValue(i)).longValue(), is(rowMarque.uidMarque.getValue() + 1));
+		}
+		Assert.assertThat(companyNames.getDictionary(), is(new String[]{"TOYOTA"}));
+		Assert.assertThat(companyNames.getCodes(), is(new int[]{0, 0}));
+	}
+
+	@Test
+	public void testKeysetPagingReturnsEveryRowOnce() throws SQLException {
+		Marque marque = new Marque();
+		DBQuery dbQuery = database.getDBQuery(marque).setBlankQueryAllowed(true);
+		dbQuery.setSortOrder(marque.column(marque.name), marque.column(marque.uidMarque));
+		List<DBQueryRow> allRows = dbQuery.getAllRows();
+
+		dbQuery.setRowLimit(5);
+		List<Long> pagedUIDs = new ArrayList<>();
+		DBQueryPageToken token = null;
+		DBQueryPage<DBQueryRow> page;
+		do {
+			page = dbQuery.getPageAfter(token);
+			Assert.assertThat(page.getRows().size(), lessThanOrEqualTo(5));
+			for (DBQueryRow row : page.getRows()) {
+				pagedUIDs.add(row.get(marque).uidMarque.getValue());
+			}
+			token = page.getNextPageToken();
+			if (token != null) {
+				Assert.assertThat(DBQueryPageToken.fromString(token.toString()), is(token));
+			}
+		} while (page.hasNextPage());
+
+		Assert.assertThat(pagedUIDs.size(), is(allRows.size()));
+		Assert.assertThat(new HashSet<>(pagedUIDs).size(), is(allRows.size()));
+		for (int i = 0; i < allRows.size(); i++) {
+			Assert.assertThat(pagedUIDs.get(i), is(allRows.get(i).get(marque).uidMarque.getValue()));
+		}
+	}
+
+	@Test
+	public void testKeysetPagingWithNullsReturnsEveryRowOnce() throws SQLException {
+		Marque marque = new Marque();
+		DBQuery dbQuery = database.getDBQuery(marque).setBlankQueryAllowed(true);
+		dbQuery.setSortOrder(marque.column(marque.creationDate).descending());
+		final int allRows = dbQuery.getAllRows().size();
+
+		dbQuery.setRowLimit(5);
+		List<Long> pagedUIDs = new ArrayList<>();
+		DBQueryPageToken token = null;
+		DBQueryPage<DBQueryRow> page;
+		do {
+			page = dbQuery.getPageAfter(token);
+			for (DBQueryRow row : page.getRows()) {
+				pagedUIDs.add(row.get(marque).uidMarque.getValue());
+			}
+			token = page.getNextPageToken();
+			if (token != null) {
+				Assert.assertThat(DBQueryPageToken.fromString(token.toString()), is(token));
+			}
+		} while (page.hasNextPage());
+
+		Assert.assertThat(pagedUIDs.size(), is(allRows));
+		Assert.assertThat(new HashSet<>(pagedUIDs).size(), is(allRows));
+		Assert.assertThat(pagedUIDs.get(pagedUIDs.size() - 1), is(4893059L));
+	}
+
+	@Test
+	public void testKeysetPagingWithinTheSameMillisecondReturnsEveryRowOnce() throws SQLException {
+		Timestamp earlier = new Timestamp(march23rd2013.getTime());
+		earlier.setNanos(earlier.getNanos() + 1000);
+		Timestamp later = new Timestamp(march23rd2013.getTime());
+		later.setNanos(later.getNanos() + 2000);
+		marquesTable.insert(
+				new Marque(9999991, "False", 1246974, "", 0, "", "SAME MILLI 1", "", "Y", later, 4, null),
+				new Marque(9999992, "False", 1246974, "", 0, "", "SAME MILLI 2", "", "Y", earlier, 4, null));
+
+		Marque marque = new Marque();
+		marque.creationDate.permittedRangeInclusive(march23rd2013, null);
+		DBQuery dbQuery = database.getDBQuery(marque);
+		dbQuery.setSortOrder(marque.column(marque.creationDate));
+		final int allRows = dbQuery.getAllRows().size();
+		Assert.assertThat(allRows, greaterThanOrEqualTo(2));
+
+		dbQuery.setRowLimit(1);
+		List<Long> pagedUIDs = new ArrayList<>();
+		DBQueryPageToken token = null;
+		DBQueryPage<DBQueryRow> page;
+		do {
+			page = dbQuery.getPageAfter(token);
+			for (DBQueryRow row : page.getRows()) {
+				pagedUIDs.add(row.get(marque).uidMarque.getValue());
+			}
+			token = page.getNextPageToken();
+			if (token != null) {
+				Assert.assertThat(DBQueryPageToken.fromString(token.toString()), is(token));
+			}
+		} while (page.hasNextPage());
+
+		Assert.assertThat(pagedUIDs.size(), is(allRows));
+		Assert.assertThat(new HashSet<>(pagedUIDs).size(), is(allRows));
+		Assert.assertThat(pagedUIDs, hasItems(9999991L, 9999992L));
+	}
+
+	@Test
+	public void testPageWithTotalCountMatchesCount() throws SQLException {
+		Marque marque = new Marque();
+		DBQuery dbQuery = database.getDBQuery(marque).setBlankQueryAllowed(true);
+		dbQuery.setSortOrder(marque.column(marque.uidMarque));
+		final Long expectedCount = dbQuery.count();
+		List<DBQueryRow> allRows = dbQuery.getAllRows();
+
+		dbQuery.setRowLimit(5);
+		DBQueryPage<DBQueryRow> page = dbQuery.getPageWithTotalCount(1);
+		Assert.assertThat(page.hasTotalCount(), is(true));
+		Assert.assertThat(page.getTotalCount(), is(expectedCount));
+		Assert.assertThat(page.hasNextPage(), is(expectedCount > 10));
+		Assert.assertThat(page.getRows().size(), is(5));
+		for (int i = 0; i < 5; i++) {
+			final DBQueryRow row = page.getRows().get(i);
+			Assert.assertThat(row.get(marque).uidMarque.getValue(), is(allRows.get(i + 5).get(marque).uidMarque.getValue()));
+			Assert.assertThat(row.getExpressionColumns().isEmpty(), is(true));
+		}
+
+		page = dbQuery.getPageWithTotalCount(1000);
+		Assert.assertThat(page.getRows().isEmpty(), is(true));
+		Assert.assertThat(page.getTotalCount(), is(expectedCount));
+		Assert.assertThat(page.hasNextPage(), is(false));
+	}
+
 	@Test
 	public void quickQueryCreation() throws SQLException {
 
@@ -16,6 +16,7 @@
 package nz.co.gregs.dbvolution.actions;
 
 import java.util.ArrayList;
+import java.util.List;
 import nz.co.gregs.dbvolution.DBRow;
 import nz.co.gregs.dbvolution.annotations.*;
 import nz.co.gregs.dbvolution.datatypes.*;
@@ -75,6 +76,33 @@ public class DBBulkInsertTest extends AbstractTest {
 		Assert.assertThat(row2.pk.getValue(), is(2l));
 	}
 	
+	@Test
+	public void testSaveManyRowsInBatches() throws Exception {
+		database.preventDroppingOfTables(false);
+		database.dropTableNoExceptions(new BulkInsertBatchTestTable());
+		database.createTableNoExceptions(new BulkInsertBatchTestTable());
+		List<BulkInsertBatchTestTable> rows = new ArrayList<>();
+		for (int i = 0; i < 2500; i++) {
+			rows.add(new BulkInsertBatchTestTable(i, "Row " + i));
+		}
+		final int batchSize = database.getBatchSize();
+		try {
+			database.setBatchSize(7);
+			DBActionList result = database.insert(rows);
+			Assert.assertThat(result.size(), is(2500));
+		} finally {
+			database.setBatchSize(batchSize);
+		}
+		Assert.assertThat(database.getDBTable(new BulkInsertBatchTestTable()).setBlankQueryAllowed(true).count(), is(2500L));
+		Assert.assertThat(rows.get(2499).getDefined(), is(true));
+
+		BulkInsertBatchTestTable example = new BulkInsertBatchTestTable();
+		example.pk.permittedValues(1234);
+		final List<BulkInsertBatchTestTable> found = database.getDBTable(example).getAllRows();
+		Assert.assertThat(found.size(), is(1));
+		Assert.assertThat(found.get(0).string.getValue(), is("Row 1234"));
+	}
+
 	public static class BulkInsertTestTable extends DBRow {
 
 	private static final long serialVersionUID = 1L;
@@ -94,5 +122,25 @@ public class DBBulkInsertTest extends AbstractTest {
 			string.setValue(str);
 		}
 	}
-	
+
+	public static class BulkInsertBatchTestTable extends DBRow {
+
+		private static final long serialVersionUID = 1L;
+
+		@DBPrimaryKey
+		@DBColumn
+		DBInteger pk = new DBInteger();
+
+		@DBColumn
+		DBString string = new DBString();
+
+		public BulkInsertBatchTestTable() {
+		}
+
+		public BulkInsertBatchTestTable(int pk, String str) {
+			this.pk.setValue(pk);
+			string.setValue(str);
+		}
+	}
+
 }
@@ -15,6 +15,7 @@
  */
 package nz.co.gregs.dbvolution.actions;
 
+import java.util.ArrayList;
 import java.util.List;
 import nz.co.gregs.dbvolution.DBRow;
 import nz.co.gregs.dbvolution.annotations.*;
@@ -107,6 +108,65 @@ public class DBDeleteTest extends AbstractTest {
 		database.dropTableNoExceptions(row);
 	}
 
+	@Test
+	public void testDeleteManyRowsWithCompositePrimaryKey() throws Exception {
+		TestBulkDelete example = new TestBulkDelete();
+		database.preventDroppingOfTables(false);
+		database.dropTableNoExceptions(example);
+		database.createTable(example);
+
+		List<TestBulkDelete> rows = new ArrayList<>();
+		for (int i = 0; i < 1200; i++) {
+			rows.add(new TestBulkDelete(i / 10, i % 10, "Row " + i));
+		}
+		database.insert(rows);
+		Assert.assertThat(database.getCount(new TestBulkDelete()), is(1200L));
+
+		List<TestBulkDelete> deleteList = database.getDBTable(example).setBlankQueryAllowed(true).getAllRows().subList(0, 1100);
+		DBActionList actions = database.delete(deleteList);
+		Assert.assertThat(actions.size(), is(1100));
+		Assert.assertThat(actions.get(0), instanceOf(DBDeleteByPrimaryKey.class));
+		Assert.assertThat(database.getCount(new TestBulkDelete()), is(100L));
+
+		DBActionList reverts = actions.getRevertActionList();
+		Assert.assertThat(reverts.size(), is(1100));
+		Assert.assertThat(reverts.get(0), instanceOf(DBInsert.class));
+		reverts.execute(database);
+		Assert.assertThat(database.getCount(new TestBulkDelete()), is(1200L));
+
+		database.preventDroppingOfTables(false);
+		database.dropTableNoExceptions(example);
+	}
+
+	@Test
+	public void testDeleteManyRowsWithChangedPrimaryKeys() throws Exception {
+		TestBulkDelete example = new TestBulkDelete();
+		database.preventDroppingOfTables(false);
+		database.dropTableNoExceptions(example);
+		database.createTable(example);
+
+		List<TestBulkDelete> rows = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			rows.add(new TestBulkDelete(1, i, "Row " + i));
+		}
+		database.insert(rows);
+
+		example.groupID.permittedValues(1);
+		example.itemID.permittedRangeInclusive(0, 9);
+		List<TestBulkDelete> deleteList = database.getDBTable(example).getAllRows();
+		Assert.assertThat(deleteList.size(), is(10));
+		for (TestBulkDelete row : deleteList) {
+			row.itemID.setValue(row.itemID.getValue() + 100);
+		}
+		DBActionList actions = database.delete(deleteList);
+		Assert.assertThat(actions.size(), is(10));
+		Assert.assertThat(database.getCount(new TestBulkDelete()), is(10L));
+		Assert.assertThat(database.getDBTable(example).getAllRows().size(), is(0));
+
+		database.preventDroppingOfTables(false);
+		database.dropTableNoExceptions(example);
+	}
+
 	public static class TestDeleteThrowsExceptionOnBlankRow extends DBRow {
 
 		private static final long serialVersionUID = 1L;
@@ -133,4 +193,29 @@ public class DBDeleteTest extends AbstractTest {
 		public DBString name = new DBString();
 
 	}
+
+	public static class TestBulkDelete extends DBRow {
+
+		private static final long serialVersionUID = 1L;
+
+		@DBPrimaryKey
+		@DBColumn
+		public DBInteger groupID = new DBInteger();
+
+		@DBPrimaryKey
+		@DBColumn
+		public DBInteger itemID = new DBInteger();
+
+		@DBColumn
+		public DBString name = new DBString();
+
+		public TestBulkDelete() {
+		}
+
+		public TestBulkDelete(int groupID, int itemID, String name) {
+			this.groupID.setValue(groupID);
+			this.itemID.setValue(itemID);
+			this.name.setValue(name);
+		}
+	}
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 Gregory Graham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.actions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import nz.co.gregs.dbvolution.example.CarCompany;
+import nz.co.gregs.dbvolution.generic.AbstractTest;
+import static org.hamcrest.Matchers.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class DBInsertOrUpdateTest extends AbstractTest {
+
+	public DBInsertOrUpdateTest(Object testIterationName, Object db) {
+		super(testIterationName, db);
+	}
+
+	@Test
+	public void testInsertOrUpdateWithExistingAndNewRows() throws Exception {
+		List<CarCompany> rows = new ArrayList<>();
+		rows.add(new CarCompany("FORD MOTOR COMPANY", 2));
+		rows.add(new CarCompany("Lada", 126));
+		rows.add(new CarCompany("Saab", 127));
+
+		DBActionList result = database.getDBTable(new CarCompany()).insertOrUpdate(rows);
+		Assert.assertThat(result.size(), is(3));
+
+		CarCompany example = new CarCompany();
+		example.uidCarCompany.permittedValues(2, 126, 127);
+		List<CarCompany> found = database.getDBTable(example).getAllRows();
+		List<String> names = new ArrayList<>();
+		for (CarCompany carCompany : found) {
+			names.add(carCompany.name.getValue());
+		}
+		Assert.assertThat(names, containsInAnyOrder("FORD MOTOR COMPANY", "Lada", "Saab"));
+
+		Assert.assertThat(database.getDBTable(new CarCompany()).setBlankQueryAllowed(true).count(), is(6L));
+	}
+
+	@Test
+	public void testInsertOrUpdateRecordsInsertsAndUpdates() throws Exception {
+		List<CarCompany> rows = new ArrayList<>();
+		rows.add(new CarCompany("FORD MOTOR COMPANY", 2));
+		rows.add(new CarCompany("Lada", 126));
+		rows.add(new CarCompany("Saab", 127));
+
+		DBActionList result = database.getDBTable(new CarCompany()).insertOrUpdate(rows);
+		DBActionList inserts = new DBActionList();
+		int updates = 0;
+		for (DBAction action : result) {
+			if (action instanceof DBInsert) {
+				inserts.add(action);
+			} else if (action instanceof DBUpdate) {
+				updates++;
+			}
+		}
+		Assert.assertThat(inserts.size(), is(2));
+		Assert.assertThat(updates, is(1));
+		Assert.assertThat(database.getDBTable(new CarCompany()).setBlankQueryAllowed(true).count(), is(6L));
+
+		inserts.getRevertActionList().execute(database);
+		Assert.assertThat(database.getDBTable(new CarCompany()).setBlankQueryAllowed(true).count(), is(4L));
+	}
+
+	@Test
+	public void testInsertOrUpdateRecordsRepeatedKeyAsUpdate() throws Exception {
+		List<CarCompany> rows = new ArrayList<>();
+		rows.add(new CarCompany("Skoda", 128));
+		rows.add(new CarCompany("Skoda Auto", 128));
+
+		DBActionList result = database.getDBTable(new CarCompany()).insertOrUpdate(rows);
+		int inserts = 0;
+		int updates = 0;
+		for (DBAction action : result) {
+			if (action instanceof DBInsert) {
+				inserts++;
+			} else if (action instanceof DBUpdate) {
+				updates++;
+			}
+		}
+		Assert.assertThat(inserts, is(1));
+		Assert.assertThat(updates, is(1));
+
+		CarCompany example = new CarCompany();
+		example.uidCarCompany.permittedValues(128);
+		List<CarCompany> found = database.getDBTable(example).getAllRows();
+		Assert.assertThat(found.size(), is(1));
+		Assert.assertThat(found.get(0).name.getValue(), is("Skoda Auto"));
+	}
+
+	@Test
+	public void testInsertOrUpdateOfUnchangedRow() throws Exception {
+		CarCompany existing = new CarCompany("TOYOTA", 1);
+		database.insertOrUpdate(Arrays.asList(existing));
+
+		CarCompany example = new CarCompany();
+		example.uidCarCompany.permittedValues(1);
+		List<CarCompany> found = database.getDBTable(example).getAllRows();
+		Assert.assertThat(found.size(), is(1));
+		Assert.assertThat(found.get(0).name.getValue(), is("TOYOTA"));
+	}
+}
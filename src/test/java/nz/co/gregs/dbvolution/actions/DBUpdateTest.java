@@ -16,6 +16,7 @@
 package nz.co.gregs.dbvolution.actions;
 
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
 import nz.co.gregs.dbvolution.example.LinkCarCompanyAndLogo;
 import nz.co.gregs.dbvolution.example.Marque;
@@ -77,4 +78,28 @@ public class DBUpdateTest extends AbstractTest {
 		Assert.assertThat(foundLinks.size(), is(1));
 		database.delete(example);
 	}
+
+	@Test
+	public void updateCollectionInBatchesTest() throws SQLException {
+		Marque example = new Marque();
+		example.carCompany.permittedValues(4);
+		List<Marque> marques = database.get(example);
+		Assert.assertThat(marques.size(), greaterThan(1));
+
+		for (Marque marque : marques) {
+			marque.statusClassID.setValue(7);
+		}
+		DBActionList updateActions = database.update(marques);
+		Assert.assertThat(updateActions.size(), is(marques.size()));
+		for (DBAction action : updateActions) {
+			Assert.assertThat(action, instanceOf(DBUpdate.class));
+			Assert.assertThat(((DBUpdate) action).getUpdateCount(), isOneOf(1, Statement.SUCCESS_NO_INFO));
+		}
+
+		example.statusClassID.permittedValues(7);
+		Assert.assertThat(database.get(example).size(), is(marques.size()));
+
+		updateActions.getRevertActionList().execute(database);
+		Assert.assertThat(database.get(example).size(), is(0));
+	}
 }
@@ -19,6 +19,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import nz.co.gregs.dbvolution.DBQuery;
+import nz.co.gregs.dbvolution.DBQueryRow;
 import nz.co.gregs.dbvolution.example.CarCompany;
 import nz.co.gregs.dbvolution.example.Marque;
 import nz.co.gregs.dbvolution.generic.AbstractTest;
@@ -115,6 +116,24 @@ public class AutoFillDuringQueryIfPossibleTest extends AbstractTest {
 		}
 	}
 
+	@Test
+	public void testFillingListWithRepeatedParent() throws SQLException {
+		final FilledCarCoWithList testExample = new FilledCarCoWithList();
+		testExample.name.permittedValues("OTHER");
+		DBQuery query = database.getDBQuery(testExample, new Marque());
+		final List<DBQueryRow> allRows = query.getAllRows();
+		Assert.assertThat(allRows.size(), is(16));
+
+		List<FilledCarCoWithList> instances = query.getAllInstancesOf(testExample);
+		Assert.assertThat(instances.size(), is(1));
+		final FilledCarCoWithList instance = instances.get(0);
+		Assert.assertThat(instance.marques.size(), is(16));
+		for (DBQueryRow row : allRows) {
+			Assert.assertThat(row.get(testExample), sameInstance(instance));
+			Assert.assertThat(instance.marques, hasItem(sameInstance(row.get(new Marque()))));
+		}
+	}
+
 	public static class FilledMarque extends Marque {
 
 		private static final long serialVersionUID = 1L;
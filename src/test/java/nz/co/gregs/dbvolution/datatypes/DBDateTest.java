@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.datatypes;
+
+import java.sql.SQLException;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import nz.co.gregs.dbvolution.DBRow;
+import nz.co.gregs.dbvolution.annotations.DBAutoIncrement;
+import nz.co.gregs.dbvolution.annotations.DBColumn;
+import nz.co.gregs.dbvolution.annotations.DBPrimaryKey;
+import nz.co.gregs.dbvolution.generic.AbstractTest;
+import static org.hamcrest.Matchers.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class DBDateTest extends AbstractTest {
+
+	public DBDateTest(Object testIterationName, Object db) {
+		super(testIterationName, db);
+	}
+
+	@Test
+	public void testDateAndTimeRetrievedFromDatabase() throws SQLException {
+		final Date dateWithTime = new GregorianCalendar(2018, Calendar.MARCH, 14, 13, 45, 27).getTime();
+		DateTimeTest row = new DateTimeTest();
+		row.dateTime.setValue(dateWithTime);
+		database.preventDroppingOfTables(false);
+		database.dropTableNoExceptions(row);
+		database.createTable(row);
+		database.insert(row);
+
+		List<DateTimeTest> allRows = database.getDBTable(new DateTimeTest()).setBlankQueryAllowed(true).getAllRows();
+		Assert.assertThat(allRows.size(), is(1));
+		Assert.assertThat(allRows.get(0).dateTime.getValue(), is(dateWithTime));
+		database.preventDroppingOfTables(false);
+		database.dropTableNoExceptions(row);
+	}
+
+	public static class DateTimeTest extends DBRow {
+
+		private static final long serialVersionUID = 1L;
+		@DBColumn
+		@DBPrimaryKey
+		@DBAutoIncrement
+		DBInteger pk = new DBInteger();
+
+		@DBColumn
+		DBDate dateTime = new DBDate();
+	}
+
+}
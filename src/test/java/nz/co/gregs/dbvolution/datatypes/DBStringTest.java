@@ -21,7 +21,10 @@ import nz.co.gregs.dbvolution.example.Marque;
 import nz.co.gregs.dbvolution.generic.AbstractTest;
 import org.junit.Assert;
 import org.junit.Test;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 
 /**
  *
@@ -68,4 +71,31 @@ public class DBStringTest extends AbstractTest {
 
 	}
 
+	@Test
+	public void testCopyCopiesPreviousValue() {
+		DBString original = new DBString("first");
+		original.setValue("second");
+
+		DBString copy = original.copy();
+		Assert.assertThat(copy.stringValue(), is("second"));
+		Assert.assertThat(copy.hasChanged(), is(true));
+		Assert.assertThat(copy.getPreviousValueAsQDT().stringValue(), is("first"));
+		Assert.assertThat(copy.getPreviousValueAsQDT(), not(sameInstance(original.getPreviousValueAsQDT())));
+
+		copy.setValue("third");
+		Assert.assertThat(original.stringValue(), is("second"));
+	}
+
+	@Test
+	public void testShallowCopySharesPreviousValue() {
+		DBString original = new DBString("first");
+		original.setValue("second");
+
+		QueryableDatatype<String> copy = original.shallowCopy();
+		Assert.assertThat(copy, instanceOf(DBString.class));
+		Assert.assertThat(copy.stringValue(), is("second"));
+		Assert.assertThat(copy.hasChanged(), is(true));
+		Assert.assertThat(copy.getPreviousValueAsQDT(), sameInstance(original.getPreviousValueAsQDT()));
+	}
+
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.database;
+
+import static org.hamcrest.Matchers.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class ClusterMemberLeaseTest {
+
+	@Test
+	public void testLeaseIsOutstandingUntilClosedOnce() {
+		ClusterMemberLoad load = new ClusterMemberLoad();
+		ClusterMemberLease lease = new ClusterMemberLease(null, load);
+		Assert.assertThat(load.getOutstandingRequests(), is(1));
+
+		lease.succeeded();
+		Assert.assertThat(load.getOutstandingRequests(), is(1));
+		lease.close();
+		lease.close();
+		Assert.assertThat(load.getOutstandingRequests(), is(0));
+		Assert.assertThat(load.getCompletedRequests(), is(1L));
+		Assert.assertThat(load.getFailures(), is(0L));
+	}
+
+	@Test
+	public void testLeaseWithoutSuccessIsAFailure() {
+		ClusterMemberLoad load = new ClusterMemberLoad();
+		ClusterMemberLease lease = new ClusterMemberLease(null, load);
+		lease.responded();
+		lease.close();
+		Assert.assertThat(load.getOutstandingRequests(), is(0));
+		Assert.assertThat(load.getCompletedRequests(), is(0L));
+		Assert.assertThat(load.getFailures(), is(1L));
+		Assert.assertThat(load.hasLatency(), is(false));
+	}
+
+	@Test
+	public void testLatencyIsMeasuredToTheResponse() throws InterruptedException {
+		ClusterMemberLoad load = new ClusterMemberLoad();
+		ClusterMemberLease lease = new ClusterMemberLease(null, load);
+		lease.responded();
+		// reading the results slowly should not count against the database
+		Thread.sleep(200);
+		lease.succeeded();
+		lease.close();
+		Assert.assertThat(load.hasLatency(), is(true));
+		Assert.assertThat(load.getAverageLatencyMillis(), lessThan(200.0));
+	}
+}
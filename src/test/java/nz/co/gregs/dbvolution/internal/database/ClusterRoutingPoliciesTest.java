@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.database;
+
+import java.util.HashMap;
+import java.util.Map;
+import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.databases.H2DB;
+import static org.hamcrest.Matchers.*;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class ClusterRoutingPoliciesTest {
+
+	private DBDatabase fast;
+	private DBDatabase slow;
+	private DBDatabase[] candidates;
+	private ClusterMemberLoad fastLoad;
+	private ClusterMemberLoad slowLoad;
+	private ClusterMemberLoad[] loads;
+
+	@Before
+	public void setUp() {
+		fast = new UnconnectedDatabase();
+		slow = new UnconnectedDatabase();
+		candidates = new DBDatabase[]{fast, slow};
+		fastLoad = new ClusterMemberLoad();
+		slowLoad = new ClusterMemberLoad();
+		loads = new ClusterMemberLoad[]{fastLoad, slowLoad};
+	}
+
+	@After
+	public void tearDown() {
+		fast.stop();
+		slow.stop();
+	}
+
+	@Test
+	public void testLeastOutstandingRequestsAvoidsBusyDatabase() {
+		slowLoad.started();
+		slowLoad.started();
+		ClusterRoutingPolicy policy = ClusterRoutingPolicies.leastOutstandingRequests();
+		for (int i = 0; i < 20; i++) {
+			Assert.assertThat(policy.chooseDatabase(candidates, loads), sameInstance(fast));
+		}
+	}
+
+	@Test
+	public void testLowestLatencyPrefersFasterDatabase() {
+		ClusterRoutingPolicy policy = ClusterRoutingPolicies.lowestLatency();
+		fastLoad.finished(fastLoad.started() - 1000000L, true);
+		Assert.assertThat(policy.chooseDatabase(candidates, loads), sameInstance(slow));
+
+		slowLoad.finished(slowLoad.started() - 50000000L, true);
+		Assert.assertThat(slowLoad.getAverageLatencyMillis(), greaterThan(fastLoad.getAverageLatencyMillis()));
+		for (int i = 0; i < 20; i++) {
+			Assert.assertThat(policy.chooseDatabase(candidates, loads), sameInstance(fast));
+		}
+	}
+
+	@Test
+	public void testWeightedSkipsZeroWeight() {
+		Map<DBDatabase, Integer> weights = new HashMap<>();
+		weights.put(slow, 0);
+		ClusterRoutingPolicy policy = ClusterRoutingPolicies.weighted(weights);
+		for (int i = 0; i < 20; i++) {
+			Assert.assertThat(policy.chooseDatabase(candidates, loads), sameInstance(fast));
+		}
+	}
+
+	@Test
+	public void testPreferredDatabaseUsedWhileReady() {
+		ClusterRoutingPolicy policy = ClusterRoutingPolicies.preferred(slow);
+		fastLoad.started();
+		for (int i = 0; i < 20; i++) {
+			Assert.assertThat(policy.chooseDatabase(candidates, loads), sameInstance(slow));
+		}
+		Assert.assertThat(policy.chooseDatabase(new DBDatabase[]{fast}, new ClusterMemberLoad[]{fastLoad}), sameInstance(fast));
+	}
+
+	/**
+	 * The policies only compare the identities and loads of the databases, so
+	 * the candidates never need to connect.
+	 */
+	private static class UnconnectedDatabase extends H2DB {
+
+		private static final long serialVersionUID = 1L;
+
+		UnconnectedDatabase() {
+			super();
+		}
+	}
+}
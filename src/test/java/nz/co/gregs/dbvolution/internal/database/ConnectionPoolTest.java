@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import nz.co.gregs.dbvolution.databases.DatabaseConnectionSettings;
+import nz.co.gregs.dbvolution.exceptions.UnableToAcquireConnectionFromPoolException;
+import static org.hamcrest.Matchers.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class ConnectionPoolTest {
+
+	private static DatabaseConnectionSettings getSettings(int maximumSize) {
+		DatabaseConnectionSettings settings = new DatabaseConnectionSettings();
+		settings.setMaximumPoolSize(maximumSize);
+		settings.setConnectionAcquireTimeoutMillis(100);
+		return settings;
+	}
+
+	@Test
+	public void testReleasedConnectionIsReused() throws SQLException {
+		final CountingSource source = new CountingSource();
+		ConnectionPool pool = new ConnectionPool(source, getSettings(2));
+		Connection first = pool.acquire();
+		Assert.assertThat(pool.getBusyConnections(), is(1));
+		Assert.assertThat(pool.release(first), is(true));
+		Assert.assertThat(pool.release(first), is(true));
+		Assert.assertThat(pool.getBusyConnections(), is(0));
+		Assert.assertThat(pool.getIdleConnections(), is(1));
+
+		Connection second = pool.acquire();
+		Assert.assertThat(second, sameInstance(first));
+		Assert.assertThat(source.created.get(), is(1));
+		pool.close();
+		Assert.assertThat(second.isClosed(), is(true));
+	}
+
+	@Test
+	public void testFullPoolTimesOut() throws SQLException {
+		final CountingSource source = new CountingSource();
+		ConnectionPool pool = new ConnectionPool(source, getSettings(2));
+		Connection first = pool.acquire();
+		Connection second = pool.acquire();
+		try {
+			pool.acquire();
+			Assert.fail("The pool should be full");
+		} catch (UnableToAcquireConnectionFromPoolException expected) {
+		}
+		Assert.assertThat(source.created.get(), is(2));
+
+		Assert.assertThat(pool.remove(second), is(true));
+		second.close();
+		Connection third = pool.acquire();
+		Assert.assertThat(third, not(sameInstance(second)));
+		Assert.assertThat(pool.getTotalConnections(), is(2));
+		pool.release(first);
+		pool.release(third);
+		pool.close();
+		Assert.assertThat(pool.getTotalConnections(), is(0));
+	}
+
+	@Test
+	public void testClosedConnectionIsNotReused() throws SQLException {
+		final CountingSource source = new CountingSource();
+		ConnectionPool pool = new ConnectionPool(source, getSettings(2));
+		Connection first = pool.acquire();
+		first.close();
+		pool.release(first);
+		Assert.assertThat(pool.getTotalConnections(), is(0));
+		Connection second = pool.acquire();
+		Assert.assertThat(second, not(sameInstance(first)));
+		pool.close();
+	}
+
+	@Test
+	public void testWarmUpOpensIdleConnections() throws SQLException {
+		final CountingSource source = new CountingSource();
+		ConnectionPool pool = new ConnectionPool(source, getSettings(4));
+		Assert.assertThat(pool.warmUp(3), is(3));
+		Assert.assertThat(pool.getIdleConnections(), is(3));
+		Assert.assertThat(pool.getBusyConnections(), is(0));
+		Assert.assertThat(pool.warmUp(3), is(0));
+		Assert.assertThat(pool.warmUp(10), is(1));
+		Assert.assertThat(source.created.get(), is(4));
+
+		Connection connection = pool.acquire();
+		Assert.assertThat(source.created.get(), is(4));
+		pool.release(connection);
+		pool.close();
+		Assert.assertThat(pool.getTotalConnections(), is(0));
+	}
+
+	@Test
+	public void testStatisticsRecordPoolActivity() throws SQLException {
+		final CountingSource source = new CountingSource();
+		ConnectionPool pool = new ConnectionPool(source, getSettings(1));
+		Connection first = pool.acquire();
+		try {
+			pool.acquire();
+			Assert.fail("The pool should be full");
+		} catch (UnableToAcquireConnectionFromPoolException expected) {
+		}
+		pool.release(first);
+		pool.release(pool.acquire());
+
+		ConnectionPool.Statistics statistics = pool.getStatistics();
+		Assert.assertThat(statistics.getAcquisitions(), is(2L));
+		Assert.assertThat(statistics.getAcquireTimeouts(), is(1L));
+		Assert.assertThat(statistics.getConnectionsCreated(), is(1L));
+		long histogramTotal = 0;
+		for (long count : statistics.getAcquireWaitHistogram()) {
+			histogramTotal += count;
+		}
+		Assert.assertThat(histogramTotal, is(2L));
+
+		pool.close();
+		Assert.assertThat(statistics.getConnectionsClosed(), is(1L));
+	}
+
+	private static class CountingSource implements ConnectionPool.ConnectionSource {
+
+		private final AtomicInteger created = new AtomicInteger(0);
+
+		@Override
+		public Connection createConnection() throws SQLException {
+			created.incrementAndGet();
+			return DriverManager.getConnection("jdbc:h2:mem:ConnectionPoolTest", "", "");
+		}
+
+		@Override
+		public void closeConnection(Connection connection) {
+			try {
+				connection.close();
+			} catch (SQLException ex) {
+			}
+		}
+	}
+}
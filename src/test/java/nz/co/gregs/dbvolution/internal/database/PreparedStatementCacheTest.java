@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 gregorygraham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import static org.hamcrest.Matchers.*;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author gregorygraham
+ */
+public class PreparedStatementCacheTest {
+
+	private Connection connection;
+
+	@Before
+	public void setUp() throws SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:PreparedStatementCacheTest", "", "");
+	}
+
+	@After
+	public void tearDown() throws SQLException {
+		connection.close();
+	}
+
+	@Test
+	public void testStatementInUseIsNotHandedOutAgain() throws SQLException {
+		final PreparedStatementCache.Statistics statistics = new PreparedStatementCache.Statistics();
+		PreparedStatementCache cache = new PreparedStatementCache(connection, 2, statistics);
+		PreparedStatement first = cache.getPreparedStatement("select 1");
+		Assert.assertThat(first, notNullValue());
+		Assert.assertThat(cache.getPreparedStatement("select 1"), nullValue());
+
+		cache.release(first);
+		Assert.assertThat(cache.getPreparedStatement("select 1"), sameInstance(first));
+		Assert.assertThat(statistics.getHits(), is(1L));
+		Assert.assertThat(statistics.getMisses(), is(2L));
+		cache.close();
+		Assert.assertThat(first.isClosed(), is(true));
+	}
+
+	@Test
+	public void testEvictedStatementInUseIsClosedWhenReleased() throws SQLException {
+		final PreparedStatementCache.Statistics statistics = new PreparedStatementCache.Statistics();
+		PreparedStatementCache cache = new PreparedStatementCache(connection, 1, statistics);
+		PreparedStatement first = cache.getPreparedStatement("select 1");
+		PreparedStatement second = cache.getPreparedStatement("select 2");
+		Assert.assertThat(statistics.getEvictions(), is(1L));
+		Assert.assertThat(cache.size(), is(1));
+		Assert.assertThat(first.isClosed(), is(false));
+
+		cache.release(first);
+		Assert.assertThat(first.isClosed(), is(true));
+		cache.release(second);
+		Assert.assertThat(second.isClosed(), is(false));
+		cache.close();
+		Assert.assertThat(second.isClosed(), is(true));
+	}
+}
@@ -1,6 +1,7 @@
 package nz.co.gregs.dbvolution.internal.properties;
 
 import java.sql.SQLException;
+import java.util.List;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 import nz.co.gregs.dbvolution.DBRow;
@@ -71,6 +72,39 @@ public class DBRowClassWrapperTest {
 //		assertThat(classWrapper.primaryKey().get(0).getColumnName(), is("uid_2"));
 //		assertThat(classWrapper.primaryKey().get(1).getColumnName(), is("type"));
 //	}
+	@Test
+	public void createsNewInstances() throws ReflectiveOperationException {
+		RowDefinitionClassWrapper classWrapper = new RowDefinitionClassWrapper(MyTable1.class);
+		Object first = classWrapper.newInstance();
+		Object second = classWrapper.newInstance();
+		assertThat(first, instanceOf(MyTable1.class));
+		assertThat(second, instanceOf(MyTable1.class));
+		assertThat(first, not(sameInstance(second)));
+		assertThat(((MyTable1) first).uid.isNull(), is(true));
+	}
+
+	@Test
+	public void instanceWrapperBuildsPropertyListsFromColumnProperties() {
+		RowDefinitionClassWrapper classWrapper = new RowDefinitionClassWrapper(MyTable1.class);
+		MyTable1 row = new MyTable1();
+		RowDefinitionInstanceWrapper instanceWrapper = classWrapper.instanceWrapperFor(row);
+
+		List<PropertyWrapper> columns = instanceWrapper.getColumnPropertyWrappers();
+		assertThat(columns.size(), is(3));
+		assertThat(instanceWrapper.getColumnPropertyWrappers(), sameInstance(columns));
+
+		List<PropertyWrapper> primaryKeys = instanceWrapper.getPrimaryKeysPropertyWrappers();
+		assertThat(primaryKeys.size(), is(1));
+		assertThat(primaryKeys.get(0), sameInstance(columns.get(0)));
+		assertThat(primaryKeys.get(0).rawJavaValue(), sameInstance((Object) row.uid));
+
+		List<PropertyWrapper> foreignKeys = instanceWrapper.getForeignKeyPropertyWrappers();
+		assertThat(foreignKeys.size(), is(1));
+		assertThat(foreignKeys.get(0).rawJavaValue(), sameInstance((Object) row.fkTable2));
+		assertThat(instanceWrapper.getRecursiveForeignKeyPropertyWrappers().isEmpty(), is(true));
+		assertThat(instanceWrapper.getAutoFillingPropertyWrappers().isEmpty(), is(true));
+	}
+
 	@Test
 	public void getsProperties() {
 		RowDefinitionClassWrapper classAdaptor = new RowDefinitionClassWrapper(MyTable1.class);
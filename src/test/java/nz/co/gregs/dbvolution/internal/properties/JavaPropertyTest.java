@@ -14,6 +14,7 @@ import nz.co.gregs.dbvolution.datatypes.DBInteger;
 import nz.co.gregs.dbvolution.datatypes.DBString;
 import nz.co.gregs.dbvolution.datatypes.DBTypeAdaptor;
 import nz.co.gregs.dbvolution.exceptions.DBThrownByEndUserCodeException;
+import nz.co.gregs.dbvolution.exceptions.FailedToSetPropertyValueOnRowDefinition;
 import nz.co.gregs.dbvolution.exceptions.ReferenceToUndefinedPrimaryKeyException;
 import nz.co.gregs.dbvolution.internal.properties.JavaPropertyFinder.PropertyType;
 import nz.co.gregs.dbvolution.internal.properties.JavaPropertyFinder.Visibility;
@@ -284,6 +285,26 @@ public class JavaPropertyTest {
 		assertThat(obj.getPublicProperty(), is("hello"));
 	}
 
+	@Test(expected = FailedToSetPropertyValueOnRowDefinition.class)
+	public void rejectsReadingFieldOfWrongObject() {
+		JavaProperty property = propertyOf(SimpleIndependentFieldsAndPropertiesClass.class, "publicField");
+		property.get(new SimpleStandardBeanClass());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsWritingWrongTypeToField() {
+		SimpleIndependentFieldsAndPropertiesClass obj = new SimpleIndependentFieldsAndPropertiesClass();
+		JavaProperty property = propertyOf(obj, "publicField");
+		property.set(obj, 23);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsWritingWrongTypeToBeanProperty() {
+		SimpleIndependentFieldsAndPropertiesClass obj = new SimpleIndependentFieldsAndPropertiesClass();
+		JavaProperty property = propertyOf(obj, "publicProperty");
+		property.set(obj, 23);
+	}
+
 	@Test(expected = DBThrownByEndUserCodeException.class)
 	public void handlesUserExceptionWhenReadingBeanProperty() {
 		class TestClass {
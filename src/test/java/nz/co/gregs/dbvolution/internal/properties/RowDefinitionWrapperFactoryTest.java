@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 Gregory Graham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.properties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import nz.co.gregs.dbvolution.example.CarCompany;
+import nz.co.gregs.dbvolution.example.Marque;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class RowDefinitionWrapperFactoryTest {
+
+	@Test
+	public void returnsTheSameClassWrapperForEachClass() {
+		RowDefinitionWrapperFactory factory = new RowDefinitionWrapperFactory();
+		RowDefinitionClassWrapper marqueWrapper = factory.classWrapperFor(Marque.class);
+		assertThat(factory.classWrapperFor(Marque.class), sameInstance(marqueWrapper));
+		assertThat(factory.classWrapperFor(CarCompany.class), not(sameInstance(marqueWrapper)));
+		assertThat(factory.instanceWrapperFor(new Marque()).getClassWrapper(), sameInstance(marqueWrapper));
+	}
+
+	@Test
+	public void createsOneClassWrapperWhenUsedConcurrently() throws Exception {
+		final RowDefinitionWrapperFactory factory = new RowDefinitionWrapperFactory();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<RowDefinitionClassWrapper>> futures = new ArrayList<>();
+			for (int i = 0; i < 64; i++) {
+				futures.add(executor.submit(new Callable<RowDefinitionClassWrapper>() {
+					@Override
+					public RowDefinitionClassWrapper call() throws Exception {
+						return factory.classWrapperFor(Marque.class);
+					}
+				}));
+			}
+			RowDefinitionClassWrapper first = futures.get(0).get();
+			for (Future<RowDefinitionClassWrapper> future : futures) {
+				assertThat(future.get(), sameInstance(first));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 Gregory Graham.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nz.co.gregs.dbvolution.internal.query;
+
+import nz.co.gregs.dbvolution.actions.DBDeleteTest.TestBulkDelete;
+import nz.co.gregs.dbvolution.databases.definitions.DBDefinition;
+import nz.co.gregs.dbvolution.databases.definitions.H2DBDefinition;
+import nz.co.gregs.dbvolution.example.Marque;
+import static org.hamcrest.Matchers.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * <p style="color: #F90;">Support DBvolution at
+ * <a href="http://patreon.com/dbvolution" target=new>Patreon</a></p>
+ *
+ * @author Gregory Graham
+ */
+public class InstanceKeyTest {
+
+	private final DBDefinition defn = new H2DBDefinition();
+
+	@Test
+	public void testSingleIntegerKey() {
+		Marque first = new Marque();
+		first.uidMarque.setValue(4896300);
+		Marque second = new Marque();
+		second.uidMarque.setValue(4896300);
+		second.name.setValue("HYUNDAI");
+		Marque third = new Marque();
+		third.uidMarque.setValue(1);
+
+		InstanceKey key = InstanceKey.forRow(defn, first);
+		Assert.assertThat(key, is(InstanceKey.forRow(defn, second)));
+		Assert.assertThat(key.hashCode(), is(InstanceKey.forRow(defn, second).hashCode()));
+		Assert.assertThat(key, not(InstanceKey.forRow(defn, third)));
+	}
+
+	@Test
+	public void testNullKey() {
+		Marque first = new Marque();
+		first.uidMarque.setValue((Long) null);
+		Marque second = new Marque();
+		second.uidMarque.setValue((Long) null);
+		Marque third = new Marque();
+		third.uidMarque.setValue(0);
+
+		Assert.assertThat(InstanceKey.forRow(defn, first), is(InstanceKey.forRow(defn, second)));
+		Assert.assertThat(InstanceKey.forRow(defn, first), not(InstanceKey.forRow(defn, third)));
+	}
+
+	@Test
+	public void testCompositeKey() {
+		InstanceKey key = InstanceKey.forRow(defn, new TestBulkDelete(1, 2, "first"));
+		Assert.assertThat(key, is(InstanceKey.forRow(defn, new TestBulkDelete(1, 2, "second"))));
+		Assert.assertThat(key, not(InstanceKey.forRow(defn, new TestBulkDelete(2, 1, "first"))));
+		Assert.assertThat(key, not(InstanceKey.forRow(defn, new TestBulkDelete(1, 3, "first"))));
+	}
+}
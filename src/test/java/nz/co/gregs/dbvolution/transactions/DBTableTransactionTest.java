@@ -19,12 +19,20 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import nz.co.gregs.dbvolution.DBTable;
 import nz.co.gregs.dbvolution.databases.DBDatabase;
+import nz.co.gregs.dbvolution.databases.DBDatabaseCluster;
 import nz.co.gregs.dbvolution.example.Marque;
 import nz.co.gregs.dbvolution.exceptions.ExceptionThrownDuringTransaction;
 import nz.co.gregs.dbvolution.generic.AbstractTest;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
 /**
@@ -107,4 +115,69 @@ public class DBTableTransactionTest extends AbstractTest {
 		Assert.assertTrue("Length of list after insert should be the same as the original", added.size() == original.size());
 
 	}
+
+	@Test
+	public void testNestedReadOnlyTransactionIsRolledBack() throws SQLException, Exception {
+		final int originalSize = marquesTable.setBlankQueryAllowed(true).getAllRows().size();
+		final Integer sizeAfterNestedTransaction = database.doTransaction(new DBTransaction<Integer>() {
+			@Override
+			public Integer doTransaction(DBDatabase dbDatabase) throws ExceptionThrownDuringTransaction {
+				try {
+					final DBTable<Marque> marques = DBTable.getInstance(dbDatabase, new Marque()).setBlankQueryAllowed(true);
+					marques.insert(new Marque(999, "False", 1246974, "", 3, "UV", "TVR", "", "Y", new Date(), 4, null));
+					dbDatabase.doReadOnlyTransaction(new DBTransaction<Void>() {
+						@Override
+						public Void doTransaction(DBDatabase nestedDatabase) throws ExceptionThrownDuringTransaction {
+							try {
+								DBTable.getInstance(nestedDatabase, new Marque()).insert(new Marque(998, "False", 1246974, "", 3, "UV", "LOTUS", "", "Y", new Date(), 4, null));
+							} catch (SQLException ex) {
+								throw new ExceptionThrownDuringTransaction(ex);
+							}
+							return null;
+						}
+					});
+					return marques.getAllRows().size();
+				} catch (SQLException ex) {
+					throw new ExceptionThrownDuringTransaction(ex);
+				}
+			}
+		}, true);
+		Assert.assertEquals("Only the nested transaction's row should be rolled back", originalSize + 1, sizeAfterNestedTransaction.intValue());
+		Assert.assertEquals("The enclosing transaction's row should be committed", originalSize + 1, marquesTable.getAllRows().size());
+	}
+
+	@Test
+	public void testTransactionsRunConcurrently() throws Exception {
+		Assume.assumeFalse(database instanceof DBDatabaseCluster);
+		final CountDownLatch bothStarted = new CountDownLatch(2);
+		final DBTransaction<Boolean> waitForOtherTransaction = new DBTransaction<Boolean>() {
+			@Override
+			public Boolean doTransaction(DBDatabase dbDatabase) throws ExceptionThrownDuringTransaction {
+				try {
+					DBTable.getInstance(dbDatabase, new Marque()).setBlankQueryAllowed(true).getAllRows();
+					bothStarted.countDown();
+					return bothStarted.await(10, TimeUnit.SECONDS);
+				} catch (SQLException | InterruptedException ex) {
+					throw new ExceptionThrownDuringTransaction(ex);
+				}
+			}
+		};
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Boolean> other = executor.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws Exception {
+					return database.doTransaction(waitForOtherTransaction, false);
+				}
+			});
+			Boolean thisTransactionSawOther = database.doTransaction(waitForOtherTransaction, false);
+			Assert.assertTrue("Transactions should not wait for each other", thisTransactionSawOther);
+			Assert.assertTrue("Transactions should not wait for each other", other.get(20, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+
+		List<Marque> rows = marquesTable.setBlankQueryAllowed(true).getAllRows();
+		Assert.assertTrue("The database should be usable after concurrent transactions", rows.size() > 0);
+	}
 }